@@ -0,0 +1,106 @@
+package com.example.onlyfanshop_be;
+
+import com.example.onlyfanshop_be.entity.Brand;
+import com.example.onlyfanshop_be.entity.Category;
+import com.example.onlyfanshop_be.entity.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Seeded generators for benchmark inputs, shaped like the production catalog: Vietnamese product
+ * names with diacritics, a skewed brand distribution (a few brands own most products) and
+ * VNPay parameter maps as built by PaymentService.
+ */
+public final class SyntheticData {
+    private static final String[] TYPES = {"Quạt đứng", "Quạt trần", "Quạt treo tường", "Quạt hộp", "Quạt điều hòa", "Quạt tháp"};
+    private static final String[] BRANDS = {"Panasonic", "Senko", "Asia Vina", "Mitsubishi", "KDK", "Toshiba", "Lifan", "Điện Quang"};
+    private static final String[] TRAITS = {"tiết kiệm điện", "có điều khiển từ xa", "chế độ gió tự nhiên", "hẹn giờ tắt", "đảo chiều 360°", "siêu êm"};
+    private static final String[] CATEGORIES = {"Quạt gia đình", "Quạt công nghiệp", "Quạt mini", "Phụ kiện"};
+
+    private SyntheticData() {
+    }
+
+    public static String productName(Random random) {
+        return TYPES[random.nextInt(TYPES.length)] + " " + BRANDS[random.nextInt(BRANDS.length)]
+                + " " + (100 + random.nextInt(900)) + "W – " + TRAITS[random.nextInt(TRAITS.length)];
+    }
+
+    public static List<String> productNames(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(productName(random));
+        }
+        return names;
+    }
+
+    public static List<Brand> brands() {
+        List<Brand> brands = new ArrayList<>(BRANDS.length);
+        for (int i = 0; i < BRANDS.length; i++) {
+            brands.add(Brand.builder().id(i + 1).name(BRANDS[i]).logoUrl("https://cdn.example.com/brands/" + (i + 1) + ".png").build());
+        }
+        return brands;
+    }
+
+    public static List<Category> categories() {
+        List<Category> categories = new ArrayList<>(CATEGORIES.length);
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            categories.add(Category.builder().id(i + 1).name(CATEGORIES[i]).build());
+        }
+        return categories;
+    }
+
+    /**
+     * Active products with brand and category attached. Brand ids follow a squared distribution,
+     * so low ids get most of the products, as in the real catalog.
+     */
+    public static List<Product> products(int count, long seed) {
+        Random random = new Random(seed);
+        List<Brand> brands = brands();
+        List<Category> categories = categories();
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double r = random.nextDouble();
+            Brand brand = brands.get((int) (r * r * brands.size()));
+            Category category = categories.get(random.nextInt(categories.size()));
+            products.add(Product.builder()
+                    .id((long) i + 1)
+                    .name(productName(random))
+                    .slug("product-" + (i + 1))
+                    .brandId(brand.getId())
+                    .brand(brand)
+                    .categoryId(category.getId())
+                    .category(category)
+                    .shortDescription("Công suất mạnh, vận hành êm ái, phù hợp phòng khách và phòng ngủ.")
+                    .basePrice(BigDecimal.valueOf(300_000 + random.nextInt(5_000_000)))
+                    .build());
+        }
+        return products;
+    }
+
+    /**
+     * The parameters PaymentService signs for a VNPay payment URL.
+     */
+    public static Map<String, String> vnPayParams(Random random) {
+        Map<String, String> params = new TreeMap<>();
+        params.put("vnp_Version", "2.1.0");
+        params.put("vnp_Command", "pay");
+        params.put("vnp_TmnCode", "ONLYFAN1");
+        params.put("vnp_Amount", String.valueOf((300_000L + random.nextInt(5_000_000)) * 100));
+        params.put("vnp_CurrCode", "VND");
+        params.put("vnp_TxnRef", String.valueOf(10_000_000 + random.nextInt(90_000_000)));
+        params.put("vnp_OrderInfo", "Thanh toan don hang:" + random.nextInt(1_000_000));
+        params.put("vnp_OrderType", "other");
+        params.put("vnp_Locale", "vn");
+        params.put("vnp_ReturnUrl", "https://onlyfanshop.example.com/payment/public/vn-pay-callback");
+        params.put("vnp_IpAddr", "113.161." + random.nextInt(256) + "." + random.nextInt(256));
+        params.put("vnp_CreateDate", "20261019" + String.format("%06d", random.nextInt(240000)));
+        params.put("vnp_ExpireDate", "20261019" + String.format("%06d", random.nextInt(240000)));
+        return params;
+    }
+}
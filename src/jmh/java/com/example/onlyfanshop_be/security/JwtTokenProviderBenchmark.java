@@ -0,0 +1,45 @@
+package com.example.onlyfanshop_be.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT work: the signature check in validateToken and building the principal from
+ * the claims, which JwtAuthenticationFilter does on every authenticated request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "JWT_SECRET", "benchmark-secret-key-of-at-least-256-bits-0123456789");
+        tokenProvider.accessTtlMinutes = 30;
+        tokenProvider.refreshTtlDays = 7;
+        token = tokenProvider.generateAccessToken("customer@example.com", 4242L, null, "customer", 3);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public AuthenticatedUser getPrincipalFromJWT() {
+        return tokenProvider.getPrincipalFromJWT(token);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return tokenProvider.generateAccessToken("customer@example.com", 4242L, null, "customer", 3);
+    }
+}
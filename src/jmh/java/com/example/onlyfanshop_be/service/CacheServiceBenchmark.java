@@ -0,0 +1,47 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.SyntheticData;
+import com.example.onlyfanshop_be.repository.BrandRepository;
+import com.example.onlyfanshop_be.repository.CategoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheService reads under contention: 8 threads hitting the warm category and brand caches,
+ * which is the path every homepage request takes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class CacheServiceBenchmark {
+    private CacheService cacheService;
+
+    @Setup
+    public void setup() {
+        CategoryRepository categoryRepository = Mockito.mock(CategoryRepository.class);
+        BrandRepository brandRepository = Mockito.mock(BrandRepository.class);
+        Mockito.when(categoryRepository.findAll()).thenReturn(SyntheticData.categories());
+        Mockito.when(brandRepository.findAll()).thenReturn(SyntheticData.brands());
+
+        cacheService = new CacheService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cacheService, "categoryRepository", categoryRepository);
+        ReflectionTestUtils.setField(cacheService, "brandRepository", brandRepository);
+        cacheService.getCategories();
+        cacheService.getBrands();
+    }
+
+    @Benchmark
+    public void categoriesAndBrands(Blackhole blackhole) {
+        blackhole.consume(cacheService.getCategories());
+        blackhole.consume(cacheService.getBrands());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.SyntheticData;
+import com.example.onlyfanshop_be.dto.Pagination;
+import com.example.onlyfanshop_be.dto.ProductDTO;
+import com.example.onlyfanshop_be.dto.response.ApiResponse;
+import com.example.onlyfanshop_be.dto.response.HomepageResponse;
+import com.example.onlyfanshop_be.entity.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The in-memory parts of the homepage request: brand interleaving of the filtered product list,
+ * mapping a page of products to summary DTOs, and serializing the assembled HomepageResponse.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"200", "2000"})
+    public int catalogSize;
+
+    private List<Product> products;
+    private List<Product> page;
+    private Map<Long, ProductService.MainImage> mainImages;
+    private HomepageResponse homepage;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() {
+        products = SyntheticData.products(catalogSize, 42);
+        page = products.subList(0, PAGE_SIZE);
+        mainImages = new HashMap<>();
+        for (Product product : page) {
+            String base = "https://res.cloudinary.com/demo/image/upload/";
+            mainImages.put(product.getId(), new ProductService.MainImage(
+                    base + "products/" + product.getId() + ".jpg",
+                    base + "w_160/products/" + product.getId() + ".jpg",
+                    base + "w_160/products/" + product.getId() + ".jpg 160w, "
+                            + base + "w_480/products/" + product.getId() + ".jpg 480w, "
+                            + base + "w_1080/products/" + product.getId() + ".jpg 1080w"));
+        }
+        homepage = buildHomepage();
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    }
+
+    @Benchmark
+    public List<Product> interleaveByBrand() {
+        return ProductService.interleaveByBrand(products);
+    }
+
+    @Benchmark
+    public HomepageResponse mapHomepage() {
+        return buildHomepage();
+    }
+
+    @Benchmark
+    public byte[] serializeHomepage() throws Exception {
+        return objectMapper.writeValueAsBytes(ApiResponse.<HomepageResponse>builder()
+                .statusCode(200)
+                .message("OK")
+                .data(homepage)
+                .build());
+    }
+
+    private HomepageResponse buildHomepage() {
+        List<ProductDTO> dtos = new ArrayList<>(page.size());
+        for (Product product : page) {
+            dtos.add(ProductService.toSummary(product, mainImages.get(product.getId())));
+        }
+        return HomepageResponse.builder()
+                .products(dtos)
+                .bestSellers(dtos.subList(0, 8))
+                .newProducts(dtos.subList(8, 16))
+                .pagination(Pagination.builder()
+                        .page(1)
+                        .size(PAGE_SIZE)
+                        .totalElements((long) products.size())
+                        .totalPages((products.size() + PAGE_SIZE - 1) / PAGE_SIZE)
+                        .build())
+                .build();
+    }
+}
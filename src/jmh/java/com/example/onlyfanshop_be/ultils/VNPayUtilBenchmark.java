@@ -0,0 +1,48 @@
+package com.example.onlyfanshop_be.ultils;
+
+import com.example.onlyfanshop_be.SyntheticData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing a VNPay payment request: building the hash data / query string and the HMAC-SHA512
+ * over it, as PaymentService does for every checkout.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VNPayUtilBenchmark {
+    private static final String SECRET_KEY = "BENCHMARKSECRETKEY0123456789ABCD";
+
+    private Map<String, String> params;
+    private String hashData;
+
+    @Setup
+    public void setup() {
+        params = SyntheticData.vnPayParams(new Random(42));
+        hashData = VNPayUtil.getPaymentURL(params, false);
+    }
+
+    @Benchmark
+    public String hmacSHA512() {
+        return VNPayUtil.hmacSHA512(SECRET_KEY, hashData);
+    }
+
+    @Benchmark
+    public String getPaymentURL() {
+        return VNPayUtil.getPaymentURL(params, true);
+    }
+
+    @Benchmark
+    public String signedPaymentURL() {
+        String queryUrl = VNPayUtil.getPaymentURL(params, true);
+        String secureHash = VNPayUtil.hmacSHA512(SECRET_KEY, VNPayUtil.getPaymentURL(params, false));
+        return queryUrl + "&vnp_SecureHash=" + secureHash;
+    }
+}
@@ -0,0 +1,382 @@
+package com.example.onlyfanshop_be.loadtest;
+
+import com.example.onlyfanshop_be.entity.Brand;
+import com.example.onlyfanshop_be.entity.Category;
+import com.example.onlyfanshop_be.entity.ChatMessage;
+import com.example.onlyfanshop_be.entity.Order;
+import com.example.onlyfanshop_be.entity.OrderItem;
+import com.example.onlyfanshop_be.entity.Product;
+import com.example.onlyfanshop_be.entity.ProductImage;
+import com.example.onlyfanshop_be.entity.Role;
+import com.example.onlyfanshop_be.entity.StoreInventory;
+import com.example.onlyfanshop_be.entity.StoreLocation;
+import com.example.onlyfanshop_be.entity.User;
+import com.example.onlyfanshop_be.entity.Warehouse;
+import com.example.onlyfanshop_be.enums.CategoryType;
+import com.example.onlyfanshop_be.enums.OrderStatus;
+import com.example.onlyfanshop_be.enums.PaymentMethod;
+import com.example.onlyfanshop_be.enums.PaymentStatus;
+import com.example.onlyfanshop_be.enums.ProductStatus;
+import com.example.onlyfanshop_be.enums.StoreStatus;
+import com.example.onlyfanshop_be.enums.UserStatus;
+import com.example.onlyfanshop_be.enums.WarehouseType;
+import com.example.onlyfanshop_be.repository.BrandRepository;
+import com.example.onlyfanshop_be.repository.CategoryRepository;
+import com.example.onlyfanshop_be.repository.ChatMessageRepository;
+import com.example.onlyfanshop_be.repository.OrderItemRepository;
+import com.example.onlyfanshop_be.repository.OrderRepository;
+import com.example.onlyfanshop_be.repository.ProductImageRepository;
+import com.example.onlyfanshop_be.repository.ProductRepository;
+import com.example.onlyfanshop_be.repository.RoleRepository;
+import com.example.onlyfanshop_be.repository.StoreInventoryRepository;
+import com.example.onlyfanshop_be.repository.StoreLocationRepository;
+import com.example.onlyfanshop_be.repository.UserRepository;
+import com.example.onlyfanshop_be.repository.WarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic dataset for the load test profile: brands, a category tree, products with main
+ * images and store stock, stores with their warehouses, customers, past orders and chat history.
+ * Sizes come from loadtest.seed.*; the generator is seeded, so every run sees the same data.
+ * Customers are loadtest-{n}@example.com with password loadtest.seed.password; the admin is
+ * loadtest-admin@example.com.
+ */
+@Component
+@Profile("loadtest")
+@org.springframework.core.annotation.Order(3) // After RoleSeeder and AdminSeeder
+@RequiredArgsConstructor
+@Slf4j
+public class LoadTestDataSeeder implements CommandLineRunner {
+    private static final String[] BRANDS = {"Panasonic", "Senko", "Asia Vina", "Mitsubishi", "KDK", "Toshiba", "Lifan", "Điện Quang",
+            "Sharp", "Hitachi", "Midea", "Sunhouse"};
+    private static final String[] TYPES = {"Quạt đứng", "Quạt trần", "Quạt treo tường", "Quạt hộp", "Quạt điều hòa", "Quạt tháp"};
+    private static final String[] CITIES = {"Hà Nội", "Hồ Chí Minh", "Đà Nẵng", "Cần Thơ", "Hải Phòng"};
+    private static final int BATCH = 500;
+
+    private final RoleRepository roleRepository;
+    private final UserRepository userRepository;
+    private final BrandRepository brandRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final StoreLocationRepository storeLocationRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final StoreInventoryRepository storeInventoryRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ChatMessageRepository chatMessageRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${loadtest.seed.products:2000}")
+    private int productCount;
+    @Value("${loadtest.seed.brands:12}")
+    private int brandCount;
+    @Value("${loadtest.seed.root-categories:4}")
+    private int rootCategories;
+    @Value("${loadtest.seed.subcategories:5}")
+    private int subcategoriesPerRoot;
+    @Value("${loadtest.seed.stores:10}")
+    private int storeCount;
+    @Value("${loadtest.seed.users:500}")
+    private int userCount;
+    @Value("${loadtest.seed.orders:5000}")
+    private int orderCount;
+    @Value("${loadtest.seed.chat-messages:5000}")
+    private int chatMessageCount;
+    @Value("${loadtest.seed.password:loadtest}")
+    private String password;
+    @Value("${loadtest.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Override
+    public void run(String... args) {
+        if (productRepository.count() > 0) {
+            log.info("LoadTestDataSeeder: catalog already present, skipping");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Random random = new Random(randomSeed);
+
+        List<Brand> brands = seedBrands();
+        List<Category> leafCategories = seedCategories();
+        List<StoreLocation> stores = seedStores(random);
+        List<Product> products = seedProducts(random, brands, leafCategories);
+        seedImagesAndStock(random, products, stores);
+        User admin = seedAdmin();
+        List<User> customers = seedCustomers();
+        seedOrders(random, customers, products);
+        seedChat(random, customers, admin);
+
+        log.info("LoadTestDataSeeder: seeded {} products, {} brands, {} leaf categories, {} stores, {} users, {} orders, {} chat messages in {} ms",
+                products.size(), brands.size(), leafCategories.size(), stores.size(), customers.size(),
+                orderCount, chatMessageCount, System.currentTimeMillis() - start);
+    }
+
+    private List<Brand> seedBrands() {
+        List<Brand> brands = new ArrayList<>();
+        for (int i = 0; i < brandCount; i++) {
+            String name = i < BRANDS.length ? BRANDS[i] : "Brand " + (i + 1);
+            brands.add(Brand.builder()
+                    .name(name)
+                    .slug("brand-" + (i + 1))
+                    .logoUrl("https://cdn.example.com/brands/" + (i + 1) + ".png")
+                    .build());
+        }
+        return brandRepository.saveAll(brands);
+    }
+
+    // rootCategories roots, each with subcategoriesPerRoot children; products go to the leaves
+    private List<Category> seedCategories() {
+        List<Category> leaves = new ArrayList<>();
+        for (int r = 0; r < rootCategories; r++) {
+            Category root = categoryRepository.save(Category.builder()
+                    .name("Danh mục " + (r + 1))
+                    .slug("category-" + (r + 1))
+                    .categoryType(CategoryType.FAN_TYPE)
+                    .displayOrder(r)
+                    .build());
+            List<Category> children = new ArrayList<>();
+            for (int c = 0; c < subcategoriesPerRoot; c++) {
+                children.add(Category.builder()
+                        .name("Danh mục " + (r + 1) + "." + (c + 1))
+                        .slug("category-" + (r + 1) + "-" + (c + 1))
+                        .categoryType(CategoryType.FAN_TYPE)
+                        .parentId(root.getId())
+                        .displayOrder(c)
+                        .build());
+            }
+            leaves.addAll(categoryRepository.saveAll(children));
+        }
+        return leaves;
+    }
+
+    private List<StoreLocation> seedStores(Random random) {
+        List<StoreLocation> stores = new ArrayList<>();
+        for (int i = 0; i < storeCount; i++) {
+            String city = CITIES[i % CITIES.length];
+            stores.add(StoreLocation.builder()
+                    .name("OnlyFan " + city + " " + (i + 1))
+                    .latitude(10.0 + random.nextDouble() * 11)
+                    .longitude(105.0 + random.nextDouble() * 3)
+                    .address((i + 1) + " Đường Lê Lợi")
+                    .city(city)
+                    .status(StoreStatus.ACTIVE)
+                    .build());
+        }
+        stores = storeLocationRepository.saveAll(stores);
+
+        List<Warehouse> warehouses = new ArrayList<>();
+        for (StoreLocation store : stores) {
+            warehouses.add(Warehouse.builder()
+                    .name("Kho " + store.getName())
+                    .type(WarehouseType.STORE)
+                    .storeId(store.getId())
+                    .isActive(true)
+                    .address(store.getAddress())
+                    .build());
+        }
+        warehouseRepository.saveAll(warehouses);
+        return stores;
+    }
+
+    // Brand sizes are skewed (squared distribution): a few brands own most of the catalog
+    private List<Product> seedProducts(Random random, List<Brand> brands, List<Category> categories) {
+        List<Product> saved = new ArrayList<>(productCount);
+        List<Product> batch = new ArrayList<>(BATCH);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < productCount; i++) {
+            double r = random.nextDouble();
+            Brand brand = brands.get((int) (r * r * brands.size()));
+            Category category = categories.get(random.nextInt(categories.size()));
+            String type = TYPES[random.nextInt(TYPES.length)];
+            batch.add(Product.builder()
+                    .name(type + " " + brand.getName() + " " + (100 + random.nextInt(900)) + "W #" + (i + 1))
+                    .slug("loadtest-product-" + (i + 1))
+                    .sku("LT-" + (i + 1))
+                    .brandId(brand.getId())
+                    .categoryId(category.getId())
+                    .shortDescription("Công suất mạnh, vận hành êm ái, phù hợp phòng khách và phòng ngủ.")
+                    .description("Sản phẩm thử tải số " + (i + 1))
+                    .powerWatt(20 + random.nextInt(200))
+                    .bladeCount(3 + random.nextInt(3))
+                    .remoteControl(random.nextBoolean())
+                    .oscillation(random.nextBoolean())
+                    .timer(random.nextBoolean() ? "1 – 4 giờ" : null)
+                    .basePrice(BigDecimal.valueOf(300_000L + random.nextInt(5_000_000)))
+                    .quantity(1_000_000)
+                    .status(ProductStatus.active)
+                    .createdAt(now.minusMinutes(productCount - i))
+                    .build());
+            if (batch.size() == BATCH) {
+                saved.addAll(productRepository.saveAll(batch));
+                batch.clear();
+            }
+        }
+        saved.addAll(productRepository.saveAll(batch));
+        return saved;
+    }
+
+    private void seedImagesAndStock(Random random, List<Product> products, List<StoreLocation> stores) {
+        List<ProductImage> images = new ArrayList<>(BATCH);
+        List<StoreInventory> stock = new ArrayList<>(BATCH);
+        LocalDateTime now = LocalDateTime.now();
+        for (Product product : products) {
+            String base = "https://res.cloudinary.com/demo/image/upload/";
+            images.add(ProductImage.builder()
+                    .productId(product.getId())
+                    .imageUrl(base + "products/" + product.getId() + ".jpg")
+                    .thumbnailUrl(base + "w_160/products/" + product.getId() + ".jpg")
+                    .cardUrl(base + "w_480/products/" + product.getId() + ".jpg")
+                    .detailUrl(base + "w_1080/products/" + product.getId() + ".jpg")
+                    .isMain(true)
+                    .sortOrder(0)
+                    .build());
+            // Each product is stocked in about half of the stores
+            for (StoreLocation store : stores) {
+                if (random.nextBoolean()) {
+                    stock.add(StoreInventory.builder()
+                            .storeId(store.getId())
+                            .productId(product.getId())
+                            .isAvailable(true)
+                            .quantity(1_000 + random.nextInt(1_000))
+                            .createdAt(now)
+                            .updatedAt(now)
+                            .build());
+                }
+            }
+            if (images.size() >= BATCH) {
+                productImageRepository.saveAll(images);
+                images.clear();
+            }
+            if (stock.size() >= BATCH) {
+                storeInventoryRepository.saveAll(stock);
+                stock.clear();
+            }
+        }
+        productImageRepository.saveAll(images);
+        storeInventoryRepository.saveAll(stock);
+    }
+
+    private User seedAdmin() {
+        Role adminRole = roleRepository.findByName("admin")
+                .orElseThrow(() -> new IllegalStateException("Admin role not found; RoleSeeder must run first"));
+        return userRepository.findByEmail("loadtest-admin@example.com")
+                .orElseGet(() -> userRepository.save(User.builder()
+                        .roleId(adminRole.getId())
+                        .fullname("LoadTest Admin")
+                        .email("loadtest-admin@example.com")
+                        .passwordHash(passwordEncoder.encode(password))
+                        .status(UserStatus.active)
+                        .createdAt(LocalDateTime.now())
+                        .build()));
+    }
+
+    // Full names avoid '_' because chat room ids are "chatRoom_{fullname}_{userId}"
+    private List<User> seedCustomers() {
+        Role customerRole = roleRepository.findByName("customer")
+                .orElseThrow(() -> new IllegalStateException("Customer role not found; RoleSeeder must run first"));
+        String passwordHash = passwordEncoder.encode(password);
+        List<User> saved = new ArrayList<>(userCount);
+        List<User> batch = new ArrayList<>(BATCH);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 1; i <= userCount; i++) {
+            batch.add(User.builder()
+                    .roleId(customerRole.getId())
+                    .fullname("Khách hàng " + i)
+                    .email("loadtest-" + i + "@example.com")
+                    .phone(String.format("09%08d", i))
+                    .passwordHash(passwordHash)
+                    .status(UserStatus.active)
+                    .createdAt(now)
+                    .build());
+            if (batch.size() == BATCH) {
+                saved.addAll(userRepository.saveAll(batch));
+                batch.clear();
+            }
+        }
+        saved.addAll(userRepository.saveAll(batch));
+        return saved;
+    }
+
+    private void seedOrders(Random random, List<User> customers, List<Product> products) {
+        OrderStatus[] statuses = OrderStatus.values();
+        LocalDateTime now = LocalDateTime.now();
+        for (int start = 0; start < orderCount; start += BATCH) {
+            int end = Math.min(start + BATCH, orderCount);
+            List<Order> orders = new ArrayList<>(end - start);
+            List<List<Product>> lines = new ArrayList<>(end - start);
+            for (int i = start; i < end; i++) {
+                User customer = customers.get(random.nextInt(customers.size()));
+                List<Product> orderProducts = new ArrayList<>();
+                BigDecimal subtotal = BigDecimal.ZERO;
+                for (int n = 1 + random.nextInt(3); n > 0; n--) {
+                    Product product = products.get(random.nextInt(products.size()));
+                    orderProducts.add(product);
+                    subtotal = subtotal.add(product.getBasePrice());
+                }
+                lines.add(orderProducts);
+                orders.add(Order.builder()
+                        .userId(customer.getId())
+                        .orderCode("LT" + (i + 1))
+                        .status(statuses[random.nextInt(statuses.length)])
+                        .paymentMethod(PaymentMethod.cod)
+                        .paymentStatus(PaymentStatus.unpaid)
+                        .shippingMethod("HOME_DELIVERY")
+                        .shippingFee(BigDecimal.ZERO)
+                        .discountTotal(BigDecimal.ZERO)
+                        .subtotal(subtotal)
+                        .totalAmount(subtotal)
+                        .createdAt(now.minusHours(random.nextInt(24 * 90)))
+                        .build());
+            }
+            orders = orderRepository.saveAll(orders);
+
+            List<OrderItem> items = new ArrayList<>();
+            for (int o = 0; o < orders.size(); o++) {
+                for (Product product : lines.get(o)) {
+                    items.add(OrderItem.builder()
+                            .orderId(orders.get(o).getId())
+                            .productId(product.getId())
+                            .productName(product.getName())
+                            .sku(product.getSku())
+                            .unitPrice(product.getBasePrice())
+                            .quantity(1)
+                            .lineTotal(product.getBasePrice())
+                            .build());
+                }
+            }
+            orderItemRepository.saveAll(items);
+        }
+    }
+
+    // Conversations between customers and the admin, alternating direction
+    private void seedChat(Random random, List<User> customers, User admin) {
+        List<ChatMessage> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < chatMessageCount; i++) {
+            User customer = customers.get(random.nextInt(customers.size()));
+            boolean fromCustomer = random.nextBoolean();
+            batch.add(ChatMessage.builder()
+                    .sender(fromCustomer ? customer : admin)
+                    .receiver(fromCustomer ? admin : customer)
+                    .message(fromCustomer ? "Sản phẩm này còn hàng không ạ?" : "Dạ, sản phẩm vẫn còn hàng ạ.")
+                    .build());
+            if (batch.size() == BATCH) {
+                chatMessageRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        chatMessageRepository.saveAll(batch);
+    }
+}
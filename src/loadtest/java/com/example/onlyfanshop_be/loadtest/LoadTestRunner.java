@@ -0,0 +1,334 @@
+package com.example.onlyfanshop_be.loadtest;
+
+import com.example.onlyfanshop_be.OnlyFanshopBeApplication;
+import com.example.onlyfanshop_be.entity.Brand;
+import com.example.onlyfanshop_be.entity.Product;
+import com.example.onlyfanshop_be.repository.BrandRepository;
+import com.example.onlyfanshop_be.repository.ProductRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Boots the application with the loadtest profile (H2 + LoadTestDataSeeder), logs in one
+ * seeded customer per client and runs each scenario in turn: a warm-up phase, then a measured
+ * phase in which every client loops on its own virtual thread. Reports operations, errors,
+ * throughput, p50/p99/max latency and SQL statements per operation (Hibernate statistics; the
+ * scenarios run one at a time, so the delta belongs to the scenario being measured).
+ *
+ * System properties: loadtest.clients (32), loadtest.warmup-seconds (5),
+ * loadtest.duration-seconds (20), loadtest.scenarios (all, comma separated) and loadtest.threads:
+ * configured (default, spring.threads.virtual.enabled as set), virtual, platform, or compare, which
+ * boots the application twice (virtual threads, then platform threads; the H2 schema is recreated
+ * and reseeded on each boot) and prints both result tables followed by a side-by-side comparison.
+ */
+public class LoadTestRunner {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private interface Operation {
+        /**
+         * Runs one operation for the client; false when any response was an error.
+         */
+        boolean run(Client client, Random random) throws Exception;
+    }
+
+    private record Client(int index, long userId, String email, String token, String roomId) {
+    }
+
+    private record Result(String scenario, long operations, long errors, double seconds,
+                          long[] latenciesMicros, long statements) {
+    }
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final List<Long> productIds;
+    private final List<Integer> brandIds;
+
+    private LoadTestRunner(String baseUrl, List<Long> productIds, List<Integer> brandIds) {
+        this.baseUrl = baseUrl;
+        this.productIds = productIds;
+        this.brandIds = brandIds;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("loadtest.clients", 32);
+        int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 5);
+        int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 20);
+        List<String> only = Arrays.stream(System.getProperty("loadtest.scenarios", "").split(","))
+                .map(String::trim).filter(s -> !s.isEmpty()).toList();
+
+        // Thread mode label -> spring.threads.virtual.enabled override (null keeps the configured value)
+        Map<String, Boolean> modes = new LinkedHashMap<>();
+        switch (System.getProperty("loadtest.threads", "configured")) {
+            case "virtual" -> modes.put("virtual", true);
+            case "platform" -> modes.put("platform", false);
+            case "compare" -> {
+                modes.put("virtual", true);
+                modes.put("platform", false);
+            }
+            default -> modes.put("configured", null);
+        }
+
+        Map<String, List<Result>> runs = new LinkedHashMap<>();
+        int sessions = 0;
+        for (Map.Entry<String, Boolean> mode : modes.entrySet()) {
+            List<String> arguments = new ArrayList<>(List.of("--server.port=0"));
+            if (mode.getValue() != null) {
+                arguments.add("--spring.threads.virtual.enabled=" + mode.getValue());
+            }
+            List<Result> results = new ArrayList<>();
+            sessions = runAll(arguments.toArray(String[]::new), clients, warmupSeconds, durationSeconds, only, results);
+            System.out.printf("%n[%s threads]", mode.getKey());
+            report(results, sessions);
+            runs.put(mode.getKey(), results);
+        }
+        if (runs.size() > 1) {
+            compare(runs);
+        }
+    }
+
+    /**
+     * Boots the application with {@code arguments}, runs the selected scenarios into
+     * {@code results} and shuts it down; returns the number of logged-in clients.
+     */
+    private static int runAll(String[] arguments, int clients, int warmupSeconds, int durationSeconds,
+                              List<String> only, List<Result> results) throws Exception {
+        SpringApplication application = new SpringApplication(OnlyFanshopBeApplication.class);
+        application.setAdditionalProfiles("loadtest");
+        try (ConfigurableApplicationContext context = application.run(arguments)) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            Statistics statistics = context.getBean(EntityManagerFactory.class)
+                    .unwrap(SessionFactory.class).getStatistics();
+            int users = context.getEnvironment().getProperty("loadtest.seed.users", Integer.class, 500);
+            String password = context.getEnvironment().getProperty("loadtest.seed.password", "loadtest");
+            List<Long> productIds = context.getBean(ProductRepository.class).findAll().stream().map(Product::getId).toList();
+            List<Integer> brandIds = context.getBean(BrandRepository.class).findAll().stream().map(Brand::getId).toList();
+
+            LoadTestRunner runner = new LoadTestRunner("http://localhost:" + port, productIds, brandIds);
+            List<Client> sessions = runner.login(Math.min(clients, users), password);
+
+            for (Map.Entry<String, Operation> scenario : runner.scenarios().entrySet()) {
+                if (!only.isEmpty() && !only.contains(scenario.getKey())) {
+                    continue;
+                }
+                runner.run(scenario.getValue(), sessions, warmupSeconds);
+                long statementsBefore = statistics.getPrepareStatementCount();
+                Result result = runner.run(scenario.getValue(), sessions, durationSeconds);
+                results.add(new Result(scenario.getKey(), result.operations(), result.errors(), result.seconds(),
+                        result.latenciesMicros(), statistics.getPrepareStatementCount() - statementsBefore));
+            }
+            return sessions.size();
+        }
+    }
+
+    private Map<String, Operation> scenarios() {
+        Map<String, Operation> scenarios = new LinkedHashMap<>();
+        scenarios.put("homepage", (client, random) ->
+                ok(post("/product/public/homepage?page=" + (1 + random.nextInt(5)) + "&size=20", null, "")));
+        scenarios.put("filter", (client, random) ->
+                ok(post("/products/filter/public?page=0&size=20", null,
+                        "{\"brandIds\":[" + pick(brandIds, random) + "],\"sortBy\":\"price\",\"sortDirection\":\"ASC\"}")));
+        scenarios.put("detail", (client, random) ->
+                ok(get("/product/public/detail/" + pick(productIds, random), null)));
+        scenarios.put("cart", (client, random) ->
+                ok(post("/cart/addToCart", client.token(), addToCart(client, random)))
+                        && ok(get("/cart/" + client.userId(), client.token())));
+        scenarios.put("checkout", (client, random) ->
+                ok(post("/cart/addToCart", client.token(), addToCart(client, random)))
+                        && ok(post("/payment/cod?totalPrice=1000000&buyMethod=ByCart&address="
+                        + URLEncoder.encode("1 Đường Lê Lợi, Hà Nội", StandardCharsets.UTF_8), client.token(), "")));
+        scenarios.put("chat", (client, random) ->
+                ok(post("/api/chat/messages", client.token(),
+                        "{\"roomId\":\"" + client.roomId() + "\",\"message\":\"Sản phẩm này còn hàng không ạ?\"}"))
+                        && ok(get("/api/chat/rooms/" + URLEncoder.encode(client.roomId(), StandardCharsets.UTF_8).replace("+", "%20") + "/messages",
+                        client.token())));
+        return scenarios;
+    }
+
+    private Result run(Operation operation, List<Client> clients, int seconds) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Client client : clients) {
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(client.index());
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long begin = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = operation.run(client, random);
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        if (!ok) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = (System.nanoTime() - begin) / 1_000;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long[] all = futures.stream().map(LoadTestRunner::join).flatMapToLong(Arrays::stream).toArray();
+        Arrays.sort(all);
+        return new Result(null, all.length, errors.get(), elapsed, all, 0);
+    }
+
+    private List<Client> login(int count, String password) throws Exception {
+        List<Client> clients = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String email = "loadtest-" + i + "@example.com";
+            HttpResponse<String> login = post("/login/signin", null,
+                    "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}");
+            JsonNode user = objectMapper.readTree(login.body()).path("data");
+            String token = user.path("token").asText(null);
+            if (token == null) {
+                throw new IllegalStateException("Login failed for " + email + ": " + login.body());
+            }
+            HttpResponse<String> room = get("/api/chat/rooms/customer", token);
+            clients.add(new Client(i, user.path("userID").asLong(), email, token, objectMapper.readTree(room.body()).path("data").asText()));
+        }
+        return clients;
+    }
+
+    private String addToCart(Client client, Random random) {
+        return "{\"productId\":" + pick(productIds, random) + ",\"quantity\":1,\"userName\":\"" + client.email() + "\"}";
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        return send(request(path, token).GET().build());
+    }
+
+    private HttpResponse<String> post(String path, String token, String json) throws Exception {
+        return send(request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(json == null || json.isEmpty()
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(json))
+                .build());
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws Exception {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // HTTP 2xx, and the ApiResponse status code (when present) below 400
+    private boolean ok(HttpResponse<String> response) {
+        if (response.statusCode() / 100 != 2) {
+            return false;
+        }
+        try {
+            JsonNode statusCode = objectMapper.readTree(response.body()).path("statusCode");
+            return statusCode.isMissingNode() || statusCode.asInt() < 400;
+        } catch (Exception e) {
+            return true;
+        }
+    }
+
+    private static <T> T pick(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private static long[] join(Future<long[]> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void report(List<Result> results, int clients) {
+        System.out.printf("%n%d clients%n", clients);
+        System.out.printf("%-10s %10s %8s %10s %10s %10s %10s %12s%n",
+                "scenario", "ops", "errors", "ops/s", "p50 ms", "p99 ms", "max ms", "queries/op");
+        for (Result result : results) {
+            long[] latencies = result.latenciesMicros();
+            System.out.printf("%-10s %10d %8d %10.1f %10.2f %10.2f %10.2f %12.1f%n",
+                    result.scenario(),
+                    result.operations(),
+                    result.errors(),
+                    result.operations() / result.seconds(),
+                    percentile(latencies, 0.50) / 1000.0,
+                    percentile(latencies, 0.99) / 1000.0,
+                    latencies.length > 0 ? latencies[latencies.length - 1] / 1000.0 : 0,
+                    result.operations() > 0 ? (double) result.statements() / result.operations() : 0);
+        }
+    }
+
+    // One row per scenario, one ops/s, p50 and p99 column group per thread mode
+    private static void compare(Map<String, List<Result>> runs) {
+        List<String> modes = new ArrayList<>(runs.keySet());
+        StringBuilder header = new StringBuilder(String.format("%n%-10s", "scenario"));
+        for (String mode : modes) {
+            header.append(String.format(" %12s %12s %12s", mode + " ops/s", mode + " p50", mode + " p99"));
+        }
+        System.out.println(header);
+        for (Result first : runs.get(modes.get(0))) {
+            StringBuilder row = new StringBuilder(String.format("%-10s", first.scenario()));
+            for (String mode : modes) {
+                Result result = runs.get(mode).stream()
+                        .filter(candidate -> candidate.scenario().equals(first.scenario()))
+                        .findFirst().orElse(null);
+                if (result == null) {
+                    row.append(String.format(" %12s %12s %12s", "-", "-", "-"));
+                    continue;
+                }
+                long[] latencies = result.latenciesMicros();
+                row.append(String.format(" %12.1f %12.2f %12.2f",
+                        result.operations() / result.seconds(),
+                        percentile(latencies, 0.50) / 1000.0,
+                        percentile(latencies, 0.99) / 1000.0));
+            }
+            System.out.println(row);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
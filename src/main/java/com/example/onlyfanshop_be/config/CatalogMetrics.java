@@ -0,0 +1,48 @@
+package com.example.onlyfanshop_be.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Latency of the catalog listing endpoints (homepage, filter) split by sort mode, as
+ * catalog.listing{endpoint,sort,order,outcome}. sortBy comes straight from the query string, so
+ * anything outside the sort names the services understand is tagged "other" to keep the series
+ * count bounded.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogMetrics {
+    private static final Set<String> SORT_MODES = Set.of(
+            "id", "productid", "product_id", "name", "productname", "product_name",
+            "price", "baseprice", "base_price", "createdat", "created_at", "updatedat", "updated_at",
+            "slug", "sku", "status", "shuffled", "recommended", "popular");
+
+    private final MeterRegistry meterRegistry;
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void record(Timer.Sample sample, String endpoint, String sortBy, String order, boolean success) {
+        sample.stop(Timer.builder("catalog.listing")
+                .description("Product listing latency by sort mode")
+                .tag("endpoint", endpoint)
+                .tag("sort", sortMode(sortBy))
+                .tag("order", "ASC".equalsIgnoreCase(order) ? "asc" : "desc")
+                .tag("outcome", success ? "success" : "error")
+                .register(meterRegistry));
+    }
+
+    static String sortMode(String sortBy) {
+        if (sortBy == null || sortBy.isBlank()) {
+            return "id";
+        }
+        String normalized = sortBy.trim().toLowerCase(Locale.ROOT);
+        return SORT_MODES.contains(normalized) ? normalized : "other";
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.onlyfanshop_be.config;
+
+import com.example.onlyfanshop_be.ultils.CborEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Opt-in CBOR responses: a client sending {@code Accept: application/cbor} gets the same
+ * ApiResponse body encoded as CBOR instead of JSON; everyone else keeps getting JSON. Field names
+ * and shapes are exactly the JSON ones, so no separate schema has to be maintained.
+ */
+@Configuration
+@ConditionalOnProperty(name = "http.cbor.enabled", havingValue = "true", matchIfMissing = true)
+public class CborConfig implements WebMvcConfigurer {
+    public static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
+
+    private final ObjectMapper objectMapper;
+
+    public CborConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Last, so JSON stays the default for */* and missing Accept headers
+        converters.add(new CborHttpMessageConverter(objectMapper));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Public responses are cacheable; shared caches must not hand a JSON body to a CBOR client
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        });
+    }
+
+    static class CborHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+        private final ObjectMapper objectMapper;
+
+        CborHttpMessageConverter(ObjectMapper objectMapper) {
+            super(APPLICATION_CBOR);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        protected boolean supports(Class<?> clazz) {
+            return true;
+        }
+
+        @Override
+        public boolean canRead(Class<?> clazz, MediaType mediaType) {
+            return false;
+        }
+
+        @Override
+        protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+            throw new HttpMessageNotReadableException("CBOR request bodies are not supported", inputMessage);
+        }
+
+        @Override
+        protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+            CborEncoder.write(objectMapper, value, outputMessage.getBody());
+        }
+    }
+}
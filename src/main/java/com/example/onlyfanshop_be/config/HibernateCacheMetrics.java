@@ -0,0 +1,61 @@
+package com.example.onlyfanshop_be.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Exports Hibernate's second-level cache statistics as hibernate.cache.gets{region,result} and
+ * hibernate.cache.puts{region} per region, plus hibernate.query.cache.gets{result} and
+ * hibernate.query.cache.puts. Requires hibernate.generate_statistics=true.
+ */
+@Component
+public class HibernateCacheMetrics implements MeterBinder {
+    private final EntityManagerFactory entityManagerFactory;
+
+    public HibernateCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            regionCounter(registry, statistics, "hibernate.cache.gets", region, "hit", CacheRegionStatistics::getHitCount);
+            regionCounter(registry, statistics, "hibernate.cache.gets", region, "miss", CacheRegionStatistics::getMissCount);
+            regionCounter(registry, statistics, "hibernate.cache.puts", region, null, CacheRegionStatistics::getPutCount);
+        }
+        FunctionCounter.builder("hibernate.query.cache.gets", statistics, Statistics::getQueryCacheHitCount)
+                .description("Query cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("hibernate.query.cache.gets", statistics, Statistics::getQueryCacheMissCount)
+                .description("Query cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("hibernate.query.cache.puts", statistics, Statistics::getQueryCachePutCount)
+                .description("Query results stored in the query cache")
+                .register(registry);
+    }
+
+    private static void regionCounter(MeterRegistry registry, Statistics statistics, String name, String region,
+                                      String result, ToLongFunction<CacheRegionStatistics> count) {
+        FunctionCounter.Builder<Statistics> builder = FunctionCounter.builder(name, statistics, s -> {
+                    CacheRegionStatistics regionStatistics = s.getCacheRegionStatistics(region);
+                    return regionStatistics != null ? count.applyAsLong(regionStatistics) : 0;
+                })
+                .description("Second-level cache " + (result != null ? "lookups" : "puts") + " per region")
+                .tag("region", region);
+        if (result != null) {
+            builder.tag("result", result);
+        }
+        builder.register(registry);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.onlyfanshop_be.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource wrapper that records every executed statement into the current
+ * {@link SqlStatementCounter.Stats}: the SQL text, the time spent in execute*, rows read through
+ * the returned ResultSets and update counts. Connections and statements are JDK proxies over the
+ * pool's own objects; when no Stats is current, calls go straight through.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    public InstrumentedDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    /**
+     * Closes the wrapped pool: this wrapper replaces the pool's bean, so the container's inferred
+     * close() lands here.
+     */
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                // prepareStatement/prepareCall carry the SQL; plain statements get it at execute
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+                        new Class<?>[]{type}, new StatementHandler(statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            SqlStatementCounter.Stats stats = SqlStatementCounter.current();
+            String name = method.getName();
+            if (stats == null) {
+                return InstrumentedDataSource.invoke(target, method, args);
+            }
+            if (name.startsWith("execute")) {
+                long start = System.nanoTime();
+                Object result = InstrumentedDataSource.invoke(target, method, args);
+                String executed = args != null && args.length > 0 && args[0] instanceof String s ? s : sql;
+                stats.recordStatement(executed, System.nanoTime() - start);
+                return afterExecute(stats, result);
+            }
+            if ("getResultSet".equals(name)) {
+                return wrapResultSet(stats, InstrumentedDataSource.invoke(target, method, args));
+            }
+            return InstrumentedDataSource.invoke(target, method, args);
+        }
+
+        private static Object afterExecute(SqlStatementCounter.Stats stats, Object result) {
+            if (result instanceof ResultSet) {
+                return wrapResultSet(stats, result);
+            } else if (result instanceof Integer count && count > 0) {
+                stats.recordRows(count);
+            } else if (result instanceof Long count && count > 0) {
+                stats.recordRows(count);
+            } else if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    if (count > 0) {
+                        stats.recordRows(count);
+                    }
+                }
+            }
+            return result;
+        }
+
+        private static Object wrapResultSet(SqlStatementCounter.Stats stats, Object resultSet) {
+            if (!(resultSet instanceof ResultSet target)) {
+                return resultSet;
+            }
+            return Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                        Object result = InstrumentedDataSource.invoke(target, method, args);
+                        if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                            stats.recordRows(1);
+                        }
+                        return result;
+                    });
+        }
+    }
+}
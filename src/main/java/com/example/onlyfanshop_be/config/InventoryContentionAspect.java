@@ -0,0 +1,80 @@
+package com.example.onlyfanshop_be.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Stock writes in InventoryTransactionService read a row and write it back, so two writers on
+ * the same product and store meet on the row lock; the loser surfaces as a deadlock or lock-wait
+ * timeout (a ConcurrencyFailureException), usually at commit. This aspect runs outside the
+ * transaction advice so it sees those failures, counts them as inventory.contention{operation}
+ * and re-runs the method in a fresh transaction up to inventory.contention.max-retries times
+ * (inventory.retries{operation,outcome}). A call joining a caller's transaction is only counted:
+ * that transaction is already rolled back and only the caller can retry it.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class InventoryContentionAspect {
+    private final MeterRegistry meterRegistry;
+
+    @Value("${inventory.contention.max-retries:2}")
+    private int maxRetries;
+
+    public InventoryContentionAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.example.onlyfanshop_be.service.InventoryTransactionService.*(..)) && @annotation(transactional)")
+    public Object retryOnContention(ProceedingJoinPoint joinPoint, Transactional transactional) throws Throwable {
+        if (transactional.readOnly()) {
+            return joinPoint.proceed();
+        }
+        String operation = joinPoint.getSignature().getName();
+        boolean retryable = !TransactionSynchronizationManager.isActualTransactionActive();
+        for (int attempt = 0; ; attempt++) {
+            try {
+                Object result = joinPoint.proceed();
+                if (attempt > 0) {
+                    counter("inventory.retries", operation, "succeeded").increment();
+                }
+                return result;
+            } catch (ConcurrencyFailureException e) {
+                Counter.builder("inventory.contention")
+                        .description("Stock writes that lost a row-lock conflict")
+                        .tag("operation", operation)
+                        .register(meterRegistry)
+                        .increment();
+                if (!retryable || attempt >= maxRetries) {
+                    if (retryable && maxRetries > 0) {
+                        counter("inventory.retries", operation, "exhausted").increment();
+                    }
+                    throw e;
+                }
+                log.debug("Inventory {} lost a lock conflict, retrying ({}/{}): {}",
+                        operation, attempt + 1, maxRetries, e.getMessage());
+                counter("inventory.retries", operation, "attempted").increment();
+            }
+        }
+    }
+
+    private Counter counter(String name, String operation, String outcome) {
+        return Counter.builder(name)
+                .description("Re-runs of stock writes after a lock conflict")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.onlyfanshop_be.config;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process second-level cache for Hibernate: one ConcurrentHashMap per region, bounded by
+ * hibernate.cache.local.max-entries and expired after hibernate.cache.local.ttl-seconds, which
+ * also bounds how stale another instance's copy of a row can get. Only the reference entities
+ * (brands, categories, colors, warranties, tags, roles) and Product.colors are cached, so the
+ * regions stay small.
+ *
+ * Swapping in a JCache provider needs no code change: put hibernate-jcache and the provider on
+ * the classpath and set hibernate.cache.region.factory_class=jcache.
+ */
+public class LocalCacheRegionFactory extends RegionFactoryTemplate {
+    public static final String MAX_ENTRIES = "hibernate.cache.local.max-entries";
+    public static final String TTL_SECONDS = "hibernate.cache.local.ttl-seconds";
+
+    private int maxEntries = 10_000;
+    private long ttlMillis = 10 * 60 * 1000L;
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        Object max = configValues.get(MAX_ENTRIES);
+        if (max != null) {
+            maxEntries = Integer.parseInt(max.toString());
+        }
+        Object ttl = configValues.get(TTL_SECONDS);
+        if (ttl != null) {
+            ttlMillis = Long.parseLong(ttl.toString()) * 1000L;
+        }
+    }
+
+    @Override
+    protected void releaseFromUse() {
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new MapStorageAccess(maxEntries, ttlMillis);
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        return new MapStorageAccess(maxEntries, ttlMillis);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName, SessionFactoryImplementor sessionFactory) {
+        // A missing timestamp reads as "not modified", so this region is never bounded or expired
+        return new MapStorageAccess(Integer.MAX_VALUE, 0);
+    }
+
+    private static final class MapStorageAccess implements DomainDataStorageAccess {
+        private record Entry(Object value, long expiresAt) {
+        }
+
+        private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+        private final int maxEntries;
+        private final long ttlMillis;
+
+        MapStorageAccess(int maxEntries, long ttlMillis) {
+            this.maxEntries = maxEntries;
+            this.ttlMillis = ttlMillis;
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() != 0 && entry.expiresAt() < System.currentTimeMillis()) {
+                entries.remove(key, entry);
+                return null;
+            }
+            return entry.value();
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+                // Reference data rarely gets here; dropping an arbitrary entry keeps the bound cheap
+                Iterator<Object> keys = entries.keySet().iterator();
+                if (keys.hasNext()) {
+                    keys.next();
+                    keys.remove();
+                }
+            }
+            entries.put(key, new Entry(value, ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : 0));
+        }
+
+        @Override
+        public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+            entries.remove(key);
+        }
+
+        @Override
+        public void clearCache(SharedSessionContractImplementor session) {
+            entries.clear();
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return entries.containsKey(key);
+        }
+
+        @Override
+        public void evictData() {
+            entries.clear();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            entries.remove(key);
+        }
+
+        @Override
+        public void release() {
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.onlyfanshop_be.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.file.Paths;
+
+/**
+ * Serves files written by LocalFileStorageService when storage.provider=local.
+ */
+@Configuration
+@ConditionalOnProperty(name = "storage.provider", havingValue = "local")
+public class LocalStorageWebConfig implements WebMvcConfigurer {
+
+    @Value("${storage.local.root:uploads}")
+    private String root;
+
+    @Value("${storage.local.base-url:/uploads}")
+    private String baseUrl;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        String location = Paths.get(root).toAbsolutePath().normalize().toUri().toString();
+        String pattern = (baseUrl.endsWith("/") ? baseUrl : baseUrl + "/") + "**";
+        registry.addResourceHandler(pattern)
+                .addResourceLocations(location.endsWith("/") ? location : location + "/");
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.onlyfanshop_be.config;
+
+import com.example.onlyfanshop_be.service.IRateLimiter;
+import com.example.onlyfanshop_be.service.IRateLimiter.RateLimitDecision;
+import com.example.onlyfanshop_be.service.IRateLimiter.RateLimitRule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-route rate limiting for abuse-prone endpoints. Each rule is a token bucket configured by
+ * rate.{rule}.maxRequests per rate.{rule}.windowSeconds; rate.{rule}.enabled=false turns it off.
+ * Anonymous requests are keyed by client IP, authenticated ones by user, which is why the filter
+ * runs after JWT authentication.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // name, method, path pattern, default max requests, default window seconds
+    private static final Object[][] DEFAULT_RULES = {
+            {"login", "POST", "/login/signin", 20L, 60L},
+            {"otp", "POST", "/login/send-otp", 5L, 300L},
+            {"register", "POST", "/login/register", 10L, 3600L},
+            {"vnpay-callback", "GET", "/payment/public/vn-pay-callback", 60L, 60L},
+            {"chat-send", "POST", "/api/chat/messages", 30L, 60L}
+    };
+
+    private final IRateLimiter rateLimiter;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<RateLimitRule> rules = new ArrayList<>();
+    private final Map<String, Counter> rejectedCounters = new HashMap<>();
+
+    public RateLimitFilter(IRateLimiter rateLimiter, MeterRegistry meterRegistry, Environment environment) {
+        this.rateLimiter = rateLimiter;
+        this.meterRegistry = meterRegistry;
+        for (Object[] rule : DEFAULT_RULES) {
+            String name = (String) rule[0];
+            if (!environment.getProperty("rate." + name + ".enabled", Boolean.class, true)) {
+                continue;
+            }
+            long maxRequests = environment.getProperty("rate." + name + ".maxRequests", Long.class, (Long) rule[3]);
+            long windowSeconds = environment.getProperty("rate." + name + ".windowSeconds", Long.class, (Long) rule[4]);
+            rules.add(new RateLimitRule(name, (String) rule[1], (String) rule[2], maxRequests, windowSeconds));
+            rejectedCounters.put(name, Counter.builder("ratelimit.rejected")
+                    .description("Requests rejected by the rate limiter")
+                    .tag("rule", name)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RateLimitRule rule = matchRule(request);
+        if (rule != null) {
+            RateLimitDecision decision = rateLimiter.tryAcquire(clientKey(request), rule);
+            if (!decision.allowed()) {
+                rejectedCounters.get(rule.name()).increment();
+                long retryAfterSeconds = Math.max(1, (decision.retryAfterMillis() + 999) / 1000);
+                response.setStatus(429);
+                response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+                response.setContentType("application/json");
+                response.getWriter().write("{\"statusCode\":429,\"message\":\"Bạn thao tác quá nhanh, vui lòng thử lại sau "
+                        + retryAfterSeconds + " giây\"}");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private RateLimitRule matchRule(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+        for (RateLimitRule rule : rules) {
+            if (rule.method().equalsIgnoreCase(method) && pathMatcher.match(rule.pathPattern(), path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.onlyfanshop_be.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the method in a read-only transaction on the read replica, for catalog browsing that
+ * tolerates replication lag; the method must not write. Reads of a user inside their
+ * read-your-writes window still go to the primary.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ReadReplica {
+}
@@ -0,0 +1,138 @@
+package com.example.onlyfanshop_be.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Primary/replica DataSource when datasource.replica.enabled=true; otherwise Boot's single pool
+ * is left alone. The primary pool is built from spring.datasource.* as before, the replica pool
+ * from datasource.replica.url/username/password and datasource.replica.hikari.*, so the two are
+ * sized independently. Both pools report hikaricp.* meters tagged with their pool name.
+ *
+ * Only the routing proxy is a bean: the pools stay out of the context so the SQL instrumentation
+ * post-processor wraps the proxy once instead of every pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    /**
+     * The two pools; a bean of its own so they are closed on shutdown.
+     */
+    record ReplicaPools(HikariDataSource primary, HikariDataSource replica) implements AutoCloseable {
+        @Override
+        public void close() {
+            replica.close();
+            primary.close();
+        }
+    }
+
+    @Bean(destroyMethod = "close")
+    ReplicaPools replicaPools(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName("primary");
+        }
+
+        HikariDataSource replica = new HikariDataSource();
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setJdbcUrl(environment.getRequiredProperty("datasource.replica.url"));
+        replica.setUsername(environment.getProperty("datasource.replica.username", properties.determineUsername()));
+        replica.setPassword(environment.getProperty("datasource.replica.password", properties.determinePassword()));
+        replica.setReadOnly(true);
+        replica.setPoolName("replica");
+        binder.bind("datasource.replica.hikari", Bindable.ofInstance(replica));
+
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+        primary.setMetricsTrackerFactory(metrics);
+        replica.setMetricsTrackerFactory(metrics);
+        return new ReplicaPools(primary, replica);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaPools pools, ReplicationLagGuard lagGuard, MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(pools.primary(), pools.replica(), lagGuard, meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Open-in-view keeps the session for the whole request; with the replica pool in play its
+     * connection goes back at the end of each transaction (after each statement outside one)
+     * instead of staying held until the response is written.
+     */
+    @Bean
+    HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public ReadReplicaAspect readReplicaAspect(PlatformTransactionManager transactionManager) {
+        return new ReadReplicaAspect(transactionManager);
+    }
+
+    /**
+     * Runs the call in a read-only transaction so its reads share one replica connection, which
+     * goes back to the pool at commit instead of staying with the open-in-view session until the
+     * response is written (see {@link ReadReplicaDataSourceConfig#releaseConnectionAfterTransaction()}).
+     */
+    @Aspect
+    static class ReadReplicaAspect {
+        private final TransactionTemplate readOnlyTx;
+
+        ReadReplicaAspect(PlatformTransactionManager transactionManager) {
+            this.readOnlyTx = new TransactionTemplate(transactionManager);
+            this.readOnlyTx.setReadOnly(true);
+        }
+
+        @Around("@annotation(com.example.onlyfanshop_be.config.ReadReplica)")
+        public Object routeToReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+            if (ReadReplicaRouting.route() != null) {
+                return joinPoint.proceed();
+            }
+            ReadReplicaRouting.Snapshot previous = ReadReplicaRouting.enter(
+                    new ReadReplicaRouting.Snapshot(ReadReplicaRouting.Route.REPLICA, ReadReplicaRouting.userId()));
+            try {
+                return readOnlyTx.execute(status -> {
+                    try {
+                        return joinPoint.proceed();
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        throw new UndeclaredThrowableException(e);
+                    }
+                });
+            } catch (UndeclaredThrowableException e) {
+                throw e.getUndeclaredThrowable();
+            } finally {
+                ReadReplicaRouting.restore(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.onlyfanshop_be.config;
+
+import com.example.onlyfanshop_be.security.AuthenticatedUser;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread hints for ReplicaRoutingDataSource: a {@link Route} override set by
+ * {@link ReadReplica} methods, and the user whose read-your-writes window applies. Work forked to
+ * other threads carries both over through {@link #capture} and {@link #callWith}, the way
+ * SqlStatementCounter does for SQL statistics.
+ */
+public final class ReadReplicaRouting {
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    /**
+     * Routing state of a thread: the override (null when none) and the user id (null when
+     * anonymous).
+     */
+    public record Snapshot(Route route, Long userId) {
+    }
+
+    private static final ThreadLocal<Snapshot> CURRENT = new ThreadLocal<>();
+
+    private ReadReplicaRouting() {
+    }
+
+    public static Route route() {
+        Snapshot snapshot = CURRENT.get();
+        return snapshot != null ? snapshot.route() : null;
+    }
+
+    /**
+     * The user the current work runs for: the one captured when it was forked, otherwise the
+     * authenticated user of this thread.
+     */
+    public static Long userId() {
+        Snapshot snapshot = CURRENT.get();
+        return snapshot != null && snapshot.userId() != null ? snapshot.userId() : AuthenticatedUser.currentUserId();
+    }
+
+    public static Snapshot capture() {
+        return new Snapshot(route(), userId());
+    }
+
+    /**
+     * Installs {@code snapshot} on this thread and returns the state it replaces, to be handed
+     * back to {@link #restore}.
+     */
+    public static Snapshot enter(Snapshot snapshot) {
+        Snapshot previous = CURRENT.get();
+        CURRENT.set(snapshot);
+        return previous;
+    }
+
+    public static void restore(Snapshot previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    public static <T> T callWith(Snapshot snapshot, Supplier<T> task) {
+        Snapshot previous = enter(snapshot);
+        try {
+            return task.get();
+        } finally {
+            restore(previous);
+        }
+    }
+}
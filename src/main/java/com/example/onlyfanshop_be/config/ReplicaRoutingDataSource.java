@@ -0,0 +1,88 @@
+package com.example.onlyfanshop_be.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Chooses the pool for each physical connection:
+ * - a read-write transaction goes to the primary, and pins its user to the primary once it
+ *   commits (ReplicationLagGuard);
+ * - a read-only transaction or a {@link ReadReplica} method goes to the replica, unless its user
+ *   is inside the read-your-writes window;
+ * - anything else (auto-commit work outside a transaction) goes to the primary.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: transaction managers fetch the connection
+ * before the transaction's read-only flag is published, the proxy defers the fetch to the first
+ * statement. Decisions are counted as datasource.routing{target,reason}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReplicationLagGuard lagGuard;
+    private final Counter writes;
+    private final Counter readOnlyReads;
+    private final Counter annotatedReads;
+    private final Counter pinnedReads;
+    private final Counter otherReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicationLagGuard lagGuard,
+                                    MeterRegistry meterRegistry) {
+        this.lagGuard = lagGuard;
+        setTargetDataSources(Map.of(ReadReplicaRouting.Route.PRIMARY, primary, ReadReplicaRouting.Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.writes = routingCounter(meterRegistry, "primary", "write");
+        this.readOnlyReads = routingCounter(meterRegistry, "replica", "read-only");
+        this.annotatedReads = routingCounter(meterRegistry, "replica", "annotated");
+        this.pinnedReads = routingCounter(meterRegistry, "primary", "read-your-writes");
+        this.otherReads = routingCounter(meterRegistry, "primary", "no-transaction");
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routing")
+                .description("Physical connections by pool and routing reason")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        ReadReplicaRouting.Route route = ReadReplicaRouting.route();
+
+        if (route == ReadReplicaRouting.Route.PRIMARY || (inTransaction && !readOnly)) {
+            if (inTransaction && !readOnly) {
+                pinAfterCommit(ReadReplicaRouting.userId());
+            }
+            writes.increment();
+            return ReadReplicaRouting.Route.PRIMARY;
+        }
+        if (!readOnly && route != ReadReplicaRouting.Route.REPLICA) {
+            otherReads.increment();
+            return ReadReplicaRouting.Route.PRIMARY;
+        }
+        if (lagGuard.isPinned(ReadReplicaRouting.userId())) {
+            pinnedReads.increment();
+            return ReadReplicaRouting.Route.PRIMARY;
+        }
+        (readOnly ? readOnlyReads : annotatedReads).increment();
+        return ReadReplicaRouting.Route.REPLICA;
+    }
+
+    private void pinAfterCommit(Long userId) {
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lagGuard.pin(userId);
+            }
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.onlyfanshop_be.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-your-writes for the read replica: after a user's write commits, that user's reads stay on
+ * the primary for datasource.replica.read-your-writes-ms, longer than the replica is expected to
+ * lag. ReplicaRoutingDataSource pins the user after every committed write transaction; flows that
+ * write on a user's behalf without their session (e.g. the VNPay callback) call {@link #pin}.
+ */
+@Component
+public class ReplicationLagGuard {
+    @Value("${datasource.replica.read-your-writes-ms:5000}")
+    private long windowMillis;
+
+    private final Map<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    public void pin(Long userId) {
+        if (userId != null) {
+            pinnedUntil.put(userId, System.currentTimeMillis() + windowMillis);
+        }
+    }
+
+    public boolean isPinned(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(userId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.read-your-writes-ms:5000}")
+    void evictExpired() {
+        long now = System.currentTimeMillis();
+        pinnedUntil.values().removeIf(until -> until <= now);
+    }
+}
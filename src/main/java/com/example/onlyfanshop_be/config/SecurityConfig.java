@@ -1,11 +1,13 @@
 package com.example.onlyfanshop_be.config;
 
 import com.example.onlyfanshop_be.repository.TokenRepository;
-import com.example.onlyfanshop_be.security.CustomUserDetailsService;
 import com.example.onlyfanshop_be.security.JwtAuthenticationFilter;
 import com.example.onlyfanshop_be.security.JwtTokenProvider;
 import com.example.onlyfanshop_be.service.ILoginService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -25,29 +27,36 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
     public class SecurityConfig {
 
         private final JwtTokenProvider tokenProvider;
-        private final CustomUserDetailsService userDetailsService;
         private final TokenRepository tokenRepository; // ✅ thêm repository
         private final ILoginService loginService;
 
-        private final LoginRateLimitFilter loginRateLimitFilter;
+        private final RateLimitFilter rateLimitFilter;
+        private final MeterRegistry meterRegistry;
+
+        // Set only when actuator listens on its own, internal-only port (see application.properties)
+        @Value("${management.server.port:-1}")
+        private int managementPort;
+
+        @Value("${server.port:8080}")
+        private int serverPort;
 
         public SecurityConfig(JwtTokenProvider tokenProvider,
-                              CustomUserDetailsService userDetailsService,
                               TokenRepository tokenRepository,
                               ILoginService loginService,
-                              LoginRateLimitFilter loginRateLimitFilter) {
+                              RateLimitFilter rateLimitFilter,
+                              MeterRegistry meterRegistry) {
             this.tokenProvider = tokenProvider;
-            this.userDetailsService = userDetailsService;
             this.tokenRepository = tokenRepository;
             this.loginService = loginService;
-            this.loginRateLimitFilter = loginRateLimitFilter;
+            this.rateLimitFilter = rateLimitFilter;
+            this.meterRegistry = meterRegistry;
         }
 
         @Bean
         public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
             // ✅ Truyền thêm tokenRepository và loginService vào filter
             JwtAuthenticationFilter jwtFilter =
-                    new JwtAuthenticationFilter(tokenProvider, userDetailsService, tokenRepository, loginService);
+                    new JwtAuthenticationFilter(tokenProvider, tokenRepository, loginService, meterRegistry);
 
             http
                     .csrf(csrf -> csrf.disable())
@@ -74,8 +83,15 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
                                         "/store-locations/**",
                                         "/ws/**",
                                         "/ws",
-                                        "/api/webhooks/**"
+                                        "/api/webhooks/**",
+                                        "/uploads/**"
                                 ).permitAll()
+                            .requestMatchers("/actuator/health").permitAll()
+                            // Scrapers on the internal management port need no token; on the public port it stays ADMIN
+                            .requestMatchers(request -> managementPort > 0 && managementPort != serverPort
+                                    && request.getLocalPort() == managementPort
+                                    && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
+                            .requestMatchers("/actuator/**").hasRole("ADMIN")
                             .anyRequest().authenticated()
                     )
                     .exceptionHandling(exceptions -> exceptions
@@ -108,12 +124,22 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
                                 );
                             })
                     )
-                    .addFilterBefore(loginRateLimitFilter, UsernamePasswordAuthenticationFilter.class)
-                    .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+                    .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                    // After JWT so authenticated callers are limited per user rather than per IP
+                    .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
             return http.build();
         }
 
+        // RateLimitFilter is a @Component; keep Boot from also registering it in the servlet chain,
+        // where it would run before authentication and key every request by IP
+        @Bean
+        public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+            FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+            registration.setEnabled(false);
+            return registration;
+        }
+
         @Bean
         public PasswordEncoder passwordEncoder() {
             return new BCryptPasswordEncoder();
@@ -0,0 +1,56 @@
+package com.example.onlyfanshop_be.config;
+
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * SQL statistics per public service method (inclusive of nested service calls), tagged
+ * Class.method. An outermost call outside any HTTP request, e.g. a scheduled job, gets its own
+ * Stats so its N+1s are reported too. Off by default: it puts a proxy around every service.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "sql.metrics.service-methods.enabled", havingValue = "true")
+public class SqlMetricsAspect {
+    private final SqlMetricsRecorder recorder;
+
+    public SqlMetricsAspect(SqlMetricsRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Around("within(com.example.onlyfanshop_be.service..*) && @within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        SqlStatementCounter.Stats outer = SqlStatementCounter.current();
+        if (outer == null) {
+            SqlStatementCounter.start();
+            SqlStatementCounter.Stats stats;
+            Object result;
+            try {
+                result = joinPoint.proceed();
+            } finally {
+                stats = SqlStatementCounter.stop(null);
+                recorder.record("method", Tags.of("method", method), method, stats);
+            }
+            recorder.checkBudget(method, stats);
+            return result;
+        }
+
+        // Inside a request: record this call's share of the request's statistics
+        long statements = outer.statements();
+        long rows = outer.rows();
+        long nanos = outer.dbNanos();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            SqlStatementCounter.Stats delta = new SqlStatementCounter.Stats();
+            delta.recordRows(outer.rows() - rows);
+            delta.addStatements(outer.statements() - statements, outer.dbNanos() - nanos);
+            recorder.record("method", Tags.of("method", method), method, delta);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.onlyfanshop_be.config;
+
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL of each HTTP request, including what the security filters run (token lookup),
+ * and records it per route template. Runs ahead of every other filter.
+ */
+@Component
+@ConditionalOnProperty(name = "sql.metrics.enabled", havingValue = "true", matchIfMissing = true)
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlMetricsFilter extends OncePerRequestFilter {
+    private final SqlMetricsRecorder recorder;
+
+    public SqlMetricsFilter(SqlMetricsRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.Stats previous = SqlStatementCounter.start();
+        SqlStatementCounter.Stats stats;
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            stats = SqlStatementCounter.stop(previous);
+        }
+        // Route template rather than the raw path, so ids do not multiply the time series
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String description = request.getMethod() + " " + uri;
+        recorder.record("request", Tags.of("method", request.getMethod(), "uri", uri), description, stats);
+        recorder.checkBudget(description, stats);
+    }
+}
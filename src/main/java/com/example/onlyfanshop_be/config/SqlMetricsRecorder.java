@@ -0,0 +1,88 @@
+package com.example.onlyfanshop_be.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns the SQL statistics of a finished unit of work into meters, N+1 warnings and budget
+ * checks. Meters are sql.{unit}.statements, sql.{unit}.rows and sql.{unit}.time with the unit's
+ * tags (uri/method for requests, method for service calls) plus sql.nplusone.suspected.
+ * Each suspected N+1 (unit + statement shape) is logged once.
+ */
+@Component
+@ConditionalOnProperty(name = "sql.metrics.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class SqlMetricsRecorder {
+    private static final int MAX_REPORTED_SHAPES = 1000;
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> reportedShapes = ConcurrentHashMap.newKeySet();
+
+    @Value("${sql.metrics.n-plus-one.threshold:10}")
+    private int nPlusOneThreshold;
+
+    @Value("${sql.metrics.budget.statements:0}")
+    private long statementBudget;
+
+    @Value("${sql.metrics.budget.fail:false}")
+    private boolean failOverBudget;
+
+    public SqlMetricsRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void record(String unit, Tags tags, String description, SqlStatementCounter.Stats stats) {
+        DistributionSummary.builder("sql." + unit + ".statements")
+                .description("SQL statements per " + unit)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.statements());
+        DistributionSummary.builder("sql." + unit + ".rows")
+                .description("Rows read or written per " + unit)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.rows());
+        Timer.builder("sql." + unit + ".time")
+                .description("Time spent executing SQL per " + unit)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.dbNanos(), TimeUnit.NANOSECONDS);
+
+        Map<String, Integer> repeated = stats.repeatedShapes(nPlusOneThreshold);
+        if (!repeated.isEmpty()) {
+            meterRegistry.counter("sql.nplusone.suspected", tags.and("unit", unit)).increment();
+            repeated.forEach((sql, count) -> {
+                if (reportedShapes.size() < MAX_REPORTED_SHAPES && reportedShapes.add(description + '\n' + sql)) {
+                    log.warn("Suspected N+1 in {}: statement ran {} times: {}", description, count, sql);
+                }
+            });
+        }
+    }
+
+    /**
+     * Warns when a request (or outermost service call) ran more statements than
+     * sql.metrics.budget.statements.
+     *
+     * @throws IllegalStateException instead of warning when sql.metrics.budget.fail is on (meant for tests)
+     */
+    public void checkBudget(String description, SqlStatementCounter.Stats stats) {
+        if (statementBudget > 0 && stats.statements() > statementBudget) {
+            String message = description + " ran " + stats.statements() + " SQL statements (budget " + statementBudget + ")";
+            if (failOverBudget) {
+                throw new IllegalStateException(message);
+            }
+            log.warn(message);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.onlyfanshop_be.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Per-unit-of-work SQL statistics: statements, rows, time spent in JDBC and how often each
+ * statement shape ran. A unit of work (an HTTP request, or an outermost service call when
+ * service-method metrics are on) installs a Stats on its thread; InstrumentedDataSource records
+ * into whatever Stats is current. Work forked to other threads joins the caller's Stats through
+ * {@link #callWith}.
+ *
+ * Tests can wrap a call in {@link #start}/{@link #stop} and assert on the returned Stats.
+ */
+public final class SqlStatementCounter {
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static final class Stats {
+        private final AtomicLong statements = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+        // Hibernate binds every value as '?', so identical SQL text is the same statement shape
+        private final Map<String, AtomicInteger> shapes = new ConcurrentHashMap<>();
+
+        void recordStatement(String sql, long elapsedNanos) {
+            statements.incrementAndGet();
+            nanos.addAndGet(elapsedNanos);
+            if (sql != null) {
+                shapes.computeIfAbsent(sql, k -> new AtomicInteger()).incrementAndGet();
+            }
+        }
+
+        void addStatements(long count, long elapsedNanos) {
+            statements.addAndGet(count);
+            nanos.addAndGet(elapsedNanos);
+        }
+
+        void recordRows(long count) {
+            rows.addAndGet(count);
+        }
+
+        public long statements() {
+            return statements.get();
+        }
+
+        public long rows() {
+            return rows.get();
+        }
+
+        public long dbNanos() {
+            return nanos.get();
+        }
+
+        /**
+         * Statement shapes executed at least {@code threshold} times, most frequent first:
+         * the per-row lookups of an N+1.
+         */
+        public Map<String, Integer> repeatedShapes(int threshold) {
+            Map<String, Integer> repeated = new LinkedHashMap<>();
+            shapes.entrySet().stream()
+                    .filter(e -> e.getValue().get() >= threshold)
+                    .sorted((a, b) -> Integer.compare(b.getValue().get(), a.getValue().get()))
+                    .forEach(e -> repeated.put(e.getKey(), e.getValue().get()));
+            return repeated;
+        }
+    }
+
+    public static Stats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Installs fresh Stats on this thread and returns the ones it replaces (usually null), to be
+     * handed back to {@link #stop}.
+     */
+    public static Stats start() {
+        Stats previous = CURRENT.get();
+        CURRENT.set(new Stats());
+        return previous;
+    }
+
+    /**
+     * Removes this thread's Stats, restoring {@code previous}, and returns the removed ones.
+     */
+    public static Stats stop(Stats previous) {
+        Stats stats = CURRENT.get();
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+        return stats;
+    }
+
+    /**
+     * Runs {@code task} with {@code stats} as this thread's Stats, e.g. on a worker thread
+     * doing part of a request.
+     */
+    public static <T> T callWith(Stats stats, Supplier<T> task) {
+        if (stats == null) {
+            return task.get();
+        }
+        Stats previous = CURRENT.get();
+        CURRENT.set(stats);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
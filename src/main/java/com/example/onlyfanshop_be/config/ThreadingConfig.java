@@ -0,0 +1,44 @@
+package com.example.onlyfanshop_be.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Request execution mode.
+ *
+ * With {@code spring.threads.virtual.enabled=true} Spring Boot runs Tomcat request handling,
+ * the {@code @Async} executor and the {@code @Scheduled} scheduler on virtual threads, so
+ * requests blocked on JDBC, Cloudinary or SMTP no longer hold one of the 200 platform workers.
+ * Concurrency is then bounded by the Hikari pool rather than by the Tomcat thread pool, which is
+ * why the pool uses a short connection timeout: excess demand fails fast instead of queueing
+ * for 20 seconds. Set it to false to fall back to the platform thread pool.
+ */
+@Configuration
+@EnableAsync
+@Slf4j
+public class ThreadingConfig {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    @Value("${server.tomcat.threads.max:200}")
+    private int tomcatMaxThreads;
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+    @Value("${spring.datasource.hikari.connection-timeout:30000}")
+    private long connectionTimeoutMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void logExecutionMode() {
+        if (virtualThreads) {
+            log.info("Execution mode: virtual threads (Tomcat, @Async, @Scheduled); DB pool {} connections, acquire timeout {} ms",
+                    poolSize, connectionTimeoutMs);
+        } else {
+            log.info("Execution mode: platform threads (Tomcat max {}); DB pool {} connections",
+                    tomcatMaxThreads, poolSize);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.onlyfanshop_be.config;
 
+import com.example.onlyfanshop_be.security.AuthenticatedUser;
 import com.example.onlyfanshop_be.security.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,8 +15,6 @@ import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
@@ -29,7 +28,6 @@ import java.util.List;
 public class WebSocketSecurityConfig implements WebSocketMessageBrokerConfigurer {
 
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
@@ -51,11 +49,10 @@ public class WebSocketSecurityConfig implements WebSocketMessageBrokerConfigurer
                             try {
                                 // Validate token
                                 if (jwtTokenProvider.validateToken(token)) {
-                                    String email = jwtTokenProvider.getEmailFromJWT(token);
-                                    Long userId = Long.parseLong(jwtTokenProvider.getUserIdFromJWT(token).toString());
-                                    
-                                    // Load user details
-                                    UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                                    // Principal comes from the claims, same as for HTTP requests
+                                    AuthenticatedUser principal = jwtTokenProvider.getPrincipalFromJWT(token);
+                                    String email = principal.getEmail();
+                                    Long userId = principal.getUserId();
                                     
                                     // Create authentication with user ID in details
                                     java.util.Map<String, Object> details = new java.util.HashMap<>();
@@ -64,7 +61,7 @@ public class WebSocketSecurityConfig implements WebSocketMessageBrokerConfigurer
                                     
                                     UsernamePasswordAuthenticationToken authentication = 
                                         new UsernamePasswordAuthenticationToken(
-                                            userDetails, null, userDetails.getAuthorities()
+                                            principal, null, principal.getAuthorities()
                                         );
                                     authentication.setDetails(details);
                                     
@@ -0,0 +1,70 @@
+package com.example.onlyfanshop_be.controller;
+
+import com.example.onlyfanshop_be.dto.SalesRollupDTO;
+import com.example.onlyfanshop_be.dto.response.ApiResponse;
+import com.example.onlyfanshop_be.enums.RollupGranularity;
+import com.example.onlyfanshop_be.enums.SalesDimension;
+import com.example.onlyfanshop_be.service.SalesAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    /**
+     * Top keys of one dimension (product, brand, category, payment method) over a date range.
+     * {@code to} is inclusive.
+     */
+    @GetMapping("/sales/top")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<SalesRollupDTO>>> getTopSales(
+            @RequestParam SalesDimension dimension,
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<SalesRollupDTO> data = salesAnalyticsService.getTopByDimension(
+                dimension, granularity, from, to.plusDays(1), limit);
+        return ResponseEntity.ok(ApiResponse.<List<SalesRollupDTO>>builder()
+                .statusCode(200)
+                .message("Lấy thống kê doanh số thành công")
+                .data(data)
+                .build());
+    }
+
+    @GetMapping("/sales/timeseries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<SalesRollupDTO>>> getSalesTimeSeries(
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<SalesRollupDTO> data = salesAnalyticsService.getTimeSeries(granularity, from, to.plusDays(1));
+        return ResponseEntity.ok(ApiResponse.<List<SalesRollupDTO>>builder()
+                .statusCode(200)
+                .message("Lấy doanh số theo thời gian thành công")
+                .data(data)
+                .build());
+    }
+
+    @PostMapping("/sales/backfill")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> backfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        int processed = salesAnalyticsService.backfill(from, to.plusDays(1));
+        return ResponseEntity.ok(ApiResponse.<Integer>builder()
+                .statusCode(200)
+                .message("Đã tính lại thống kê từ " + processed + " đơn hàng")
+                .data(processed)
+                .build());
+    }
+}
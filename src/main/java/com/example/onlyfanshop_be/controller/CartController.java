@@ -5,8 +5,8 @@ import com.example.onlyfanshop_be.dto.request.AddToCartRequest;
 import com.example.onlyfanshop_be.dto.response.ApiResponse;
 import com.example.onlyfanshop_be.entity.Cart;
 import com.example.onlyfanshop_be.entity.CartItem;
+import com.example.onlyfanshop_be.exception.AppException;
 import com.example.onlyfanshop_be.repository.CartItemRepository;
-import com.example.onlyfanshop_be.repository.UserRepository;
 import com.example.onlyfanshop_be.service.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -18,8 +18,6 @@ import java.util.List;
 public class CartController {
     @Autowired
     CartService cartService;
-    @Autowired
-    UserRepository userRepository;
 
     @PostMapping("/addToCart")
     public ApiResponse<Void> addToCart(@RequestBody AddToCartRequest request) {
@@ -32,13 +30,13 @@ public class CartController {
 
     @PostMapping("/clear")
     public ApiResponse<Void> clearCart(@RequestParam String username) {
-        // Try to find user by email first, if not found, try as userId
-        boolean checkUser = userRepository.findByEmail(username).isPresent() ||
-                (username.matches("\\d+") && userRepository.findById(Long.parseLong(username)).isPresent());
-        if (checkUser) {
+        // clearCart resolves the user (principal first) and rejects unknown ones
+        try {
             cartService.clearCart(username);
             return ApiResponse.<Void>builder().message("Đã xóa toàn bộ").statusCode(200).build();
-        }else return ApiResponse.<Void>builder().statusCode(201).message("Có lỗi khi xóa").build();
+        } catch (AppException e) {
+            return ApiResponse.<Void>builder().statusCode(201).message("Có lỗi khi xóa").build();
+        }
 
     }
 
@@ -55,8 +53,9 @@ public class CartController {
     }
 
     @GetMapping("/{userId}")
-    public ApiResponse<CartDTO> getCart(@PathVariable int userId) {
-        return cartService.getCart(userId,"InProgress");
+    public ApiResponse<CartDTO> getCart(@PathVariable int userId,
+                                        @RequestParam(required = false) Integer storeId) {
+        return cartService.getCart(userId, "InProgress", storeId);
     }
 
     @DeleteMapping("/deleteInstantCart")
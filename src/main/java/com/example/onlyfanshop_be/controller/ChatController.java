@@ -6,15 +6,15 @@ import com.example.onlyfanshop_be.dto.request.CreateChatRoomFromProductRequest;
 import com.example.onlyfanshop_be.dto.request.CreateChatRoomRequest;
 import com.example.onlyfanshop_be.dto.request.SendMessageRequest;
 import com.example.onlyfanshop_be.dto.response.ApiResponse;
-import com.example.onlyfanshop_be.security.JwtTokenProvider;
+import com.example.onlyfanshop_be.security.AuthenticatedUser;
 import com.example.onlyfanshop_be.service.ChatService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -27,16 +27,14 @@ import java.util.List;
 public class ChatController {
 
     private final ChatService chatService;
-    private final JwtTokenProvider jwtTokenProvider;
 
     @PostMapping("/messages")
     @Operation(summary = "Send a message", description = "Send a message to a chat room")
     public ResponseEntity<ApiResponse<String>> sendMessage(
             @RequestBody SendMessageRequest request,
-            HttpServletRequest httpRequest) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = jwtTokenProvider.extractToken(httpRequest);
-            String senderId = jwtTokenProvider.getUserIdFromJWT(token).toString();
+            String senderId = currentUser.getUserId().toString();
             
             chatService.sendMessage(request, senderId);
             
@@ -55,11 +53,10 @@ public class ChatController {
 
     @GetMapping("/rooms")
     @Operation(summary = "Get chat rooms", description = "Get list of chat rooms for admin, staff or customer")
-    public ResponseEntity<ApiResponse<List<ChatRoomDTO>>> getChatRooms(HttpServletRequest httpRequest) {
+    public ResponseEntity<ApiResponse<List<ChatRoomDTO>>> getChatRooms(@AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = jwtTokenProvider.extractToken(httpRequest);
-            String userRole = jwtTokenProvider.getRoleFromJWT(token);
-            String userId = jwtTokenProvider.getUserIdFromJWT(token).toString();
+            String userRole = currentUser.getRole();
+            String userId = currentUser.getUserId().toString();
             
             List<ChatRoomDTO> chatRooms;
             
@@ -90,11 +87,10 @@ public class ChatController {
     @Operation(summary = "Get messages for a room", description = "Get all messages in a specific chat room")
     public ResponseEntity<ApiResponse<List<MessageDTO>>> getMessagesForRoom(
             @PathVariable String roomId,
-            HttpServletRequest httpRequest) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = jwtTokenProvider.extractToken(httpRequest);
-            String userId = jwtTokenProvider.getUserIdFromJWT(token).toString();
-            String userRole = jwtTokenProvider.getRoleFromJWT(token);
+            String userId = currentUser.getUserId().toString();
+            String userRole = currentUser.getRole();
             
             // Kiểm tra quyền truy cập room
             if (!hasAccessToRoom(roomId, userId, userRole)) {
@@ -124,10 +120,9 @@ public class ChatController {
     @Operation(summary = "Mark messages as read", description = "Mark all messages in a room as read")
     public ResponseEntity<ApiResponse<String>> markMessagesAsRead(
             @PathVariable String roomId,
-            HttpServletRequest httpRequest) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = jwtTokenProvider.extractToken(httpRequest);
-            String userId = jwtTokenProvider.getUserIdFromJWT(token).toString();
+            String userId = currentUser.getUserId().toString();
             
             chatService.markAllMessagesAsRead(roomId, userId);
             
@@ -147,13 +142,10 @@ public class ChatController {
     @GetMapping("/rooms/customer")
     @Operation(summary = "Get or create customer chat room", description = "Get or create chat room for customer")
     @PreAuthorize("hasRole('CUSTOMER')")
-    public ResponseEntity<ApiResponse<String>> getOrCreateCustomerRoom(HttpServletRequest httpRequest) {
+    public ResponseEntity<ApiResponse<String>> getOrCreateCustomerRoom(@AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
             log.info("Received request to get/create customer room");
-            String token = jwtTokenProvider.extractToken(httpRequest);
-            log.info("Token extracted successfully");
-            
-            String customerId = jwtTokenProvider.getUserIdFromJWT(token).toString();
+            String customerId = currentUser.getUserId().toString();
             log.info("Customer ID: " + customerId);
             
             // Use ChatService to get/create room with Firebase
@@ -179,10 +171,9 @@ public class ChatController {
     @PreAuthorize("hasRole('CUSTOMER')")
     public ResponseEntity<ApiResponse<String>> createChatRoomFromProduct(
             @RequestBody CreateChatRoomFromProductRequest request,
-            HttpServletRequest httpRequest) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = jwtTokenProvider.extractToken(httpRequest);
-            String customerId = jwtTokenProvider.getUserIdFromJWT(token).toString();
+            String customerId = currentUser.getUserId().toString();
             
             String roomId = chatService.createChatRoomFromProduct(customerId, request);
             
@@ -1,7 +1,9 @@
 package com.example.onlyfanshop_be.controller;
 
 import com.example.onlyfanshop_be.dto.response.ApiResponse;
-import com.example.onlyfanshop_be.service.CloudinaryStorageService;
+import com.example.onlyfanshop_be.dto.FileUploadResultDTO;
+import com.example.onlyfanshop_be.service.IFileStorage;
+import com.example.onlyfanshop_be.service.ImageUploadPipelineService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/upload")
@@ -28,7 +31,10 @@ import java.io.IOException;
 public class FileUploadController {
 
     @Autowired
-    private CloudinaryStorageService cloudinaryStorageService;
+    private IFileStorage cloudinaryStorageService;
+
+    @Autowired
+    private ImageUploadPipelineService imageUploadPipelineService;
 
     @PostMapping(value = "/image", consumes = "multipart/form-data")
     @Operation(summary = "Upload image to Cloudinary")
@@ -56,6 +62,28 @@ public class FileUploadController {
                     .build();
         }
     }
+    @PostMapping(value = "/images", consumes = "multipart/form-data")
+    @Operation(summary = "Upload nhiều ảnh song song, kèm thumbnail")
+    public ApiResponse<List<FileUploadResultDTO>> uploadImages(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "folder", defaultValue = "products") String folder
+    ) {
+        try {
+            List<FileUploadResultDTO> results = imageUploadPipelineService.uploadAll(files, folder);
+            long succeeded = results.stream().filter(FileUploadResultDTO::isSuccess).count();
+            return ApiResponse.<List<FileUploadResultDTO>>builder()
+                    .statusCode(succeeded == results.size() ? 200 : 207)
+                    .message("Upload thành công " + succeeded + "/" + results.size() + " file")
+                    .data(results)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return ApiResponse.<List<FileUploadResultDTO>>builder()
+                    .statusCode(400)
+                    .message(e.getMessage())
+                    .build();
+        }
+    }
+
     @DeleteMapping("/image")
     @Operation(summary = "Xóa ảnh trong Cloudinary Storage theo URL")
     public ApiResponse<String> deleteImage(@RequestParam("url") String imageUrl) {
@@ -1,34 +1,25 @@
 package com.example.onlyfanshop_be.controller;
 
 import com.example.onlyfanshop_be.dto.InventoryRequestDTO;
-import com.example.onlyfanshop_be.dto.InventoryRequestItemDTO;
 import com.example.onlyfanshop_be.dto.request.ApproveInventoryRequestDTO;
 import com.example.onlyfanshop_be.dto.request.CreateInventoryRequestDTO;
 import com.example.onlyfanshop_be.dto.request.RejectInventoryRequestDTO;
 import com.example.onlyfanshop_be.dto.response.ApiResponse;
 import com.example.onlyfanshop_be.entity.InventoryRequest;
-import com.example.onlyfanshop_be.entity.InventoryRequestItem;
-import com.example.onlyfanshop_be.entity.Product;
-import com.example.onlyfanshop_be.entity.StoreLocation;
-import com.example.onlyfanshop_be.entity.User;
 import com.example.onlyfanshop_be.enums.InventoryRequestStatus;
-import com.example.onlyfanshop_be.repository.InventoryRequestItemRepository;
-import com.example.onlyfanshop_be.repository.ProductRepository;
-import com.example.onlyfanshop_be.repository.StoreLocationRepository;
-import com.example.onlyfanshop_be.repository.UserRepository;
+import com.example.onlyfanshop_be.security.AuthenticatedUser;
 import com.example.onlyfanshop_be.service.InventoryRequestService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @RestController
@@ -36,26 +27,19 @@ import java.util.List;
 @RequiredArgsConstructor
 public class InventoryRequestController {
     private final InventoryRequestService inventoryRequestService;
-    private final InventoryRequestItemRepository inventoryRequestItemRepository;
-    private final UserRepository userRepository;
-    private final StoreLocationRepository storeLocationRepository;
-    private final ProductRepository productRepository;
 
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
     public ResponseEntity<ApiResponse<InventoryRequestDTO>> createRequest(
             @Valid @RequestBody CreateInventoryRequestDTO dto,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         InventoryRequest request;
         
         if (dto.getItems() != null && !dto.getItems().isEmpty()) {
             request = inventoryRequestService.createRequestWithItems(
                     dto.getStoreId(),
                     dto.getItems(),
-                    user.getId(),
+                    currentUser.getUserId(),
                     dto.getNote()
             );
         } else if (dto.getProductId() != null && dto.getQuantity() != null) {
@@ -63,7 +47,7 @@ public class InventoryRequestController {
                     dto.getStoreId(),
                     dto.getProductId(),
                     dto.getQuantity(),
-                    user.getId(),
+                    currentUser.getUserId(),
                     dto.getNote()
             );
         } else {
@@ -82,14 +66,11 @@ public class InventoryRequestController {
     public ResponseEntity<ApiResponse<InventoryRequestDTO>> approveRequest(
             @PathVariable Long id,
             @Valid @RequestBody ApproveInventoryRequestDTO dto,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         InventoryRequest request = inventoryRequestService.approveRequest(
                 id,
                 dto.getApprovedQuantity(),
-                user.getId(),
+                currentUser.getUserId(),
                 dto.getAdminNote()
         );
 
@@ -105,13 +86,10 @@ public class InventoryRequestController {
     public ResponseEntity<ApiResponse<InventoryRequestDTO>> rejectRequest(
             @PathVariable Long id,
             @RequestBody RejectInventoryRequestDTO dto,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         InventoryRequest request = inventoryRequestService.rejectRequest(
                 id,
-                user.getId(),
+                currentUser.getUserId(),
                 dto.getAdminNote()
         );
 
@@ -127,11 +105,8 @@ public class InventoryRequestController {
     public ResponseEntity<ApiResponse<InventoryRequestDTO>> completeRequest(
             @PathVariable Long id,
             @RequestParam Integer sourceStoreId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        InventoryRequest request = inventoryRequestService.completeRequest(id, sourceStoreId, user.getId());
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
+        InventoryRequest request = inventoryRequestService.completeRequest(id, sourceStoreId, currentUser.getUserId());
 
         return ResponseEntity.ok(ApiResponse.<InventoryRequestDTO>builder()
                 .statusCode(200)
@@ -156,7 +131,7 @@ public class InventoryRequestController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<List<InventoryRequestDTO>>> getPendingRequests() {
         List<InventoryRequest> requests = inventoryRequestService.getPendingRequests();
-        List<InventoryRequestDTO> dtos = requests.stream().map(this::convertToDTO).toList();
+        List<InventoryRequestDTO> dtos = inventoryRequestService.toDTOs(requests);
 
         return ResponseEntity.ok(ApiResponse.<List<InventoryRequestDTO>>builder()
                 .statusCode(200)
@@ -170,7 +145,7 @@ public class InventoryRequestController {
     public ResponseEntity<ApiResponse<List<InventoryRequestDTO>>> getStoreRequests(
             @PathVariable Integer storeId) {
         List<InventoryRequest> requests = inventoryRequestService.getStoreRequests(storeId);
-        List<InventoryRequestDTO> dtos = requests.stream().map(this::convertToDTO).toList();
+        List<InventoryRequestDTO> dtos = inventoryRequestService.toDTOs(requests);
 
         return ResponseEntity.ok(ApiResponse.<List<InventoryRequestDTO>>builder()
                 .statusCode(200)
@@ -190,7 +165,8 @@ public class InventoryRequestController {
                 ? inventoryRequestService.getRequestsByStatus(status, pageRequest)
                 : inventoryRequestService.getRequestsByStatus(InventoryRequestStatus.PENDING, pageRequest);
 
-        Page<InventoryRequestDTO> dtos = requests.map(this::convertToDTO);
+        Page<InventoryRequestDTO> dtos = new PageImpl<>(inventoryRequestService.toDTOs(requests.getContent()),
+                requests.getPageable(), requests.getTotalElements());
 
         return ResponseEntity.ok(ApiResponse.<Page<InventoryRequestDTO>>builder()
                 .statusCode(200)
@@ -224,99 +200,6 @@ public class InventoryRequestController {
     }
 
     private InventoryRequestDTO convertToDTO(InventoryRequest request) {
-        StoreLocation store = storeLocationRepository.findById(request.getStoreId()).orElse(null);
-        User requester = request.getRequestedBy() != null
-                ? userRepository.findById(request.getRequestedBy()).orElse(null) : null;
-        User approver = request.getApprovedBy() != null
-                ? userRepository.findById(request.getApprovedBy()).orElse(null) : null;
-
-        List<InventoryRequestItem> items = request.getItems();
-        if (items == null || items.isEmpty()) {
-            items = inventoryRequestItemRepository.findByRequestId(request.getId());
-        }
-        
-        List<InventoryRequestItemDTO> itemDTOs = new ArrayList<>();
-        int totalQuantity = 0;
-        
-        Long legacyProductId = request.getProductId();
-        String legacyProductName = null;
-        String legacyProductImageUrl = null;
-        Integer legacyRequestedQuantity = request.getRequestedQuantity();
-        Integer legacyApprovedQuantity = request.getApprovedQuantity();
-        
-        for (InventoryRequestItem item : items) {
-            Product product = productRepository.findById(item.getProductId().intValue()).orElse(null);
-            
-            String productImageUrl = null;
-            String productName = null;
-            if (product != null) {
-                productName = product.getName();
-                if (product.getImages() != null && !product.getImages().isEmpty()) {
-                    productImageUrl = product.getImages().stream()
-                            .filter(img -> img.getIsMain() != null && img.getIsMain())
-                            .map(img -> img.getImageUrl())
-                            .findFirst()
-                            .orElse(product.getImages().get(0).getImageUrl());
-                }
-            }
-            
-            itemDTOs.add(InventoryRequestItemDTO.builder()
-                    .id(item.getId())
-                    .productId(item.getProductId())
-                    .productName(productName)
-                    .productImageUrl(productImageUrl)
-                    .requestedQuantity(item.getRequestedQuantity())
-                    .approvedQuantity(item.getApprovedQuantity())
-                    .build());
-            
-            totalQuantity += item.getRequestedQuantity();
-            
-            if (legacyProductId == null) {
-                legacyProductId = item.getProductId();
-                legacyProductName = productName;
-                legacyProductImageUrl = productImageUrl;
-                legacyRequestedQuantity = item.getRequestedQuantity();
-                legacyApprovedQuantity = item.getApprovedQuantity();
-            }
-        }
-        
-        if (legacyProductId != null && legacyProductName == null) {
-            Product product = productRepository.findById(legacyProductId.intValue()).orElse(null);
-            if (product != null) {
-                legacyProductName = product.getName();
-                if (product.getImages() != null && !product.getImages().isEmpty()) {
-                    legacyProductImageUrl = product.getImages().stream()
-                            .filter(img -> img.getIsMain() != null && img.getIsMain())
-                            .map(img -> img.getImageUrl())
-                            .findFirst()
-                            .orElse(product.getImages().get(0).getImageUrl());
-                }
-            }
-        }
-
-        return InventoryRequestDTO.builder()
-                .id(request.getId())
-                .storeId(request.getStoreId())
-                .storeName(store != null ? store.getName() : null)
-                .items(itemDTOs)
-                .totalItems(itemDTOs.size())
-                .totalQuantity(totalQuantity)
-                .productId(legacyProductId)
-                .productName(legacyProductName)
-                .productImageUrl(legacyProductImageUrl)
-                .requestedQuantity(legacyRequestedQuantity)
-                .approvedQuantity(legacyApprovedQuantity)
-                .status(request.getStatus())
-                .requestedBy(request.getRequestedBy())
-                .requesterName(requester != null ? requester.getFullname() : null)
-                .approvedBy(request.getApprovedBy())
-                .approverName(approver != null ? approver.getFullname() : null)
-                .requestNote(request.getRequestNote())
-                .adminNote(request.getAdminNote())
-                .approvedAt(request.getApprovedAt())
-                .completedAt(request.getCompletedAt())
-                .createdAt(request.getCreatedAt())
-                .updatedAt(request.getUpdatedAt())
-                .build();
+        return inventoryRequestService.toDTOs(List.of(request)).get(0);
     }
 }
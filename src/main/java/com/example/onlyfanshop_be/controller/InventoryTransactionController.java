@@ -11,13 +11,13 @@ import com.example.onlyfanshop_be.entity.User;
 import com.example.onlyfanshop_be.repository.ProductRepository;
 import com.example.onlyfanshop_be.repository.StoreLocationRepository;
 import com.example.onlyfanshop_be.repository.UserRepository;
+import com.example.onlyfanshop_be.security.AuthenticatedUser;
 import com.example.onlyfanshop_be.service.InventoryTransactionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -39,16 +39,13 @@ public class InventoryTransactionController {
             @RequestParam Integer destStoreId,
             @RequestParam Integer quantity,
             @RequestParam(required = false) String note,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         InventoryTransaction transaction = transactionService.transferBetweenStores(
                 productId,
                 sourceStoreId,
                 destStoreId,
                 quantity,
-                user.getId(),
+                currentUser.getUserId(),
                 note
         );
 
@@ -66,15 +63,12 @@ public class InventoryTransactionController {
             @RequestParam Integer storeId,
             @RequestParam Integer quantity,
             @RequestParam(required = false) String note,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         InventoryTransaction transaction = transactionService.importToStore(
                 productId,
                 storeId,
                 quantity,
-                user.getId(),
+                currentUser.getUserId(),
                 note != null ? note : "Nhập hàng vào kho cửa hàng"
         );
 
@@ -89,15 +83,12 @@ public class InventoryTransactionController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<InventoryTransactionDTO>> adjustInventory(
             @Valid @RequestBody AdjustInventoryDTO dto,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userRepository.findByEmail(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         InventoryTransaction transaction = transactionService.adjustInventory(
                 dto.getProductId(),
                 dto.getStoreId(),
                 dto.getNewQuantity(),
-                user.getId(),
+                currentUser.getUserId(),
                 dto.getNote() != null ? dto.getNote() : "Điều chỉnh kiểm kê"
         );
 
@@ -0,0 +1,66 @@
+package com.example.onlyfanshop_be.controller;
+
+import com.example.onlyfanshop_be.dto.ReorderPointDTO;
+import com.example.onlyfanshop_be.dto.response.ApiResponse;
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import com.example.onlyfanshop_be.service.LowStockService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/low-stock")
+@RequiredArgsConstructor
+public class LowStockController {
+    private final LowStockService lowStockService;
+
+    @GetMapping("/{locationType}/{locationId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ApiResponse<List<ReorderPointDTO>>> getReorderPoints(
+            @PathVariable StockLocationType locationType,
+            @PathVariable Long locationId,
+            @RequestParam(defaultValue = "false") boolean alertingOnly) {
+        List<ReorderPointDTO> data = lowStockService.getReorderPoints(locationType, locationId, alertingOnly);
+        return ResponseEntity.ok(ApiResponse.<List<ReorderPointDTO>>builder()
+                .statusCode(200)
+                .message("Lấy danh sách mức tồn kho tối thiểu thành công")
+                .data(data)
+                .build());
+    }
+
+    /**
+     * Sets the reorder point of a product; {@code recoveryLevel} defaults to
+     * {@code reorderLevel} plus the configured margin.
+     */
+    @PutMapping("/{locationType}/{locationId}/products/{productId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<ReorderPointDTO>> setReorderPoint(
+            @PathVariable StockLocationType locationType,
+            @PathVariable Long locationId,
+            @PathVariable Long productId,
+            @RequestParam Integer reorderLevel,
+            @RequestParam(required = false) Integer recoveryLevel) {
+        ReorderPointDTO data = lowStockService.setReorderPoint(locationType, locationId, productId, reorderLevel, recoveryLevel);
+        return ResponseEntity.ok(ApiResponse.<ReorderPointDTO>builder()
+                .statusCode(200)
+                .message("Cập nhật mức tồn kho tối thiểu thành công")
+                .data(data)
+                .build());
+    }
+
+    @DeleteMapping("/{locationType}/{locationId}/products/{productId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Void>> deleteReorderPoint(
+            @PathVariable StockLocationType locationType,
+            @PathVariable Long locationId,
+            @PathVariable Long productId) {
+        lowStockService.deleteReorderPoint(locationType, locationId, productId);
+        return ResponseEntity.ok(ApiResponse.<Void>builder()
+                .statusCode(200)
+                .message("Đã xóa mức tồn kho tối thiểu")
+                .build());
+    }
+}
@@ -2,17 +2,15 @@ package com.example.onlyfanshop_be.controller;
 
 import com.example.onlyfanshop_be.dto.NotificationDTO;
 import com.example.onlyfanshop_be.dto.response.ApiResponse;
-import com.example.onlyfanshop_be.entity.Notification;
-import com.example.onlyfanshop_be.entity.User;
-import com.example.onlyfanshop_be.repository.NotificationRepository;
-import com.example.onlyfanshop_be.repository.UserRepository;
+import com.example.onlyfanshop_be.dto.response.NotificationFeedResponse;
+import com.example.onlyfanshop_be.security.AuthenticatedUser;
 import com.example.onlyfanshop_be.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -21,8 +19,6 @@ import java.util.List;
 public class NotificationController {
     @Autowired
     private NotificationService notificationService;
-    @Autowired
-    private NotificationRepository notificationRepository;
 
     // 2️⃣ Lấy danh sách thông báo theo user
     @GetMapping("/user/{userID}")
@@ -30,19 +26,42 @@ public class NotificationController {
         return notificationService.getNotifications(userID);
     }
 
+    // Feed phân trang theo cursor (before = cũ hơn, since = mới hơn)
+    @GetMapping("/feed")
+    public ApiResponse<NotificationFeedResponse> getFeed(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestParam(required = false) Integer before,
+            @RequestParam(required = false) Integer since,
+            @RequestParam(defaultValue = "20") int limit) {
+        return notificationService.getFeed(currentUser.getUserId(), before, since, limit);
+    }
+
+    // Đánh dấu nhiều thông báo là đã đọc (theo danh sách id hoặc tất cả đến upToId)
+    @PutMapping("/read")
+    public ApiResponse<Integer> markManyAsRead(
+            @AuthenticationPrincipal AuthenticatedUser currentUser,
+            @RequestBody(required = false) List<Integer> ids,
+            @RequestParam(required = false) Integer upToId) {
+        Long userId = currentUser.getUserId();
+        int updated = (ids != null && !ids.isEmpty())
+                ? notificationService.markRead(userId, ids)
+                : notificationService.markAllRead(userId, upToId);
+        return ApiResponse.<Integer>builder()
+                .statusCode(200)
+                .message("Đã đánh dấu là đã đọc")
+                .data(updated)
+                .build();
+    }
+
     // 3️⃣ Đánh dấu là đã đọc
     @PutMapping("/{id}/read")
     public ResponseEntity<?> markAsRead(@PathVariable Integer id) {
-        Notification n = notificationRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy thông báo!"));
-        n.setIsRead(true);
-        notificationRepository.save(n);
+        notificationService.markRead(id);
         return ResponseEntity.ok("Đã đánh dấu là đã đọc");
     }
     @GetMapping("/user/{userID}/unread-count")
     public ResponseEntity<Long> getUnreadCount(@PathVariable Integer userID) {
-        return ResponseEntity.ok(notificationRepository.countByUserIdAndIsReadFalse(userID != null ? userID.longValue() : null));
+        return ResponseEntity.ok(notificationService.getUnreadCount(userID.longValue()));
     }
 
 }
-
@@ -1,5 +1,6 @@
 package com.example.onlyfanshop_be.controller;
 
+import com.example.onlyfanshop_be.config.ReplicationLagGuard;
 import com.example.onlyfanshop_be.config.VNPAYConfig;
 import com.example.onlyfanshop_be.dto.PaymentDTO;
 import com.example.onlyfanshop_be.dto.response.ApiResponse;
@@ -19,12 +20,19 @@ import com.example.onlyfanshop_be.repository.PaymentRepository;
 import com.example.onlyfanshop_be.repository.UserAddressRepository;
 import com.example.onlyfanshop_be.repository.UserRepository;
 import com.example.onlyfanshop_be.security.JwtTokenProvider;
+import com.example.onlyfanshop_be.service.CartStoreService;
+import com.example.onlyfanshop_be.service.EmailService;
 import com.example.onlyfanshop_be.service.NotificationService;
 import com.example.onlyfanshop_be.service.PaymentService;
+import com.example.onlyfanshop_be.service.SalesAnalyticsService;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -44,6 +52,7 @@ import java.util.Optional;
 @RestController
 @RequestMapping("/payment")
 @RequiredArgsConstructor
+@Slf4j
 public class PaymentController {
     private final PaymentService paymentService;
     private final VNPAYConfig vnPayConfig;
@@ -67,6 +76,40 @@ public class PaymentController {
     private UserRepository userRepository;
     @Autowired
     private UserAddressRepository userAddressRepository;
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+    @Autowired
+    private EmailService emailService;
+    @Autowired
+    private CartStoreService cartStoreService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private ReplicationLagGuard replicationLagGuard;
+
+    // checkout.duration{method,outcome} and checkout.failures{method,reason}; reason is the
+    // ErrorCode name, the exception class or "declined" for a gateway refusal
+    private void recordCheckout(Timer.Sample sample, String method, String failure) {
+        sample.stop(Timer.builder("checkout.duration")
+                .description("Time to place an order, from request to response")
+                .tag("method", method)
+                .tag("outcome", failure == null ? "success" : "failure")
+                .register(meterRegistry));
+        if (failure != null) {
+            Counter.builder("checkout.failures")
+                    .description("Checkouts that did not produce an order")
+                    .tag("method", method)
+                    .tag("reason", failure)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private static String failureReason(Exception e) {
+        return e instanceof AppException appException
+                ? appException.getErrorCode().name()
+                : e.getClass().getSimpleName();
+    }
     
     // Helper method to generate order code
     private String generateOrderCode(Long userId) {
@@ -111,6 +154,17 @@ public class PaymentController {
         return userAddressRepository.save(newAddress);
     }
     
+    // Helper method to queue the order confirmation email; never fails the order
+    private void sendOrderConfirmationSafely(User user, Order order, List<OrderItem> items) {
+        try {
+            if (user.getEmail() != null && !user.getEmail().isBlank()) {
+                emailService.sendOrderConfirmation(user.getEmail(), user.getFullname(), order, items);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to queue order confirmation email for order {}", order.getOrderCode(), e);
+        }
+    }
+    
     // Helper method to calculate subtotal and total from cart items
     private BigDecimal[] calculateOrderTotals(List<CartItem> cartItems, BigDecimal shippingFee, BigDecimal discountTotal) {
         BigDecimal subtotal = BigDecimal.ZERO;
@@ -135,8 +189,24 @@ public class PaymentController {
             @RequestParam(required = false) String recipientPhoneNumber,
             @RequestParam(required = false, defaultValue = "web") String clientType
     ) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            ApiResponse<PaymentDTO.VNPayResponse> result = createVnPayPayment(request, amount, bankCode, address, recipientPhoneNumber, clientType);
+            recordCheckout(sample, "vnpay", null);
+            return result;
+        } catch (RuntimeException e) {
+            recordCheckout(sample, "vnpay", failureReason(e));
+            throw e;
+        }
+    }
+
+    private ApiResponse<PaymentDTO.VNPayResponse> createVnPayPayment(
+            HttpServletRequest request, Double amount, String bankCode, String address,
+            String recipientPhoneNumber, String clientType) {
         String token = jwtTokenProvider.extractToken(request);
         Long userId = jwtTokenProvider.getUserIdFromJWT(token);
+        // Write the cached cart through first: the payment reference is the carts row id
+        cartStoreService.flush(userId);
         Cart cart;
         cart = cartRepository.findByUserId(userId)
                 .orElseThrow(() -> new AppException(ErrorCode.CART_NOTFOUND));
@@ -161,10 +231,12 @@ public class PaymentController {
             @RequestParam(required = false) String deliveryType,
             @RequestParam(required = false) Integer storeId
     ) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             String token = jwtTokenProvider.extractToken(request);
             Long userId = jwtTokenProvider.getUserIdFromJWT(token);
 
+            cartStoreService.flush(userId);
             Cart cart = cartRepository.findByUserId(userId)
                     .orElseThrow(() -> new AppException(ErrorCode.CART_NOTFOUND));
 
@@ -200,6 +272,7 @@ public class PaymentController {
                     .build();
             order = orderRepository.save(order);
 
+            List<OrderItem> savedItems = new ArrayList<>();
             for (CartItem cartItem : cartItems) {
                 Product product = cartItem.getProduct();
                 if (product == null) {
@@ -220,17 +293,22 @@ public class PaymentController {
                         .quantity(quantity)
                         .lineTotal(lineTotal)
                         .build();
-                orderItemRepository.save(orderItem);
+                savedItems.add(orderItemRepository.save(orderItem));
             }
+            salesAnalyticsService.recordOrderPlaced(order, savedItems);
+            sendOrderConfirmationSafely(user, order, savedItems);
 
-            cartItemRepository.deleteAll(cartItems);
-            cartRepository.delete(cart);
+            cartStoreService.discard(userId, () -> {
+                cartItemRepository.deleteAll(cartItems);
+                cartRepository.delete(cart);
+            });
 
             notificationService.sendNotification(
                     user.getId().intValue(),
                     "Đơn hàng #" + order.getOrderCode() + " đã được tạo thành công! Chờ xác nhận."
             );
 
+            recordCheckout(sample, "cod", null);
             return ApiResponse.<Integer>builder()
                     .statusCode(200)
                     .message("Tạo đơn hàng COD thành công")
@@ -238,11 +316,13 @@ public class PaymentController {
                     .build();
 
         } catch (AppException e) {
+            recordCheckout(sample, "cod", failureReason(e));
             return ApiResponse.<Integer>builder()
                     .statusCode(e.getErrorCode().getCode())
                     .message(e.getErrorCode().getMessage())
                     .build();
         } catch (Exception e) {
+            recordCheckout(sample, "cod", failureReason(e));
             return ApiResponse.<Integer>builder()
                     .statusCode(500)
                     .message("Lỗi server: " + e.getMessage())
@@ -256,14 +336,31 @@ public class PaymentController {
                               @RequestParam(required = false) String recipientPhoneNumber,
                               @RequestParam(required = false, defaultValue = "web") String clientType,
                               HttpServletResponse response) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            Boolean paid = handleVnPayCallback(params, address, recipientPhoneNumber, clientType, response);
+            if (paid != null) {
+                recordCheckout(sample, "vnpay-callback", paid ? null : "declined");
+            }
+        } catch (IOException | RuntimeException e) {
+            recordCheckout(sample, "vnpay-callback", failureReason(e));
+            throw e;
+        }
+    }
 
+    /**
+     * Returns whether the gateway reported the payment as successful, or null for a callback
+     * that was already processed.
+     */
+    private Boolean handleVnPayCallback(Map<String, String> params, String address, String recipientPhoneNumber,
+                                        String clientType, HttpServletResponse response) throws IOException {
         String responseCode = params.get("vnp_ResponseCode");
         String paymentCode = params.get("vnp_TransactionNo");
         String amountStr = params.get("vnp_Amount");
         String cardIdStr = params.get("vnp_TxnRef").split("_")[0];
 
         boolean exists = paymentRepository.existsByProviderTxnId(paymentCode);
-        if (exists) return;
+        if (exists) return null;
 
         BigDecimal amount = amountStr != null ? 
                 BigDecimal.valueOf(Double.parseDouble(amountStr) / 100) : BigDecimal.ZERO;
@@ -316,6 +413,7 @@ public class PaymentController {
             order = orderRepository.save(order);
             
             // Tạo order items từ cart items
+            List<OrderItem> savedItems = new ArrayList<>();
             for (CartItem cartItem : cartItemsOrder) {
                 Product product = cartItem.getProduct();
                 if (product == null) {
@@ -336,18 +434,24 @@ public class PaymentController {
                         .quantity(quantity)
                         .lineTotal(lineTotal)
                         .build();
-                orderItemRepository.save(orderItem);
+                savedItems.add(orderItemRepository.save(orderItem));
             }
+            salesAnalyticsService.recordOrderPlaced(order, savedItems);
+            sendOrderConfirmationSafely(user, order, savedItems);
             
             // Xóa cart items và cart
-            cartItemRepository.deleteAll(cartItemsOrder);
-            cartRepository.delete(cart);
+            cartStoreService.discard(cart.getUserId(), () -> {
+                cartItemRepository.deleteAll(cartItemsOrder);
+                cartRepository.delete(cart);
+            });
 
             // Cập nhật payment
             payment.setOrderId(order.getId());
             payment.setStatus(PaymentTransactionStatus.success);
             payment.setUpdatedAt(LocalDateTime.now());
             paymentRepository.save(payment);
+            // The callback carries no session: keep the buyer's next reads (order page) on the primary
+            replicationLagGuard.pin(user.getId());
 
             // Gọi service gửi thông báo (tự động lưu DB + đẩy Firebase)
             notificationService.sendNotification(
@@ -363,6 +467,7 @@ public class PaymentController {
                 redirectUrl = vnPayConfig.getAppDeepLink() + "/payment-result?status=success&code=" + paymentCode + "&order=" + order.getId();
             }
             response.sendRedirect(redirectUrl);
+            return true;
 
         } else {
             // Giao dịch thất bại
@@ -378,6 +483,7 @@ public class PaymentController {
                 redirectUrl = vnPayConfig.getAppDeepLink() + "/payment-result?status=fail&code=" + paymentCode;
             }
             response.sendRedirect(redirectUrl);
+            return false;
         }
     }
 
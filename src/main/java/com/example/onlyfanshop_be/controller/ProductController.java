@@ -1,18 +1,23 @@
 package com.example.onlyfanshop_be.controller;
 
+import com.example.onlyfanshop_be.config.CatalogMetrics;
 import com.example.onlyfanshop_be.dto.CategoryDTO;
 import com.example.onlyfanshop_be.dto.TagDTO;
 import com.example.onlyfanshop_be.dto.request.ProductDetailRequest;
 import com.example.onlyfanshop_be.dto.response.ApiResponse;
 import com.example.onlyfanshop_be.dto.ProductDetailDTO;
+import com.example.onlyfanshop_be.dto.ProductRecommendationDTO;
 import com.example.onlyfanshop_be.dto.response.HomepageResponse;
 import com.example.onlyfanshop_be.entity.Category;
 import com.example.onlyfanshop_be.entity.Tag;
 import com.example.onlyfanshop_be.enums.CategoryType;
 import com.example.onlyfanshop_be.service.IProductService;
+import com.example.onlyfanshop_be.service.PayloadEncodingBenchmarkService;
+import com.example.onlyfanshop_be.service.ProductBatchService;
 import com.example.onlyfanshop_be.service.ProductCategoryService;
 import com.example.onlyfanshop_be.service.ProductTagService;
 import com.example.onlyfanshop_be.entity.Product;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +26,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -35,6 +41,15 @@ public class ProductController {
     @Autowired
     private ProductTagService productTagService;
 
+    @Autowired
+    private ProductBatchService productBatchService;
+
+    @Autowired
+    private PayloadEncodingBenchmarkService payloadEncodingBenchmarkService;
+
+    @Autowired
+    private CatalogMetrics catalogMetrics;
+
     @PostMapping("/public/homepage")
     public ResponseEntity<ApiResponse<HomepageResponse>> getHomepage(
             @RequestParam(required = false) String keyword,
@@ -51,13 +66,19 @@ public class ProductController {
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "DESC") String order) {
+            @RequestParam(defaultValue = "DESC") String order,
+            // Optional rails: bestSellers, sale, new
+            @RequestParam(required = false) java.util.Set<String> sections,
+            // Recently viewed product ids tracked by the client, most recent first
+            @RequestParam(required = false) List<Long> recentIds) {
+        Timer.Sample sample = catalogMetrics.start();
         try {
             System.out.println("Homepage request - sortBy: " + sortBy + ", order: " + order);
             ApiResponse<HomepageResponse> response = iProductService.getHomepage(
                     keyword, categoryId, brandId, minPrice, maxPrice, bladeCount,
                     remoteControl, oscillation, timer, minPower, maxPower,
-                    page, size, sortBy, order);
+                    page, size, sortBy, order, sections, recentIds);
+            catalogMetrics.record(sample, "homepage", sortBy, order, true);
 
             try {
                 return ResponseEntity
@@ -74,6 +95,7 @@ public class ProductController {
                         .body(response);
             }
         } catch (Exception e) {
+            catalogMetrics.record(sample, "homepage", sortBy, order, false);
             System.err.println("Error in getHomepage: " + e.getMessage());
             e.printStackTrace();
             return ResponseEntity
@@ -94,6 +116,73 @@ public class ProductController {
                 .status(HttpStatus.OK)
                 .body(response);
     }
+    /**
+     * Many products in one call with only the requested fields, e.g.
+     * {@code /product/public/batch?ids=1,2,3&fields=productName,price,thumbnailURL}.
+     */
+    @GetMapping("/public/batch")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> getProductsBatch(
+            @RequestParam List<Long> ids,
+            @RequestParam(required = false) List<String> fields) {
+        try {
+            List<Map<String, Object>> products = productBatchService.getProducts(ids, fields);
+            return ResponseEntity
+                    .status(HttpStatus.OK)
+                    .cacheControl(org.springframework.http.CacheControl.maxAge(1, java.util.concurrent.TimeUnit.MINUTES)
+                            .cachePublic())
+                    .body(ApiResponse.<List<Map<String, Object>>>builder()
+                            .statusCode(200)
+                            .message("Lấy danh sách sản phẩm thành công")
+                            .data(products)
+                            .build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.<List<Map<String, Object>>>builder()
+                            .statusCode(400)
+                            .message(e.getMessage())
+                            .build());
+        }
+    }
+
+    /**
+     * Encoded size and encode time of the current homepage payload as JSON and CBOR, with and
+     * without gzip.
+     */
+    @GetMapping("/admin/encoding-benchmark")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> encodingBenchmark(
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "200") int iterations) {
+        try {
+            Map<String, Object> results = payloadEncodingBenchmarkService.run(
+                    Math.max(1, Math.min(size, 100)), Math.max(1, Math.min(iterations, 5000)));
+            return ResponseEntity.ok(ApiResponse.<Map<String, Object>>builder()
+                    .statusCode(200)
+                    .message("Đo hiệu năng mã hóa thành công")
+                    .data(results)
+                    .build());
+        } catch (Exception e) {
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.<Map<String, Object>>builder()
+                            .statusCode(500)
+                            .message("Lỗi khi đo hiệu năng mã hóa: " + e.getMessage())
+                            .build());
+        }
+    }
+
+    @GetMapping("/public/{productId}/recommendations")
+    public ResponseEntity<ApiResponse<ProductRecommendationDTO>> getRecommendations(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "8") int limit) {
+        ApiResponse<ProductRecommendationDTO> response =
+                iProductService.getRecommendations(productId, Math.max(1, Math.min(limit, 20)));
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(response);
+    }
+
     @GetMapping
     public List<Product> getAllProducts() {
         return iProductService.getAllProducts();
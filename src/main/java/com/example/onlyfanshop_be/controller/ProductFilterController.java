@@ -1,9 +1,11 @@
 package com.example.onlyfanshop_be.controller;
 
+import com.example.onlyfanshop_be.config.CatalogMetrics;
 import com.example.onlyfanshop_be.dto.request.ProductFilterRequest;
 import com.example.onlyfanshop_be.dto.response.ApiResponse;
 import com.example.onlyfanshop_be.entity.Product;
 import com.example.onlyfanshop_be.service.ProductFilterService;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -25,6 +27,9 @@ public class ProductFilterController {
     @Autowired
     private ProductFilterService productFilterService;
 
+    @Autowired
+    private CatalogMetrics catalogMetrics;
+
     @PostMapping("/public")
     public ResponseEntity<ApiResponse<Map<String, Object>>> filterProducts(
             @RequestBody ProductFilterRequest request,
@@ -32,6 +37,7 @@ public class ProductFilterController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "DESC") String sortDirection) {
+        Timer.Sample sample = catalogMetrics.start();
         try {
             // Build pageable with sorting
             Sort sort = sortDirection.equalsIgnoreCase("ASC") 
@@ -41,6 +47,7 @@ public class ProductFilterController {
             
             // Apply filters
             Page<Product> productPage = productFilterService.filterProducts(request, pageable);
+            catalogMetrics.record(sample, "filter", sortBy, sortDirection, true);
             
             // Build response
             Map<String, Object> response = new HashMap<>();
@@ -56,6 +63,7 @@ public class ProductFilterController {
                     .data(response)
                     .build());
         } catch (Exception e) {
+            catalogMetrics.record(sample, "filter", sortBy, sortDirection, false);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(ApiResponse.<Map<String, Object>>builder()
                             .statusCode(400)
@@ -4,11 +4,10 @@ import com.example.onlyfanshop_be.dto.StaffDTO;
 import com.example.onlyfanshop_be.dto.request.CreateStaffRequest;
 import com.example.onlyfanshop_be.dto.request.UpdateStaffRequest;
 import com.example.onlyfanshop_be.dto.response.ApiResponse;
-import com.example.onlyfanshop_be.security.JwtTokenProvider;
+import com.example.onlyfanshop_be.security.AuthenticatedUser;
 import com.example.onlyfanshop_be.service.StaffService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +16,7 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -29,7 +29,6 @@ import java.util.List;
 public class StaffController {
 
     private final StaffService staffService;
-    private final JwtTokenProvider jwtTokenProvider;
 
     // Admin endpoints
     @GetMapping("/admin/staff")
@@ -39,7 +38,7 @@ public class StaffController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(required = false) Integer storeLocationId,
-            HttpServletRequest httpRequest) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
             Pageable pageable = PageRequest.of(page, size);
             Page<StaffDTO> staffPage = staffService.getAllStaff(pageable, storeLocationId);
@@ -184,10 +183,9 @@ public class StaffController {
     @GetMapping("/staff/profile")
     @Operation(summary = "Get staff profile", description = "Get current staff profile")
     @PreAuthorize("hasRole('STAFF')")
-    public ResponseEntity<ApiResponse<StaffDTO>> getMyProfile(HttpServletRequest httpRequest) {
+    public ResponseEntity<ApiResponse<StaffDTO>> getMyProfile(@AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = jwtTokenProvider.extractToken(httpRequest);
-            Long staffId = Long.parseLong(jwtTokenProvider.getUserIdFromJWT(token).toString());
+            Long staffId = currentUser.getUserId();
             
             StaffDTO staff = staffService.getMyProfile(staffId);
             return ResponseEntity.ok(ApiResponse.<StaffDTO>builder()
@@ -209,10 +207,9 @@ public class StaffController {
     @PreAuthorize("hasRole('STAFF')")
     public ResponseEntity<ApiResponse<StaffDTO>> updateMyProfile(
             @Valid @RequestBody UpdateStaffRequest request,
-            HttpServletRequest httpRequest) {
+            @AuthenticationPrincipal AuthenticatedUser currentUser) {
         try {
-            String token = jwtTokenProvider.extractToken(httpRequest);
-            Long staffId = Long.parseLong(jwtTokenProvider.getUserIdFromJWT(token).toString());
+            Long staffId = currentUser.getUserId();
             
             StaffDTO staff = staffService.updateMyProfile(staffId, request);
             return ResponseEntity.ok(ApiResponse.<StaffDTO>builder()
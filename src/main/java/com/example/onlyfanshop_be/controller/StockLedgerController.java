@@ -0,0 +1,72 @@
+package com.example.onlyfanshop_be.controller;
+
+import com.example.onlyfanshop_be.dto.StockLedgerEntryDTO;
+import com.example.onlyfanshop_be.dto.StockReconciliationDTO;
+import com.example.onlyfanshop_be.dto.response.ApiResponse;
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import com.example.onlyfanshop_be.service.StockLedgerService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/inventory-ledger")
+@RequiredArgsConstructor
+public class StockLedgerController {
+    private final StockLedgerService stockLedgerService;
+
+    /**
+     * Stock of every product at a store or warehouse as of {@code at} (now when omitted),
+     * keyed by product id.
+     */
+    @GetMapping("/{locationType}/{locationId}/stock")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ApiResponse<Map<Long, Integer>>> getStockAt(
+            @PathVariable StockLocationType locationType,
+            @PathVariable Long locationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        Map<Long, Integer> data = stockLedgerService.stockAt(
+                locationType, locationId, at != null ? at : LocalDateTime.now());
+        return ResponseEntity.ok(ApiResponse.<Map<Long, Integer>>builder()
+                .statusCode(200)
+                .message("Lấy tồn kho theo thời điểm thành công")
+                .data(data)
+                .build());
+    }
+
+    @GetMapping("/{locationType}/{locationId}/products/{productId}/entries")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ApiResponse<List<StockLedgerEntryDTO>>> getEntries(
+            @PathVariable StockLocationType locationType,
+            @PathVariable Long locationId,
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        List<StockLedgerEntryDTO> data = stockLedgerService.getEntries(locationType, locationId, productId, page, size);
+        return ResponseEntity.ok(ApiResponse.<List<StockLedgerEntryDTO>>builder()
+                .statusCode(200)
+                .message("Lịch sử sổ kho của sản phẩm")
+                .data(data)
+                .build());
+    }
+
+    /**
+     * Store and warehouse quantities that disagree with the ledger; empty when everything is in step.
+     */
+    @GetMapping("/reconciliation")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<StockReconciliationDTO>>> reconcile() {
+        List<StockReconciliationDTO> data = stockLedgerService.reconcile();
+        return ResponseEntity.ok(ApiResponse.<List<StockReconciliationDTO>>builder()
+                .statusCode(200)
+                .message("Đối soát tồn kho với sổ kho")
+                .data(data)
+                .build());
+    }
+}
@@ -2,6 +2,7 @@ package com.example.onlyfanshop_be.controller;
 
 import com.example.onlyfanshop_be.dto.MessageDTO;
 import com.example.onlyfanshop_be.dto.request.SendMessageRequest;
+import com.example.onlyfanshop_be.security.AuthenticatedUser;
 import com.example.onlyfanshop_be.security.JwtTokenProvider;
 import com.example.onlyfanshop_be.service.ChatService;
 import lombok.RequiredArgsConstructor;
@@ -92,6 +93,9 @@ public class WebSocketChatController {
 
     private String extractUserIdFromAuth(Authentication auth) {
         try {
+            if (auth.getPrincipal() instanceof AuthenticatedUser user) {
+                return user.getUserId().toString();
+            }
             String email = auth.getName();
 
             if (auth.getDetails() instanceof java.util.Map) {
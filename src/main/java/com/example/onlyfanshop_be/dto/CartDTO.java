@@ -6,6 +6,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @Data
@@ -16,4 +17,6 @@ public class CartDTO {
     private int totalQuantity; // Tổng số lượng item trong giỏ
     private List<CartItem> items;
     private int userId;// Danh sách chi tiết từng item
+    private List<CartLineDTO> lines; // Dòng giỏ hàng kèm giá hiện tại, ảnh và tồn kho
+    private BigDecimal subtotal;
 }
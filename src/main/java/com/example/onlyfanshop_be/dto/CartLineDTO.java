@@ -0,0 +1,28 @@
+package com.example.onlyfanshop_be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartLineDTO {
+    private Long productId;
+    private String productName;
+    private String sku;
+    private String imageUrl;
+    private Integer quantity;
+    private BigDecimal unitPriceSnapshot; // Giá tại thời điểm thêm vào giỏ
+    private BigDecimal currentPrice;      // Giá hiện tại của sản phẩm
+    private Boolean priceChanged;
+    private Boolean available;            // Sản phẩm còn đang bán
+    private Integer stockQuantity;        // Tồn kho khả dụng (tại cửa hàng nếu có storeId)
+    private BigDecimal lineTotal;
+}
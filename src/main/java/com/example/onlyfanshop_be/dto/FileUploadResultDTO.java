@@ -0,0 +1,28 @@
+package com.example.onlyfanshop_be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FileUploadResultDTO {
+    private String fileName;
+    private boolean success;
+    private String url;
+    private String thumbnailUrl;
+    // Variant name (thumbnail, card, detail) -> URL
+    private Map<String, String> variants;
+    private String srcset;
+    private Integer width;
+    private Integer height;
+    private Long size;
+    private String error;
+}
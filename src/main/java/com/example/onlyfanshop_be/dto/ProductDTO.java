@@ -16,6 +16,8 @@ public class ProductDTO {
     private String productName;
     private Double price;
     private String imageURL;
+    private String thumbnailURL; // Main image, 160px wide variant
+    private String imageSrcset;  // srcset for the main image variants
     private String briefDescription;
     private BrandDTO brand;
     private CategoryDTO category;
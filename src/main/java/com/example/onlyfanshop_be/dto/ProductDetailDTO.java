@@ -22,6 +22,7 @@ public class ProductDetailDTO {
     private String technicalSpecifications;
     private Double price;
     private String imageURL;
+    private String imageSrcset; // srcset for the main image variants
     private BrandDTO brand;
     private CategoryDTO category;
     
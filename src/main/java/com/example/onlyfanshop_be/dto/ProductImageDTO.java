@@ -16,6 +16,10 @@ public class ProductImageDTO {
     private Long id;
     private Long productId;
     private String imageUrl;
+    private String thumbnailUrl;
+    private String cardUrl;
+    private String detailUrl;
+    private String srcset;
     private Boolean isMain;
     private Integer sortOrder;
     private Integer colorId;
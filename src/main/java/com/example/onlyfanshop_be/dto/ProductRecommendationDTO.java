@@ -0,0 +1,16 @@
+package com.example.onlyfanshop_be.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductRecommendationDTO {
+    private Long productId;
+    private List<ProductDTO> frequentlyBoughtTogether;
+    private List<ProductDTO> compatibleAccessories;
+}
@@ -0,0 +1,26 @@
+package com.example.onlyfanshop_be.dto;
+
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReorderPointDTO {
+    private Long id;
+    private StockLocationType locationType;
+    private Long locationId;
+    private Long productId;
+    private Integer reorderLevel;    // Cảnh báo khi tồn kho <= mức này
+    private Integer recoveryLevel;   // Hết cảnh báo khi tồn kho >= mức này
+    private Boolean alerting;
+    private LocalDateTime lastAlertedAt;
+    private LocalDateTime notifiedAt;        // null khi cảnh báo chưa được gửi
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.example.onlyfanshop_be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupDTO {
+    private String dimensionKey;     // Null cho time series
+    private String label;            // Tên sản phẩm / thương hiệu / danh mục
+    private LocalDateTime bucketStart; // Null cho bảng xếp hạng theo dimension
+    private Long orderCount;
+    private Long unitsSold;
+    private BigDecimal revenue;
+    private Long canceledOrderCount;
+    private Long canceledUnits;
+    private BigDecimal canceledRevenue;
+    private BigDecimal netRevenue;
+}
@@ -0,0 +1,30 @@
+package com.example.onlyfanshop_be.dto;
+
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import com.example.onlyfanshop_be.enums.StockMovementType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLedgerEntryDTO {
+    private Long id;
+    private StockLocationType locationType;
+    private Long locationId;
+    private Long productId;
+    private StockMovementType movementType;
+    private Integer delta;           // Âm khi xuất, dương khi nhập
+    private Integer balanceAfter;
+    private Long transactionId;
+    private Long orderId;
+    private Long requestId;
+    private Long performedBy;
+    private String note;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,19 @@
+package com.example.onlyfanshop_be.dto;
+
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReconciliationDTO {
+    private StockLocationType locationType;
+    private Long locationId;
+    private Long productId;
+    private Integer projectedQuantity;   // Số lượng trong store_inventory / inventory_items
+    private Integer ledgerQuantity;      // Số dư theo sổ kho
+}
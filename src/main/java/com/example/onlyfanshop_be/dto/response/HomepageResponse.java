@@ -4,6 +4,7 @@ import com.example.onlyfanshop_be.dto.BrandDTO;
 import com.example.onlyfanshop_be.dto.CategoryDTO;
 import com.example.onlyfanshop_be.dto.Pagination;
 import com.example.onlyfanshop_be.dto.ProductDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 import java.util.List;
@@ -19,6 +20,19 @@ public class HomepageResponse {
     private List<ProductDTO> products;
     private Pagination pagination;
 
+    // Optional rails, only present when requested via "sections"
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ProductDTO> bestSellers;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ProductDTO> saleProducts;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ProductDTO> newProducts;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ProductDTO> recentlyViewed;
+    // Sections that timed out or failed and were replaced by their fallback
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> degradedSections;
+
     @Getter
     @Setter
     @AllArgsConstructor
@@ -0,0 +1,22 @@
+package com.example.onlyfanshop_be.dto.response;
+
+import com.example.onlyfanshop_be.dto.NotificationDTO;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class NotificationFeedResponse {
+    // Newest first
+    private List<NotificationDTO> items;
+    // Pass as "before" to load the next (older) page; null when there is none
+    private Integer nextCursor;
+    // Pass as "since" on the next poll
+    private Integer latestId;
+    private boolean hasMore;
+    private long unreadCount;
+}
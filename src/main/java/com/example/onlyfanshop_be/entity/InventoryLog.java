@@ -7,6 +7,10 @@ import lombok.*;
 
 import java.time.LocalDateTime;
 
+/**
+ * Warehouse quantity changes recorded before the stock ledger existed. No longer written:
+ * warehouse movements go to stock_ledger (StockLedgerEntry) with every other movement.
+ */
 @Entity
 @Table(name = "inventory_logs",
     indexes = {
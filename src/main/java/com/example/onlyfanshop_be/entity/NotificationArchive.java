@@ -0,0 +1,40 @@
+package com.example.onlyfanshop_be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notifications past the retention window, moved out of the hot notifications table.
+ * Column names mirror {@link Notification} so rows can be copied with INSERT ... SELECT.
+ */
+@Entity
+@Table(name = "notifications_archive",
+    indexes = {
+        @Index(name = "idx_notifications_archive_user", columnList = "user_id, id")
+    })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationArchive {
+    @Id
+    @Column(name = "id", columnDefinition = "INT UNSIGNED")
+    private Integer id;
+
+    private String message;
+
+    @Column(nullable = false)
+    private Boolean isRead;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "BIGINT UNSIGNED")
+    private Long userId;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,29 @@
+package com.example.onlyfanshop_be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized unread count per user, maintained on every notification write,
+ * so badge polling reads one row instead of counting the user's history.
+ */
+@Entity
+@Table(name = "notification_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationCounter {
+    @Id
+    @Column(name = "user_id", columnDefinition = "BIGINT UNSIGNED")
+    private Long userId;
+
+    @Column(name = "unread_count", nullable = false)
+    private Integer unreadCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,50 @@
+package com.example.onlyfanshop_be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Top-K "frequently bought together" neighbours of a product, mined in batch from order items.
+ * Only the best K related products per product are kept, so the table stays O(products * K).
+ */
+@Entity
+@Table(name = "product_co_purchases",
+    indexes = {
+        @Index(name = "idx_co_purchase_product_rank", columnList = "product_id, rank_position")
+    },
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uniq_co_purchase_pair", columnNames = {"product_id", "related_product_id"})
+    })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductCoPurchase {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", columnDefinition = "BIGINT UNSIGNED")
+    private Long id;
+
+    @Column(name = "product_id", nullable = false, columnDefinition = "BIGINT UNSIGNED")
+    private Long productId;
+
+    @Column(name = "related_product_id", nullable = false, columnDefinition = "BIGINT UNSIGNED")
+    private Long relatedProductId;
+
+    // Number of orders containing both products
+    @Column(name = "co_order_count", nullable = false)
+    private Integer coOrderCount;
+
+    // Cosine similarity of the two products' order sets
+    @Column(name = "score", nullable = false)
+    private Double score;
+
+    @Column(name = "rank_position", nullable = false)
+    private Integer rankPosition;
+
+    @Column(name = "mined_at", nullable = false)
+    private LocalDateTime minedAt;
+}
@@ -49,6 +49,16 @@ public class ProductImage {
     @Column(name = "image_url", nullable = false, length = 255)
     private String imageUrl;
 
+    // Width-limited renditions (see ImageVariant); null until generated or resolved
+    @Column(name = "thumbnail_url", length = 512)
+    private String thumbnailUrl;
+
+    @Column(name = "card_url", length = 512)
+    private String cardUrl;
+
+    @Column(name = "detail_url", length = 512)
+    private String detailUrl;
+
     @Column(name = "is_main", nullable = false, columnDefinition = "TINYINT(1) DEFAULT 0")
     @Builder.Default
     private Boolean isMain = false;
@@ -0,0 +1,70 @@
+package com.example.onlyfanshop_be.entity;
+
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Low-stock threshold of one product at one store or warehouse. An alert fires when the balance
+ * drops to {@code reorderLevel} and the point stays in the alerting state until the balance is
+ * back at {@code recoveryLevel}, so a quantity hovering around the threshold alerts once.
+ * {@code notifiedAt} stays null until the alert has been sent, so an alert that was still
+ * buffered when the application stopped is sent again on the next start.
+ */
+@Entity
+@Table(name = "reorder_points",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uniq_reorder_point",
+            columnNames = {"location_type", "location_id", "product_id"})
+    },
+    indexes = {
+        @Index(name = "idx_reorder_point_alerting", columnList = "location_type, location_id, alerting")
+    })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReorderPoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", columnDefinition = "BIGINT UNSIGNED")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "location_type", nullable = false, length = 20)
+    private StockLocationType locationType;
+
+    @Column(name = "location_id", nullable = false, columnDefinition = "BIGINT UNSIGNED")
+    private Long locationId;
+
+    @Column(name = "product_id", nullable = false, columnDefinition = "BIGINT UNSIGNED")
+    private Long productId;
+
+    @Column(name = "reorder_level", nullable = false)
+    private Integer reorderLevel;
+
+    @Column(name = "recovery_level", nullable = false)
+    private Integer recoveryLevel;
+
+    @Column(name = "alerting", nullable = false)
+    @Builder.Default
+    private Boolean alerting = false;
+
+    @Column(name = "last_alerted_at")
+    private LocalDateTime lastAlertedAt;
+
+    @Column(name = "notified_at")
+    private LocalDateTime notifiedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.onlyfanshop_be.entity;
+
+import com.example.onlyfanshop_be.enums.RollupGranularity;
+import com.example.onlyfanshop_be.enums.SalesDimension;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated sales counters for one (granularity, bucket, dimension, key) cell.
+ * Rows are incremented from order lifecycle events and rebuilt by the backfill job,
+ * so dashboards read O(buckets) rows instead of scanning orders.
+ */
+@Entity
+@Table(name = "sales_rollups",
+    indexes = {
+        @Index(name = "idx_sales_rollups_lookup", columnList = "granularity, dimension, bucket_start")
+    },
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uniq_sales_rollup_cell",
+                columnNames = {"granularity", "bucket_start", "dimension", "dimension_key"})
+    })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", columnDefinition = "BIGINT UNSIGNED")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 10)
+    private RollupGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", nullable = false, length = 20)
+    private SalesDimension dimension;
+
+    @Column(name = "dimension_key", nullable = false, length = 64)
+    private String dimensionKey;
+
+    @Column(name = "order_count", nullable = false)
+    @Builder.Default
+    private Long orderCount = 0L;
+
+    @Column(name = "units_sold", nullable = false)
+    @Builder.Default
+    private Long unitsSold = 0L;
+
+    @Column(name = "revenue", nullable = false, columnDefinition = "DECIMAL(18,2)")
+    @Builder.Default
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "canceled_order_count", nullable = false)
+    @Builder.Default
+    private Long canceledOrderCount = 0L;
+
+    @Column(name = "canceled_units", nullable = false)
+    @Builder.Default
+    private Long canceledUnits = 0L;
+
+    @Column(name = "canceled_revenue", nullable = false, columnDefinition = "DECIMAL(18,2)")
+    @Builder.Default
+    private BigDecimal canceledRevenue = BigDecimal.ZERO;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
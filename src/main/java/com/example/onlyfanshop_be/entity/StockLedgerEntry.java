@@ -0,0 +1,80 @@
+package com.example.onlyfanshop_be.entity;
+
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import com.example.onlyfanshop_be.enums.StockMovementType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stock movement at one location. Rows are only ever inserted: a transfer is two entries, a
+ * correction is a new entry. The running balance is stored with each entry, and the quantity
+ * columns of store_inventory and inventory_items are projections of it, written in the same
+ * transaction by StockLedgerService.
+ */
+@Entity
+@Immutable
+@Table(name = "stock_ledger",
+    indexes = {
+        @Index(name = "idx_stock_ledger_key", columnList = "location_type, location_id, product_id, id"),
+        @Index(name = "idx_stock_ledger_created_at", columnList = "created_at"),
+        @Index(name = "idx_stock_ledger_order_id", columnList = "order_id"),
+        @Index(name = "idx_stock_ledger_request_id", columnList = "request_id")
+    })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockLedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", columnDefinition = "BIGINT UNSIGNED")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "location_type", nullable = false, length = 20)
+    private StockLocationType locationType;
+
+    // store_id for STORE, warehouse_id for WAREHOUSE
+    @Column(name = "location_id", nullable = false, columnDefinition = "BIGINT UNSIGNED")
+    private Long locationId;
+
+    @Column(name = "product_id", nullable = false, columnDefinition = "BIGINT UNSIGNED")
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, length = 30)
+    private StockMovementType movementType;
+
+    @Column(name = "delta", nullable = false)
+    private Integer delta;
+
+    @Column(name = "balance_after", nullable = false)
+    private Integer balanceAfter;
+
+    @Column(name = "transaction_id", columnDefinition = "BIGINT UNSIGNED")
+    private Long transactionId;
+
+    @Column(name = "order_id", columnDefinition = "BIGINT UNSIGNED")
+    private Long orderId;
+
+    @Column(name = "request_id", columnDefinition = "BIGINT UNSIGNED")
+    private Long requestId;
+
+    @Column(name = "performed_by", columnDefinition = "BIGINT UNSIGNED")
+    private Long performedBy;
+
+    @Column(name = "note", length = 500)
+    private String note;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
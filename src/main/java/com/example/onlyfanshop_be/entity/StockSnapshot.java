@@ -0,0 +1,56 @@
+package com.example.onlyfanshop_be.entity;
+
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Balance of one (location, product) as of ledger entry {@code lastEntryId}. The stock at a time
+ * T is the latest snapshot taken by T plus the deltas of the entries after it, so point-in-time
+ * and reconciliation queries read at most one snapshot interval of the ledger.
+ */
+@Entity
+@Immutable
+@Table(name = "stock_snapshots",
+    indexes = {
+        @Index(name = "idx_stock_snapshot_key", columnList = "location_type, location_id, product_id, last_entry_id"),
+        @Index(name = "idx_stock_snapshot_taken_at", columnList = "taken_at")
+    })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", columnDefinition = "BIGINT UNSIGNED")
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "location_type", nullable = false, length = 20)
+    private StockLocationType locationType;
+
+    @Column(name = "location_id", nullable = false, columnDefinition = "BIGINT UNSIGNED")
+    private Long locationId;
+
+    @Column(name = "product_id", nullable = false, columnDefinition = "BIGINT UNSIGNED")
+    private Long productId;
+
+    @Column(name = "balance", nullable = false)
+    private Integer balance;
+
+    @Column(name = "last_entry_id", nullable = false, columnDefinition = "BIGINT UNSIGNED")
+    private Long lastEntryId;
+
+    @Column(name = "taken_at", nullable = false, updatable = false)
+    private LocalDateTime takenAt;
+
+    @PrePersist
+    protected void onCreate() {
+        takenAt = LocalDateTime.now();
+    }
+}
@@ -1,12 +1,17 @@
 package com.example.onlyfanshop_be.entity;
 
 import com.example.onlyfanshop_be.enums.TokenType;
+import com.example.onlyfanshop_be.ultils.TokenHashUtil;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "tokens")
+@Table(name = "tokens",
+    indexes = {
+        @Index(name = "idx_tokens_user_state", columnList = "user_id, expired, revoked"),
+        @Index(name = "idx_tokens_expires_at", columnList = "expiresAt")
+    })
 @Getter
 @Setter
 @NoArgsConstructor
@@ -18,9 +23,13 @@ public class Token {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @Column(unique = true, nullable = false, length = 512)
+    // Raw JWT is never persisted; only its SHA-256 hex digest is stored and indexed
+    @Transient
     private String token;
 
+    @Column(name = "token_hash", unique = true, nullable = false, columnDefinition = "CHAR(64)")
+    private String tokenHash;
+
     private boolean expired;   // true nếu token hết hạn
     private boolean revoked;   // true nếu user logout
 
@@ -37,4 +46,11 @@ public class Token {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", insertable = false, updatable = false)
     private User user;
+
+    @PrePersist
+    protected void onCreate() {
+        if (tokenHash == null && token != null) {
+            tokenHash = TokenHashUtil.sha256Hex(token);
+        }
+    }
 }
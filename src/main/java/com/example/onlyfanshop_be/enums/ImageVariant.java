@@ -0,0 +1,17 @@
+package com.example.onlyfanshop_be.enums;
+
+public enum ImageVariant {
+    THUMBNAIL(160),   // Ảnh nhỏ cho danh sách, giỏ hàng
+    CARD(400),        // Ảnh thẻ sản phẩm trên trang chủ
+    DETAIL(1000);     // Ảnh trang chi tiết
+
+    private final int width;
+
+    ImageVariant(int width) {
+        this.width = width;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.onlyfanshop_be.enums;
+
+public enum OtpVerificationResult {
+    VALID,
+    INVALID,
+    // No live code for the email: never issued, already used or past its TTL
+    EXPIRED,
+    ATTEMPTS_EXCEEDED
+}
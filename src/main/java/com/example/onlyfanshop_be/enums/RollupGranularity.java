@@ -0,0 +1,13 @@
+package com.example.onlyfanshop_be.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupGranularity {
+    HOUR,   // Bucket theo giờ
+    DAY;    // Bucket theo ngày
+
+    public LocalDateTime truncate(LocalDateTime time) {
+        return this == HOUR ? time.truncatedTo(ChronoUnit.HOURS) : time.truncatedTo(ChronoUnit.DAYS);
+    }
+}
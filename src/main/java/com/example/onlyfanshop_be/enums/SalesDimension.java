@@ -0,0 +1,8 @@
+package com.example.onlyfanshop_be.enums;
+
+public enum SalesDimension {
+    PRODUCT,          // dimension_key = product id
+    BRAND,            // dimension_key = brand id
+    CATEGORY,         // dimension_key = category id
+    PAYMENT_METHOD    // dimension_key = PaymentMethod name
+}
@@ -0,0 +1,6 @@
+package com.example.onlyfanshop_be.enums;
+
+public enum StockLocationType {
+    STORE,       // Tồn kho cửa hàng (store_inventory)
+    WAREHOUSE    // Kho hàng (inventory_items)
+}
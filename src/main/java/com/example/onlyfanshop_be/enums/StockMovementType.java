@@ -0,0 +1,11 @@
+package com.example.onlyfanshop_be.enums;
+
+public enum StockMovementType {
+    OPENING,              // Số dư đầu kỳ khi vị trí bắt đầu ghi sổ
+    SALE,                 // Bán hàng
+    IMPORT,               // Nhập hàng
+    ADJUSTMENT,           // Điều chỉnh (kiểm kê)
+    TRANSFER,             // Chuyển kho (một bút toán cho mỗi đầu)
+    REQUEST_FULFILLMENT,  // Chuyển hàng khi hoàn tất yêu cầu nhập hàng
+    CORRECTION            // Bù chênh lệch khi tồn kho bị sửa ngoài sổ
+}
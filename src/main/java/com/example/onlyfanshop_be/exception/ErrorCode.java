@@ -20,6 +20,8 @@ public enum ErrorCode {
     WRONG_PORTAL_ADMIN(1021, "Bạn đang dùng sai trang web. Vui lòng sử dụng trang Admin để đăng nhập."),
     WRONG_PORTAL_STAFF(1022, "Bạn đang dùng sai trang web. Vui lòng sử dụng trang Staff để đăng nhập."),
     WRONG_PORTAL_CUSTOMER(1023, "Bạn đang dùng sai trang web. Vui lòng sử dụng trang khách hàng để đăng nhập."),
+    OTP_RATE_LIMITED(1024, "Bạn đã yêu cầu OTP quá nhiều lần, vui lòng thử lại sau"),
+    OTP_ATTEMPTS_EXCEEDED(1025, "Nhập sai OTP quá nhiều lần, vui lòng yêu cầu mã mới"),
     WAREHOUSE_NOT_FOUND(1015, "Không tìm thấy kho hàng"),
     WAREHOUSE_CODE_EXISTS(1016, "Mã kho hàng đã tồn tại"),
     WAREHOUSE_INVENTORY_NOT_FOUND(1017, "Không tìm thấy tồn kho"),
@@ -46,6 +46,10 @@ public interface AccessoryCompatibilityRepository extends JpaRepository<Accessor
 
     long countByAccessoryProductId(Long accessoryProductId);
 
+    // [accessoryProductId, compatibleFanTypeId, compatibleBrandId] - all rules, for the in-memory recommendation index
+    @Query("SELECT ac.accessoryProductId, ac.compatibleFanTypeId, ac.compatibleBrandId FROM AccessoryCompatibility ac")
+    List<Object[]> findAllRuleKeys();
+
     @Query("SELECT COUNT(DISTINCT ac.accessoryProductId) FROM AccessoryCompatibility ac WHERE ac.compatibleFanTypeId = :fanTypeId")
     long countAccessoriesByCompatibleFanTypeId(@Param("fanTypeId") Integer fanTypeId);
 }
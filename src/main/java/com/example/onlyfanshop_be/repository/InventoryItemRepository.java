@@ -1,7 +1,9 @@
 package com.example.onlyfanshop_be.repository;
 
 import com.example.onlyfanshop_be.entity.InventoryItem;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,6 +16,17 @@ public interface InventoryItemRepository extends JpaRepository<InventoryItem, Lo
 
     Optional<InventoryItem> findByWarehouseIdAndProductId(Long warehouseId, Long productId);
 
+    // Row lock for stock movements: the quantity and the ledger entry written with it stay in step
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ii FROM InventoryItem ii WHERE ii.warehouseId = :warehouseId AND ii.productId = :productId")
+    Optional<InventoryItem> findForUpdate(@Param("warehouseId") Long warehouseId, @Param("productId") Long productId);
+
+    // Row: warehouseId, productId of non-zero stock that has no ledger history yet
+    @Query("SELECT ii.warehouseId, ii.productId FROM InventoryItem ii WHERE ii.quantity <> 0 AND NOT EXISTS (" +
+           "SELECT e.id FROM StockLedgerEntry e WHERE e.locationType = com.example.onlyfanshop_be.enums.StockLocationType.WAREHOUSE " +
+           "AND e.locationId = ii.warehouseId AND e.productId = ii.productId)")
+    List<Object[]> findKeysWithoutLedgerHistory();
+
     List<InventoryItem> findByWarehouseId(Long warehouseId);
 
     List<InventoryItem> findByProductId(Long productId);
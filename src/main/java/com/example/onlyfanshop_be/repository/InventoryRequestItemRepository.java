@@ -4,6 +4,7 @@ import com.example.onlyfanshop_be.entity.InventoryRequestItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,4 +12,6 @@ public interface InventoryRequestItemRepository extends JpaRepository<InventoryR
     
     List<InventoryRequestItem> findByRequestId(Long requestId);
 
+    List<InventoryRequestItem> findByRequestIdIn(Collection<Long> requestIds);
+
 }
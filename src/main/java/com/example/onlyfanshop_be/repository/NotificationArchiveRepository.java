@@ -0,0 +1,24 @@
+package com.example.onlyfanshop_be.repository;
+
+import com.example.onlyfanshop_be.entity.NotificationArchive;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface NotificationArchiveRepository extends JpaRepository<NotificationArchive, Integer> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "notifications_archive"))
+    @Query(value = "INSERT IGNORE INTO notifications_archive (id, message, isRead, createdAt, user_id, archived_at) " +
+            "SELECT n.id, n.message, n.isRead, n.createdAt, n.user_id, NOW() FROM notifications n WHERE n.id IN :ids",
+            nativeQuery = true)
+    int copyFromNotifications(@Param("ids") Collection<Integer> ids);
+}
@@ -0,0 +1,37 @@
+package com.example.onlyfanshop_be.repository;
+
+import com.example.onlyfanshop_be.entity.NotificationCounter;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface NotificationCounterRepository extends JpaRepository<NotificationCounter, Long> {
+
+    @Query("SELECT c.unreadCount FROM NotificationCounter c WHERE c.userId = :userId")
+    Optional<Integer> findUnreadCount(@Param("userId") Long userId);
+
+    // O(1) fast path; returns 0 when the user has no counter row yet
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "notification_counters"))
+    @Query(value = "UPDATE notification_counters SET unread_count = GREATEST(0, unread_count + :delta), updated_at = NOW() " +
+            "WHERE user_id = :userId", nativeQuery = true)
+    int add(@Param("userId") Long userId, @Param("delta") int delta);
+
+    // Creates the row from the real unread count (one-time cost per user); if a concurrent
+    // writer created it first, applies the delta instead
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "notification_counters"))
+    @Query(value = "INSERT INTO notification_counters (user_id, unread_count, updated_at) " +
+            "SELECT :userId, COUNT(*), NOW() FROM notifications n WHERE n.user_id = :userId AND n.isRead = false " +
+            "ON DUPLICATE KEY UPDATE unread_count = GREATEST(0, notification_counters.unread_count + :delta), updated_at = NOW()",
+            nativeQuery = true)
+    void initialize(@Param("userId") Long userId, @Param("delta") int delta);
+}
@@ -1,17 +1,49 @@
 package com.example.onlyfanshop_be.repository;
 
 import com.example.onlyfanshop_be.entity.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Integer> {
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
     long countByUserIdAndIsReadFalse(Long userId);
+
+    // Keyset paging on id (monotonic with createdAt); callers pass limit + 1 to detect more pages
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId AND n.id < :beforeId ORDER BY n.id DESC")
+    List<Notification> findPageBefore(@Param("userId") Long userId, @Param("beforeId") Integer beforeId, Pageable pageable);
+
+    // Incremental polling: only notifications newer than the last one the client has
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId AND n.id > :sinceId ORDER BY n.id DESC")
+    List<Notification> findPageSince(@Param("userId") Long userId, @Param("sinceId") Integer sinceId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.userId = :userId AND n.id IN :ids AND n.isRead = false")
+    int markReadByIds(@Param("userId") Long userId, @Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true WHERE n.userId = :userId AND n.id <= :upToId AND n.isRead = false")
+    int markReadUpTo(@Param("userId") Long userId, @Param("upToId") Integer upToId);
+
+    // Archival batch selection
+    @Query("SELECT n.id FROM Notification n WHERE n.createdAt < :cutoff ORDER BY n.id ASC")
+    List<Integer> findIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    // [userId, unread count] among the given notifications, to adjust counters before archiving
+    @Query("SELECT n.userId, COUNT(n) FROM Notification n WHERE n.id IN :ids AND n.isRead = false GROUP BY n.userId")
+    List<Object[]> countUnreadByUserIn(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Integer> ids);
     
     // Legacy methods for backward compatibility
     @Deprecated
@@ -5,10 +5,17 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
+
+    List<OrderItem> findByOrderIdIn(Collection<Long> orderIds);
+
+    // [orderId, productId] - basket contents without loading item entities
+    @Query("SELECT oi.orderId, oi.productId FROM OrderItem oi WHERE oi.orderId IN :orderIds")
+    List<Object[]> findOrderAndProductIdsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
     
     @Query("SELECT oi FROM OrderItem oi WHERE oi.orderId = :orderId ORDER BY oi.id ASC")
     List<OrderItem> findOrderItemsByOrderId(@Param("orderId") Long orderId);
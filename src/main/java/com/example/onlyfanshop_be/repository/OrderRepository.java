@@ -2,12 +2,14 @@ package com.example.onlyfanshop_be.repository;
 
 import com.example.onlyfanshop_be.entity.Order;
 import com.example.onlyfanshop_be.enums.OrderStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +24,20 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId, Sort sort);
     
     Optional<Order> findByOrderCode(String orderCode);
+
+    // Keyset-paged scan by creation time, used by analytics backfills
+    @Query("SELECT o FROM Order o WHERE o.createdAt >= :from AND o.createdAt < :to AND o.id > :afterId ORDER BY o.id ASC")
+    List<Order> findCreatedBetweenAfterId(@Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+
+    // Keyset-paged id scan of orders that count as purchases, used by the co-purchase miner
+    @Query("SELECT o.id FROM Order o WHERE o.createdAt >= :from AND o.status NOT IN :excluded AND o.id > :afterId ORDER BY o.id ASC")
+    List<Long> findIdsCreatedSinceAfterId(@Param("from") LocalDateTime from,
+                                          @Param("excluded") java.util.Collection<OrderStatus> excluded,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
     
     // Legacy methods for backward compatibility
     @Deprecated
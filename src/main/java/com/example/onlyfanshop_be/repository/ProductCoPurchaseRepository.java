@@ -0,0 +1,16 @@
+package com.example.onlyfanshop_be.repository;
+
+import com.example.onlyfanshop_be.entity.ProductCoPurchase;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductCoPurchaseRepository extends JpaRepository<ProductCoPurchase, Long> {
+
+    // [productId, relatedProductId] ordered by rank, for loading the in-memory index
+    @Query("SELECT c.productId, c.relatedProductId FROM ProductCoPurchase c ORDER BY c.productId, c.rankPosition")
+    List<Object[]> findAllPairsOrdered();
+}
@@ -1,6 +1,7 @@
 package com.example.onlyfanshop_be.repository;
 
 import com.example.onlyfanshop_be.entity.ProductImage;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -18,7 +19,10 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
     List<ProductImage> findMainImagesByProductIdIn(List<Long> productIds);
     
     // OPTIMIZATION: Get main image URL directly (even faster - only one field)
-    @Query("SELECT pi.productId, pi.imageUrl FROM ProductImage pi WHERE pi.productId IN :productIds AND pi.isMain = true")
+    // Row: productId, imageUrl, thumbnailUrl, cardUrl, detailUrl
+    @Query("SELECT pi.productId, pi.imageUrl, pi.thumbnailUrl, pi.cardUrl, pi.detailUrl FROM ProductImage pi WHERE pi.productId IN :productIds AND pi.isMain = true")
     List<Object[]> findMainImageUrlsByProductIdIn(List<Long> productIds);
+
+    List<ProductImage> findByThumbnailUrlIsNullAndIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
 }
 
@@ -9,12 +9,13 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
     // Legacy method for backward compatibility
     @Deprecated
     default Product findByProductID(int productID) {
@@ -31,6 +32,16 @@ public interface ProductRepository extends JpaRepository<Product, Integer>, JpaS
     
     @EntityGraph(attributePaths = {"brand", "category", "warranty"})
     java.util.Optional<Product> findById(Integer id);
+
+    @EntityGraph(attributePaths = {"brand", "category", "warranty"})
+    List<Product> findByIdIn(java.util.Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Product p WHERE p.status = 'active'")
+    List<Long> findActiveIds();
+
+    // Row: id, name, sku
+    @Query("SELECT p.id, p.name, p.sku FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findNameAndSkuByIdIn(@Param("ids") java.util.Collection<Long> ids);
     
     @Query("SELECT MAX(p.basePrice) FROM Product p WHERE p.status = 'active'")
     java.math.BigDecimal findMaxPrice();
@@ -40,6 +51,18 @@ public interface ProductRepository extends JpaRepository<Product, Integer>, JpaS
     
     @Query("SELECT COUNT(p) FROM Product p WHERE p.brandId = :brandId")
     Long countByBrandId(Integer brandId);
+
+    // [id, brandId, categoryId] - lightweight lookup for analytics dimensions
+    @Query("SELECT p.id, p.brandId, p.categoryId FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findBrandAndCategoryIdsByIdIn(java.util.Collection<Long> ids);
+
+    // [id, brandId, categoryId] for every active product - loaded into the recommendation index
+    @Query("SELECT p.id, p.brandId, p.categoryId FROM Product p WHERE p.status = 'active'")
+    List<Object[]> findActiveBrandAndCategoryIds();
+
+    // [id, name]
+    @Query("SELECT p.id, p.name FROM Product p WHERE p.id IN :ids")
+    List<Object[]> findNamesByIdIn(java.util.Collection<Long> ids);
     
     // Legacy methods for backward compatibility
     @Deprecated
@@ -0,0 +1,22 @@
+package com.example.onlyfanshop_be.repository;
+
+import com.example.onlyfanshop_be.entity.Product;
+import com.example.onlyfanshop_be.enums.ProductStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+    /**
+     * Ids of all products matching the specification, without loading the entities.
+     */
+    List<Long> findIds(Specification<Product> spec);
+
+    /**
+     * Only the given attributes of the products, one row per product: the id first, then the
+     * attributes in the order given. A dotted path ("brand.name") becomes a left join. Products
+     * in another status than {@code status} are skipped; a null status keeps them all.
+     */
+    List<Object[]> findAttributesByIdIn(Collection<Long> ids, ProductStatus status, List<String> attributePaths);
+}
@@ -0,0 +1,70 @@
+package com.example.onlyfanshop_be.repository;
+
+import com.example.onlyfanshop_be.entity.Product;
+import com.example.onlyfanshop_be.enums.ProductStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findIds(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(root.get("id"));
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<Object[]> findAttributesByIdIn(Collection<Long> ids, ProductStatus status, List<String> attributePaths) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Product> root = query.from(Product.class);
+        Map<String, Join<Product, ?>> joins = new HashMap<>();
+
+        List<Selection<?>> selections = new ArrayList<>(attributePaths.size() + 1);
+        selections.add(root.get("id"));
+        for (String path : attributePaths) {
+            int dot = path.indexOf('.');
+            if (dot < 0) {
+                selections.add(root.get(path));
+            } else {
+                Join<Product, ?> join = joins.computeIfAbsent(path.substring(0, dot),
+                        association -> root.join(association, JoinType.LEFT));
+                selections.add(join.get(path.substring(dot + 1)));
+            }
+        }
+        Predicate predicate = root.get("id").in(ids);
+        if (status != null) {
+            predicate = cb.and(predicate, cb.equal(root.get("status"), status));
+        }
+        query.multiselect(selections).where(predicate);
+        return entityManager.createQuery(query).getResultList();
+    }
+}
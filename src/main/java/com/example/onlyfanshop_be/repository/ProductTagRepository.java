@@ -51,4 +51,12 @@ public interface ProductTagRepository extends JpaRepository<ProductTag, Long> {
            "AND (pt.validFrom IS NULL OR pt.validFrom <= CURRENT_TIMESTAMP) " +
            "AND (pt.validUntil IS NULL OR pt.validUntil >= CURRENT_TIMESTAMP)")
     List<Long> findProductIdsByActiveTagCode(@Param("tagCode") String tagCode);
+
+    // Row: productId, tagId, tag code, validFrom, validUntil
+    @Query("SELECT pt.productId, pt.tagId, t.code, pt.validFrom, pt.validUntil FROM ProductTag pt JOIN pt.tag t")
+    List<Object[]> findAllTagWindows();
+
+    @Query("SELECT pt.productId, pt.tagId, t.code, pt.validFrom, pt.validUntil FROM ProductTag pt JOIN pt.tag t " +
+           "WHERE pt.productId = :productId")
+    List<Object[]> findTagWindowsByProductId(@Param("productId") Long productId);
 }
@@ -0,0 +1,39 @@
+package com.example.onlyfanshop_be.repository;
+
+import com.example.onlyfanshop_be.entity.ReorderPoint;
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReorderPointRepository extends JpaRepository<ReorderPoint, Long> {
+
+    Optional<ReorderPoint> findByLocationTypeAndLocationIdAndProductId(StockLocationType locationType,
+                                                                      Long locationId, Long productId);
+
+    List<ReorderPoint> findByLocationTypeAndLocationId(StockLocationType locationType, Long locationId);
+
+    List<ReorderPoint> findByLocationTypeAndLocationIdAndAlertingTrue(StockLocationType locationType, Long locationId);
+
+    // Alerts raised before the cutoff but never sent: a failed send or a buffer lost on shutdown
+    List<ReorderPoint> findByAlertingTrueAndNotifiedAtIsNullAndLastAlertedAtBefore(LocalDateTime cutoff);
+
+    // Alerts raised after :alertedBy were not in the flushed batch and stay pending
+    @Modifying
+    @Query("UPDATE ReorderPoint p SET p.notifiedAt = :notifiedAt " +
+           "WHERE p.locationType = :locationType AND p.locationId = :locationId AND p.productId IN :productIds " +
+           "AND p.alerting = true AND p.notifiedAt IS NULL AND p.lastAlertedAt <= :alertedBy")
+    int markNotified(@Param("locationType") StockLocationType locationType,
+                     @Param("locationId") Long locationId,
+                     @Param("productIds") Collection<Long> productIds,
+                     @Param("alertedBy") LocalDateTime alertedBy,
+                     @Param("notifiedAt") LocalDateTime notifiedAt);
+}
@@ -28,5 +28,8 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     
     @Query("SELECT COUNT(r) FROM Review r WHERE r.productId = :productId AND r.status = :status AND r.rating = :rating")
     Long countByProductIdAndStatusAndRating(@Param("productId") Long productId, @Param("status") ReviewStatus status, @Param("rating") Integer rating);
-}
 
+    // [productId, reviewCount, averageRating]
+    @Query("SELECT r.productId, COUNT(r), AVG(r.rating) FROM Review r WHERE r.status = :status GROUP BY r.productId")
+    java.util.List<Object[]> aggregateRatingsByProduct(@Param("status") ReviewStatus status);
+}
@@ -1,13 +1,17 @@
 package com.example.onlyfanshop_be.repository;
 
 import com.example.onlyfanshop_be.entity.Role;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Byte> {
+    // Looked up on most chat and user requests; the query cache turns it into an L2 hit
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Role> findByName(String name);
 }
 
@@ -0,0 +1,91 @@
+package com.example.onlyfanshop_be.repository;
+
+import com.example.onlyfanshop_be.entity.SalesRollup;
+import com.example.onlyfanshop_be.enums.RollupGranularity;
+import com.example.onlyfanshop_be.enums.SalesDimension;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+
+    // Atomic increment of one rollup cell (MySQL upsert), safe under concurrent checkouts. The
+    // query space limits invalidation to this table; without it Hibernate clears the whole L2 cache
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "sales_rollups"))
+    @Query(value = "INSERT INTO sales_rollups (granularity, bucket_start, dimension, dimension_key, " +
+            "order_count, units_sold, revenue, canceled_order_count, canceled_units, canceled_revenue, updated_at) " +
+            "VALUES (:granularity, :bucketStart, :dimension, :dimensionKey, " +
+            ":orderCount, :unitsSold, :revenue, :canceledOrderCount, :canceledUnits, :canceledRevenue, NOW()) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "order_count = order_count + VALUES(order_count), " +
+            "units_sold = units_sold + VALUES(units_sold), " +
+            "revenue = revenue + VALUES(revenue), " +
+            "canceled_order_count = canceled_order_count + VALUES(canceled_order_count), " +
+            "canceled_units = canceled_units + VALUES(canceled_units), " +
+            "canceled_revenue = canceled_revenue + VALUES(canceled_revenue), " +
+            "updated_at = NOW()",
+            nativeQuery = true)
+    void increment(@Param("granularity") String granularity,
+                   @Param("bucketStart") LocalDateTime bucketStart,
+                   @Param("dimension") String dimension,
+                   @Param("dimensionKey") String dimensionKey,
+                   @Param("orderCount") long orderCount,
+                   @Param("unitsSold") long unitsSold,
+                   @Param("revenue") BigDecimal revenue,
+                   @Param("canceledOrderCount") long canceledOrderCount,
+                   @Param("canceledUnits") long canceledUnits,
+                   @Param("canceledRevenue") BigDecimal canceledRevenue);
+
+    @Modifying
+    @Query("DELETE FROM SalesRollup r WHERE r.bucketStart >= :from AND r.bucketStart < :to")
+    int deleteByBucketRange(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Modifying
+    @Query("DELETE FROM SalesRollup r WHERE r.granularity = :granularity AND r.bucketStart < :before")
+    int deleteByGranularityBefore(@Param("granularity") RollupGranularity granularity,
+                                  @Param("before") LocalDateTime before);
+
+    // [dimensionKey, orderCount, unitsSold, revenue, canceledOrderCount, canceledUnits, canceledRevenue]
+    @Query("SELECT r.dimensionKey, SUM(r.orderCount), SUM(r.unitsSold), SUM(r.revenue), " +
+            "SUM(r.canceledOrderCount), SUM(r.canceledUnits), SUM(r.canceledRevenue) " +
+            "FROM SalesRollup r " +
+            "WHERE r.granularity = :granularity AND r.dimension = :dimension " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "GROUP BY r.dimensionKey ORDER BY SUM(r.revenue) DESC")
+    List<Object[]> sumByDimensionKey(@Param("granularity") RollupGranularity granularity,
+                                     @Param("dimension") SalesDimension dimension,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     Pageable pageable);
+
+    // [bucketStart, orderCount, unitsSold, revenue, canceledOrderCount, canceledUnits, canceledRevenue]
+    @Query("SELECT r.bucketStart, SUM(r.orderCount), SUM(r.unitsSold), SUM(r.revenue), " +
+            "SUM(r.canceledOrderCount), SUM(r.canceledUnits), SUM(r.canceledRevenue) " +
+            "FROM SalesRollup r " +
+            "WHERE r.granularity = :granularity AND r.dimension = :dimension " +
+            "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+            "GROUP BY r.bucketStart ORDER BY r.bucketStart ASC")
+    List<Object[]> sumByBucket(@Param("granularity") RollupGranularity granularity,
+                               @Param("dimension") SalesDimension dimension,
+                               @Param("from") LocalDateTime from,
+                               @Param("to") LocalDateTime to);
+
+    // [dimensionKey, bucketStart, unitsSold, canceledUnits]
+    @Query("SELECT r.dimensionKey, r.bucketStart, r.unitsSold, r.canceledUnits FROM SalesRollup r " +
+            "WHERE r.granularity = :granularity AND r.dimension = :dimension AND r.bucketStart >= :from")
+    List<Object[]> findUnitsSince(@Param("granularity") RollupGranularity granularity,
+                                  @Param("dimension") SalesDimension dimension,
+                                  @Param("from") LocalDateTime from);
+}
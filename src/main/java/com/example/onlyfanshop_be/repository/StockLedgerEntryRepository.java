@@ -0,0 +1,42 @@
+package com.example.onlyfanshop_be.repository;
+
+import com.example.onlyfanshop_be.entity.StockLedgerEntry;
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StockLedgerEntryRepository extends JpaRepository<StockLedgerEntry, Long> {
+
+    Optional<StockLedgerEntry> findTopByLocationTypeAndLocationIdAndProductIdOrderByIdDesc(
+            StockLocationType locationType, Long locationId, Long productId);
+
+    Optional<StockLedgerEntry> findTopByLocationTypeAndLocationIdAndProductIdAndCreatedAtLessThanEqualOrderByIdDesc(
+            StockLocationType locationType, Long locationId, Long productId, LocalDateTime at);
+
+    Page<StockLedgerEntry> findByLocationTypeAndLocationIdAndProductIdOrderByIdDesc(
+            StockLocationType locationType, Long locationId, Long productId, Pageable pageable);
+
+    // Row: productId, balance_after of the product's latest entry; the derived table is a loose
+    // index scan over idx_stock_ledger_key (one seek per product), the join a primary key lookup
+    @Query(value = "SELECT e.product_id, e.balance_after FROM stock_ledger e " +
+           "JOIN (SELECT product_id, MAX(id) AS id FROM stock_ledger " +
+           "WHERE location_type = :locationType AND location_id = :locationId GROUP BY product_id) latest " +
+           "ON e.id = latest.id",
+           nativeQuery = true)
+    List<Object[]> findCurrentBalances(@Param("locationType") String locationType,
+                                       @Param("locationId") Long locationId);
+
+    // Latest entry id of every (location, product) that has entries after :afterId
+    @Query("SELECT MAX(e.id) FROM StockLedgerEntry e WHERE e.id > :afterId " +
+           "GROUP BY e.locationType, e.locationId, e.productId")
+    List<Long> findLatestEntryIdsAfter(@Param("afterId") Long afterId);
+}
@@ -0,0 +1,34 @@
+package com.example.onlyfanshop_be.repository;
+
+import com.example.onlyfanshop_be.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    @Query("SELECT COALESCE(MAX(s.lastEntryId), 0) FROM StockSnapshot s")
+    Long findMaxLastEntryId();
+
+    // Row: productId, balance as of :at. Driven by each product's latest snapshot taken by :at;
+    // the entries are joined on e.id > s.last_entry_id, a range seek on idx_stock_ledger_key that
+    // reads only what was recorded after the snapshot
+    @Query(value = "SELECT s.product_id, s.balance + COALESCE(SUM(e.delta), 0) " +
+           "FROM (SELECT product_id, MAX(last_entry_id) AS last_entry_id FROM stock_snapshots " +
+           "WHERE location_type = :locationType AND location_id = :locationId AND taken_at <= :at " +
+           "GROUP BY product_id) latest " +
+           "JOIN stock_snapshots s ON s.location_type = :locationType AND s.location_id = :locationId " +
+           "AND s.product_id = latest.product_id AND s.last_entry_id = latest.last_entry_id " +
+           "LEFT JOIN stock_ledger e ON e.location_type = :locationType AND e.location_id = :locationId " +
+           "AND e.product_id = s.product_id AND e.id > s.last_entry_id AND e.created_at <= :at " +
+           "GROUP BY s.product_id, s.balance",
+           nativeQuery = true)
+    List<Object[]> findBalancesAt(@Param("locationType") String locationType,
+                                  @Param("locationId") Long locationId,
+                                  @Param("at") LocalDateTime at);
+}
@@ -1,11 +1,14 @@
 package com.example.onlyfanshop_be.repository;
 
 import com.example.onlyfanshop_be.entity.StoreInventory;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +17,17 @@ public interface StoreInventoryRepository extends JpaRepository<StoreInventory,
 
     Optional<StoreInventory> findByStoreIdAndProductId(Integer storeId, Long productId);
 
+    // Row lock for stock movements: the quantity and the ledger entry written with it stay in step
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT si FROM StoreInventory si WHERE si.storeId = :storeId AND si.productId = :productId")
+    Optional<StoreInventory> findForUpdate(@Param("storeId") Integer storeId, @Param("productId") Long productId);
+
+    // Row: storeId, productId of non-zero stock that has no ledger history yet
+    @Query("SELECT si.storeId, si.productId FROM StoreInventory si WHERE si.quantity <> 0 AND NOT EXISTS (" +
+           "SELECT e.id FROM StockLedgerEntry e WHERE e.locationType = com.example.onlyfanshop_be.enums.StockLocationType.STORE " +
+           "AND e.locationId = si.storeId AND e.productId = si.productId)")
+    List<Object[]> findKeysWithoutLedgerHistory();
+
     List<StoreInventory> findByStoreId(Integer storeId);
 
     List<StoreInventory> findByProductId(Long productId);
@@ -23,5 +37,15 @@ public interface StoreInventoryRepository extends JpaRepository<StoreInventory,
 
     @Query("SELECT si FROM StoreInventory si WHERE si.storeId = :storeId AND si.isAvailable = true")
     List<StoreInventory> findAvailableProductsByStoreId(@Param("storeId") Integer storeId);
-}
 
+    // Row: productId, total available quantity across stores
+    @Query("SELECT si.productId, COALESCE(SUM(si.quantity), 0) FROM StoreInventory si " +
+           "WHERE si.productId IN :productIds AND si.isAvailable = true GROUP BY si.productId")
+    List<Object[]> sumAvailableQuantityByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    // Row: productId, available quantity at the given store
+    @Query("SELECT si.productId, COALESCE(SUM(si.quantity), 0) FROM StoreInventory si " +
+           "WHERE si.storeId = :storeId AND si.productId IN :productIds AND si.isAvailable = true GROUP BY si.productId")
+    List<Object[]> sumAvailableQuantityByStoreIdAndProductIdIn(@Param("storeId") Integer storeId,
+                                                               @Param("productIds") Collection<Long> productIds);
+}
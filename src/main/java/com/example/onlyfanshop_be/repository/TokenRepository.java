@@ -2,18 +2,47 @@ package com.example.onlyfanshop_be.repository;
 
 import com.example.onlyfanshop_be.entity.Token;
 import com.example.onlyfanshop_be.enums.TokenType;
+import com.example.onlyfanshop_be.ultils.TokenHashUtil;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TokenRepository extends JpaRepository<Token, Integer> {
     List<Token> findAllByUserIdAndExpiredFalseAndRevokedFalse(Long userId);
-    Optional<Token> findByToken(String token);
-    void deleteByToken(String token);
+    Optional<Token> findByTokenHash(String tokenHash);
+    void deleteByTokenHash(String tokenHash);
     List<Token> findAllByUserIdAndTypeAndExpiredFalseAndRevokedFalse(Long userId, TokenType type);
+
+    /**
+     * Lookup by raw JWT; hashed here so callers never deal with the stored form.
+     */
+    default Optional<Token> findByToken(String token) {
+        return findByTokenHash(TokenHashUtil.sha256Hex(token));
+    }
+
+    default void deleteByToken(String token) {
+        deleteByTokenHash(TokenHashUtil.sha256Hex(token));
+    }
+
+    /**
+     * Deletes at most {@code limit} tokens that are revoked, flagged expired or past their expiry.
+     * Bounded so each purge statement holds its locks only briefly.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tokens"))
+    @Query(value = "DELETE FROM tokens WHERE revoked = true OR expired = true OR expiresAt < :cutoff LIMIT :limit",
+            nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
     
     // Legacy methods for backward compatibility
     @Deprecated
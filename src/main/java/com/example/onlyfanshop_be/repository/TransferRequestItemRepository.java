@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,6 +14,8 @@ public interface TransferRequestItemRepository extends JpaRepository<TransferReq
 
     List<TransferRequestItem> findByTransferRequestId(Long transferRequestId);
 
+    List<TransferRequestItem> findByTransferRequestIdIn(Collection<Long> transferRequestIds);
+
     List<TransferRequestItem> findByProductId(Long productId);
 
 }
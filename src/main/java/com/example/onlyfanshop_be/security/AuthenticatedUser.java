@@ -0,0 +1,88 @@
+package com.example.onlyfanshop_be.security;
+
+import lombok.Getter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Principal of a JWT-authenticated request, built once by {@link JwtAuthenticationFilter} from the
+ * token claims. Controllers take it via {@code @AuthenticationPrincipal AuthenticatedUser}, services
+ * via {@link #current()}, so neither has to look the caller up by email again.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails {
+    private final Long userId;
+    private final String email;
+    // Role name exactly as stored in the token ("admin", "staff", "customer")
+    private final String role;
+    // Assigned store for staff accounts; null for other roles and for tokens issued before the claim existed
+    private final Integer storeLocationId;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Long userId, String email, String role, Integer storeLocationId) {
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.storeLocationId = storeLocationId;
+        this.authorities = List.of(new SimpleGrantedAuthority(toAuthority(role)));
+    }
+
+    /**
+     * Same normalization as CustomUserDetailsService: "admin" / "ROLE_admin" become ROLE_ADMIN.
+     */
+    static String toAuthority(String role) {
+        String normalized = role != null ? role.trim() : "customer";
+        if (normalized.startsWith("ROLE_")) {
+            normalized = normalized.substring(5);
+        }
+        return "ROLE_" + normalized.toUpperCase();
+    }
+
+    public static Optional<AuthenticatedUser> current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return Optional.of(user);
+        }
+        return Optional.empty();
+    }
+
+    public static Long currentUserId() {
+        return current().map(AuthenticatedUser::getUserId).orElse(null);
+    }
+
+    public boolean hasRole(String roleName) {
+        return toAuthority(roleName).equals(authorities.get(0).getAuthority());
+    }
+
+    /**
+     * Whether a client-supplied user reference (email or numeric id, as the cart endpoints accept)
+     * points at this user.
+     */
+    public boolean matches(String userNameOrId) {
+        return userNameOrId == null
+                || userNameOrId.equalsIgnoreCase(email)
+                || userNameOrId.equals(String.valueOf(userId));
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
@@ -4,6 +4,8 @@ import com.example.onlyfanshop_be.dto.response.ApiResponse;
 import com.example.onlyfanshop_be.dto.UserDTO;
 import com.example.onlyfanshop_be.repository.TokenRepository;
 import com.example.onlyfanshop_be.service.ILoginService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -12,13 +14,14 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.util.WebUtils;
 
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -28,18 +31,31 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final long MINUTES_BEFORE_EXPIRATION = 5; // Refresh token if it expires within 5 minutes
 
     private final JwtTokenProvider tokenProvider;
-    private final UserDetailsService userDetailsService;
     private final TokenRepository tokenRepository;
     private final ILoginService loginService;
 
+    // auth.jwt{outcome}: "anonymous" is a request without a bearer token
+    private static final List<String> OUTCOMES = List.of(
+            "authenticated", "anonymous", "invalid", "revoked", "expired", "unknown", "error");
+    private final Map<String, Counter> outcomeCounters = new HashMap<>();
+    private final Counter refreshedCounter;
+
     public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
-                                   UserDetailsService userDetailsService,
                                    TokenRepository tokenRepository,
-                                   ILoginService loginService) {
+                                   ILoginService loginService,
+                                   MeterRegistry meterRegistry) {
         this.tokenProvider = tokenProvider;
-        this.userDetailsService = userDetailsService;
         this.tokenRepository = tokenRepository;
         this.loginService = loginService;
+        for (String outcome : OUTCOMES) {
+            outcomeCounters.put(outcome, Counter.builder("auth.jwt")
+                    .description("Bearer token checks by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+        this.refreshedCounter = Counter.builder("auth.jwt.refreshed")
+                .description("Access tokens re-issued by the filter shortly before expiry")
+                .register(meterRegistry);
     }
 
     @Override
@@ -54,6 +70,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
             // Validate JWT signature and expiration
             if (!tokenProvider.validateToken(token)) {
+                outcomeCounters.get("invalid").increment();
                 log.warn("Invalid or expired JWT token for request: {}", requestURI);
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.setContentType("application/json");
@@ -66,6 +83,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             if (dbTokenOpt.isPresent()) {
                 com.example.onlyfanshop_be.entity.Token dbToken = dbTokenOpt.get();
                 if (dbToken.isRevoked()) {
+                    outcomeCounters.get("revoked").increment();
                     log.warn("Token is revoked for request: {}", requestURI);
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                     response.setContentType("application/json");
@@ -74,6 +92,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 }
                 // Check if token is expired in DB (even if JWT itself is still valid)
                 if (dbToken.getExpiresAt() != null && dbToken.getExpiresAt().isBefore(java.time.Instant.now())) {
+                    outcomeCounters.get("expired").increment();
                     log.warn("Token is expired in DB for request: {}", requestURI);
                     dbToken.setExpired(true);
                     tokenRepository.save(dbToken);
@@ -83,6 +102,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     return;
                 }
                 if (dbToken.isExpired()) {
+                    outcomeCounters.get("expired").increment();
                     log.warn("Token is marked as expired in DB for request: {}", requestURI);
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                     response.setContentType("application/json");
@@ -91,6 +111,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 }
             } else {
                 // Token not found in DB - this could be a legacy token or invalid token
+                outcomeCounters.get("unknown").increment();
                 log.warn("Token not found in database for request: {}. Rejecting request for security.", requestURI);
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.setContentType("application/json");
@@ -99,8 +120,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
 
             try {
-                String username = tokenProvider.getUsernameFromJWT(token);
-                if (username == null || username.isEmpty()) {
+                // The token was just verified against the database, so its claims are trusted as-is
+                AuthenticatedUser principal = tokenProvider.getPrincipalFromJWT(token);
+                String username = principal.getUsername();
+                if (username == null || username.isEmpty() || principal.getUserId() == null) {
+                    outcomeCounters.get("invalid").increment();
                     log.warn("JWT does not contain a valid username for request: {}", requestURI);
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                     response.setContentType("application/json");
@@ -108,45 +132,16 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     return;
                 }
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                if (userDetails == null) {
-                    log.warn("User not found for username extracted from JWT: {}", username);
-                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                    response.setContentType("application/json");
-                    response.getWriter().write("{\"statusCode\":401,\"message\":\"User not found. Please login again.\"}");
-                    return;
-                }
-
-                if (userDetails.getAuthorities() == null) {
-                    log.warn("UserDetails has null authorities for username: {}", username);
-                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                    response.setContentType("application/json");
-                    response.getWriter().write("{\"statusCode\":401,\"message\":\"Invalid user permissions. Please login again.\"}");
-                    return;
-                }
-
-                // Log authorities before creating authentication
-                System.out.println("JwtAuthenticationFilter: UserDetails authorities: " + userDetails.getAuthorities());
-                for (var authority : userDetails.getAuthorities()) {
-                    System.out.println("JwtAuthenticationFilter: Authority: " + authority.getAuthority());
-                }
-                
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
+                                principal, null, principal.getAuthorities());
 
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
-                // Verify authentication was set
-                var contextAuth = SecurityContextHolder.getContext().getAuthentication();
-                System.out.println("JwtAuthenticationFilter: SecurityContext authentication set: " + (contextAuth != null));
-                if (contextAuth != null) {
-                    System.out.println("JwtAuthenticationFilter: SecurityContext authorities: " + contextAuth.getAuthorities());
-                }
-                
+                outcomeCounters.get("authenticated").increment();
                 log.info("Authentication successful for user: {} with authorities: {} on request: {}",
-                        username, userDetails.getAuthorities(), requestURI);
+                        username, principal.getAuthorities(), requestURI);
 
                 // Check if token is expiring soon and auto-refresh it
                 try {
@@ -160,6 +155,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     String newAccessToken = refreshResponse.getData().getToken();
                                     // Add new token to response header for frontend to pick up
                                     response.setHeader(X_NEW_ACCESS_TOKEN_HEADER, newAccessToken);
+                                    refreshedCounter.increment();
                                     log.info("Token refreshed successfully for user: {}", username);
                                 }
                             } catch (Exception refreshError) {
@@ -176,6 +172,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 }
 
             } catch (Exception e) {
+                outcomeCounters.get("error").increment();
                 log.error("Error setting authentication: ", e);
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 response.setContentType("application/json");
@@ -187,6 +184,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
 
+        } else {
+            outcomeCounters.get("anonymous").increment();
         }
 
         filterChain.doFilter(request, response);
@@ -13,6 +13,7 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -33,19 +34,22 @@ public class JwtTokenProvider {
         return Keys.hmacShaKeyFor(JWT_SECRET.getBytes());
     }
 
-    public String generateAccessToken(String email, Long userId, Role role, String username) {
+    public String generateAccessToken(String email, Long userId, Role role, String username, Integer storeLocationId) {
         Instant now = Instant.now();
         Instant expiration = now.plus(accessTtlMinutes, ChronoUnit.MINUTES);
         String roleName = role != null ? role.getName() : "customer";
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", userId);
+        claims.put("role", roleName);
+        claims.put("username", username != null ? username : "");
+        if (storeLocationId != null) {
+            claims.put("storeLocationId", storeLocationId);
+        }
         return Jwts.builder()
                 .setSubject(email)
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(expiration))
-                .addClaims(Map.of(
-                        "userId", userId,
-                        "role", roleName,
-                        "username", username != null ? username : ""
-                ))
+                .addClaims(claims)
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
@@ -89,8 +93,26 @@ public class JwtTokenProvider {
     }
 
     public Long getUserIdFromJWT(String token) {
-        Object userId = getAllClaimsFromToken(token).get("userId");
-        if (userId instanceof Integer) {
+        return toLong(getAllClaimsFromToken(token).get("userId"));
+    }
+
+    /**
+     * Builds the request principal from the claims alone (one signature check, no database lookup).
+     */
+    public AuthenticatedUser getPrincipalFromJWT(String token) {
+        Claims claims = getAllClaimsFromToken(token);
+        Object storeLocationId = claims.get("storeLocationId");
+        return new AuthenticatedUser(
+                toLong(claims.get("userId")),
+                claims.getSubject(),
+                claims.get("role", String.class),
+                storeLocationId != null ? Integer.valueOf(storeLocationId.toString()) : null);
+    }
+
+    private static Long toLong(Object userId) {
+        if (userId == null) {
+            return null;
+        } else if (userId instanceof Integer) {
             return ((Integer) userId).longValue();
         } else if (userId instanceof Long) {
             return (Long) userId;
@@ -13,7 +13,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class AccessoryCompatibilityService {
@@ -146,11 +150,7 @@ public class AccessoryCompatibilityService {
         
         List<Long> productIds = accessoryCompatibilityRepository.findAccessoryProductIdsByCompatibleFanTypeId(fanTypeId);
         
-        return productIds.stream()
-                .map(id -> productRepository.findById(id.intValue()))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .toList();
+        return loadProductsInOrder(productIds);
     }
 
     public List<AccessoryCompatibility> getCompatibilityByFanType(Integer fanTypeId) {
@@ -164,11 +164,7 @@ public class AccessoryCompatibilityService {
     public List<Product> getAccessoriesByBrand(Integer brandId) {
         List<Long> productIds = accessoryCompatibilityRepository.findAccessoryProductIdsByCompatibleBrandId(brandId);
         
-        return productIds.stream()
-                .map(id -> productRepository.findById(id.intValue()))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .toList();
+        return loadProductsInOrder(productIds);
     }
 
     public List<Long> getAccessoryProductIdsByFanTypeAndBrand(Integer fanTypeId, Integer brandId) {
@@ -178,10 +174,21 @@ public class AccessoryCompatibilityService {
     public List<Product> getAccessoriesByFanTypeAndBrand(Integer fanTypeId, Integer brandId) {
         List<Long> productIds = accessoryCompatibilityRepository.findAccessoryProductIdsByFanTypeAndBrand(fanTypeId, brandId);
         
+        return loadProductsInOrder(productIds);
+    }
+
+    /**
+     * Loads products with one batched query, keeping the order of the given ids
+     */
+    private List<Product> loadProductsInOrder(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> productById = productRepository.findByIdIn(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
         return productIds.stream()
-                .map(id -> productRepository.findById(id.intValue()))
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+                .map(productById::get)
+                .filter(Objects::nonNull)
                 .toList();
     }
 
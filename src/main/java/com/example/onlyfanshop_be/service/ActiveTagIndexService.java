@@ -0,0 +1,366 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.repository.ProductTagRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of which products currently carry which tag, honouring ProductTag validity windows.
+ *
+ * Per tag code the index keeps a BitSet of product ids. Reads go to an immutable snapshot, so tag
+ * filters cost no query. Instead of re-evaluating validFrom/validUntil per request, every future
+ * window edge is scheduled on a hashed timer wheel and the affected bit flips when it fires. Tag
+ * filters and rails read the snapshot directly, so a promotion shows up exactly when it starts or
+ * ends with no cache to invalidate.
+ *
+ * Tag writes refresh the affected product after commit; a periodic full rebuild corrects drift from
+ * changes made outside the application.
+ */
+@Service
+@Slf4j
+public class ActiveTagIndexService {
+    private static final int WHEEL_SIZE = 3600;
+
+    private final ProductTagRepository productTagRepository;
+    private final long tickMillis;
+
+    // Guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, Membership> memberships = new HashMap<>();
+    private final Map<Long, Set<Long>> keysByProduct = new HashMap<>();
+    private final Map<String, BitSet> working = new HashMap<>();
+    private final TimerWheel wheel;
+    // Timeouts carry the version they were scheduled for; bumping it lazily cancels them
+    private long versionSeq = 0;
+
+    private volatile Map<String, BitSet> snapshot = Map.of();
+    private volatile boolean ready = false;
+
+    public ActiveTagIndexService(ProductTagRepository productTagRepository,
+                                 @Value("${tag-index.tick-ms:1000}") long tickMillis) {
+        this.productTagRepository = productTagRepository;
+        this.tickMillis = tickMillis;
+        this.wheel = new TimerWheel(tickMillis, WHEEL_SIZE, System.currentTimeMillis());
+    }
+
+    // ==================== READ SIDE ====================
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Products that currently carry any of the given tag codes.
+     */
+    public Set<Long> getActiveProductIds(Collection<String> tagCodes) {
+        Map<String, BitSet> current = snapshot;
+        BitSet union = new BitSet();
+        for (String code : tagCodes) {
+            BitSet bits = code != null ? current.get(normalize(code)) : null;
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        Set<Long> ids = new HashSet<>(union.cardinality() * 2);
+        union.stream().forEach(id -> ids.add((long) id));
+        return ids;
+    }
+
+    /**
+     * Products that currently carry the tag, highest id (newest) first.
+     */
+    public List<Long> getActiveProductIds(String tagCode) {
+        BitSet bits = snapshot.get(normalize(tagCode));
+        if (bits == null) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(bits.cardinality());
+        for (int id = bits.length() - 1; id >= 0; id = bits.previousSetBit(id - 1)) {
+            ids.add((long) id);
+        }
+        return ids;
+    }
+
+    // ==================== WRITE SIDE ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${tag-index.rebuild-cron:0 */15 * * * *}")
+    public void rebuild() {
+        try {
+            List<Object[]> rows = productTagRepository.findAllTagWindows();
+            lock.lock();
+            try {
+                memberships.clear();
+                keysByProduct.clear();
+                wheel.clear();
+                Set<String> before = new HashSet<>(working.keySet());
+                Map<String, BitSet> previous = copyOf(working);
+                working.clear();
+                for (Object[] row : rows) {
+                    register((Long) row[0], (Integer) row[1], (String) row[2], (LocalDateTime) row[3], (LocalDateTime) row[4]);
+                }
+                before.addAll(working.keySet());
+                Set<String> changed = new HashSet<>();
+                for (String code : before) {
+                    if (!Objects.equals(previous.get(code), working.get(code))) {
+                        changed.add(code);
+                    }
+                }
+                publish(changed);
+            } finally {
+                lock.unlock();
+            }
+            ready = true;
+            log.info("Active tag index rebuilt: {} product tags, {} tag codes", rows.size(), snapshot.size());
+        } catch (Exception e) {
+            log.error("Active tag index rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reloads the tags of one product once the current transaction commits (immediately when there is none).
+     */
+    public void refreshProductAfterCommit(Long productId) {
+        afterCommit(() -> refreshProduct(productId));
+    }
+
+    /**
+     * Full rebuild once the current transaction commits, for tag code changes and deletions.
+     */
+    public void rebuildAfterCommit() {
+        afterCommit(this::rebuild);
+    }
+
+    private void refreshProduct(Long productId) {
+        if (!ready) {
+            return;
+        }
+        try {
+            List<Object[]> rows = productTagRepository.findTagWindowsByProductId(productId);
+            lock.lock();
+            try {
+                Set<String> changed = new HashSet<>();
+                for (Long key : keysByProduct.getOrDefault(productId, Set.of())) {
+                    Membership removed = memberships.remove(key);
+                    if (removed != null && removed.active) {
+                        setBit(removed.code, productId, false);
+                        changed.add(removed.code);
+                    }
+                }
+                keysByProduct.remove(productId);
+                for (Object[] row : rows) {
+                    Membership membership = register((Long) row[0], (Integer) row[1], (String) row[2],
+                            (LocalDateTime) row[3], (LocalDateTime) row[4]);
+                    if (membership != null && membership.active) {
+                        changed.add(membership.code);
+                    }
+                }
+                publish(changed);
+            } finally {
+                lock.unlock();
+            }
+        } catch (Exception e) {
+            log.error("Active tag index refresh failed for product {}: {}", productId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fires due window edges. Catching up after a pause simply fires everything that became due.
+     */
+    @Scheduled(fixedRateString = "${tag-index.tick-ms:1000}")
+    public void tick() {
+        if (!ready) {
+            return;
+        }
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            Set<String> changed = new HashSet<>();
+            for (TimerWheel.Timeout timeout : wheel.advance(now)) {
+                Membership membership = memberships.get(timeout.key());
+                // Stale edge: the membership was replaced or removed after this was scheduled
+                if (membership == null || membership.version != timeout.version()) {
+                    continue;
+                }
+                boolean active = membership.isActiveAt(now);
+                if (active != membership.active) {
+                    membership.active = active;
+                    setBit(membership.code, membership.productId, active);
+                    changed.add(membership.code);
+                }
+            }
+            publish(changed);
+        } catch (Exception e) {
+            log.error("Active tag index tick failed: {}", e.getMessage(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds lock
+    private Membership register(Long productId, Integer tagId, String code, LocalDateTime validFrom, LocalDateTime validUntil) {
+        if (productId == null || tagId == null || code == null || productId > Integer.MAX_VALUE) {
+            return null;
+        }
+        long key = (productId << 32) | (tagId & 0xFFFFFFFFL);
+        Membership membership = new Membership(productId, normalize(code),
+                toMillis(validFrom), toMillis(validUntil), ++versionSeq);
+        memberships.put(key, membership);
+        keysByProduct.computeIfAbsent(productId, k -> new HashSet<>()).add(key);
+
+        long now = System.currentTimeMillis();
+        membership.active = membership.isActiveAt(now);
+        if (membership.active) {
+            setBit(membership.code, productId, true);
+        }
+        if (membership.from != null && membership.from > now) {
+            wheel.schedule(membership.from, key, membership.version);
+        }
+        if (membership.until != null && membership.until >= now) {
+            // validUntil is inclusive, so the tag ends just after it
+            wheel.schedule(membership.until + 1, key, membership.version);
+        }
+        return membership;
+    }
+
+    private void setBit(String code, Long productId, boolean value) {
+        BitSet bits = working.computeIfAbsent(code, k -> new BitSet());
+        bits.set(productId.intValue(), value);
+    }
+
+    // Caller holds lock. Copy-on-write: only the changed codes get fresh BitSets in the new snapshot.
+    private void publish(Set<String> changedCodes) {
+        if (changedCodes.isEmpty()) {
+            return;
+        }
+        Map<String, BitSet> next = new HashMap<>(snapshot);
+        for (String code : changedCodes) {
+            BitSet bits = working.get(code);
+            if (bits == null || bits.isEmpty()) {
+                next.remove(code);
+            } else {
+                next.put(code, (BitSet) bits.clone());
+            }
+        }
+        snapshot = Map.copyOf(next);
+    }
+
+    private static Map<String, BitSet> copyOf(Map<String, BitSet> source) {
+        Map<String, BitSet> copy = new HashMap<>();
+        source.forEach((code, bits) -> copy.put(code, (BitSet) bits.clone()));
+        return copy;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static String normalize(String code) {
+        return code.trim().toUpperCase();
+    }
+
+    private static Long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null;
+    }
+
+    private static final class Membership {
+        final Long productId;
+        final String code;
+        final Long from;
+        final Long until;
+        final long version;
+        boolean active;
+
+        Membership(Long productId, String code, Long from, Long until, long version) {
+            this.productId = productId;
+            this.code = code;
+            this.from = from;
+            this.until = until;
+            this.version = version;
+        }
+
+        boolean isActiveAt(long now) {
+            return (from == null || now >= from) && (until == null || now <= until);
+        }
+    }
+
+    /**
+     * Hashed timer wheel: a ring of slots, one per tick. Deadlines beyond one revolution stay in their
+     * slot and are skipped until the wheel reaches their tick, so scheduling is O(1) at any horizon.
+     * Not thread-safe; guarded by the index lock.
+     */
+    static final class TimerWheel {
+        record Timeout(long tick, long key, long version) {
+        }
+
+        private final long tickMillis;
+        private final long startMillis;
+        private final List<List<Timeout>> slots;
+        private long currentTick = 0;
+
+        TimerWheel(long tickMillis, int size, long startMillis) {
+            this.tickMillis = tickMillis;
+            this.startMillis = startMillis;
+            this.slots = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                slots.add(new ArrayList<>());
+            }
+        }
+
+        void schedule(long deadlineMillis, long key, long version) {
+            long tick = Math.max(currentTick + 1, Math.ceilDiv(deadlineMillis - startMillis, tickMillis));
+            slots.get((int) (tick % slots.size())).add(new Timeout(tick, key, version));
+        }
+
+        List<Timeout> advance(long nowMillis) {
+            long targetTick = (nowMillis - startMillis) / tickMillis;
+            List<Timeout> due = new ArrayList<>();
+            // After a long pause one full revolution visits every slot
+            long from = Math.max(currentTick + 1, targetTick - slots.size() + 1);
+            for (long tick = from; tick <= targetTick; tick++) {
+                List<Timeout> slot = slots.get((int) (tick % slots.size()));
+                if (slot.isEmpty()) {
+                    continue;
+                }
+                Iterator<Timeout> it = slot.iterator();
+                while (it.hasNext()) {
+                    Timeout timeout = it.next();
+                    if (timeout.tick() <= targetTick) {
+                        due.add(timeout);
+                        it.remove();
+                    }
+                }
+            }
+            currentTick = Math.max(currentTick, targetTick);
+            return due;
+        }
+
+        void clear() {
+            slots.forEach(List::clear);
+        }
+    }
+}
@@ -15,6 +15,8 @@ public class BrandService implements IBrandService{
     private BrandRepository brandRepository;
     @Autowired
     private ProductService productService;
+    @Autowired
+    private CacheService cacheService;
     @Override
     public List<BrandDTO> getAllBrands() {
         List<Brand>list = brandRepository.findAll();
@@ -104,7 +106,9 @@ public class BrandService implements IBrandService{
         b.setLogoUrl(brand.getImageURL());
         // Note: Brand entity doesn't have active field - always active in new schema
 
-        return brandRepository.save(b);
+        Brand saved = brandRepository.save(b);
+        cacheService.invalidateBrandsCache();
+        return saved;
     }
 
     @Override
@@ -119,6 +123,7 @@ public class BrandService implements IBrandService{
 
         brandRepository.save(brand);
         productService.updateActiveByBrand(brand.getBrandID());
+        cacheService.invalidateBrandsCache();
         return brand;
     }
 
@@ -156,7 +161,9 @@ public class BrandService implements IBrandService{
             brand.setLogoUrl(updatedBrand.getImageURL());
         }
 
-        return brandRepository.save(brand);
+        Brand saved = brandRepository.save(brand);
+        cacheService.invalidateBrandsCache();
+        return saved;
     }
     @Override
     public void deleteBrand(int id) {
@@ -164,6 +171,7 @@ public class BrandService implements IBrandService{
             throw new RuntimeException("Không tìm thấy thương hiệu có ID: " + id);
         }
         brandRepository.deleteById(id);
+        cacheService.invalidateBrandsCache();
     }
     
     // Helper method to generate slug from brand name
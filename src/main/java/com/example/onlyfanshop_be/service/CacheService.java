@@ -2,15 +2,23 @@ package com.example.onlyfanshop_be.service;
 
 import com.example.onlyfanshop_be.dto.BrandDTO;
 import com.example.onlyfanshop_be.dto.CategoryDTO;
+import com.example.onlyfanshop_be.entity.Product;
 import com.example.onlyfanshop_be.repository.BrandRepository;
 import com.example.onlyfanshop_be.repository.CategoryRepository;
 import com.example.onlyfanshop_be.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,13 +32,16 @@ public class CacheService {
     
     @Autowired
     private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
     
     // Cache with TTL (Time To Live) - 30 minutes for categories/brands, 10 minutes for prices
     private static final long CACHE_TTL_MS = 30 * 60 * 1000;
     private static final long PRICE_CACHE_TTL_MS = 10 * 60 * 1000;
     
-    private List<CategoryDTO> cachedCategories = null;
-    private List<BrandDTO> cachedBrands = null;
+    private volatile List<CategoryDTO> cachedCategories = null;
+    private volatile List<BrandDTO> cachedBrands = null;
     private AtomicLong categoriesCacheTime = new AtomicLong(0);
     private AtomicLong brandsCacheTime = new AtomicLong(0);
     
@@ -39,28 +50,65 @@ public class CacheService {
     private Long cachedMaxPrice = null;
     private AtomicLong priceCacheTime = new AtomicLong(0);
 
+    // ReentrantLock instead of synchronized: the refresh runs JDBC under the lock, and blocking
+    // inside a monitor pins the carrier thread when requests run on virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // cache.gets{cache,result}: hit ratio = hit / (hit + miss); a miss is a call that reloaded
+    private final Counter categoriesHits;
+    private final Counter categoriesMisses;
+    private final Counter brandsHits;
+    private final Counter brandsMisses;
+    private final Counter priceHits;
+    private final Counter priceMisses;
+
+    public CacheService(MeterRegistry meterRegistry) {
+        categoriesHits = cacheCounter(meterRegistry, "categories", "hit");
+        categoriesMisses = cacheCounter(meterRegistry, "categories", "miss");
+        brandsHits = cacheCounter(meterRegistry, "brands", "hit");
+        brandsMisses = cacheCounter(meterRegistry, "brands", "miss");
+        priceHits = cacheCounter(meterRegistry, "priceRange", "hit");
+        priceMisses = cacheCounter(meterRegistry, "priceRange", "miss");
+    }
+
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String cache, String result) {
+        return Counter.builder("cache.gets")
+                .description("In-memory catalog cache lookups")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
     public List<CategoryDTO> getCategories() {
         long now = System.currentTimeMillis();
         if (cachedCategories == null || (now - categoriesCacheTime.get()) > CACHE_TTL_MS) {
-            synchronized (this) {
+            lock.lock();
+            try {
                 // Double-check locking
                 if (cachedCategories == null || (now - categoriesCacheTime.get()) > CACHE_TTL_MS) {
+                    categoriesMisses.increment();
                     cachedCategories = categoryRepository.findAll().stream()
                             .map(c -> CategoryDTO.simple(c.getCategoryID(), c.getCategoryName()))
                             .collect(Collectors.toList());
                     categoriesCacheTime.set(now);
+                    return cachedCategories;
                 }
+            } finally {
+                lock.unlock();
             }
         }
+        categoriesHits.increment();
         return cachedCategories;
     }
 
     public List<BrandDTO> getBrands() {
         long now = System.currentTimeMillis();
         if (cachedBrands == null || (now - brandsCacheTime.get()) > CACHE_TTL_MS) {
-            synchronized (this) {
+            lock.lock();
+            try {
                 // Double-check locking
                 if (cachedBrands == null || (now - brandsCacheTime.get()) > CACHE_TTL_MS) {
+                    brandsMisses.increment();
                     cachedBrands = brandRepository.findAll().stream()
                             .map(b -> BrandDTO.builder()
                                     .brandID(b.getBrandID() == null ? null : b.getBrandID().intValue())
@@ -69,31 +117,67 @@ public class CacheService {
                                     .build())
                             .collect(Collectors.toList());
                     brandsCacheTime.set(now);
+                    return cachedBrands;
                 }
+            } finally {
+                lock.unlock();
             }
         }
+        brandsHits.increment();
         return cachedBrands;
     }
 
+    /**
+     * Runs {@code invalidation} now and, inside a transaction, again after commit, so a reader
+     * that reloads between the write and the commit cannot leave the old rows cached.
+     */
+    private void invalidateNowAndAfterCommit(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+
     public void invalidateCategoriesCache() {
-        synchronized (this) {
+        invalidateNowAndAfterCommit(this::clearCategories);
+    }
+
+    private void clearCategories() {
+        lock.lock();
+        try {
             cachedCategories = null;
             categoriesCacheTime.set(0);
+        } finally {
+            lock.unlock();
         }
     }
     
     public void invalidateBrandsCache() {
-        synchronized (this) {
+        invalidateNowAndAfterCommit(this::clearBrands);
+    }
+
+    private void clearBrands() {
+        lock.lock();
+        try {
             cachedBrands = null;
             brandsCacheTime.set(0);
+        } finally {
+            lock.unlock();
         }
     }
 
     public java.util.Map<String, Long> getPriceRange() {
         try {
             long now = System.currentTimeMillis();
+            boolean loaded = false;
             if (cachedMinPrice == null || cachedMaxPrice == null || (now - priceCacheTime.get()) > PRICE_CACHE_TTL_MS) {
-                synchronized (this) {
+                lock.lock();
+                try {
                     // Double-check locking
                     if (cachedMinPrice == null || cachedMaxPrice == null || (now - priceCacheTime.get()) > PRICE_CACHE_TTL_MS) {
                         BigDecimal maxPriceBD = productRepository.findMaxPrice();
@@ -101,9 +185,13 @@ public class CacheService {
                         cachedMaxPrice = maxPriceBD != null ? maxPriceBD.longValue() : null;
                         cachedMinPrice = minPriceBD != null ? minPriceBD.longValue() : null;
                         priceCacheTime.set(now);
+                        loaded = true;
                     }
+                } finally {
+                    lock.unlock();
                 }
             }
+            (loaded ? priceMisses : priceHits).increment();
             // Use HashMap instead of Map.of() for better compatibility
             java.util.Map<String, Long> result = new java.util.HashMap<>();
             result.put("minPrice", cachedMinPrice != null ? cachedMinPrice : 0L);
@@ -121,17 +209,35 @@ public class CacheService {
     }
     
     public void invalidatePriceCache() {
-        synchronized (this) {
+        lock.lock();
+        try {
             cachedMinPrice = null;
             cachedMaxPrice = null;
             priceCacheTime.set(0);
+        } finally {
+            lock.unlock();
         }
     }
     
+    /**
+     * Drops the Product.colors collection cache. Deleting a color only updates the colors region;
+     * products whose cached color list still holds its id would fail to load.
+     */
+    public void evictProductColors() {
+        invalidateNowAndAfterCommit(() -> entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictCollectionData(Product.class.getName() + ".colors"));
+    }
+
+    /**
+     * Clears these caches and Hibernate's second-level and query caches, e.g. after reference
+     * data was changed directly in the database or by another instance.
+     */
     public void invalidateAllCache() {
         invalidateCategoriesCache();
         invalidateBrandsCache();
         invalidatePriceCache();
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
     }
 }
 
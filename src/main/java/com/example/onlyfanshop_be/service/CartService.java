@@ -7,173 +7,95 @@ import com.example.onlyfanshop_be.entity.Cart;
 import com.example.onlyfanshop_be.entity.User;
 import com.example.onlyfanshop_be.exception.AppException;
 import com.example.onlyfanshop_be.exception.ErrorCode;
-import com.example.onlyfanshop_be.repository.CartItemRepository;
-import com.example.onlyfanshop_be.repository.CartRepository;
-import com.example.onlyfanshop_be.repository.ProductRepository;
 import com.example.onlyfanshop_be.repository.UserRepository;
+import com.example.onlyfanshop_be.security.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
 
+/**
+ * Cart operations on top of {@link CartStoreService}: mutations go to the cart store and are
+ * written behind to MySQL, so adding to the cart costs at most one product lookup.
+ */
 @Service
 public class CartService implements ICartService {
-    @Autowired
-    CartRepository cartRepository;
     @Autowired
     UserRepository userRepository;
     @Autowired
-    ProductRepository productRepository;
-    @Autowired
-    CartItemService cartItemService;
-    @Autowired
-    private CartItemRepository cartItemRepository;
+    CartStoreService cartStoreService;
 
     @Override
     public boolean addToCart(AddToCartRequest request) throws AppException {
-        boolean status = false;
-        Integer productID = request.getProductId();
-        String userName = request.getUserName(); // Can be email or userId
-        Integer quantity = request.getQuantity();
-        Cart userCart;
-        boolean productExist = productRepository.existsById(productID);
-        
-        // Try to find user by email first, if not found, try as userId
-        User user = null;
-        if (userName != null) {
-            Optional<User> userOpt = userRepository.findByEmail(userName);
-            if (userOpt.isEmpty() && userName.matches("\\d+")) {
-                // Try as userId if it's a number
-                userOpt = userRepository.findById(Long.parseLong(userName));
-            }
-            user = userOpt.orElse(null);
-        }
-        
-        if (!productExist) {
-            throw new AppException(ErrorCode.PRODUCT_NOTEXISTED);
-        } else if (user == null) {
+        Long userId = resolveUserId(request.getUserName()); // Can be email or userId
+        if (userId == null) {
             throw new AppException(ErrorCode.USER_NOTEXISTED);
         }
-        
-        // Find existing cart for user (no status field in new schema)
-        Optional<Cart> cartOpt = cartRepository.findByUserId(user.getId());
-        if (cartOpt.isPresent()) {
-            userCart = cartOpt.get();
-        } else {
-            userCart = Cart.builder()
-                    .userId(user.getId())
-                    .createdAt(java.time.LocalDateTime.now())
-                    .build();
-        }
-        cartRepository.save(userCart);
-        if (cartItemService.addCartItem(userCart, productID, quantity, false)) {
-            userCart.setUpdatedAt(java.time.LocalDateTime.now());
-            cartRepository.save(userCart);
-            status = true;
-        }
-
-        return status;
+        return cartStoreService.add(userId, request.getProductId().longValue(), request.getQuantity()) > 0;
     }
 
     @Override
     public void clearCart(String userName) {
-        // Try to find user by email first, if not found, try as userId
-        User user = null;
-        if (userName != null) {
-            Optional<User> userOpt = userRepository.findByEmail(userName);
-            if (userOpt.isEmpty() && userName.matches("\\d+")) {
-                // Try as userId if it's a number
-                userOpt = userRepository.findById(Long.parseLong(userName));
-            }
-            user = userOpt.orElse(null);
-        }
-        
-        if (user == null) {
+        Long userId = resolveUserId(userName);
+        if (userId == null) {
             throw new AppException(ErrorCode.USER_NOTEXISTED);
         }
-        
-        Optional<Cart> cartOpt = cartRepository.findByUserId(user.getId());
-        if (cartOpt.isPresent()) {
-            Cart cart = cartOpt.get();
-            cartItemRepository.deleteAll(cart.getCartItems());
-            cartRepository.delete(cart);
-        }
+        cartStoreService.clear(userId);
     }
 
     @Override
     public Cart instantBuy(AddToCartRequest request) {
-        Integer productID = request.getProductId();
-        String userName = request.getUserName(); // Can be email or userId
-        Integer quantity = request.getQuantity();
-
-        // Try to find user by email first, if not found, try as userId
-        User user = null;
-        if (userName != null) {
-            Optional<User> userOpt = userRepository.findByEmail(userName);
-            if (userOpt.isEmpty() && userName.matches("\\d+")) {
-                // Try as userId if it's a number
-                userOpt = userRepository.findById(Long.parseLong(userName));
-            }
-            user = userOpt.orElse(null);
-        }
-
-        boolean productExist = productRepository.existsById(productID);
-        if (!productExist) {
-            throw new AppException(ErrorCode.PRODUCT_NOTEXISTED);
-        } else if (user == null) {
+        Long userId = resolveUserId(request.getUserName()); // Can be email or userId
+        if (userId == null) {
             throw new AppException(ErrorCode.USER_NOTEXISTED);
         }
-        
-        // Clear existing cart for instant buy (no status field in new schema)
-        Optional<Cart> existingCartOpt = cartRepository.findByUserId(user.getId());
-        if (existingCartOpt.isPresent()) {
-            Cart existingCart = existingCartOpt.get();
-            cartItemRepository.deleteAll(existingCart.getCartItems());
-            cartRepository.delete(existingCart);
-        }
-        
-        // Create new cart for instant buy
-        Cart cart = Cart.builder()
-                .userId(user.getId())
-                .createdAt(java.time.LocalDateTime.now())
-                .build();
-        cartRepository.save(cart);
-        if (cartItemService.addCartItem(cart, productID, quantity, true)) {
-            cart.setUpdatedAt(java.time.LocalDateTime.now());
-            cartRepository.save(cart);
-        }
-        return cart;
+        // Replaces the whole cart and writes it through: checkout reads it right after
+        return cartStoreService.replaceWith(userId, request.getProductId().longValue(), request.getQuantity());
     }
 
     @Override
     public void deleteInstantCart(Integer userID) {
         // Note: Status field removed, just delete user's cart
-        Optional<Cart> cartOpt = cartRepository.findByUserId((long) userID);
-        if (cartOpt.isPresent()) {
-            Cart cart = cartOpt.get();
-            cartItemRepository.deleteAll(cart.getCartItems());
-            cartRepository.delete(cart);
-        } else {
+        if (cartStoreService.lines((long) userID).isEmpty()) {
             throw new AppException(ErrorCode.CART_NOTFOUND);
         }
+        cartStoreService.clear((long) userID);
     }
 
     public ApiResponse<CartDTO> getCart(int userId, String status) {
+        return getCart(userId, status, null);
+    }
+
+    public ApiResponse<CartDTO> getCart(int userId, String status, Integer storeId) {
         // Note: Status field removed, just get user's cart
-        Optional<Cart> cartOptional = cartRepository.findByUserId((long) userId);
-        if (cartOptional.isPresent()) {
-            Cart cart = cartOptional.get();
-            return ApiResponse.<CartDTO>builder()
-                    .data(CartDTO.builder()
-                            .userId(userId)
-                            .items(cart.getCartItems() != null ? cart.getCartItems() : java.util.Collections.emptyList())
-                            .totalQuantity(cart.getCartItems() != null ? cart.getCartItems().size() : 0)
-                            .build())
-                    .statusCode(200)
-                    .message("Lấy giỏ hàng thành công")
-                    .build();
-        } else {
+        CartDTO cart = cartStoreService.view((long) userId, storeId);
+        if (cart.getItems().isEmpty()) {
             throw new AppException(ErrorCode.CART_NOTFOUND);
         }
+        return ApiResponse.<CartDTO>builder()
+                .data(cart)
+                .statusCode(200)
+                .message("Lấy giỏ hàng thành công")
+                .build();
+    }
+
+    /**
+     * The cart endpoints accept either an email or a numeric user id. When it refers to the
+     * authenticated caller the id comes straight from the request principal; only other
+     * references (admin tooling, legacy clients) cost a lookup.
+     */
+    public Long resolveUserId(String userName) {
+        if (userName == null) {
+            return null;
+        }
+        Optional<AuthenticatedUser> principal = AuthenticatedUser.current();
+        if (principal.isPresent() && principal.get().matches(userName)) {
+            return principal.get().getUserId();
+        }
+        Optional<User> userOpt = userRepository.findByEmail(userName);
+        if (userOpt.isEmpty() && userName.matches("\\d+")) {
+            userOpt = userRepository.findById(Long.parseLong(userName));
+        }
+        return userOpt.map(User::getId).orElse(null);
     }
 }
@@ -0,0 +1,397 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.dto.CartDTO;
+import com.example.onlyfanshop_be.dto.CartLineDTO;
+import com.example.onlyfanshop_be.entity.Cart;
+import com.example.onlyfanshop_be.entity.CartItem;
+import com.example.onlyfanshop_be.entity.Product;
+import com.example.onlyfanshop_be.enums.ProductStatus;
+import com.example.onlyfanshop_be.exception.AppException;
+import com.example.onlyfanshop_be.exception.ErrorCode;
+import com.example.onlyfanshop_be.repository.CartItemRepository;
+import com.example.onlyfanshop_be.repository.CartRepository;
+import com.example.onlyfanshop_be.repository.ProductImageRepository;
+import com.example.onlyfanshop_be.repository.ProductRepository;
+import com.example.onlyfanshop_be.repository.StoreInventoryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cart subsystem. Mutations only touch the {@link ICartStore}; carts are written behind to the
+ * carts / cart_items tables by a scheduled flush, and synchronously via {@link #flush(Long)} right
+ * before anything reads them from MySQL (checkout). A cart missing from the store is seeded from
+ * MySQL on first use.
+ *
+ * Reads hydrate every line with one query each for products, main images and stock, whatever
+ * the number of lines.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CartStoreService {
+    private static final int LOCK_STRIPES = 64;
+
+    private final ICartStore cartStore;
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final StoreInventoryRepository storeInventoryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${cart.flush-batch-size:200}")
+    private int flushBatchSize;
+
+    // Serializes write-back per user so the scheduled flush and a checkout flush never both
+    // create a carts row for the same user on this node
+    private final ReentrantLock[] flushLocks = new ReentrantLock[LOCK_STRIPES];
+
+    {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            flushLocks[i] = new ReentrantLock();
+        }
+    }
+
+    // ==================== WRITE PATH ====================
+
+    /**
+     * Adds a product to the cart. The product is only looked up when it is not in the cart yet
+     * (existence check and price snapshot in one query).
+     */
+    public int add(Long userId, Long productId, int quantity) {
+        Map<Long, ICartStore.Line> lines = lines(userId);
+        BigDecimal price = BigDecimal.ZERO;
+        if (!lines.containsKey(productId)) {
+            Product product = productRepository.findById(productId.intValue())
+                    .orElseThrow(() -> new AppException(ErrorCode.PRODUCT_NOTEXISTED));
+            price = product.getBasePrice() != null ? product.getBasePrice() : BigDecimal.ZERO;
+        }
+        return adjust(userId, new ICartStore.Line(productId, quantity, price, System.currentTimeMillis()));
+    }
+
+    /**
+     * Changes the quantity of a line already in the cart by {@code delta}; no-op when the product
+     * is not in the cart. The line is removed when its quantity reaches zero.
+     */
+    public void adjustExisting(Long userId, Long productId, int delta) {
+        ICartStore.Line current = lines(userId).get(productId);
+        if (current != null) {
+            adjust(userId, new ICartStore.Line(productId, delta, current.unitPriceSnapshot(), current.addedAt()));
+        }
+    }
+
+    /**
+     * Replaces the cart with a single product (instant buy) and writes it through, since
+     * checkout follows immediately.
+     */
+    public Cart replaceWith(Long userId, Long productId, int quantity) {
+        Product product = productRepository.findById(productId.intValue())
+                .orElseThrow(() -> new AppException(ErrorCode.PRODUCT_NOTEXISTED));
+        BigDecimal price = product.getBasePrice() != null ? product.getBasePrice() : BigDecimal.ZERO;
+        cartStore.replace(userId, List.of(new ICartStore.Line(productId, quantity, price, System.currentTimeMillis())));
+        return flush(userId);
+    }
+
+    public void clear(Long userId) {
+        cartStore.replace(userId, List.of());
+    }
+
+    /**
+     * Drops the cart at checkout: {@code deleteRows} removes it from MySQL while the user's flush
+     * lock is held, so no write-back can put the ordered lines back. The cached copy is dropped
+     * before and again after, in case a concurrent read re-seeded it from the old rows.
+     */
+    public void discard(Long userId, Runnable deleteRows) {
+        ReentrantLock lock = flushLocks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            cartStore.evict(userId);
+            deleteRows.run();
+            cartStore.evict(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int adjust(Long userId, ICartStore.Line line) {
+        Integer quantity = cartStore.addQuantity(userId, line);
+        if (quantity == null) {
+            // Evicted between load and update: reload once
+            lines(userId);
+            quantity = cartStore.addQuantity(userId, line);
+        }
+        return quantity != null ? quantity : 0;
+    }
+
+    // ==================== READ PATH ====================
+
+    /**
+     * Lines of the user's cart, seeding the store from MySQL when needed.
+     */
+    public Map<Long, ICartStore.Line> lines(Long userId) {
+        Map<Long, ICartStore.Line> lines = cartStore.get(userId);
+        if (lines != null) {
+            return lines;
+        }
+        List<ICartStore.Line> persisted = new ArrayList<>();
+        cartRepository.findByUserId(userId).ifPresent(cart -> {
+            for (CartItem item : cartItemRepository.findByCartId(cart.getId())) {
+                long addedAt = item.getCreatedAt() != null
+                        ? item.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                        : System.currentTimeMillis();
+                persisted.add(new ICartStore.Line(item.getProductId(), item.getQuantity(),
+                        item.getUnitPriceSnapshot() != null ? item.getUnitPriceSnapshot() : BigDecimal.ZERO, addedAt));
+            }
+        });
+        cartStore.load(userId, persisted);
+        lines = cartStore.get(userId);
+        return lines != null ? lines : new HashMap<>();
+    }
+
+    /**
+     * Cart with current price, main image and available stock (at {@code storeId} when given,
+     * otherwise across all stores) for every line.
+     */
+    public CartDTO view(Long userId, Integer storeId) {
+        List<ICartStore.Line> lines = sorted(lines(userId));
+        if (lines.isEmpty()) {
+            return CartDTO.builder()
+                    .userId(userId.intValue())
+                    .items(List.of())
+                    .lines(List.of())
+                    .subtotal(BigDecimal.ZERO)
+                    .totalQuantity(0)
+                    .build();
+        }
+        List<Long> productIds = lines.stream().map(ICartStore.Line::productId).toList();
+
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findByIdIn(productIds)
+                .forEach(product -> products.put(product.getId(), product));
+
+        Map<Long, String> images = new HashMap<>();
+        for (Object[] row : productImageRepository.findMainImageUrlsByProductIdIn(productIds)) {
+            String url = row[2] != null ? (String) row[2] : (String) row[1];
+            images.putIfAbsent((Long) row[0], url);
+        }
+
+        Map<Long, Integer> stock = new HashMap<>();
+        List<Object[]> stockRows = storeId != null
+                ? storeInventoryRepository.sumAvailableQuantityByStoreIdAndProductIdIn(storeId, productIds)
+                : storeInventoryRepository.sumAvailableQuantityByProductIdIn(productIds);
+        for (Object[] row : stockRows) {
+            stock.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+
+        Map<Long, Long> itemIds = itemIds(userId, lines);
+        List<CartLineDTO> lineDTOs = new ArrayList<>(lines.size());
+        List<CartItem> items = new ArrayList<>(lines.size());
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (ICartStore.Line line : lines) {
+            Product product = products.get(line.productId());
+            BigDecimal currentPrice = product != null ? product.getBasePrice() : null;
+            BigDecimal lineTotal = line.unitPriceSnapshot().multiply(BigDecimal.valueOf(line.quantity()));
+            subtotal = subtotal.add(lineTotal);
+
+            lineDTOs.add(CartLineDTO.builder()
+                    .productId(line.productId())
+                    .productName(product != null ? product.getName() : null)
+                    .sku(product != null ? product.getSku() : null)
+                    .imageUrl(images.get(line.productId()))
+                    .quantity(line.quantity())
+                    .unitPriceSnapshot(line.unitPriceSnapshot())
+                    .currentPrice(currentPrice)
+                    .priceChanged(currentPrice != null && currentPrice.compareTo(line.unitPriceSnapshot()) != 0)
+                    .available(product != null && product.getStatus() == ProductStatus.active)
+                    .stockQuantity(stock.getOrDefault(line.productId(), 0))
+                    .lineTotal(lineTotal)
+                    .build());
+            items.add(toCartItem(line, product, itemIds.get(line.productId())));
+        }
+
+        return CartDTO.builder()
+                .userId(userId.intValue())
+                .items(items)
+                .lines(lineDTOs)
+                .subtotal(subtotal)
+                .totalQuantity(items.size())
+                .build();
+    }
+
+    /**
+     * Legacy item list (detached CartItem objects with their product), loaded in one query.
+     */
+    public List<CartItem> items(Long userId) {
+        List<ICartStore.Line> lines = sorted(lines(userId));
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> products = new HashMap<>();
+        productRepository.findByIdIn(lines.stream().map(ICartStore.Line::productId).toList())
+                .forEach(product -> products.put(product.getId(), product));
+        Map<Long, Long> itemIds = itemIds(userId, lines);
+        return lines.stream()
+                .map(line -> toCartItem(line, products.get(line.productId()), itemIds.get(line.productId())))
+                .toList();
+    }
+
+    /**
+     * cart_items id per product. Lines not written back yet are flushed first, so clients keep
+     * getting the id they address items by; a row keeps its id across later write-backs.
+     */
+    private Map<Long, Long> itemIds(Long userId, List<ICartStore.Line> lines) {
+        Map<Long, Long> ids = persistedItemIds(userId);
+        if (lines.stream().anyMatch(line -> !ids.containsKey(line.productId()))) {
+            flush(userId);
+            return persistedItemIds(userId);
+        }
+        return ids;
+    }
+
+    private Map<Long, Long> persistedItemIds(Long userId) {
+        Map<Long, Long> ids = new HashMap<>();
+        cartRepository.findByUserId(userId).ifPresent(cart ->
+                cartItemRepository.findByCartId(cart.getId())
+                        .forEach(item -> ids.putIfAbsent(item.getProductId(), item.getId())));
+        return ids;
+    }
+
+    /**
+     * Product id of a cart_items row when that line is still in the user's cart.
+     */
+    public Optional<Long> findLineProductId(Long cartItemId) {
+        return cartItemRepository.findById(cartItemId)
+                .flatMap(item -> cartRepository.findById(item.getCartId())
+                        .filter(cart -> lines(cart.getUserId()).containsKey(item.getProductId()))
+                        .map(cart -> item.getProductId()));
+    }
+
+    private static List<ICartStore.Line> sorted(Map<Long, ICartStore.Line> lines) {
+        List<ICartStore.Line> sorted = new ArrayList<>(lines.values());
+        sorted.sort(Comparator.comparingLong(ICartStore.Line::addedAt).thenComparing(ICartStore.Line::productId));
+        return sorted;
+    }
+
+    private static CartItem toCartItem(ICartStore.Line line, Product product, Long id) {
+        return CartItem.builder()
+                .id(id)
+                .productId(line.productId())
+                .product(product)
+                .quantity(line.quantity())
+                .unitPriceSnapshot(line.unitPriceSnapshot())
+                .createdAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(line.addedAt()), ZoneId.systemDefault()))
+                .build();
+    }
+
+    // ==================== WRITE-BEHIND ====================
+
+    @Scheduled(fixedDelayString = "${cart.flush-ms:2000}")
+    public void flushDirty() {
+        Set<Long> userIds;
+        int flushed = 0;
+        while (!(userIds = cartStore.drainDirty(flushBatchSize)).isEmpty()) {
+            for (Long userId : userIds) {
+                try {
+                    flush(userId);
+                    flushed++;
+                } catch (Exception e) {
+                    log.warn("Cart write-back failed for user {}: {}", userId, e.getMessage());
+                }
+            }
+            if (userIds.size() < flushBatchSize) {
+                break;
+            }
+        }
+        if (flushed > 0) {
+            log.debug("Wrote back {} carts", flushed);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushDirty();
+    }
+
+    /**
+     * Writes the cached cart to MySQL now and returns the persisted cart (null when the cart is
+     * empty or not cached). Failed writes are re-marked dirty and retried by the next flush.
+     */
+    public Cart flush(Long userId) {
+        ReentrantLock lock = flushLocks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            Map<Long, ICartStore.Line> lines = cartStore.get(userId);
+            if (lines == null) {
+                return cartRepository.findByUserId(userId).orElse(null);
+            }
+            return transactionTemplate.execute(status -> persist(userId, lines.values()));
+        } catch (RuntimeException e) {
+            cartStore.markDirty(userId);
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Cart persist(Long userId, Collection<ICartStore.Line> lines) {
+        LocalDateTime now = LocalDateTime.now();
+        Cart cart = cartRepository.findByUserId(userId).orElse(null);
+        if (lines.isEmpty()) {
+            if (cart != null) {
+                cartItemRepository.deleteAll(cartItemRepository.findByCartId(cart.getId()));
+                cartRepository.delete(cart);
+            }
+            return null;
+        }
+        if (cart == null) {
+            cart = cartRepository.save(Cart.builder().userId(userId).createdAt(now).build());
+        }
+
+        Map<Long, CartItem> existing = new HashMap<>();
+        List<CartItem> stale = new ArrayList<>();
+        for (CartItem item : cartItemRepository.findByCartId(cart.getId())) {
+            if (existing.putIfAbsent(item.getProductId(), item) != null) {
+                stale.add(item);
+            }
+        }
+
+        List<CartItem> changed = new ArrayList<>();
+        for (ICartStore.Line line : lines) {
+            CartItem item = existing.remove(line.productId());
+            if (item == null) {
+                changed.add(CartItem.builder()
+                        .cartId(cart.getId())
+                        .productId(line.productId())
+                        .quantity(line.quantity())
+                        .unitPriceSnapshot(line.unitPriceSnapshot())
+                        .createdAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(line.addedAt()), ZoneId.systemDefault()))
+                        .build());
+            } else if (!item.getQuantity().equals(line.quantity())) {
+                item.setQuantity(line.quantity());
+                item.setUpdatedAt(now);
+                changed.add(item);
+            }
+        }
+        stale.addAll(existing.values());
+
+        cartItemRepository.saveAll(changed);
+        cartItemRepository.deleteAll(stale);
+        if (!changed.isEmpty() || !stale.isEmpty()) {
+            cart.setUpdatedAt(now);
+            cart = cartRepository.save(cart);
+        }
+        return cart;
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.onlyfanshop_be.service;
 
+import com.example.onlyfanshop_be.config.ReadReplica;
 import com.example.onlyfanshop_be.entity.Category;
 import com.example.onlyfanshop_be.enums.CategoryType;
 import com.example.onlyfanshop_be.exception.AppException;
 import com.example.onlyfanshop_be.exception.ErrorCode;
 import com.example.onlyfanshop_be.repository.CategoryRepository;
+import com.example.onlyfanshop_be.ultils.SlugUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -21,6 +23,9 @@ public class CategoryService {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CacheService cacheService;
+
     public List<Category> getAllCategories() {
         List<Category> categories = categoryRepository.findAll();
         List<Category> categoriesToSave = new ArrayList<>(); // Collect categories that need slug fix
@@ -77,7 +82,9 @@ public class CategoryService {
         c.setDescription(category.getDescription());
         c.setParentId(category.getParentId());
 
-        return categoryRepository.save(c);
+        Category saved = categoryRepository.save(c);
+        cacheService.invalidateCategoriesCache();
+        return saved;
     }
 
     public Category updateCategory(Integer id, Category updatedCategory) {
@@ -113,7 +120,9 @@ public class CategoryService {
             category.setParentId(updatedCategory.getParentId());
         }
 
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        cacheService.invalidateCategoriesCache();
+        return saved;
     }
     
     public Category toggleActive(Integer id, boolean active) {
@@ -126,6 +135,7 @@ public class CategoryService {
 
         categoryRepository.save(category);
         productService.updateActiveByCategory(id);
+        cacheService.invalidateCategoriesCache();
         return category;
     }
 
@@ -139,6 +149,7 @@ public class CategoryService {
         }
         
         categoryRepository.deleteById(id);
+        cacheService.invalidateCategoriesCache();
     }
 
     public List<Category> getCategoriesByType(CategoryType categoryType) {
@@ -148,6 +159,7 @@ public class CategoryService {
         return categoryRepository.findByCategoryTypeOrderByDisplayOrderAsc(categoryType);
     }
 
+    @ReadReplica
     public List<Category> getCategoryTree(CategoryType categoryType) {
         if (categoryType == null) {
             throw new AppException(ErrorCode.CATEGORY_TYPE_REQUIRED);
@@ -269,7 +281,9 @@ public class CategoryService {
                 .isActive(category.getIsActive() != null ? category.getIsActive() : true)
                 .build();
         
-        return categoryRepository.save(newCategory);
+        Category saved = categoryRepository.save(newCategory);
+        cacheService.invalidateCategoriesCache();
+        return saved;
     }
 
     @Transactional
@@ -317,7 +331,9 @@ public class CategoryService {
             category.setIsActive(updatedCategory.getIsActive());
         }
         
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        cacheService.invalidateCategoriesCache();
+        return saved;
     }
 
     @Transactional
@@ -332,6 +348,7 @@ public class CategoryService {
         }
         
         categoryRepository.deleteById(id);
+        cacheService.invalidateCategoriesCache();
     }
 
     public List<Integer> getAllDescendantCategoryIds(Integer categoryId) {
@@ -356,20 +373,7 @@ public class CategoryService {
             return "category-" + System.currentTimeMillis();
         }
         
-        // Convert to lowercase, remove diacritics, replace spaces with hyphens
-        String baseSlug = categoryName.toLowerCase()
-                .trim()
-                .replaceAll("[àáạảãâầấậẩẫăằắặẳẵ]", "a")
-                .replaceAll("[èéẹẻẽêềếệểễ]", "e")
-                .replaceAll("[ìíịỉĩ]", "i")
-                .replaceAll("[òóọỏõôồốộổỗơờớợởỡ]", "o")
-                .replaceAll("[ùúụủũưừứựửữ]", "u")
-                .replaceAll("[ỳýỵỷỹ]", "y")
-                .replaceAll("[đ]", "d")
-                .replaceAll("[^a-z0-9\\s-]", "") // Remove special characters
-                .replaceAll("\\s+", "-") // Replace spaces with hyphens
-                .replaceAll("-+", "-") // Replace multiple hyphens with single hyphen
-                .replaceAll("^-|-$", ""); // Remove leading/trailing hyphens
+        String baseSlug = SlugUtil.fold(categoryName);
         
         if (baseSlug.isEmpty()) {
             baseSlug = "category";
@@ -13,18 +13,27 @@ import com.example.onlyfanshop_be.repository.ChatMessageRepository;
 import com.example.onlyfanshop_be.repository.ProductRepository;
 import com.example.onlyfanshop_be.repository.RoleRepository;
 import com.example.onlyfanshop_be.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,6 +46,41 @@ public class ChatService {
     private final RoleRepository roleRepository;
     private final ProductRepository productRepository;
     private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // STOMP sessions currently connected; a disconnect can be published more than once per session
+    private final Set<String> webSocketSessions = ConcurrentHashMap.newKeySet();
+    private Counter restMessages;
+    private Counter webSocketMessages;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("chat.websocket.sessions", webSocketSessions, Set::size)
+                .description("Connected STOMP sessions")
+                .register(meterRegistry);
+        restMessages = chatMessagesCounter("rest");
+        webSocketMessages = chatMessagesCounter("websocket");
+    }
+
+    private Counter chatMessagesCounter(String channel) {
+        return Counter.builder("chat.messages")
+                .description("Chat messages sent, by the channel they arrived on")
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        if (sessionId != null) {
+            webSocketSessions.add(sessionId);
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        webSocketSessions.remove(event.getSessionId());
+    }
 
     @Transactional
     public String createChatRoom(CreateChatRoomRequest request, String adminId) {
@@ -61,6 +105,17 @@ public class ChatService {
 
     @Transactional
     public void sendMessage(SendMessageRequest request, String senderId) {
+        send(request, senderId);
+        restMessages.increment();
+    }
+
+    @Transactional
+    public void sendMessageViaWebSocket(SendMessageRequest request, String senderId) {
+        send(request, senderId);
+        webSocketMessages.increment();
+    }
+
+    private void send(SendMessageRequest request, String senderId) {
         User sender = userRepository.findById(Long.parseLong(senderId))
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
@@ -87,12 +142,6 @@ public class ChatService {
         log.info("Message sent from {} to {} in room {}", senderId, receiverId, request.getRoomId());
     }
 
-    @Transactional
-    public void sendMessageViaWebSocket(SendMessageRequest request, String senderId) {
-        // Chỉ cần gọi sendMessage, WebSocket đã được xử lý trong đó
-        sendMessage(request, senderId);
-    }
-
     public List<ChatRoomDTO> getChatRoomsForAdmin() {
         try {
             log.info("Getting chat rooms for admin...");
@@ -3,32 +3,31 @@ package com.example.onlyfanshop_be.service;
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Optional;
 
 @Service
-public class CloudinaryStorageService {
+@ConditionalOnProperty(name = "storage.provider", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryStorageService implements IFileStorage {
 
     @Autowired
     private Cloudinary cloudinary;
 
-    public String uploadFile(MultipartFile file) throws IOException {
-        return uploadFileToFolder(file, "products");
-    }
-
-    public String uploadFileToFolder(MultipartFile file, String folderName) throws IOException {
+    @Override
+    public String upload(Path file, String folderName, String fileName) throws IOException {
         try {
-            String fileName = UUID.randomUUID().toString() + "_" + sanitizeFileName(file.getOriginalFilename());
             String publicId = folderName + "/" + fileName;
 
             System.out.println("📁 Uploading to Cloudinary folder: " + folderName);
             System.out.println("📄 Public ID: " + publicId);
 
-            Map uploadResult = cloudinary.uploader().upload(file.getBytes(),
+            // Upload from the file so the SDK streams it instead of us holding a byte[] copy
+            Map uploadResult = cloudinary.uploader().upload(file.toFile(),
                     ObjectUtils.asMap(
                             "public_id", publicId,
                             "resource_type", "auto",
@@ -45,6 +44,7 @@ public class CloudinaryStorageService {
         }
     }
 
+    @Override
     public void deleteFileByUrl(String imageUrl) {
         try {
             String publicId = extractPublicIdFromUrl(imageUrl);
@@ -60,6 +60,29 @@ public class CloudinaryStorageService {
         }
     }
 
+    /**
+     * Cloudinary renders variants from the URL itself: c_limit caps the width without upscaling,
+     * f_auto/q_auto pick the best format and quality per client (WebP/AVIF where supported).
+     */
+    @Override
+    public Optional<String> variantUrl(String originalUrl, int width) {
+        if (originalUrl == null || !originalUrl.contains("res.cloudinary.com/") || !originalUrl.contains("/upload/")) {
+            return Optional.empty();
+        }
+        String[] parts = originalUrl.split("/upload/", 2);
+        String path = parts[1];
+        // Replace an existing transformation segment rather than stacking another one
+        if (path.startsWith("w_") || path.startsWith("c_") || path.startsWith("f_") || path.startsWith("q_")) {
+            path = path.substring(path.indexOf('/') + 1);
+        }
+        return Optional.of(parts[0] + "/upload/w_" + width + ",c_limit,f_auto,q_auto/" + path);
+    }
+
+    @Override
+    public boolean transformsOnTheFly() {
+        return true;
+    }
+
     private String extractPublicIdFromUrl(String imageUrl) {
         try {
             if (imageUrl.contains("/upload/")) {
@@ -83,9 +106,4 @@ public class CloudinaryStorageService {
             return null;
         }
     }
-
-    private String sanitizeFileName(String fileName) {
-        if (fileName == null) return "unknown_file";
-        return fileName.replaceAll("[^a-zA-Z0-9._-]", "_");
-    }
 }
@@ -11,6 +11,8 @@ import java.util.List;
 public class ColorService {
     @Autowired
     private ColorRepository colorRepository;
+    @Autowired
+    private CacheService cacheService;
 
     public List<Color> getAllColors() {
         return colorRepository.findAll();
@@ -69,6 +71,8 @@ public class ColorService {
             throw new RuntimeException("Không tìm thấy màu sắc có ID: " + id);
         }
         colorRepository.deleteById(id);
+        // Cached Product.colors entries still hold the deleted id; Hibernate only maintains the owning side
+        cacheService.evictProductColors();
     }
 }
 
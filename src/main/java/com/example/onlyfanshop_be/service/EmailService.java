@@ -0,0 +1,124 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.entity.Order;
+import com.example.onlyfanshop_be.entity.OrderItem;
+import com.example.onlyfanshop_be.service.IMailTransport.MailMessage;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds transactional emails from the HTML templates in resources/templates and hands them to
+ * the async mail pipeline.
+ *
+ * Templates are read and compiled once at startup into literal/placeholder segments, so
+ * rendering is a single pass with no I/O or regex. Placeholders are {UPPER_CASE}; values are
+ * HTML-escaped unless the placeholder name ends in _HTML.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EmailService {
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{([A-Z][A-Z0-9_]*)}");
+
+    private final MailDispatchService mailDispatchService;
+    private final Map<String, List<Segment>> templates = new HashMap<>();
+
+    private record Segment(String text, boolean placeholder) {
+    }
+
+    @PostConstruct
+    void compileTemplates() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath*:templates/*.html");
+        for (Resource resource : resources) {
+            String name = resource.getFilename().replace(".html", "");
+            try (InputStream inputStream = resource.getInputStream()) {
+                templates.put(name, compile(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)));
+            }
+        }
+        log.info("Compiled {} email templates: {}", templates.size(), templates.keySet());
+    }
+
+    private List<Segment> compile(String source) {
+        List<Segment> segments = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER.matcher(source);
+        int last = 0;
+        while (matcher.find()) {
+            if (matcher.start() > last) {
+                segments.add(new Segment(source.substring(last, matcher.start()), false));
+            }
+            segments.add(new Segment(matcher.group(1), true));
+            last = matcher.end();
+        }
+        if (last < source.length()) {
+            segments.add(new Segment(source.substring(last), false));
+        }
+        return List.copyOf(segments);
+    }
+
+    String render(String templateName, Map<String, String> values) {
+        List<Segment> segments = templates.get(templateName);
+        if (segments == null) {
+            throw new RuntimeException("Không tìm thấy file template: templates/" + templateName + ".html");
+        }
+        StringBuilder html = new StringBuilder(8192);
+        for (Segment segment : segments) {
+            if (!segment.placeholder()) {
+                html.append(segment.text());
+                continue;
+            }
+            String value = values.getOrDefault(segment.text(), "");
+            html.append(segment.text().endsWith("_HTML") ? value : HtmlUtils.htmlEscape(value));
+        }
+        return html.toString();
+    }
+
+    // ==================== TYPED EMAILS ====================
+
+    /**
+     * @return false if the mail queue is full
+     */
+    public boolean sendOtp(String to, String otp) {
+        String html = render("OtpTemplate", Map.of("OTP", otp));
+        return mailDispatchService.enqueue(new MailMessage(to, "🔐 Xác thực email - Mã OTP OnlyFanShop", html));
+    }
+
+    public boolean sendOrderConfirmation(String to, String fullName, Order order, List<OrderItem> items) {
+        NumberFormat currency = NumberFormat.getCurrencyInstance(Locale.forLanguageTag("vi-VN"));
+        StringBuilder rows = new StringBuilder();
+        for (OrderItem item : items) {
+            BigDecimal lineTotal = item.getLineTotal() != null ? item.getLineTotal() : BigDecimal.ZERO;
+            rows.append("<tr><td>").append(HtmlUtils.htmlEscape(item.getProductName() != null ? item.getProductName() : ""))
+                    .append("</td><td>").append(item.getQuantity() != null ? item.getQuantity() : 0)
+                    .append("</td><td>").append(HtmlUtils.htmlEscape(currency.format(lineTotal)))
+                    .append("</td></tr>");
+        }
+
+        Map<String, String> values = new HashMap<>();
+        values.put("FULL_NAME", fullName != null ? fullName : "");
+        values.put("ORDER_CODE", order.getOrderCode());
+        values.put("PAYMENT_METHOD", order.getPaymentMethod() != null ? order.getPaymentMethod().name().toUpperCase() : "");
+        values.put("ORDER_ITEMS_HTML", rows.toString());
+        values.put("TOTAL_AMOUNT", currency.format(order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO));
+
+        String html = render("OrderConfirmationTemplate", values);
+        return mailDispatchService.enqueue(new MailMessage(to, "🛒 Xác nhận đơn hàng #" + order.getOrderCode() + " - OnlyFanShop", html));
+    }
+}
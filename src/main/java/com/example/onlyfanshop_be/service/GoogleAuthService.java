@@ -56,7 +56,7 @@ public class GoogleAuthService {
                 roleEntity = roleRepository.findById(user.getRoleId()).orElse(null);
             }
 
-            String access = jwtTokenProvider.generateAccessToken(user.getEmail(), user.getId(), roleEntity, user.getFullname());
+            String access = jwtTokenProvider.generateAccessToken(user.getEmail(), user.getId(), roleEntity, user.getFullname(), user.getStoreLocationId());
             String refresh = jwtTokenProvider.generateRefreshToken(user.getEmail(), user.getId(), roleEntity);
             
             tokenRepository.save(Token.builder()
@@ -120,7 +120,7 @@ public class GoogleAuthService {
             User savedUser = userRepository.save(newUser);
             System.out.println("GoogleAuthService: User saved with ID: " + savedUser.getId());
 
-            String access = jwtTokenProvider.generateAccessToken(savedUser.getEmail(), savedUser.getId(), customerRole, savedUser.getFullname());
+            String access = jwtTokenProvider.generateAccessToken(savedUser.getEmail(), savedUser.getId(), customerRole, savedUser.getFullname(), savedUser.getStoreLocationId());
             String refresh = jwtTokenProvider.generateRefreshToken(savedUser.getEmail(), savedUser.getId(), customerRole);
             
             tokenRepository.save(Token.builder()
@@ -0,0 +1,161 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.config.ReadReplicaRouting;
+import com.example.onlyfanshop_be.config.SqlStatementCounter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Fans independent page sections out onto virtual threads so a composite response costs as much
+ * as its slowest section rather than the sum of all of them.
+ *
+ * Each section runs in its own read-only transaction (the worker thread has no open-in-view
+ * session) and has its own deadline, counted from when it was forked. A section that fails or
+ * misses its deadline resolves to its fallback and is reported as degraded.
+ *
+ * A read-only transaction takes a pooled connection when it begins, so at most
+ * homepage.max-concurrent-db-sections transactional sections run at once across all requests;
+ * the rest wait for a permit within their deadline. Sections served from in-memory caches are
+ * forked with {@link Assembly#forkCached} and run without a transaction or permit.
+ */
+@Service
+@Slf4j
+public class HomepageAssemblyService {
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final TransactionTemplate readOnlyTx;
+    private final Semaphore dbSections;
+
+    public HomepageAssemblyService(PlatformTransactionManager transactionManager,
+                                   @Value("${homepage.max-concurrent-db-sections:10}") int maxConcurrentDbSections) {
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.dbSections = new Semaphore(Math.max(1, maxConcurrentDbSections));
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+    }
+
+    public Assembly start() {
+        return new Assembly();
+    }
+
+    private <T> T inTransaction(String name, long deadline, Supplier<T> task) {
+        try {
+            if (!dbSections.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("No database permit for section '" + name + "' before its deadline");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a database permit", e);
+        }
+        try {
+            return readOnlyTx.execute(status -> task.get());
+        } finally {
+            dbSections.release();
+        }
+    }
+
+    /**
+     * One composite request. Not thread-safe: fork and join from the request thread.
+     */
+    public final class Assembly {
+        private final List<String> degraded = Collections.synchronizedList(new ArrayList<>());
+
+        public <T> Section<T> fork(String name, long timeoutMillis, Supplier<T> task, T fallback) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            return submit(name, deadline, () -> inTransaction(name, deadline, task), fallback);
+        }
+
+        /**
+         * Like {@link #fork} for sections answered from an in-memory cache: no transaction, so a hit
+         * never takes a connection; a miss loads through the repositories in auto-commit.
+         */
+        public <T> Section<T> forkCached(String name, long timeoutMillis, Supplier<T> task, T fallback) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            return submit(name, deadline, task, fallback);
+        }
+
+        private <T> Section<T> submit(String name, long deadline, Supplier<T> task, T fallback) {
+            // Sections' SQL counts towards the request that forked them, and is routed for its user
+            SqlStatementCounter.Stats sqlStats = SqlStatementCounter.current();
+            ReadReplicaRouting.Snapshot routing = ReadReplicaRouting.capture();
+            Future<T> future = workers.submit(() -> SqlStatementCounter.callWith(sqlStats,
+                    () -> ReadReplicaRouting.callWith(routing, task)));
+            return new Section<>(this, name, future, fallback, deadline);
+        }
+
+        /**
+         * Names of sections that timed out or failed, in the order they were joined.
+         */
+        public List<String> degradedSections() {
+            return List.copyOf(degraded);
+        }
+    }
+
+    public static final class Section<T> {
+        private final Assembly assembly;
+        private final String name;
+        private final Future<T> future;
+        private final T fallback;
+        private final long deadlineNanos;
+
+        private Section(Assembly assembly, String name, Future<T> future, T fallback, long deadlineNanos) {
+            this.assembly = assembly;
+            this.name = name;
+            this.future = future;
+            this.fallback = fallback;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * The section's value, or its fallback if it failed or is not done by its deadline.
+         */
+        public T join() {
+            try {
+                T value = future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                return value != null ? value : fallback;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                log.warn("Section '{}' timed out, using fallback", name);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+            } catch (ExecutionException e) {
+                log.warn("Section '{}' failed, using fallback: {}", name, e.getCause().getMessage());
+            }
+            assembly.degraded.add(name);
+            return fallback;
+        }
+
+        /**
+         * Like {@link #join()} but rethrows instead of falling back, for sections the page cannot do without.
+         */
+        public T joinRequired() {
+            try {
+                return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                throw new RuntimeException("Section '" + name + "' timed out");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                throw new RuntimeException("Interrupted while waiting for section '" + name + "'");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException re ? re : new RuntimeException(cause);
+            }
+        }
+    }
+}
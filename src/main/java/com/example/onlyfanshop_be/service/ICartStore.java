@@ -0,0 +1,55 @@
+package com.example.onlyfanshop_be.service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Write path of the shopping cart, keyed by user id. Every mutation marks the cart dirty;
+ * {@link CartStoreService} drains the dirty set and writes the carts behind to MySQL.
+ *
+ * A cart is either present (possibly empty) or absent. Absent means "not loaded yet" and the
+ * caller seeds it from MySQL with {@link #load}.
+ */
+public interface ICartStore {
+
+    record Line(Long productId, int quantity, BigDecimal unitPriceSnapshot, long addedAt) {
+    }
+
+    /**
+     * Copy of the cart's lines by product id, or null when the cart is not in the store.
+     */
+    Map<Long, Line> get(Long userId);
+
+    /**
+     * Seeds a cart read from MySQL. No-op when the cart is already present, so a concurrent
+     * mutation is never overwritten by an older database copy. Does not mark the cart dirty.
+     */
+    void load(Long userId, Collection<Line> lines);
+
+    /**
+     * Adds {@code line.quantity()} (may be negative) to the product's line, creating it with the
+     * given price snapshot when missing; the line is removed when its quantity drops to zero.
+     *
+     * @return the new quantity (0 when removed), or null when the cart is not in the store
+     */
+    Integer addQuantity(Long userId, Line line);
+
+    /**
+     * Replaces the whole cart (an empty collection clears it) and marks it dirty.
+     */
+    void replace(Long userId, Collection<Line> lines);
+
+    /**
+     * Drops the cart without writing it back, e.g. after checkout deleted it from MySQL.
+     */
+    void evict(Long userId);
+
+    /**
+     * Removes and returns up to {@code max} dirty user ids.
+     */
+    Set<Long> drainDirty(int max);
+
+    void markDirty(Long userId);
+}
@@ -0,0 +1,72 @@
+package com.example.onlyfanshop_be.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Object storage for uploaded files. Selected with storage.provider (cloudinary or local),
+ * so tests and local runs can use the filesystem instead of Cloudinary.
+ */
+public interface IFileStorage {
+
+    /**
+     * Uploads a file that is already on local disk; the file is streamed, never loaded fully into memory.
+     *
+     * @return the public URL of the stored file
+     */
+    String upload(Path file, String folderName, String fileName) throws IOException;
+
+    void deleteFileByUrl(String imageUrl);
+
+    /**
+     * URL of a rendition of an already stored image, limited to the given width, if the backend can
+     * provide one without a new upload (CDN transformation or a previously generated file).
+     */
+    default Optional<String> variantUrl(String originalUrl, int width) {
+        return Optional.empty();
+    }
+
+    /**
+     * True when {@link #variantUrl} works for any stored image, so renditions never need to be uploaded.
+     */
+    default boolean transformsOnTheFly() {
+        return false;
+    }
+
+    /**
+     * File name under which a generated rendition of {@code fileName} is stored, so it can be found again from the original URL.
+     */
+    static String variantFileName(String fileName, int width, String extension) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return base + "_w" + width + "." + extension;
+    }
+
+    default String uploadFile(MultipartFile file) throws IOException {
+        return uploadFileToFolder(file, "products");
+    }
+
+    /**
+     * Spools the multipart to a temp file (a move when the container already buffered it on disk)
+     * and uploads from there.
+     */
+    default String uploadFileToFolder(MultipartFile file, String folderName) throws IOException {
+        Path temp = Files.createTempFile("upload-", ".tmp");
+        try {
+            file.transferTo(temp);
+            return upload(temp, folderName, UUID.randomUUID() + "_" + sanitizeFileName(file.getOriginalFilename()));
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static String sanitizeFileName(String fileName) {
+        if (fileName == null) return "unknown_file";
+        return fileName.replaceAll("[^a-zA-Z0-9._-]", "_");
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.onlyfanshop_be.service;
 
+import java.util.Map;
+
 public interface IInventoryNotificationService {
 
     void notifyTransferRequestStatusChange(Long requestId, String oldStatus, String newStatus);
 
     void notifyLowStock(Long productId, Integer storeId, Integer currentQuantity);
 
+    void notifyLowStockBatch(Integer storeId, Map<Long, Integer> quantitiesByProduct);
+
     void notifyInventoryUpdate(Long warehouseId, Long productId, Integer previousQuantity, Integer newQuantity);
 }
@@ -0,0 +1,20 @@
+package com.example.onlyfanshop_be.service;
+
+import java.util.List;
+
+/**
+ * Delivery backend for the mail pipeline. Selected with mail.transport (smtp or log),
+ * so tests and local runs can swap SMTP for an in-process transport.
+ */
+public interface IMailTransport {
+
+    /**
+     * Sends a batch, ideally over one connection.
+     *
+     * @return the messages that could not be sent (empty when all succeeded)
+     */
+    List<MailMessage> send(List<MailMessage> batch);
+
+    record MailMessage(String to, String subject, String htmlBody) {
+    }
+}
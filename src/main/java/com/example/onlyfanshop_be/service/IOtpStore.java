@@ -0,0 +1,22 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.enums.OtpVerificationResult;
+
+/**
+ * Storage for one-time verification codes, keyed by normalized email.
+ * Implementations enforce the TTL, the per-code attempt limit and the per-email send rate.
+ */
+public interface IOtpStore {
+    /**
+     * Stores a new code for the email, replacing any previous one.
+     *
+     * @throws com.example.onlyfanshop_be.exception.AppException OTP_RATE_LIMITED when the email
+     *         is in its resend cooldown or has used up its sends for the current window
+     */
+    void issue(String email, String code);
+
+    /**
+     * Checks a code. A VALID result consumes the code, so each code verifies at most once.
+     */
+    OtpVerificationResult verify(String email, String code);
+}
@@ -3,6 +3,7 @@ package com.example.onlyfanshop_be.service;
 import com.example.onlyfanshop_be.dto.request.ProductDetailRequest;
 import com.example.onlyfanshop_be.dto.response.ApiResponse;
 import com.example.onlyfanshop_be.dto.ProductDetailDTO;
+import com.example.onlyfanshop_be.dto.ProductRecommendationDTO;
 import com.example.onlyfanshop_be.dto.response.HomepageResponse;
 import com.example.onlyfanshop_be.entity.Product;
 
@@ -14,8 +15,10 @@ public interface IProductService {
             Long minPrice, Long maxPrice, Integer bladeCount,
             Boolean remoteControl, Boolean oscillation, Boolean timer,
             Integer minPower, Integer maxPower,
-            int page, int size, String sortBy, String order);
+            int page, int size, String sortBy, String order,
+            java.util.Set<String> sections, List<Long> recentIds);
     public ApiResponse<ProductDetailDTO> getProductDetail(Integer productId);
+    public ApiResponse<ProductRecommendationDTO> getRecommendations(Long productId, int limit);
     public List<Product> getAllProducts();
     public ProductDetailDTO getProductById(int id);
     public Product createProduct(ProductDetailRequest product);
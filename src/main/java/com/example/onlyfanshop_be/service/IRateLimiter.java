@@ -0,0 +1,26 @@
+package com.example.onlyfanshop_be.service;
+
+/**
+ * Token-bucket rate limiter. A rule allows bursts of {@code capacity} requests and refills
+ * at {@code capacity / windowSeconds} tokens per second, so a client that keeps to the
+ * configured rate is never rejected.
+ */
+public interface IRateLimiter {
+
+    RateLimitDecision tryAcquire(String key, RateLimitRule rule);
+
+    record RateLimitRule(String name, String method, String pathPattern, long capacity, long windowSeconds) {
+        public double refillPerMilli() {
+            return (double) capacity / (windowSeconds * 1000.0);
+        }
+
+        // Time for an empty bucket to fill up again; state older than this is equivalent to a full bucket
+        public long fullRefillMillis() {
+            return windowSeconds * 1000;
+        }
+    }
+
+    record RateLimitDecision(boolean allowed, long retryAfterMillis) {
+        public static final RateLimitDecision ALLOWED = new RateLimitDecision(true, 0);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.onlyfanshop_be.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Local image resizing with the JDK's ImageIO/Java2D, so clients get small renditions
+ * without downloading originals and without depending on a CDN transformation service.
+ */
+@Service
+@Slf4j
+public class ImageProcessingService {
+
+    @Value("${upload.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    public record Rendition(Path file, String extension, int width, int height) {
+    }
+
+    /**
+     * {@code image} is null when only the header was read (see {@link #readSize}).
+     */
+    public record DecodedImage(BufferedImage image, int width, int height) {
+    }
+
+    /**
+     * @return the decoded image, or empty when the file is not a raster format ImageIO can read
+     */
+    public Optional<DecodedImage> decode(Path source) {
+        try {
+            BufferedImage image = ImageIO.read(source.toFile());
+            return image == null ? Optional.empty()
+                    : Optional.of(new DecodedImage(image, image.getWidth(), image.getHeight()));
+        } catch (IOException | RuntimeException e) {
+            log.debug("Not a decodable image {}: {}", source, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Width and height from the image header only, without decoding the raster; for storage that
+     * builds variants itself and never needs the pixels.
+     *
+     * @return the size (with a null image), or empty when ImageIO has no reader for the file
+     */
+    public Optional<DecodedImage> readSize(Path source) {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return Optional.of(new DecodedImage(null, reader.getWidth(0), reader.getHeight(0)));
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Not a readable image {}: {}", source, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Scales the image so it is at most maxWidth wide (never upscales) and writes it to a temp file:
+     * JPEG for opaque images, PNG when the source has transparency. The caller deletes the file.
+     */
+    public Rendition resize(DecodedImage source, int maxWidth) throws IOException {
+        BufferedImage image = source.image();
+        double scale = Math.min(1.0, (double) maxWidth / source.width());
+        int width = Math.max(1, (int) Math.round(source.width() * scale));
+        int height = Math.max(1, (int) Math.round(source.height() * scale));
+        boolean alpha = image.getColorModel().hasAlpha();
+
+        BufferedImage scaled = scaleStepwise(image, width, height, alpha);
+        String extension = alpha ? "png" : "jpg";
+        Path target = Files.createTempFile("rendition-", "." + extension);
+        try {
+            if (alpha) {
+                ImageIO.write(scaled, "png", target.toFile());
+            } else {
+                writeJpeg(scaled, target);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        return new Rendition(target, extension, width, height);
+    }
+
+    // Halving in steps before the final bilinear pass avoids the aliasing of a single large downscale
+    private BufferedImage scaleStepwise(BufferedImage source, int targetWidth, int targetHeight, boolean alpha) {
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("No JPEG writer available");
+        }
+        ImageWriter writer = writers.next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.dto.FileUploadResultDTO;
+import com.example.onlyfanshop_be.enums.ImageVariant;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Multi-file upload: every part is first spooled to a temp file on the request thread (no byte[]
+ * copies), then each file and its width variants are pushed to storage on its own virtual thread.
+ * A semaphore shared by all requests bounds the number of files decoded and uploaded at once, so
+ * memory stays bounded however many files a batch holds.
+ */
+@Service
+@Slf4j
+public class ImageUploadPipelineService {
+    private final IFileStorage fileStorage;
+    private final ImageProcessingService imageProcessingService;
+    private final ImageVariantService imageVariantService;
+
+    @Value("${upload.max-parallel:4}")
+    private int maxParallel;
+    @Value("${upload.max-files:20}")
+    private int maxFiles;
+    @Value("${upload.timeout-seconds:60}")
+    private long timeoutSeconds;
+    @Value("${upload.allowed-folders:products,brands,stores,categories}")
+    private Set<String> allowedFolders;
+
+    private ExecutorService workers;
+    private Semaphore permits;
+
+    public ImageUploadPipelineService(IFileStorage fileStorage, ImageProcessingService imageProcessingService,
+                                      ImageVariantService imageVariantService) {
+        this.fileStorage = fileStorage;
+        this.imageProcessingService = imageProcessingService;
+        this.imageVariantService = imageVariantService;
+    }
+
+    @PostConstruct
+    void start() {
+        workers = Executors.newVirtualThreadPerTaskExecutor();
+        permits = new Semaphore(maxParallel);
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdown();
+    }
+
+    /**
+     * Uploads all files into the given folder; one failing file never fails the others.
+     *
+     * @return one result per input file, in input order
+     */
+    public List<FileUploadResultDTO> uploadAll(List<MultipartFile> files, String folder) {
+        if (!allowedFolders.contains(folder)) {
+            throw new IllegalArgumentException("Thư mục không hợp lệ: " + folder);
+        }
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException("Tối đa " + maxFiles + " file mỗi lần upload");
+        }
+
+        List<FileUploadResultDTO> results = new ArrayList<>(Collections.nCopies(files.size(), null));
+        Map<Integer, Future<FileUploadResultDTO>> pending = new LinkedHashMap<>();
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            String name = file.getOriginalFilename();
+            if (file.isEmpty()) {
+                results.set(i, failure(name, "File rỗng"));
+                continue;
+            }
+            // The worker owns the temp file once submitted; until then it is deleted here on failure
+            Path staged = null;
+            try {
+                staged = Files.createTempFile("upload-", ".tmp");
+                file.transferTo(staged);
+                Path submitted = staged;
+                pending.put(i, workers.submit(() -> process(submitted, name, file.getSize(), folder)));
+                staged = null;
+            } catch (IOException e) {
+                results.set(i, failure(name, "Không thể đọc file: " + e.getMessage()));
+            } catch (RejectedExecutionException e) {
+                results.set(i, failure(name, "Hệ thống đang bận, vui lòng thử lại"));
+            } finally {
+                if (staged != null) {
+                    deleteQuietly(staged);
+                }
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        for (Map.Entry<Integer, Future<FileUploadResultDTO>> entry : pending.entrySet()) {
+            String name = files.get(entry.getKey()).getOriginalFilename();
+            Future<FileUploadResultDTO> future = entry.getValue();
+            try {
+                results.set(entry.getKey(), future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                results.set(entry.getKey(), failure(name, "Quá thời gian upload"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                results.set(entry.getKey(), failure(name, "Upload bị gián đoạn"));
+            } catch (ExecutionException e) {
+                results.set(entry.getKey(), failure(name, e.getCause().getMessage()));
+            }
+        }
+        return results;
+    }
+
+    private FileUploadResultDTO process(Path staged, String originalName, long size, String folder) {
+        try {
+            String baseName = UUID.randomUUID() + "_" + IFileStorage.sanitizeFileName(originalName);
+            permits.acquire();
+            try {
+                // Decoding holds the full raster in memory, so it counts against the same permits;
+                // storage that transforms on the fly only needs the size from the header
+                Optional<ImageProcessingService.DecodedImage> image = fileStorage.transformsOnTheFly()
+                        ? imageProcessingService.readSize(staged)
+                        : imageProcessingService.decode(staged);
+                String url = fileStorage.upload(staged, folder, baseName);
+                Map<ImageVariant, String> variants = image.isPresent()
+                        ? imageVariantService.createVariants(image.get(), url, folder, baseName)
+                        : Map.of();
+                Map<String, String> variantsByName = new LinkedHashMap<>();
+                variants.forEach((variant, variantUrl) -> variantsByName.put(variant.name().toLowerCase(), variantUrl));
+                return FileUploadResultDTO.builder()
+                        .fileName(originalName)
+                        .success(true)
+                        .url(url)
+                        .thumbnailUrl(variants.get(ImageVariant.THUMBNAIL))
+                        .variants(variantsByName.isEmpty() ? null : variantsByName)
+                        .srcset(ImageVariantService.srcset(variants.get(ImageVariant.THUMBNAIL),
+                                variants.get(ImageVariant.CARD), variants.get(ImageVariant.DETAIL)))
+                        .width(image.map(ImageProcessingService.DecodedImage::width).orElse(null))
+                        .height(image.map(ImageProcessingService.DecodedImage::height).orElse(null))
+                        .size(size)
+                        .build();
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failure(originalName, "Upload bị gián đoạn");
+        } catch (Exception e) {
+            log.warn("Upload of {} failed: {}", originalName, e.getMessage());
+            return failure(originalName, e.getMessage());
+        } finally {
+            deleteQuietly(staged);
+        }
+    }
+
+    private static void deleteQuietly(Path staged) {
+        try {
+            Files.deleteIfExists(staged);
+        } catch (IOException e) {
+            log.debug("Could not delete temp file {}", staged);
+        }
+    }
+
+    private static FileUploadResultDTO failure(String fileName, String error) {
+        return FileUploadResultDTO.builder().fileName(fileName).success(false).error(error).build();
+    }
+}
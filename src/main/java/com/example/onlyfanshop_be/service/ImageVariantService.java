@@ -0,0 +1,154 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.entity.ProductImage;
+import com.example.onlyfanshop_be.enums.ImageVariant;
+import com.example.onlyfanshop_be.repository.ProductImageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Width-specific renditions of product images (see {@link ImageVariant}).
+ *
+ * On Cloudinary variants are transformation URLs and cost nothing to create; on storage without
+ * transformations they are resized locally at upload time and stored next to the original.
+ * Either way the resolved URLs are persisted on ProductImage so read paths never compute them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageVariantService {
+    private final IFileStorage fileStorage;
+    private final ImageProcessingService imageProcessingService;
+    private final ProductImageRepository productImageRepository;
+
+    @Value("${image.variants.backfill-batch-size:200}")
+    private int backfillBatchSize;
+
+    /**
+     * Produces every variant for a freshly uploaded image.
+     *
+     * @param fileName the stored file name of the original (variants are stored under derived names)
+     */
+    public Map<ImageVariant, String> createVariants(ImageProcessingService.DecodedImage image, String originalUrl,
+                                                    String folder, String fileName) throws IOException {
+        Map<ImageVariant, String> urls = new EnumMap<>(ImageVariant.class);
+        for (ImageVariant variant : ImageVariant.values()) {
+            if (fileStorage.transformsOnTheFly()) {
+                fileStorage.variantUrl(originalUrl, variant.getWidth()).ifPresent(url -> urls.put(variant, url));
+                continue;
+            }
+            ImageProcessingService.Rendition rendition = imageProcessingService.resize(image, variant.getWidth());
+            try {
+                String name = IFileStorage.variantFileName(fileName, variant.getWidth(), rendition.extension());
+                urls.put(variant, fileStorage.upload(rendition.file(), folder, name));
+            } finally {
+                Files.deleteIfExists(rendition.file());
+            }
+        }
+        return urls;
+    }
+
+    /**
+     * Fills the variant columns from the storage backend before the image is saved.
+     */
+    public void applyVariants(Collection<ProductImage> images) {
+        for (ProductImage image : images) {
+            applyVariants(image);
+        }
+    }
+
+    public boolean applyVariants(ProductImage image) {
+        String url = image.getImageUrl();
+        if (url == null || url.isBlank()) {
+            return false;
+        }
+        try {
+            image.setThumbnailUrl(fileStorage.variantUrl(url, ImageVariant.THUMBNAIL.getWidth()).orElse(null));
+            image.setCardUrl(fileStorage.variantUrl(url, ImageVariant.CARD.getWidth()).orElse(null));
+            image.setDetailUrl(fileStorage.variantUrl(url, ImageVariant.DETAIL.getWidth()).orElse(null));
+        } catch (Exception e) {
+            // Variants are an optimization; the original URL always remains usable
+            log.warn("Could not resolve variants for {}: {}", url, e.getMessage());
+            return false;
+        }
+        return image.getThumbnailUrl() != null;
+    }
+
+    /**
+     * srcset value ("url 160w, url 400w, url 1000w") for the known variants, or null when there are none.
+     */
+    public static String srcset(String thumbnailUrl, String cardUrl, String detailUrl) {
+        StringJoiner joiner = new StringJoiner(", ");
+        appendCandidate(joiner, thumbnailUrl, ImageVariant.THUMBNAIL);
+        appendCandidate(joiner, cardUrl, ImageVariant.CARD);
+        appendCandidate(joiner, detailUrl, ImageVariant.DETAIL);
+        return joiner.length() == 0 ? null : joiner.toString();
+    }
+
+    public static String srcset(ProductImage image) {
+        return srcset(image.getThumbnailUrl(), image.getCardUrl(), image.getDetailUrl());
+    }
+
+    /**
+     * The image that stands for a product: its main image, else the first one. Detail and batch
+     * reads both go through this so they show the same picture.
+     */
+    public static Optional<ProductImage> primary(List<ProductImage> images) {
+        if (images == null || images.isEmpty()) {
+            return Optional.empty();
+        }
+        return images.stream()
+                .filter(img -> Boolean.TRUE.equals(img.getIsMain()))
+                .findFirst()
+                .or(() -> Optional.of(images.get(0)));
+    }
+
+    private static void appendCandidate(StringJoiner joiner, String url, ImageVariant variant) {
+        if (url != null) {
+            joiner.add(url + " " + variant.getWidth() + "w");
+        }
+    }
+
+    /**
+     * Resolves variants for images saved before variants existed. Walks the table once per run by id,
+     * so images whose storage cannot provide variants are not re-read in a loop.
+     */
+    @Scheduled(initialDelayString = "${image.variants.backfill-initial-delay-ms:60000}",
+               fixedDelayString = "${image.variants.backfill-interval-ms:3600000}")
+    public void backfillVariants() {
+        long lastId = 0;
+        int updated = 0;
+        try {
+            while (true) {
+                List<ProductImage> batch = productImageRepository.findByThumbnailUrlIsNullAndIdGreaterThanOrderByIdAsc(
+                        lastId, PageRequest.of(0, backfillBatchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                List<ProductImage> resolved = new ArrayList<>();
+                for (ProductImage image : batch) {
+                    if (applyVariants(image)) {
+                        resolved.add(image);
+                    }
+                }
+                productImageRepository.saveAll(resolved);
+                updated += resolved.size();
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            log.error("Image variant backfill failed: {}", e.getMessage(), e);
+        }
+        if (updated > 0) {
+            log.info("Resolved variants for {} product images", updated);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.onlyfanshop_be.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single-node cart store. Every operation on a cart runs inside {@code compute} on its map entry,
+ * so mutations, dirty marking and idle eviction for the same user are serialized without locks
+ * shared across users. Clean carts idle for longer than {@code cart.memory.idle-minutes} are
+ * dropped; dirty carts are kept until they have been written back.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryCartStore implements ICartStore {
+
+    @Value("${cart.memory.idle-minutes:30}")
+    private long idleMinutes;
+
+    private static final class Entry {
+        final Map<Long, Line> lines = new HashMap<>();
+        long lastAccess = System.currentTimeMillis();
+    }
+
+    private final ConcurrentHashMap<Long, Entry> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public Map<Long, Line> get(Long userId) {
+        AtomicReference<Map<Long, Line>> copy = new AtomicReference<>();
+        carts.computeIfPresent(userId, (id, entry) -> {
+            entry.lastAccess = System.currentTimeMillis();
+            copy.set(new HashMap<>(entry.lines));
+            return entry;
+        });
+        return copy.get();
+    }
+
+    @Override
+    public void load(Long userId, Collection<Line> lines) {
+        carts.computeIfAbsent(userId, id -> {
+            Entry entry = new Entry();
+            lines.forEach(line -> entry.lines.put(line.productId(), line));
+            return entry;
+        });
+    }
+
+    @Override
+    public Integer addQuantity(Long userId, Line line) {
+        AtomicReference<Integer> result = new AtomicReference<>();
+        carts.computeIfPresent(userId, (id, entry) -> {
+            Line current = entry.lines.get(line.productId());
+            int quantity = (current != null ? current.quantity() : 0) + line.quantity();
+            if (quantity <= 0) {
+                entry.lines.remove(line.productId());
+                quantity = 0;
+            } else if (current != null) {
+                entry.lines.put(line.productId(), new Line(line.productId(), quantity, current.unitPriceSnapshot(), current.addedAt()));
+            } else {
+                entry.lines.put(line.productId(), new Line(line.productId(), quantity, line.unitPriceSnapshot(), line.addedAt()));
+            }
+            entry.lastAccess = System.currentTimeMillis();
+            dirty.add(id);
+            result.set(quantity);
+            return entry;
+        });
+        return result.get();
+    }
+
+    @Override
+    public void replace(Long userId, Collection<Line> lines) {
+        carts.compute(userId, (id, existing) -> {
+            Entry entry = new Entry();
+            lines.forEach(line -> entry.lines.put(line.productId(), line));
+            dirty.add(id);
+            return entry;
+        });
+    }
+
+    @Override
+    public void evict(Long userId) {
+        carts.compute(userId, (id, entry) -> {
+            dirty.remove(id);
+            return null;
+        });
+    }
+
+    @Override
+    public Set<Long> drainDirty(int max) {
+        Set<Long> drained = new HashSet<>();
+        Iterator<Long> it = dirty.iterator();
+        while (it.hasNext() && drained.size() < max) {
+            Long userId = it.next();
+            if (dirty.remove(userId)) {
+                drained.add(userId);
+            }
+        }
+        return drained;
+    }
+
+    @Override
+    public void markDirty(Long userId) {
+        carts.computeIfPresent(userId, (id, entry) -> {
+            dirty.add(id);
+            return entry;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${cart.memory.sweep-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMinutes * 60_000L;
+        AtomicInteger evicted = new AtomicInteger();
+        for (Long userId : carts.keySet()) {
+            carts.computeIfPresent(userId, (id, entry) -> {
+                if (entry.lastAccess < cutoff && !dirty.contains(id)) {
+                    evicted.incrementAndGet();
+                    return null;
+                }
+                return entry;
+            });
+        }
+        if (evicted.get() > 0) {
+            log.debug("Evicted {} idle carts", evicted);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.enums.OtpVerificationResult;
+import com.example.onlyfanshop_be.exception.AppException;
+import com.example.onlyfanshop_be.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-node OTP store built only from lock-free structures.
+ *
+ * Every code lives for the same TTL and every rate window for the same length, so expiry order
+ * equals insertion order: a plain FIFO queue per kind acts as the expiry priority queue, and the
+ * sweeper only ever looks at its head. Removal is conditional on the queued entry still being the
+ * current one, so a sweep never deletes a newer code or window for the same email. The number of live codes is capped; past the cap new
+ * codes are refused rather than growing the heap.
+ */
+@Service
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryOtpStore implements IOtpStore {
+
+    @Value("${otp.ttl-seconds:120}")
+    private long ttlSeconds;
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+    @Value("${otp.rate.cooldown-seconds:30}")
+    private long cooldownSeconds;
+    @Value("${otp.rate.max-sends:5}")
+    private int maxSends;
+    @Value("${otp.rate.window-seconds:3600}")
+    private long windowSeconds;
+    @Value("${otp.memory.max-entries:100000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, Code> codes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SendWindow> windows = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Expiry<Code>> codeExpiries = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Expiry<SendWindow>> windowExpiries = new ConcurrentLinkedQueue<>();
+    // ConcurrentHashMap.size() is O(segments); keep our own count for the cap check
+    private final AtomicInteger liveCodes = new AtomicInteger();
+
+    private static final class Code {
+        final byte[] value;
+        final long expiresAt;
+        final AtomicInteger attempts = new AtomicInteger();
+
+        Code(String value, long expiresAt) {
+            this.value = value.getBytes(StandardCharsets.UTF_8);
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private record SendWindow(long windowStart, int sends, long lastSentAt) {
+    }
+
+    private record Expiry<T>(String email, T entry, long deadline) {
+    }
+
+    @Override
+    public void issue(String email, String code) {
+        long now = System.currentTimeMillis();
+        acquireSendPermit(email, now);
+
+        if (liveCodes.get() >= maxEntries) {
+            log.warn("OTP store full ({} live codes), refusing new code", maxEntries);
+            throw new AppException(ErrorCode.OTP_RATE_LIMITED);
+        }
+        Code entry = new Code(code, now + ttlSeconds * 1000);
+        Code previous = codes.put(email, entry);
+        if (previous == null) {
+            liveCodes.incrementAndGet();
+        }
+        codeExpiries.offer(new Expiry<>(email, entry, entry.expiresAt));
+    }
+
+    private void acquireSendPermit(String email, long now) {
+        long windowMillis = windowSeconds * 1000;
+        while (true) {
+            SendWindow current = windows.get(email);
+            if (current == null || now - current.windowStart() >= windowMillis) {
+                SendWindow fresh = new SendWindow(now, 1, now);
+                boolean swapped = current == null
+                        ? windows.putIfAbsent(email, fresh) == null
+                        : windows.replace(email, current, fresh);
+                if (swapped) {
+                    windowExpiries.offer(new Expiry<>(email, fresh, now + windowMillis));
+                    return;
+                }
+                continue;
+            }
+            if (now - current.lastSentAt() < cooldownSeconds * 1000 || current.sends() >= maxSends) {
+                throw new AppException(ErrorCode.OTP_RATE_LIMITED);
+            }
+            SendWindow next = new SendWindow(current.windowStart(), current.sends() + 1, now);
+            if (windows.replace(email, current, next)) {
+                // Same window start, so the expiry queued when the window opened still applies
+                return;
+            }
+        }
+    }
+
+    @Override
+    public OtpVerificationResult verify(String email, String code) {
+        Code entry = codes.get(email);
+        if (entry == null) {
+            return OtpVerificationResult.EXPIRED;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAt) {
+            removeCode(email, entry);
+            return OtpVerificationResult.EXPIRED;
+        }
+
+        int attempts = entry.attempts.incrementAndGet();
+        if (attempts > maxAttempts) {
+            removeCode(email, entry);
+            return OtpVerificationResult.ATTEMPTS_EXCEEDED;
+        }
+        if (code != null && MessageDigest.isEqual(entry.value, code.getBytes(StandardCharsets.UTF_8))) {
+            // Conditional remove makes the code single-use under concurrent verification
+            return removeCode(email, entry) ? OtpVerificationResult.VALID : OtpVerificationResult.EXPIRED;
+        }
+        if (attempts == maxAttempts) {
+            removeCode(email, entry);
+            return OtpVerificationResult.ATTEMPTS_EXCEEDED;
+        }
+        return OtpVerificationResult.INVALID;
+    }
+
+    private boolean removeCode(String email, Code entry) {
+        if (codes.remove(email, entry)) {
+            liveCodes.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    @Scheduled(fixedDelayString = "${otp.memory.sweep-ms:5000}")
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        Expiry<Code> codeExpiry;
+        while ((codeExpiry = codeExpiries.peek()) != null && codeExpiry.deadline() <= now) {
+            codeExpiries.poll();
+            removeCode(codeExpiry.email(), codeExpiry.entry());
+        }
+        Expiry<SendWindow> windowExpiry;
+        while ((windowExpiry = windowExpiries.peek()) != null && windowExpiry.deadline() <= now) {
+            windowExpiries.poll();
+            // The window may have been bumped since it opened; match on its start, not identity
+            String email = windowExpiry.email();
+            SendWindow current;
+            while ((current = windows.get(email)) != null
+                    && current.windowStart() == windowExpiry.entry().windowStart()
+                    && !windows.remove(email, current)) {
+                // lost a race with a concurrent send in the same window, re-read
+            }
+        }
+    }
+}
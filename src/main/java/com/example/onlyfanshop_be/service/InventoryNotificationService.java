@@ -2,12 +2,16 @@ package com.example.onlyfanshop_be.service;
 
 import com.example.onlyfanshop_be.entity.*;
 import com.example.onlyfanshop_be.repository.*;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -18,9 +22,20 @@ public class InventoryNotificationService implements IInventoryNotificationServi
     private final TransferRequestRepository transferRequestRepository;
     private final UserRepository userRepository;
     private final WarehouseRepository warehouseRepository;
+    private final MeterRegistry meterRegistry;
 
     private static final byte ADMIN_ROLE_ID = 1;
 
+    // notification.fanout{event}: recipients notified per inventory event
+    private void recordFanout(String event, int recipients) {
+        DistributionSummary.builder("notification.fanout")
+                .description("Notifications sent for one inventory event")
+                .baseUnit("notifications")
+                .tag("event", event)
+                .register(meterRegistry)
+                .record(recipients);
+    }
+
     @Override
     public void notifyTransferRequestStatusChange(Long requestId, String oldStatus, String newStatus) {
         try {
@@ -40,7 +55,7 @@ public class InventoryNotificationService implements IInventoryNotificationServi
                     newStatus
             );
 
-            notifyStoreStaff(storeId, message);
+            recordFanout("transfer-status", notifyStoreStaff(storeId, message));
             
             log.info("Sent transfer request status notification for request {} to store {}", requestId, storeId);
             
@@ -59,8 +74,7 @@ public class InventoryNotificationService implements IInventoryNotificationServi
                     currentQuantity
             );
             
-            notifyStoreStaff(storeId, message);
-            notifyAllAdmins(message);
+            recordFanout("low-stock", notifyStoreStaff(storeId, message));
             
             log.info("Sent low stock notification for product {} at store {}", productId, storeId);
             
@@ -69,6 +83,30 @@ public class InventoryNotificationService implements IInventoryNotificationServi
         }
     }
 
+    /**
+     * One notification listing every low product of a store; a null store (a warehouse outside
+     * any store) goes to admins only. Unlike the other notifications a failure propagates, so the
+     * caller can keep the alerts pending and retry.
+     */
+    @Override
+    public void notifyLowStockBatch(Integer storeId, Map<Long, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return;
+        }
+        String items = quantitiesByProduct.entrySet().stream()
+                .map(entry -> String.format("#%d còn %d", entry.getKey(), entry.getValue()))
+                .collect(Collectors.joining(", "));
+        String message = storeId != null
+                ? String.format("⚠️ Cảnh báo: %d sản phẩm sắp hết hàng tại cửa hàng #%d: %s. Vui lòng bổ sung hàng.",
+                        quantitiesByProduct.size(), storeId, items)
+                : String.format("⚠️ Cảnh báo: %d sản phẩm sắp hết hàng trong kho: %s. Vui lòng bổ sung hàng.",
+                        quantitiesByProduct.size(), items);
+
+        recordFanout("low-stock-batch", storeId != null ? notifyStoreStaff(storeId, message) : notifyAllAdmins(message));
+
+        log.info("Sent low stock notification for {} products at store {}", quantitiesByProduct.size(), storeId);
+    }
+
     @Override
     public void notifyInventoryUpdate(Long warehouseId, Long productId, Integer previousQuantity, Integer newQuantity) {
         try {
@@ -83,7 +121,7 @@ public class InventoryNotificationService implements IInventoryNotificationServi
                     newQuantity
             );
             
-            notifyAllAdmins(message);
+            recordFanout("inventory-update", notifyAllAdmins(message));
             
             log.info("Sent inventory update notification for product {} at warehouse {}", productId, warehouseId);
             
@@ -92,33 +130,41 @@ public class InventoryNotificationService implements IInventoryNotificationServi
         }
     }
 
-    private void notifyStoreStaff(Integer storeId, String message) {
+    /**
+     * Notifies the store's staff and then all admins; returns how many notifications were sent.
+     */
+    private int notifyStoreStaff(Integer storeId, String message) {
         if (storeId == null) {
             log.warn("Cannot notify store staff: storeId is null");
-            return;
+            return 0;
         }
 
         List<User> storeStaff = userRepository.findByStoreLocationId(storeId);
+        int sent = 0;
         
         for (User staff : storeStaff) {
             try {
                 notificationService.sendNotification(staff.getId().intValue(), message);
+                sent++;
             } catch (Exception e) {
                 log.error("Error sending notification to staff {}: {}", staff.getId(), e.getMessage());
             }
         }
-        notifyAllAdmins(message);
+        return sent + notifyAllAdmins(message);
     }
 
-    private void notifyAllAdmins(String message) {
+    private int notifyAllAdmins(String message) {
         List<User> admins = userRepository.findByRoleId(ADMIN_ROLE_ID);
+        int sent = 0;
         
         for (User admin : admins) {
             try {
                 notificationService.sendNotification(admin.getId().intValue(), message);
+                sent++;
             } catch (Exception e) {
                 log.error("Error sending notification to admin {}: {}", admin.getId(), e.getMessage());
             }
         }
+        return sent;
     }
 }
@@ -1,5 +1,7 @@
 package com.example.onlyfanshop_be.service;
 
+import com.example.onlyfanshop_be.dto.InventoryRequestDTO;
+import com.example.onlyfanshop_be.dto.InventoryRequestItemDTO;
 import com.example.onlyfanshop_be.dto.request.CreateInventoryRequestDTO;
 import com.example.onlyfanshop_be.entity.InventoryRequest;
 import com.example.onlyfanshop_be.entity.InventoryRequestItem;
@@ -11,6 +13,7 @@ import com.example.onlyfanshop_be.repository.InventoryRequestRepository;
 import com.example.onlyfanshop_be.repository.ProductRepository;
 import com.example.onlyfanshop_be.repository.StoreInventoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -18,7 +21,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +33,7 @@ public class InventoryRequestService {
     private final InventoryTransactionService inventoryTransactionService;
     private final StoreInventoryRepository storeInventoryRepository;
     private final ProductRepository productRepository;
+    private final ReferenceBatchLoader referenceBatchLoader;
 
     @Transactional
     public InventoryRequest createRequestWithItems(Integer storeId, List<CreateInventoryRequestDTO.CreateInventoryRequestItemDTO> items, Long requestedBy, String note) {
@@ -181,13 +187,13 @@ public class InventoryRequestService {
         List<InventoryRequestItem> items = inventoryRequestItemRepository.findByRequestId(requestId);
 
         for (InventoryRequestItem item : items) {
-            inventoryTransactionService.transferBetweenStores(
+            inventoryTransactionService.fulfillRequest(
+                    request.getId(),
                     item.getProductId(),
                     sourceStoreId,
                     request.getStoreId(),
                     item.getApprovedQuantity(),
-                    performedBy,
-                    "Chuyển hàng theo yêu cầu #" + request.getId()
+                    performedBy
             );
         }
 
@@ -231,4 +237,122 @@ public class InventoryRequestService {
         return inventoryRequestRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy yêu cầu"));
     }
+
+    // ==================== DTO ASSEMBLY ====================
+
+    /**
+     * Builds DTOs for a page of requests with one query per referenced type (items, stores, users,
+     * products, product images) instead of several lookups per row.
+     */
+    public List<InventoryRequestDTO> toDTOs(List<InventoryRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<InventoryRequestItem>> itemsByRequest = loadItems(requests);
+
+        ReferenceBatchLoader.Batch refs = referenceBatchLoader.newBatch();
+        for (InventoryRequest request : requests) {
+            refs.withStore(request.getStoreId())
+                    .withUser(request.getRequestedBy())
+                    .withUser(request.getApprovedBy())
+                    .withProduct(request.getProductId());
+            itemsByRequest.getOrDefault(request.getId(), List.of()).forEach(item -> refs.withProduct(item.getProductId()));
+        }
+        refs.load();
+
+        List<InventoryRequestDTO> dtos = new ArrayList<>(requests.size());
+        for (InventoryRequest request : requests) {
+            dtos.add(toDTO(request, itemsByRequest.getOrDefault(request.getId(), List.of()), refs));
+        }
+        return dtos;
+    }
+
+    private InventoryRequestDTO toDTO(InventoryRequest request, List<InventoryRequestItem> items, ReferenceBatchLoader.Batch refs) {
+        List<InventoryRequestItemDTO> itemDTOs = new ArrayList<>();
+        int totalQuantity = 0;
+
+        Long legacyProductId = request.getProductId();
+        String legacyProductName = null;
+        String legacyProductImageUrl = null;
+        Integer legacyRequestedQuantity = request.getRequestedQuantity();
+        Integer legacyApprovedQuantity = request.getApprovedQuantity();
+
+        for (InventoryRequestItem item : items) {
+            ReferenceBatchLoader.ProductRef product = refs.product(item.getProductId());
+            String productName = product != null ? product.name() : null;
+            String productImageUrl = product != null ? product.mainImageUrl() : null;
+
+            itemDTOs.add(InventoryRequestItemDTO.builder()
+                    .id(item.getId())
+                    .productId(item.getProductId())
+                    .productName(productName)
+                    .productImageUrl(productImageUrl)
+                    .requestedQuantity(item.getRequestedQuantity())
+                    .approvedQuantity(item.getApprovedQuantity())
+                    .build());
+
+            totalQuantity += item.getRequestedQuantity();
+
+            if (legacyProductId == null) {
+                legacyProductId = item.getProductId();
+                legacyProductName = productName;
+                legacyProductImageUrl = productImageUrl;
+                legacyRequestedQuantity = item.getRequestedQuantity();
+                legacyApprovedQuantity = item.getApprovedQuantity();
+            }
+        }
+
+        if (legacyProductId != null && legacyProductName == null) {
+            ReferenceBatchLoader.ProductRef product = refs.product(legacyProductId);
+            if (product != null) {
+                legacyProductName = product.name();
+                legacyProductImageUrl = product.mainImageUrl();
+            }
+        }
+
+        return InventoryRequestDTO.builder()
+                .id(request.getId())
+                .storeId(request.getStoreId())
+                .storeName(refs.storeName(request.getStoreId()))
+                .items(itemDTOs)
+                .totalItems(itemDTOs.size())
+                .totalQuantity(totalQuantity)
+                .productId(legacyProductId)
+                .productName(legacyProductName)
+                .productImageUrl(legacyProductImageUrl)
+                .requestedQuantity(legacyRequestedQuantity)
+                .approvedQuantity(legacyApprovedQuantity)
+                .status(request.getStatus())
+                .requestedBy(request.getRequestedBy())
+                .requesterName(refs.userFullName(request.getRequestedBy()))
+                .approvedBy(request.getApprovedBy())
+                .approverName(refs.userFullName(request.getApprovedBy()))
+                .requestNote(request.getRequestNote())
+                .adminNote(request.getAdminNote())
+                .approvedAt(request.getApprovedAt())
+                .completedAt(request.getCompletedAt())
+                .createdAt(request.getCreatedAt())
+                .updatedAt(request.getUpdatedAt())
+                .build();
+    }
+
+    // Uses already-loaded item collections; everything else is fetched in one IN query
+    private Map<Long, List<InventoryRequestItem>> loadItems(List<InventoryRequest> requests) {
+        Map<Long, List<InventoryRequestItem>> itemsByRequest = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (InventoryRequest request : requests) {
+            List<InventoryRequestItem> items = request.getItems();
+            if (items != null && Hibernate.isInitialized(items) && !items.isEmpty()) {
+                itemsByRequest.put(request.getId(), items);
+            } else {
+                missing.add(request.getId());
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (InventoryRequestItem item : inventoryRequestItemRepository.findByRequestIdIn(missing)) {
+                itemsByRequest.computeIfAbsent(item.getRequestId(), k -> new ArrayList<>()).add(item);
+            }
+        }
+        return itemsByRequest;
+    }
 }
@@ -1,9 +1,12 @@
 package com.example.onlyfanshop_be.service;
 
 import com.example.onlyfanshop_be.entity.InventoryTransaction;
+import com.example.onlyfanshop_be.entity.StockLedgerEntry;
 import com.example.onlyfanshop_be.entity.StoreInventory;
 import com.example.onlyfanshop_be.enums.InventoryLocationType;
 import com.example.onlyfanshop_be.enums.InventoryTransactionType;
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import com.example.onlyfanshop_be.enums.StockMovementType;
 import com.example.onlyfanshop_be.repository.InventoryTransactionRepository;
 import com.example.onlyfanshop_be.repository.ProductRepository;
 import com.example.onlyfanshop_be.repository.StoreInventoryRepository;
@@ -19,11 +22,12 @@ public class InventoryTransactionService {
     private final InventoryTransactionRepository transactionRepository;
     private final ProductRepository productRepository;
     private final StoreInventoryRepository storeInventoryRepository;
+    private final StockLedgerService stockLedgerService;
 
     @Transactional
     public InventoryTransaction recordSale(Long productId, Integer storeId, Integer quantity,
                                            Long orderId, Long performedBy) {
-        StoreInventory storeInventory = storeInventoryRepository.findByStoreIdAndProductId(storeId, productId)
+        StoreInventory storeInventory = storeInventoryRepository.findForUpdate(storeId, productId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy tồn kho cửa hàng"));
 
         if (storeInventory.getQuantity() < quantity) {
@@ -50,12 +54,14 @@ public class InventoryTransactionService {
                 .note("Bán hàng - Order #" + orderId)
                 .build();
 
-        return transactionRepository.save(transaction);
+        transaction = transactionRepository.save(transaction);
+        appendToLedger(transaction, StockMovementType.SALE, storeId, quantityBefore, -quantity);
+        return transaction;
     }
 
     @Transactional
     public InventoryTransaction importToStore(Long productId, Integer storeId, Integer quantity, Long performedBy, String note) {
-        StoreInventory storeInventory = storeInventoryRepository.findByStoreIdAndProductId(storeId, productId)
+        StoreInventory storeInventory = storeInventoryRepository.findForUpdate(storeId, productId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy tồn kho cửa hàng"));
 
         Integer quantityBefore = storeInventory.getQuantity();
@@ -77,7 +83,9 @@ public class InventoryTransactionService {
                 .note(note)
                 .build();
 
-        return transactionRepository.save(transaction);
+        transaction = transactionRepository.save(transaction);
+        appendToLedger(transaction, StockMovementType.IMPORT, storeId, quantityBefore, quantity);
+        return transaction;
     }
 
     @Transactional
@@ -87,7 +95,7 @@ public class InventoryTransactionService {
             throw new IllegalArgumentException("storeId is required for inventory adjustments.");
         }
 
-        StoreInventory storeInventory = storeInventoryRepository.findByStoreIdAndProductId(storeId, productId)
+        StoreInventory storeInventory = storeInventoryRepository.findForUpdate(storeId, productId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy tồn kho cửa hàng"));
 
         Integer quantityBefore = storeInventory.getQuantity();
@@ -96,7 +104,7 @@ public class InventoryTransactionService {
         storeInventory.setQuantity(newQuantity);
         storeInventoryRepository.save(storeInventory);
 
-        return transactionRepository.save(InventoryTransaction.builder()
+        InventoryTransaction transaction = transactionRepository.save(InventoryTransaction.builder()
                 .transactionType(InventoryTransactionType.ADJUSTMENT)
                 .productId(productId)
                 .quantity(Math.abs(difference))
@@ -109,27 +117,45 @@ public class InventoryTransactionService {
                 .quantityAfter(newQuantity)
                 .note(note + " (Chênh lệch: " + (difference >= 0 ? "+" : "") + difference + ")")
                 .build());
+
+        appendToLedger(transaction, StockMovementType.ADJUSTMENT, storeId, quantityBefore, difference);
+        return transaction;
     }
 
     @Transactional
     public InventoryTransaction transferBetweenStores(Long productId, Integer sourceStoreId, Integer destStoreId,
                                                        Integer quantity, Long performedBy, String note) {
-        StoreInventory sourceInventory = storeInventoryRepository.findByStoreIdAndProductId(sourceStoreId, productId)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy tồn kho cửa hàng nguồn"));
+        return transfer(productId, sourceStoreId, destStoreId, quantity, performedBy, note, null);
+    }
+
+    /**
+     * Transfer that completes an inventory request: recorded against the request, in both the
+     * transaction history and the stock ledger.
+     */
+    @Transactional
+    public InventoryTransaction fulfillRequest(Long requestId, Long productId, Integer sourceStoreId, Integer destStoreId,
+                                               Integer quantity, Long performedBy) {
+        return transfer(productId, sourceStoreId, destStoreId, quantity, performedBy,
+                "Chuyển hàng theo yêu cầu #" + requestId, requestId);
+    }
+
+    private InventoryTransaction transfer(Long productId, Integer sourceStoreId, Integer destStoreId,
+                                          Integer quantity, Long performedBy, String note, Long requestId) {
+        // Lock both rows in store id order so two opposite transfers cannot deadlock
+        StoreInventory sourceInventory;
+        StoreInventory destInventory;
+        if (sourceStoreId <= destStoreId) {
+            sourceInventory = lockSourceInventory(sourceStoreId, productId);
+            destInventory = lockOrCreateInventory(destStoreId, productId);
+        } else {
+            destInventory = lockOrCreateInventory(destStoreId, productId);
+            sourceInventory = lockSourceInventory(sourceStoreId, productId);
+        }
 
         if (sourceInventory.getQuantity() < quantity) {
             throw new RuntimeException("Kho nguồn không đủ hàng. Tồn kho: " + sourceInventory.getQuantity());
         }
 
-        StoreInventory destInventory = storeInventoryRepository.findByStoreIdAndProductId(destStoreId, productId)
-                .orElseGet(() -> {
-                    StoreInventory newInventory = new StoreInventory();
-                    newInventory.setStoreId(destStoreId);
-                    newInventory.setProductId(productId);
-                    newInventory.setQuantity(0);
-                    return storeInventoryRepository.save(newInventory);
-                });
-
         Integer sourceQuantityBefore = sourceInventory.getQuantity();
         Integer destQuantityBefore = destInventory.getQuantity();
 
@@ -139,7 +165,7 @@ public class InventoryTransactionService {
         storeInventoryRepository.save(sourceInventory);
         storeInventoryRepository.save(destInventory);
 
-        return transactionRepository.save(InventoryTransaction.builder()
+        InventoryTransaction transaction = transactionRepository.save(InventoryTransaction.builder()
                 .transactionType(InventoryTransactionType.TRANSFER)
                 .productId(productId)
                 .quantity(quantity)
@@ -147,11 +173,49 @@ public class InventoryTransactionService {
                 .sourceStoreId(sourceStoreId)
                 .destinationType(InventoryLocationType.STORE)
                 .destinationStoreId(destStoreId)
+                .requestId(requestId)
                 .performedBy(performedBy)
                 .quantityBefore(sourceQuantityBefore)
                 .quantityAfter(sourceInventory.getQuantity())
                 .note(note != null ? note : "Chuyển kho từ cửa hàng #" + sourceStoreId + " đến cửa hàng #" + destStoreId)
                 .build());
+
+        StockMovementType movement = requestId != null ? StockMovementType.REQUEST_FULFILLMENT : StockMovementType.TRANSFER;
+        appendToLedger(transaction, movement, sourceStoreId, sourceQuantityBefore, -quantity);
+        appendToLedger(transaction, movement, destStoreId, destQuantityBefore, quantity);
+        return transaction;
+    }
+
+    private StoreInventory lockSourceInventory(Integer storeId, Long productId) {
+        return storeInventoryRepository.findForUpdate(storeId, productId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy tồn kho cửa hàng nguồn"));
+    }
+
+    private StoreInventory lockOrCreateInventory(Integer storeId, Long productId) {
+        return storeInventoryRepository.findForUpdate(storeId, productId)
+                .orElseGet(() -> {
+                    StoreInventory newInventory = new StoreInventory();
+                    newInventory.setStoreId(storeId);
+                    newInventory.setProductId(productId);
+                    newInventory.setQuantity(0);
+                    return storeInventoryRepository.save(newInventory);
+                });
+    }
+
+    private void appendToLedger(InventoryTransaction transaction, StockMovementType movement, Integer storeId,
+                                int balanceBefore, int delta) {
+        stockLedgerService.append(StockLedgerEntry.builder()
+                .locationType(StockLocationType.STORE)
+                .locationId(storeId.longValue())
+                .productId(transaction.getProductId())
+                .movementType(movement)
+                .delta(delta)
+                .transactionId(transaction.getId())
+                .orderId(transaction.getOrderId())
+                .requestId(transaction.getRequestId())
+                .performedBy(transaction.getPerformedBy())
+                .note(transaction.getNote())
+                .build(), balanceBefore);
     }
 
     public List<InventoryTransaction> getProductTransactions(Long productId) {
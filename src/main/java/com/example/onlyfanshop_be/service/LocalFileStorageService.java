@@ -0,0 +1,80 @@
+package com.example.onlyfanshop_be.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * Filesystem stand-in for Cloudinary (storage.provider=local). Files are written under
+ * storage.local.root and served by LocalStorageWebConfig at storage.local.base-url.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.provider", havingValue = "local")
+@Slf4j
+public class LocalFileStorageService implements IFileStorage {
+    private final Path root;
+    private final String baseUrl;
+
+    public LocalFileStorageService(@Value("${storage.local.root:uploads}") String root,
+                                   @Value("${storage.local.base-url:/uploads}") String baseUrl) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    @Override
+    public String upload(Path file, String folderName, String fileName) throws IOException {
+        Path target = resolve(folderName + "/" + fileName);
+        Files.createDirectories(target.getParent());
+        Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+        log.debug("Stored {} ({} bytes)", target, Files.size(target));
+        return baseUrl + "/" + root.relativize(target).toString().replace('\\', '/');
+    }
+
+    @Override
+    public void deleteFileByUrl(String imageUrl) {
+        int index = imageUrl != null ? imageUrl.indexOf(baseUrl + "/") : -1;
+        if (index < 0) {
+            throw new RuntimeException("URL không thuộc local storage: " + imageUrl);
+        }
+        try {
+            Files.deleteIfExists(resolve(imageUrl.substring(index + baseUrl.length() + 1)));
+        } catch (IOException e) {
+            throw new RuntimeException("Lỗi khi xóa ảnh: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Optional<String> variantUrl(String originalUrl, int width) {
+        int index = originalUrl != null ? originalUrl.indexOf(baseUrl + "/") : -1;
+        if (index < 0) {
+            return Optional.empty();
+        }
+        String relative = originalUrl.substring(index + baseUrl.length() + 1);
+        int slash = relative.lastIndexOf('/');
+        String folder = slash >= 0 ? relative.substring(0, slash + 1) : "";
+        String fileName = relative.substring(slash + 1);
+        for (String extension : new String[]{"jpg", "png"}) {
+            String candidate = folder + IFileStorage.variantFileName(fileName, width, extension);
+            if (Files.exists(resolve(candidate))) {
+                return Optional.of(baseUrl + "/" + candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Path resolve(String relative) {
+        Path path = root.resolve(relative).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid storage path: " + relative);
+        }
+        return path;
+    }
+}
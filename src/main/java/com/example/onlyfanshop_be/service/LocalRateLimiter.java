@@ -0,0 +1,110 @@
+package com.example.onlyfanshop_be.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single-node token buckets. Each bucket is an immutable state swapped by CAS, so the hot path
+ * takes no locks. Memory is bounded two ways: buckets idle long enough to be full again are
+ * dropped by a sweeper (a missing bucket behaves exactly like a full one), and when the map
+ * still exceeds max-entries the least recently used of a small random sample is evicted
+ * (approximate LRU, as in Redis' allkeys-lru).
+ */
+@Service
+@ConditionalOnProperty(name = "rate.store", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class LocalRateLimiter implements IRateLimiter {
+    private static final int EVICTION_SAMPLE_SIZE = 16;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Value("${rate.memory.max-entries:50000}")
+    private int maxEntries;
+
+    public LocalRateLimiter(MeterRegistry meterRegistry) {
+        Gauge.builder("ratelimit.local.buckets", buckets, Map::size).register(meterRegistry);
+        Gauge.builder("ratelimit.local.evictions", evictions, AtomicLong::get).register(meterRegistry);
+    }
+
+    private record State(double tokens, long updatedAt) {
+    }
+
+    private static final class Bucket {
+        final AtomicReference<State> state;
+        final long fullRefillMillis;
+
+        Bucket(double capacity, long now, long fullRefillMillis) {
+            this.state = new AtomicReference<>(new State(capacity, now));
+            this.fullRefillMillis = fullRefillMillis;
+        }
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String key, RateLimitRule rule) {
+        long now = System.currentTimeMillis();
+        String bucketKey = rule.name() + ":" + key;
+        Bucket bucket = buckets.get(bucketKey);
+        if (bucket == null) {
+            if (buckets.size() >= maxEntries) {
+                evictOne();
+            }
+            bucket = buckets.computeIfAbsent(bucketKey, k -> new Bucket(rule.capacity(), now, rule.fullRefillMillis()));
+        }
+
+        double refillPerMilli = rule.refillPerMilli();
+        while (true) {
+            State current = bucket.state.get();
+            double tokens = Math.min(rule.capacity(),
+                    current.tokens() + Math.max(0, now - current.updatedAt()) * refillPerMilli);
+            if (tokens < 1.0) {
+                long retryAfter = (long) Math.ceil((1.0 - tokens) / refillPerMilli);
+                return new RateLimitDecision(false, retryAfter);
+            }
+            if (bucket.state.compareAndSet(current, new State(tokens - 1.0, now))) {
+                return RateLimitDecision.ALLOWED;
+            }
+        }
+    }
+
+    private void evictOne() {
+        String oldestKey = null;
+        long oldest = Long.MAX_VALUE;
+        Iterator<Map.Entry<String, Bucket>> iterator = buckets.entrySet().iterator();
+        // Hash order is unrelated to age, so the first few entries make a fair sample
+        for (int i = 0; i < EVICTION_SAMPLE_SIZE && iterator.hasNext(); i++) {
+            Map.Entry<String, Bucket> entry = iterator.next();
+            long updatedAt = entry.getValue().state.get().updatedAt();
+            if (updatedAt < oldest) {
+                oldest = updatedAt;
+                oldestKey = entry.getKey();
+            }
+        }
+        if (oldestKey != null && buckets.remove(oldestKey) != null) {
+            evictions.incrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${rate.memory.sweep-ms:60000}")
+    public void sweepIdleBuckets() {
+        long now = System.currentTimeMillis();
+        int before = buckets.size();
+        buckets.entrySet().removeIf(entry ->
+                now - entry.getValue().state.get().updatedAt() >= entry.getValue().fullRefillMillis);
+        int removed = before - buckets.size();
+        if (removed > 0) {
+            log.debug("Rate limiter swept {} idle buckets", removed);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.service.IMailTransport.MailMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * In-process transport for local runs and tests (mail.transport=log): nothing leaves the JVM.
+ * The most recent messages are kept so they can be inspected.
+ */
+@Service
+@ConditionalOnProperty(name = "mail.transport", havingValue = "log")
+@Slf4j
+public class LoggingMailTransport implements IMailTransport {
+    private static final int KEEP_LAST = 100;
+
+    private final ConcurrentLinkedDeque<MailMessage> recent = new ConcurrentLinkedDeque<>();
+
+    @Override
+    public List<MailMessage> send(List<MailMessage> batch) {
+        for (MailMessage mail : batch) {
+            log.info("[mail] to={} subject={}", mail.to(), mail.subject());
+            recent.addFirst(mail);
+            while (recent.size() > KEEP_LAST) {
+                recent.pollLast();
+            }
+        }
+        return List.of();
+    }
+
+    public List<MailMessage> getRecentMessages() {
+        return List.copyOf(recent);
+    }
+}
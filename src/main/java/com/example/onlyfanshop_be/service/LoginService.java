@@ -8,6 +8,7 @@ import com.example.onlyfanshop_be.entity.Role;
 import com.example.onlyfanshop_be.entity.Token;
 import com.example.onlyfanshop_be.entity.User;
 import com.example.onlyfanshop_be.entity.UserAddress;
+import com.example.onlyfanshop_be.enums.OtpVerificationResult;
 import com.example.onlyfanshop_be.enums.TokenType;
 import com.example.onlyfanshop_be.enums.UserStatus;
 import com.example.onlyfanshop_be.exception.AppException;
@@ -17,20 +18,13 @@ import com.example.onlyfanshop_be.repository.TokenRepository;
 import com.example.onlyfanshop_be.repository.UserAddressRepository;
 import com.example.onlyfanshop_be.repository.UserRepository;
 import com.example.onlyfanshop_be.security.JwtTokenProvider;
-import lombok.Getter;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import jakarta.mail.internet.MimeMessage;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.Instant;
 import java.util.*;
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 
 @Service
 public class LoginService implements ILoginService{
@@ -41,17 +35,20 @@ public class LoginService implements ILoginService{
     @Autowired
     private UserAddressRepository userAddressRepository;
     private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-    private final JavaMailSender mailSender;
+    private final EmailService emailService;
 
     @Autowired
-    public LoginService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public LoginService(EmailService emailService) {
+        this.emailService = emailService;
     }
 
     @Autowired
     private TokenRepository tokenRepository;
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private IOtpStore otpStore;
+    private static final java.security.SecureRandom OTP_RANDOM = new java.security.SecureRandom();
     @Override
     public ApiResponse<UserDTO> login(LoginRequest loginRequest) {
         if (loginRequest.getEmail() == null || loginRequest.getEmail().trim().isEmpty()) {
@@ -82,7 +79,7 @@ public class LoginService implements ILoginService{
                     roleEntity = roleRepository.findById(user.getRoleId()).orElse(null);
                 }
 
-                String accessToken = jwtTokenProvider.generateAccessToken(user.getEmail(), user.getId(), roleEntity, user.getFullname());
+                String accessToken = jwtTokenProvider.generateAccessToken(user.getEmail(), user.getId(), roleEntity, user.getFullname(), user.getStoreLocationId());
                 String refreshToken = jwtTokenProvider.generateRefreshToken(user.getEmail(), user.getId(), roleEntity);
 
                 Token tokenEntity = Token.builder()
@@ -159,7 +156,7 @@ public class LoginService implements ILoginService{
             roleEntity = roleRepository.findById(user.getRoleId()).orElse(null);
         }
 
-        String newAccess = jwtTokenProvider.generateAccessToken(user.getEmail(), user.getId(), roleEntity, user.getFullname());
+        String newAccess = jwtTokenProvider.generateAccessToken(user.getEmail(), user.getId(), roleEntity, user.getFullname(), user.getStoreLocationId());
         Token accessEntity = Token.builder()
                 .userId(user.getId())
                 .token(newAccess)
@@ -241,7 +238,6 @@ public class LoginService implements ILoginService{
         } catch (Exception e) { return 7L; }
     }
 
-    private final Map<String, OTPDetails> otpStorage = new HashMap<>();
     @Override
     public ApiResponse<UserDTO> register(RegisterRequest registerRequest) {
         try {
@@ -316,77 +312,32 @@ public class LoginService implements ILoginService{
 
     @Override
     public String generateOTP(String email) {
-        String otp = String.format("%06d", new Random().nextInt(999999));
-        LocalDateTime expireTime = LocalDateTime.now().plusMinutes(2);
-        otpStorage.put(email, new OTPDetails(otp, expireTime));
+        String otp = String.format("%06d", OTP_RANDOM.nextInt(1_000_000));
+        otpStore.issue(normalizeOtpEmail(email), otp);
         return otp;
     }
 
     @Override
     public boolean validateOTP(String email, String otp) {
-        OTPDetails details = otpStorage.get(email);
-
-        if (details == null) return false;
-
-        if (LocalDateTime.now().isAfter(details.getExpireTime())) {
-            otpStorage.remove(email);
-            return false;
-        }
-
-        if (otp.equals(details.getOtp())) {
-            otpStorage.remove(email);
-            return true;
+        OtpVerificationResult result = otpStore.verify(normalizeOtpEmail(email), otp);
+        if (result == OtpVerificationResult.ATTEMPTS_EXCEEDED) {
+            throw new AppException(ErrorCode.OTP_ATTEMPTS_EXCEEDED);
         }
+        return result == OtpVerificationResult.VALID;
+    }
 
-        return false;
+    private String normalizeOtpEmail(String email) {
+        return email == null ? "" : email.trim().toLowerCase();
     }
 
     @Override
     public void sendOTP(String to, String otp) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setTo(to);
-            helper.setSubject("🔐 Xác thực email - Mã OTP OnlyFanShop");
-            helper.setText(buildOTPEmailTemplate(otp), true);
-            
-            mailSender.send(message);
-        } catch (Exception e) {
-            throw new RuntimeException("Không thể gửi email OTP: " + e.getMessage(), e);
+        // Queued for async delivery; the request no longer waits for SMTP
+        if (!emailService.sendOtp(to, otp)) {
+            throw new RuntimeException("Không thể gửi email OTP: hệ thống email đang quá tải, vui lòng thử lại sau");
         }
     }
 
-    private String buildOTPEmailTemplate(String otp) {
-        try (InputStream inputStream = getClass().getClassLoader()
-                .getResourceAsStream("templates/OtpTemplate.html")) {
-            
-            if (inputStream == null) {
-                throw new RuntimeException("Không tìm thấy file template: templates/OtpTemplate.html");
-            }
-            
-            String template = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
-            
-            // Thay thế placeholder {OTP} bằng mã OTP thực tế
-            return template.replace("{OTP}", otp);
-            
-        } catch (IOException e) {
-            throw new RuntimeException("Lỗi khi đọc file template: " + e.getMessage(), e);
-        }
-    }
-
-    @Getter
-    private static class OTPDetails {
-        private final String otp;
-        private final LocalDateTime expireTime;
-
-        public OTPDetails(String otp, LocalDateTime expireTime) {
-            this.otp = otp;
-            this.expireTime = expireTime;
-        }
-
-    }
-
     public ApiResponse<Void> resetPassword(String email, String newPassword) {
         Optional<User> userOpt = userRepository.findByEmail(email);
         if (userOpt.isEmpty()) {
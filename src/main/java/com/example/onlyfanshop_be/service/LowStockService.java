@@ -0,0 +1,319 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.dto.ReorderPointDTO;
+import com.example.onlyfanshop_be.entity.InventoryItem;
+import com.example.onlyfanshop_be.entity.ReorderPoint;
+import com.example.onlyfanshop_be.entity.StoreInventory;
+import com.example.onlyfanshop_be.entity.Warehouse;
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import com.example.onlyfanshop_be.exception.AppException;
+import com.example.onlyfanshop_be.exception.ErrorCode;
+import com.example.onlyfanshop_be.repository.InventoryItemRepository;
+import com.example.onlyfanshop_be.repository.ReorderPointRepository;
+import com.example.onlyfanshop_be.repository.StoreInventoryRepository;
+import com.example.onlyfanshop_be.repository.WarehouseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Low-stock detection driven by stock movements instead of polling: every StockLevelChangedEvent
+ * from the ledger looks up the reorder point of that one (location, product) and moves it between
+ * armed and alerting. The state change is written in the movement's transaction, under the same
+ * row lock, so concurrent movements cannot both fire an alert. Points re-arm only at their
+ * recovery level (hysteresis), so a quantity hovering around the threshold alerts once.
+ *
+ * Alerts are buffered after commit and sent every inventory.low-stock.batch-window-ms as one
+ * notification per store; a point that recovers before the flush is dropped from the batch.
+ * The flush stamps the sent points' notifiedAt; a store whose notification fails is left unstamped.
+ * Each flush first re-queues alerting points still unstamped after two batch windows, which covers
+ * failed sends and buffers lost with a dead instance. The buffer is also flushed on shutdown.
+ * Transitions are counted as inventory.low-stock.transitions{state}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LowStockService {
+    private final ReorderPointRepository reorderPointRepository;
+    private final StoreInventoryRepository storeInventoryRepository;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final IInventoryNotificationService inventoryNotificationService;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${inventory.low-stock.recovery-margin:5}")
+    private int defaultRecoveryMargin;
+
+    @Value("${inventory.low-stock.batch-window-ms:60000}")
+    private long batchWindowMs;
+
+    private record Location(StockLocationType type, Long id) {
+    }
+
+    // Alerts waiting for the next flush: latest quantity per product, per location. Only mutated
+    // through compute/remove so a flush never loses a concurrent update.
+    private final Map<Location, Map<Long, Integer>> pending = new ConcurrentHashMap<>();
+
+    // ==================== EVALUATION ====================
+
+    @EventListener
+    public void onStockLevelChanged(StockLedgerService.StockLevelChangedEvent event) {
+        if (event.balanceBefore() == event.balanceAfter()) {
+            return;
+        }
+        reorderPointRepository
+                .findByLocationTypeAndLocationIdAndProductId(event.locationType(), event.locationId(), event.productId())
+                .ifPresent(point -> evaluate(point, event.balanceAfter()));
+    }
+
+    private void evaluate(ReorderPoint point, int quantity) {
+        Location location = new Location(point.getLocationType(), point.getLocationId());
+        Long productId = point.getProductId();
+        boolean alerting = Boolean.TRUE.equals(point.getAlerting());
+
+        if (!alerting && quantity <= point.getReorderLevel()) {
+            point.setAlerting(true);
+            point.setLastAlertedAt(LocalDateTime.now());
+            point.setNotifiedAt(null);
+            reorderPointRepository.save(point);
+            countTransition("alerting");
+            afterCommit(() -> queue(location, productId, quantity));
+        } else if (alerting && quantity >= point.getRecoveryLevel()) {
+            point.setAlerting(false);
+            reorderPointRepository.save(point);
+            countTransition("recovered");
+            afterCommit(() -> pending.computeIfPresent(location, (key, products) -> {
+                products.remove(productId);
+                return products.isEmpty() ? null : products;
+            }));
+        } else if (alerting) {
+            // Still low: an alert not yet sent reports the latest quantity
+            afterCommit(() -> pending.computeIfPresent(location, (key, products) -> {
+                products.computeIfPresent(productId, (id, previous) -> quantity);
+                return products;
+            }));
+        }
+    }
+
+    private void queue(Location location, Long productId, int quantity) {
+        pending.compute(location, (key, products) -> {
+            Map<Long, Integer> updated = products != null ? products : new HashMap<>();
+            updated.put(productId, quantity);
+            return updated;
+        });
+    }
+
+    private void countTransition(String state) {
+        Counter.builder("inventory.low-stock.transitions")
+                .description("Reorder points entering the alerting state or re-arming")
+                .tag("state", state)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // ==================== BATCHED NOTIFICATIONS ====================
+
+    @Scheduled(fixedDelayString = "${inventory.low-stock.batch-window-ms:60000}")
+    public void flushAlerts() {
+        try {
+            // Every point drained below was committed as alerting before this instant
+            LocalDateTime drainedAt = LocalDateTime.now();
+            queueStaleAlerts(drainedAt.minus(Duration.ofMillis(2 * batchWindowMs)));
+            Map<Location, Map<Long, Integer>> batch = new HashMap<>();
+            for (Location location : new ArrayList<>(pending.keySet())) {
+                Map<Long, Integer> products = pending.remove(location);
+                if (products != null && !products.isEmpty()) {
+                    batch.put(location, products);
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            Set<Long> warehouseIds = batch.keySet().stream()
+                    .filter(location -> location.type() == StockLocationType.WAREHOUSE)
+                    .map(Location::id)
+                    .collect(Collectors.toSet());
+            Map<Long, Integer> storeByWarehouse = new HashMap<>();
+            for (Warehouse warehouse : warehouseRepository.findAllById(warehouseIds)) {
+                storeByWarehouse.put(warehouse.getId(), warehouse.getStoreId());
+            }
+
+            // A null store collects warehouses that belong to no store; those go to admins only
+            Map<Integer, Map<Long, Integer>> byStore = new HashMap<>();
+            Map<Integer, List<Location>> locationsByStore = new HashMap<>();
+            batch.forEach((location, products) -> {
+                Integer storeId = location.type() == StockLocationType.STORE
+                        ? Integer.valueOf(location.id().intValue())
+                        : storeByWarehouse.get(location.id());
+                locationsByStore.computeIfAbsent(storeId, key -> new ArrayList<>()).add(location);
+                products.forEach((productId, quantity) ->
+                        byStore.computeIfAbsent(storeId, key -> new TreeMap<>()).merge(productId, quantity, Math::min));
+            });
+
+            // A store whose notification fails stays unmarked and is picked up again by the sweep
+            List<Location> sent = new ArrayList<>();
+            byStore.forEach((storeId, products) -> {
+                try {
+                    inventoryNotificationService.notifyLowStockBatch(storeId, products);
+                    sent.addAll(locationsByStore.get(storeId));
+                } catch (Exception e) {
+                    log.error("Low stock alert for store {} failed, retrying on a later flush: {}",
+                            storeId, e.getMessage(), e);
+                }
+            });
+            if (sent.isEmpty()) {
+                return;
+            }
+            LocalDateTime notifiedAt = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> sent.forEach(location ->
+                    reorderPointRepository.markNotified(location.type(), location.id(), batch.get(location).keySet(),
+                            drainedAt, notifiedAt)));
+            log.info("Sent low stock alerts for {} locations, {} of {} stores",
+                    sent.size(), locationsByStore.values().stream().filter(sent::containsAll).count(), byStore.size());
+        } catch (Exception e) {
+            log.error("Low stock alert flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flushAlerts();
+    }
+
+    /**
+     * Queues alerting points that were raised before {@code cutoff} and never sent, with the
+     * current quantity: a failed send, or a buffer lost when an instance died. The cutoff is two
+     * batch windows back, so alerts still buffered on a running instance are left to it. Queued
+     * quantities are kept; they are at least as fresh as the stock row.
+     */
+    private void queueStaleAlerts(LocalDateTime cutoff) {
+        List<ReorderPoint> unsent = reorderPointRepository.findByAlertingTrueAndNotifiedAtIsNullAndLastAlertedAtBefore(cutoff);
+        for (ReorderPoint point : unsent) {
+            int quantity = currentQuantity(point.getLocationType(), point.getLocationId(), point.getProductId())
+                    .orElse(0);
+            pending.compute(new Location(point.getLocationType(), point.getLocationId()), (key, products) -> {
+                Map<Long, Integer> updated = products != null ? products : new HashMap<>();
+                updated.putIfAbsent(point.getProductId(), quantity);
+                return updated;
+            });
+        }
+        if (!unsent.isEmpty()) {
+            log.info("Queued {} low stock alerts that were not sent", unsent.size());
+        }
+    }
+
+    // ==================== REORDER POINTS ====================
+
+    /**
+     * Creates or updates a reorder point and evaluates it against the current quantity, so a
+     * product that is already low alerts right away. {@code recoveryLevel} defaults to
+     * {@code reorderLevel} plus inventory.low-stock.recovery-margin.
+     */
+    @Transactional
+    public ReorderPointDTO setReorderPoint(StockLocationType locationType, Long locationId, Long productId,
+                                           Integer reorderLevel, Integer recoveryLevel) {
+        if (locationType == null || locationId == null || productId == null || reorderLevel == null || reorderLevel < 0) {
+            throw new AppException(ErrorCode.INVALID_INPUT);
+        }
+        int recovery = recoveryLevel != null ? recoveryLevel : reorderLevel + Math.max(1, defaultRecoveryMargin);
+        if (recovery <= reorderLevel) {
+            throw new AppException(ErrorCode.INVALID_INPUT);
+        }
+
+        // Taking the stock row lock first keeps this in step with concurrent movements
+        Optional<Integer> quantity = lockCurrentQuantity(locationType, locationId, productId);
+
+        ReorderPoint point = reorderPointRepository
+                .findByLocationTypeAndLocationIdAndProductId(locationType, locationId, productId)
+                .orElseGet(() -> ReorderPoint.builder()
+                        .locationType(locationType)
+                        .locationId(locationId)
+                        .productId(productId)
+                        .build());
+        point.setReorderLevel(reorderLevel);
+        point.setRecoveryLevel(recovery);
+        point = reorderPointRepository.save(point);
+
+        ReorderPoint saved = point;
+        quantity.ifPresent(current -> evaluate(saved, current));
+        return convertToDTO(saved);
+    }
+
+    @Transactional
+    public void deleteReorderPoint(StockLocationType locationType, Long locationId, Long productId) {
+        reorderPointRepository.findByLocationTypeAndLocationIdAndProductId(locationType, locationId, productId)
+                .ifPresent(reorderPointRepository::delete);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ReorderPointDTO> getReorderPoints(StockLocationType locationType, Long locationId, boolean alertingOnly) {
+        List<ReorderPoint> points = alertingOnly
+                ? reorderPointRepository.findByLocationTypeAndLocationIdAndAlertingTrue(locationType, locationId)
+                : reorderPointRepository.findByLocationTypeAndLocationId(locationType, locationId);
+        return points.stream().map(this::convertToDTO).toList();
+    }
+
+    private Optional<Integer> lockCurrentQuantity(StockLocationType locationType, Long locationId, Long productId) {
+        if (locationType == StockLocationType.STORE) {
+            return storeInventoryRepository.findForUpdate(locationId.intValue(), productId)
+                    .map(StoreInventory::getQuantity);
+        }
+        return inventoryItemRepository.findForUpdate(locationId, productId)
+                .map(InventoryItem::getQuantity);
+    }
+
+    private Optional<Integer> currentQuantity(StockLocationType locationType, Long locationId, Long productId) {
+        if (locationType == StockLocationType.STORE) {
+            return storeInventoryRepository.findByStoreIdAndProductId(locationId.intValue(), productId)
+                    .map(StoreInventory::getQuantity);
+        }
+        return inventoryItemRepository.findByWarehouseIdAndProductId(locationId, productId)
+                .map(InventoryItem::getQuantity);
+    }
+
+    private ReorderPointDTO convertToDTO(ReorderPoint point) {
+        return ReorderPointDTO.builder()
+                .id(point.getId())
+                .locationType(point.getLocationType())
+                .locationId(point.getLocationId())
+                .productId(point.getProductId())
+                .reorderLevel(point.getReorderLevel())
+                .recoveryLevel(point.getRecoveryLevel())
+                .alerting(point.getAlerting())
+                .lastAlertedAt(point.getLastAlertedAt())
+                .notifiedAt(point.getNotifiedAt())
+                .updatedAt(point.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.service.IMailTransport.MailMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous mail delivery. Callers only enqueue, so request latency no longer includes SMTP.
+ *
+ * A bounded queue absorbs bursts; a dispatcher thread drains it in batches and hands each batch
+ * to a virtual thread, with at most max-concurrent-batches in flight so the SMTP server is not
+ * flooded. Failed messages are retried with exponential backoff on the same virtual thread.
+ */
+@Service
+@Slf4j
+public class MailDispatchService {
+    private final IMailTransport transport;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter rejectedCounter;
+
+    @Value("${mail.queue.capacity:1000}")
+    private int queueCapacity;
+    @Value("${mail.batch-size:20}")
+    private int batchSize;
+    @Value("${mail.max-concurrent-batches:4}")
+    private int maxConcurrentBatches;
+    @Value("${mail.retry.max-attempts:4}")
+    private int maxAttempts;
+    @Value("${mail.retry.initial-backoff-ms:1000}")
+    private long initialBackoffMillis;
+
+    private BlockingQueue<MailMessage> queue;
+    private Semaphore inFlight;
+    private ExecutorService senders;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    public MailDispatchService(IMailTransport transport, MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.sentCounter = meterRegistry.counter("mail.sent");
+        this.failedCounter = meterRegistry.counter("mail.failed");
+        this.rejectedCounter = meterRegistry.counter("mail.rejected");
+        Gauge.builder("mail.queue.size", this, service -> service.queue != null ? service.queue.size() : 0)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        inFlight = new Semaphore(maxConcurrentBatches);
+        senders = Executors.newVirtualThreadPerTaskExecutor();
+        running = true;
+        dispatcher = Thread.ofPlatform().name("mail-dispatcher").daemon(true).start(this::dispatchLoop);
+    }
+
+    /**
+     * @return false when the queue is full and the message was not accepted
+     */
+    public boolean enqueue(MailMessage message) {
+        boolean accepted = running && queue.offer(message);
+        if (!accepted) {
+            rejectedCounter.increment();
+            log.warn("Mail queue full, rejected email to {}", message.to());
+        }
+        return accepted;
+    }
+
+    private void dispatchLoop() {
+        while (running || !queue.isEmpty()) {
+            try {
+                MailMessage first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<MailMessage> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                inFlight.acquire();
+                senders.execute(() -> {
+                    try {
+                        sendWithRetry(batch);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Mail dispatcher error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void sendWithRetry(List<MailMessage> batch) {
+        List<MailMessage> pending = batch;
+        long backoff = initialBackoffMillis;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            List<MailMessage> failed;
+            try {
+                failed = transport.send(pending);
+            } catch (Exception e) {
+                log.warn("Mail transport error on attempt {}: {}", attempt, e.getMessage());
+                failed = pending;
+            }
+            sentCounter.increment(pending.size() - failed.size());
+            if (failed.isEmpty()) {
+                return;
+            }
+            pending = failed;
+            if (attempt < maxAttempts) {
+                try {
+                    // Virtual thread: sleeping here parks it without holding a carrier thread
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoff *= 2;
+            }
+        }
+        failedCounter.increment(pending.size());
+        pending.forEach(mail -> log.error("Giving up on email to {} ({})", mail.to(), mail.subject()));
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+        senders.shutdown();
+        if (!senders.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Mail senders did not finish before shutdown");
+        }
+    }
+}
@@ -2,16 +2,24 @@ package com.example.onlyfanshop_be.service;
 
 import com.example.onlyfanshop_be.dto.NotificationDTO;
 import com.example.onlyfanshop_be.dto.response.ApiResponse;
+import com.example.onlyfanshop_be.dto.response.NotificationFeedResponse;
 import com.example.onlyfanshop_be.entity.Notification;
 import com.example.onlyfanshop_be.entity.User;
 import com.example.onlyfanshop_be.exception.AppException;
 import com.example.onlyfanshop_be.exception.ErrorCode;
+import com.example.onlyfanshop_be.repository.NotificationArchiveRepository;
+import com.example.onlyfanshop_be.repository.NotificationCounterRepository;
 import com.example.onlyfanshop_be.repository.NotificationRepository;
 import com.example.onlyfanshop_be.repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -25,29 +33,175 @@ public class NotificationService {
     private UserRepository userRepository;
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
+    @Autowired
+    private NotificationCounterRepository notificationCounterRepository;
+    @Autowired
+    private NotificationArchiveRepository notificationArchiveRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
+    private static final int MAX_FEED_LIMIT = 100;
+    @Value("${notification.legacy-limit:100}")
+    private int legacyLimit;
+    @Value("${notification.retention-days:90}")
+    private int retentionDays;
+    @Value("${notification.archive.batch-size:500}")
+    private int archiveBatchSize;
+
+    /**
+     * Legacy list endpoint: now returns only the most recent page instead of the full history.
+     * New clients should use {@link #getFeed}.
+     */
     public ApiResponse<List<NotificationDTO>> getNotifications(int userId) {
-        List<Notification> list = notificationRepository.findByUserIdOrderByCreatedAtDesc((long) userId);
+        List<Notification> list = notificationRepository.findPageBefore(
+                (long) userId, Integer.MAX_VALUE, PageRequest.of(0, legacyLimit));
         if(list.isEmpty()){
             throw new AppException(ErrorCode.NOTIFICATION_NOT_FOUND);
         }
+        String fullName = userRepository.findById((long) userId).map(User::getFullname).orElse(null);
         List<NotificationDTO> listDTO = new ArrayList<>();
         for(Notification notification : list){
-            NotificationDTO dto = new NotificationDTO();
-            dto.setNotificationID(notification.getNotificationID());
-            if (notification.getUser() != null) {
-                dto.setFullName(notification.getUser().getFullname());
-                dto.setUserID(notification.getUser().getId().intValue());
-            }
-            dto.setCreatedAt(notification.getCreatedAt());
-            dto.setMessage(notification.getMessage());
-            dto.setIsRead(notification.getIsRead());
-
-            listDTO.add(dto);
+            listDTO.add(toDTO(notification, fullName));
         }
         return ApiResponse.<List<NotificationDTO>>builder().statusCode(200).data(listDTO).build();
     }
+
+    /**
+     * Cursor-paged feed. With {@code since} only notifications newer than that id are returned
+     * (incremental polling); otherwise pages go backwards from {@code before} (exclusive).
+     * Transactional because the unread count may seed the user's counter row.
+     */
+    @Transactional
+    public ApiResponse<NotificationFeedResponse> getFeed(Long userId, Integer before, Integer since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_FEED_LIMIT));
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Notification> rows = since != null
+                ? notificationRepository.findPageSince(userId, since, page)
+                : notificationRepository.findPageBefore(userId, before != null ? before : Integer.MAX_VALUE, page);
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+        String fullName = rows.isEmpty() ? null
+                : userRepository.findById(userId).map(User::getFullname).orElse(null);
+        List<NotificationDTO> items = rows.stream().map(n -> toDTO(n, fullName)).toList();
+
+        Integer latestId = items.isEmpty() ? since : items.get(0).getNotificationID();
+        NotificationFeedResponse feed = NotificationFeedResponse.builder()
+                .items(items)
+                .nextCursor(hasMore ? items.get(items.size() - 1).getNotificationID() : null)
+                .latestId(latestId)
+                .hasMore(hasMore)
+                .unreadCount(getUnreadCount(userId))
+                .build();
+        return ApiResponse.<NotificationFeedResponse>builder().statusCode(200).data(feed).build();
+    }
+
+    private NotificationDTO toDTO(Notification notification, String fullName) {
+        NotificationDTO dto = new NotificationDTO();
+        dto.setNotificationID(notification.getNotificationID());
+        dto.setUserID(notification.getUserId().intValue());
+        dto.setFullName(fullName);
+        dto.setCreatedAt(notification.getCreatedAt());
+        dto.setMessage(notification.getMessage());
+        dto.setIsRead(notification.getIsRead());
+        return dto;
+    }
+
+    // ==================== UNREAD COUNTERS ====================
+
+    @Transactional
+    public long getUnreadCount(Long userId) {
+        Optional<Integer> count = notificationCounterRepository.findUnreadCount(userId);
+        if (count.isPresent()) {
+            return count.get();
+        }
+        notificationCounterRepository.initialize(userId, 0);
+        return notificationCounterRepository.findUnreadCount(userId).orElse(0);
+    }
+
+    // Call after the write that changed the unread count: a missing counter is seeded from COUNT(*)
+    private void adjustUnread(Long userId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (notificationCounterRepository.add(userId, delta) == 0) {
+            // First write for this user: the count query already includes this change
+            notificationCounterRepository.initialize(userId, delta);
+        }
+    }
+
+    // ==================== MARK READ ====================
+
+    @Transactional
+    public int markRead(Long userId, Collection<Integer> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        int updated = notificationRepository.markReadByIds(userId, ids);
+        adjustUnread(userId, -updated);
+        return updated;
+    }
+
+    /**
+     * Marks everything up to and including {@code upToId} as read ("mark all as read" for what the client has seen).
+     */
+    @Transactional
+    public int markAllRead(Long userId, Integer upToId) {
+        int updated = notificationRepository.markReadUpTo(userId, upToId != null ? upToId : Integer.MAX_VALUE);
+        adjustUnread(userId, -updated);
+        return updated;
+    }
+
+    @Transactional
+    public void markRead(Integer notificationId) {
+        Notification n = notificationRepository.findById(notificationId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy thông báo!"));
+        markRead(n.getUserId(), List.of(notificationId));
+    }
+
+    // ==================== RETENTION ====================
+
+    /**
+     * Moves notifications older than the retention window to notifications_archive in bounded batches,
+     * keeping the hot table (and every feed query) proportional to recent activity.
+     */
+    @Scheduled(cron = "${notification.archive-cron:0 30 4 * * *}")
+    public void archiveOldNotifications() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int archived = 0;
+        try {
+            while (true) {
+                Integer moved = transactionTemplate.execute(status -> {
+                    List<Integer> ids = notificationRepository.findIdsCreatedBefore(cutoff, PageRequest.of(0, archiveBatchSize));
+                    if (ids.isEmpty()) {
+                        return 0;
+                    }
+                    List<Object[]> unreadByUser = notificationRepository.countUnreadByUserIn(ids);
+                    notificationArchiveRepository.copyFromNotifications(ids);
+                    notificationRepository.deleteByIdIn(ids);
+                    // After the delete, so a counter seeded from COUNT(*) no longer includes these rows
+                    for (Object[] row : unreadByUser) {
+                        adjustUnread((Long) row[0], -((Number) row[1]).intValue());
+                    }
+                    return ids.size();
+                });
+                if (moved == null || moved == 0) {
+                    break;
+                }
+                archived += moved;
+            }
+        } catch (Exception e) {
+            log.error("Notification archival failed after {} rows: {}", archived, e.getMessage(), e);
+        }
+        if (archived > 0) {
+            log.info("Archived {} notifications older than {}", archived, cutoff);
+        }
+    }
     
+    @Transactional
     public void sendNotification(int userId, String message) {
         // Lưu vào MySQL
         Optional<User> user = userRepository.findById((long) userId);
@@ -61,6 +215,7 @@ public class NotificationService {
                 .createdAt(LocalDateTime.now())
                 .build();
         notificationRepository.save(noti);
+        adjustUnread(noti.getUserId(), 1);
 
         // Gửi qua WebSocket để real-time
         try {
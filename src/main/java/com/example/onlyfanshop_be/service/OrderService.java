@@ -28,6 +28,8 @@ public class OrderService implements IOrderService {
 
     @Autowired
     private NotificationService notificationService;
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
     @Override
     public ApiResponse<List<OrderDTO>> getAllOrders(int userId, String status, String role) {
         List<Order> listOrder;
@@ -221,8 +223,10 @@ public class OrderService implements IOrderService {
 
             String statusLower = status.toLowerCase().trim();
             OrderStatus orderStatus = OrderStatus.valueOf(statusLower);
+            OrderStatus previousStatus = order.getStatus();
             order.setStatus(orderStatus);
             orderRepository.save(order);
+            salesAnalyticsService.recordStatusTransition(order, previousStatus, orderStatus);
 
             User user = order.getUser();
             if (user != null) {
@@ -292,6 +296,7 @@ public class OrderService implements IOrderService {
         order.setStatus(OrderStatus.canceled);
         order.setCanceledAt(java.time.LocalDateTime.now());
         orderRepository.save(order);
+        salesAnalyticsService.recordStatusTransition(order, OrderStatus.pending, OrderStatus.canceled);
 
         return ApiResponse.<Void>builder()
                 .statusCode(200)
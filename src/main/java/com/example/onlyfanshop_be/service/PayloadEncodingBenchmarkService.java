@@ -0,0 +1,76 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.dto.response.ApiResponse;
+import com.example.onlyfanshop_be.dto.response.HomepageResponse;
+import com.example.onlyfanshop_be.ultils.CborEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares response encodings on a real homepage payload read from the live database: JSON and
+ * CBOR, each raw and gzip-compressed the way server.compression does it. Reports the encoded size
+ * and the average encode time per format; the payload is loaded once, so only encoding is timed.
+ */
+@Service
+@RequiredArgsConstructor
+public class PayloadEncodingBenchmarkService {
+    private static final int WARMUP_ITERATIONS = 50;
+
+    private interface Encoder {
+        byte[] encode(Object value) throws IOException;
+    }
+
+    private final IProductService productService;
+    private final ObjectMapper objectMapper;
+
+    public Map<String, Object> run(int pageSize, int iterations) throws IOException {
+        ApiResponse<HomepageResponse> payload = productService.getHomepage(
+                null, null, null, null, null, null, null, null, null, null, null,
+                1, pageSize, "id", "DESC", Set.of("bestSellers", "sale", "new"), null);
+
+        Map<String, Encoder> encoders = new LinkedHashMap<>();
+        encoders.put("json", objectMapper::writeValueAsBytes);
+        encoders.put("json+gzip", value -> gzip(objectMapper.writeValueAsBytes(value)));
+        encoders.put("cbor", value -> CborEncoder.encode(objectMapper, value));
+        encoders.put("cbor+gzip", value -> gzip(CborEncoder.encode(objectMapper, value)));
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (Map.Entry<String, Encoder> entry : encoders.entrySet()) {
+            results.put(entry.getKey(), measure(entry.getValue(), payload, iterations));
+        }
+        return results;
+    }
+
+    private static Map<String, Object> measure(Encoder encoder, Object payload, int iterations) throws IOException {
+        int size = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            size = encoder.encode(payload).length;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            size = encoder.encode(payload).length;
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("bytes", size);
+        result.put("avgMicros", elapsed / 1_000.0 / iterations);
+        return result;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.dto.ProductImageDTO;
+import com.example.onlyfanshop_be.entity.ProductImage;
+import com.example.onlyfanshop_be.enums.ProductStatus;
+import com.example.onlyfanshop_be.repository.ProductImageRepository;
+import com.example.onlyfanshop_be.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Multi-get behind {@code /product/public/batch}: many products in one call, with only the
+ * requested fields. Scalar fields are read with a single projection query over just those
+ * columns; image fields add one query for the products' images, and only when requested.
+ * Like the detail endpoint it serves active products only and picks the main image, else the
+ * first one. Field names follow ProductDetailDTO so clients can switch without remapping.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductBatchService {
+    // Response field -> Product attribute path
+    private static final Map<String, String> ATTRIBUTES = new LinkedHashMap<>();
+    static {
+        ATTRIBUTES.put("productName", "name");
+        ATTRIBUTES.put("slug", "slug");
+        ATTRIBUTES.put("sku", "sku");
+        ATTRIBUTES.put("briefDescription", "shortDescription");
+        ATTRIBUTES.put("fullDescription", "description");
+        ATTRIBUTES.put("price", "basePrice");
+        ATTRIBUTES.put("quantity", "quantity");
+        ATTRIBUTES.put("status", "status");
+        ATTRIBUTES.put("brandId", "brandId");
+        ATTRIBUTES.put("brandName", "brand.name");
+        ATTRIBUTES.put("categoryId", "categoryId");
+        ATTRIBUTES.put("categoryName", "category.name");
+        ATTRIBUTES.put("powerWatt", "powerWatt");
+        ATTRIBUTES.put("bladeDiameterCm", "bladeDiameterCm");
+        ATTRIBUTES.put("colorDefault", "colorDefault");
+        ATTRIBUTES.put("warrantyMonths", "warrantyMonths");
+        ATTRIBUTES.put("voltage", "voltage");
+        ATTRIBUTES.put("windSpeedLevels", "windSpeedLevels");
+        ATTRIBUTES.put("airflow", "airflow");
+        ATTRIBUTES.put("bladeMaterial", "bladeMaterial");
+        ATTRIBUTES.put("bodyMaterial", "bodyMaterial");
+        ATTRIBUTES.put("bladeCount", "bladeCount");
+        ATTRIBUTES.put("noiseLevel", "noiseLevel");
+        ATTRIBUTES.put("motorSpeed", "motorSpeed");
+        ATTRIBUTES.put("weight", "weight");
+        ATTRIBUTES.put("adjustableHeight", "adjustableHeight");
+        ATTRIBUTES.put("remoteControl", "remoteControl");
+        ATTRIBUTES.put("timer", "timer");
+        ATTRIBUTES.put("naturalWindMode", "naturalWindMode");
+        ATTRIBUTES.put("sleepMode", "sleepMode");
+        ATTRIBUTES.put("oscillation", "oscillation");
+        ATTRIBUTES.put("heightAdjustable", "heightAdjustable");
+        ATTRIBUTES.put("autoShutoff", "autoShutoff");
+        ATTRIBUTES.put("temperatureSensor", "temperatureSensor");
+        ATTRIBUTES.put("energySaving", "energySaving");
+        ATTRIBUTES.put("safetyStandards", "safetyStandards");
+        ATTRIBUTES.put("manufacturingYear", "manufacturingYear");
+        ATTRIBUTES.put("accessories", "accessories");
+        ATTRIBUTES.put("energyRating", "energyRating");
+    }
+
+    // Fields from the primary image and the full image list, both served by one image query
+    private static final Set<String> MAIN_IMAGE_FIELDS = Set.of("imageURL", "thumbnailURL", "imageSrcset");
+    private static final String IMAGES_FIELD = "images";
+
+    // Card-sized default when the client does not ask for specific fields
+    private static final List<String> DEFAULT_FIELDS = List.of("productName", "price", "imageURL");
+
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+
+    @Value("${product.batch.max-ids:100}")
+    private int maxIds;
+
+    /**
+     * Active products in the order of {@code ids} (duplicates, unknown and inactive ids dropped), each as a map
+     * holding "id" plus the requested fields.
+     *
+     * @throws IllegalArgumentException on unknown field names or too many ids
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getProducts(List<Long> ids, Collection<String> fields) {
+        List<Long> uniqueIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (uniqueIds.size() > maxIds) {
+            throw new IllegalArgumentException("Tối đa " + maxIds + " sản phẩm mỗi lần");
+        }
+        List<String> requested = fields == null || fields.isEmpty()
+                ? DEFAULT_FIELDS
+                : fields.stream().map(String::trim).filter(f -> !f.isEmpty() && !"id".equals(f)).distinct().toList();
+        List<String> unknown = requested.stream()
+                .filter(f -> !ATTRIBUTES.containsKey(f) && !MAIN_IMAGE_FIELDS.contains(f) && !IMAGES_FIELD.equals(f))
+                .toList();
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Trường không hợp lệ: " + String.join(", ", unknown));
+        }
+        if (uniqueIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> scalarFields = requested.stream().filter(ATTRIBUTES::containsKey).toList();
+        List<String> paths = scalarFields.stream().map(ATTRIBUTES::get).toList();
+
+        Map<Long, Map<String, Object>> byId = new HashMap<>();
+        for (Object[] row : productRepository.findAttributesByIdIn(uniqueIds, ProductStatus.active, paths)) {
+            Map<String, Object> product = new LinkedHashMap<>();
+            product.put("id", row[0]);
+            for (int i = 0; i < scalarFields.size(); i++) {
+                Object value = row[i + 1];
+                // price is a Double in ProductDetailDTO
+                product.put(scalarFields.get(i), value instanceof BigDecimal price && "price".equals(scalarFields.get(i))
+                        ? price.doubleValue() : value);
+            }
+            byId.put((Long) row[0], product);
+        }
+        List<Long> foundIds = uniqueIds.stream().filter(byId::containsKey).toList();
+
+        boolean mainImageFields = requested.stream().anyMatch(MAIN_IMAGE_FIELDS::contains);
+        if ((mainImageFields || requested.contains(IMAGES_FIELD)) && !foundIds.isEmpty()) {
+            Map<Long, List<ProductImage>> images = loadImages(foundIds);
+            if (mainImageFields) {
+                addMainImages(foundIds, requested, images, byId);
+            }
+            if (requested.contains(IMAGES_FIELD)) {
+                addImages(foundIds, images, byId);
+            }
+        }
+        return foundIds.stream().map(byId::get).toList();
+    }
+
+    // In id order, as Product.images is loaded for the detail endpoint
+    private Map<Long, List<ProductImage>> loadImages(List<Long> ids) {
+        Map<Long, List<ProductImage>> images = new HashMap<>();
+        productImageRepository.findByProductIdIn(ids).stream()
+                .sorted(Comparator.comparing(ProductImage::getId))
+                .forEach(img -> images.computeIfAbsent(img.getProductId(), k -> new ArrayList<>()).add(img));
+        return images;
+    }
+
+    private void addMainImages(List<Long> ids, List<String> requested, Map<Long, List<ProductImage>> images,
+                               Map<Long, Map<String, Object>> byId) {
+        for (Long id : ids) {
+            Optional<ProductImage> image = ImageVariantService.primary(images.get(id));
+            Map<String, Object> product = byId.get(id);
+            if (requested.contains("imageURL")) {
+                product.put("imageURL", image.map(ProductImage::getImageUrl).orElse(null));
+            }
+            if (requested.contains("thumbnailURL")) {
+                product.put("thumbnailURL", image
+                        .map(img -> img.getThumbnailUrl() != null ? img.getThumbnailUrl() : img.getImageUrl())
+                        .orElse(null));
+            }
+            if (requested.contains("imageSrcset")) {
+                product.put("imageSrcset", image.map(ImageVariantService::srcset).orElse(null));
+            }
+        }
+    }
+
+    private void addImages(List<Long> ids, Map<Long, List<ProductImage>> images, Map<Long, Map<String, Object>> byId) {
+        for (Long id : ids) {
+            byId.get(id).put(IMAGES_FIELD, images.getOrDefault(id, List.of()).stream()
+                    .sorted(Comparator.comparing((ProductImage img) -> img.getSortOrder() != null ? img.getSortOrder() : 0))
+                    .map(img -> ProductImageDTO.builder()
+                            .id(img.getId())
+                            .productId(img.getProductId())
+                            .imageUrl(img.getImageUrl())
+                            .thumbnailUrl(img.getThumbnailUrl())
+                            .cardUrl(img.getCardUrl())
+                            .detailUrl(img.getDetailUrl())
+                            .srcset(ImageVariantService.srcset(img))
+                            .isMain(Boolean.TRUE.equals(img.getIsMain()))
+                            .sortOrder(img.getSortOrder())
+                            .colorId(img.getColorId())
+                            .build())
+                    .toList());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.onlyfanshop_be.service;
 
+import com.example.onlyfanshop_be.config.ReadReplica;
 import com.example.onlyfanshop_be.dto.request.ProductFilterRequest;
 import com.example.onlyfanshop_be.entity.Product;
 import com.example.onlyfanshop_be.enums.CategoryType;
@@ -31,12 +32,16 @@ public class ProductFilterService {
     @Autowired
     private ProductTagRepository productTagRepository;
 
+    @Autowired
+    private ActiveTagIndexService activeTagIndexService;
+
     @Autowired
     private AccessoryCompatibilityRepository accessoryCompatibilityRepository;
 
     @Autowired
     private CategoryService categoryService;
 
+    @ReadReplica
     public Page<Product> filterProducts(ProductFilterRequest request, Pageable pageable) {
         Specification<Product> spec = buildSpecification(request);
         return productRepository.findAll(spec, pageable);
@@ -138,6 +143,9 @@ public class ProductFilterService {
     }
 
     private Set<Long> getProductIdsByTagCodes(List<String> tagCodes) {
+        if (activeTagIndexService.isReady()) {
+            return activeTagIndexService.getActiveProductIds(tagCodes);
+        }
         Set<Long> productIds = new HashSet<>();
         
         for (String tagCode : tagCodes) {
@@ -0,0 +1,254 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.enums.ReviewStatus;
+import com.example.onlyfanshop_be.enums.RollupGranularity;
+import com.example.onlyfanshop_be.enums.SalesDimension;
+import com.example.onlyfanshop_be.repository.ProductRepository;
+import com.example.onlyfanshop_be.repository.ReviewRepository;
+import com.example.onlyfanshop_be.repository.SalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Popularity ranking behind {@code sortBy=popular}.
+ *
+ * Score = sales weight * time-decayed net units sold
+ *       + review weight * log(1 + approved reviews) * bayesian rating / 5
+ *       + view weight * log(1 + time-decayed detail views)
+ *
+ * Sales and views decay exponentially with a configurable half-life. Request threads only
+ * append to lock-free pending counters; the scheduler folds them in, decays the existing
+ * scores and publishes an immutable ranking snapshot, so readers never block.
+ * Sales history is rebuilt periodically from the daily PRODUCT sales rollups.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductPopularityService {
+    // Bayesian prior for ratings: behaves like PRIOR_REVIEWS reviews of PRIOR_RATING stars
+    private static final double PRIOR_REVIEWS = 5.0;
+    private static final double PRIOR_RATING = 3.5;
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final ReviewRepository reviewRepository;
+    private final ProductRepository productRepository;
+
+    @Value("${popularity.half-life-days:14}")
+    private double halfLifeDays;
+    @Value("${popularity.sales-window-days:90}")
+    private int salesWindowDays;
+    @Value("${popularity.weight.sales:1.0}")
+    private double salesWeight;
+    @Value("${popularity.weight.reviews:2.0}")
+    private double reviewWeight;
+    @Value("${popularity.weight.views:0.5}")
+    private double viewWeight;
+
+    // Swapped for a fresh map when a rebuild starts; see rebuildLocked
+    private volatile ConcurrentHashMap<Long, LongAdder> pendingSales = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+
+    // Guarded by recomputeLock
+    private final ReentrantLock recomputeLock = new ReentrantLock();
+    private Map<Long, Double> decayedSales = new HashMap<>();
+    private final Map<Long, Double> decayedViews = new HashMap<>();
+    private Map<Long, Double> reviewScores = new HashMap<>();
+    private long lastDecayMillis = System.currentTimeMillis();
+    private boolean rebuilt = false;
+
+    private volatile Ranking ranking = Ranking.EMPTY;
+
+    // ==================== EVENT INPUT ====================
+
+    /**
+     * Net units sold per product (negative for cancellations). Applied on the next tick.
+     */
+    public void recordSales(Map<Long, Long> unitsByProduct) {
+        unitsByProduct.forEach((productId, units) -> {
+            if (productId != null && units != null && units != 0) {
+                pendingSales.computeIfAbsent(productId, k -> new LongAdder()).add(units);
+            }
+        });
+    }
+
+    public void recordView(Long productId) {
+        if (productId != null) {
+            pendingViews.computeIfAbsent(productId, k -> new LongAdder()).increment();
+        }
+    }
+
+    // ==================== READ SIDE ====================
+
+    public boolean isReady() {
+        return ranking != Ranking.EMPTY;
+    }
+
+    /**
+     * Active product ids, most popular first (snapshot from the last tick).
+     */
+    public List<Long> getRankedIds() {
+        return ranking.ids();
+    }
+
+    /**
+     * Orders arbitrary product ids by the current ranking; unranked ids go last, newest first.
+     */
+    public List<Long> sortByPopularity(Collection<Long> productIds) {
+        Map<Long, Integer> positions = ranking.positions();
+        List<Long> sorted = new ArrayList<>(productIds);
+        sorted.sort(Comparator
+                .comparing((Long id) -> positions.getOrDefault(id, Integer.MAX_VALUE))
+                .thenComparing(Comparator.reverseOrder()));
+        return sorted;
+    }
+
+    /**
+     * Active product ids with recent sales, best selling (time-decayed net units) first.
+     */
+    public List<Long> getTopSellerIds(int limit) {
+        List<Long> sellers = ranking.topSellers();
+        return sellers.size() <= limit ? sellers : sellers.subList(0, limit);
+    }
+
+    public double getScore(Long productId) {
+        return ranking.scores().getOrDefault(productId, 0.0);
+    }
+
+    // ==================== RECOMPUTATION ====================
+
+    /**
+     * Incremental tick: decay existing scores, fold in pending sales and views, republish ranking.
+     */
+    @Scheduled(initialDelayString = "${popularity.initial-delay-ms:30000}",
+               fixedDelayString = "${popularity.tick-ms:300000}")
+    public void tick() {
+        recomputeLock.lock();
+        try {
+            if (!rebuilt) {
+                rebuildLocked();
+            }
+            long now = System.currentTimeMillis();
+            double factor = decayFactor(now - lastDecayMillis);
+            lastDecayMillis = now;
+            decayedSales.replaceAll((id, value) -> value * factor);
+            decayedViews.replaceAll((id, value) -> value * factor);
+
+            drain(pendingSales, decayedSales);
+            drain(pendingViews, decayedViews);
+            decayedSales.values().removeIf(value -> value < 0.01);
+            decayedViews.values().removeIf(value -> value < 0.01);
+
+            publishRanking();
+        } catch (Exception e) {
+            log.error("Popularity tick failed: {}", e.getMessage(), e);
+        } finally {
+            recomputeLock.unlock();
+        }
+    }
+
+    /**
+     * Full rebuild of the sales and review components (corrects drift from late cancellations
+     * and picks up review moderation). Views are in-memory only and are kept.
+     */
+    @Scheduled(cron = "${popularity.rebuild-cron:0 0 * * * *}")
+    public void rebuild() {
+        recomputeLock.lock();
+        try {
+            rebuildLocked();
+            publishRanking();
+        } catch (Exception e) {
+            log.error("Popularity rebuild failed: {}", e.getMessage(), e);
+        } finally {
+            recomputeLock.unlock();
+        }
+    }
+
+    private void rebuildLocked() {
+        // Sales recorded before this point are part of the rollups read below; the ones that arrive
+        // while the query runs may not be, so they collect in a fresh map and are added afterwards
+        pendingSales = new ConcurrentHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Double> sales = new HashMap<>();
+        List<Object[]> cells = salesRollupRepository.findUnitsSince(
+                RollupGranularity.DAY, SalesDimension.PRODUCT, now.minusDays(salesWindowDays));
+        for (Object[] row : cells) {
+            long netUnits = ((Number) row[2]).longValue() - ((Number) row[3]).longValue();
+            if (netUnits <= 0) {
+                continue;
+            }
+            long ageMillis = Duration.between((LocalDateTime) row[1], now).toMillis();
+            sales.merge(Long.valueOf((String) row[0]), netUnits * decayFactor(ageMillis), Double::sum);
+        }
+
+        Map<Long, Double> reviews = new HashMap<>();
+        for (Object[] row : reviewRepository.aggregateRatingsByProduct(ReviewStatus.approved)) {
+            long count = ((Number) row[1]).longValue();
+            double average = row[2] != null ? ((Number) row[2]).doubleValue() : 0.0;
+            double bayesian = (PRIOR_REVIEWS * PRIOR_RATING + count * average) / (PRIOR_REVIEWS + count);
+            reviews.put((Long) row[0], Math.log1p(count) * bayesian / 5.0);
+        }
+
+        drain(pendingSales, sales);
+        decayedSales = sales;
+        reviewScores = reviews;
+        lastDecayMillis = System.currentTimeMillis();
+        rebuilt = true;
+        log.info("Popularity rebuilt: {} products with sales, {} with reviews", sales.size(), reviews.size());
+    }
+
+    private void publishRanking() {
+        List<Long> activeIds = productRepository.findActiveIds();
+        Map<Long, Double> scores = new HashMap<>(activeIds.size() * 2);
+        for (Long id : activeIds) {
+            double score = salesWeight * decayedSales.getOrDefault(id, 0.0)
+                    + reviewWeight * reviewScores.getOrDefault(id, 0.0)
+                    + viewWeight * Math.log1p(decayedViews.getOrDefault(id, 0.0));
+            scores.put(id, score);
+        }
+
+        List<Long> ids = new ArrayList<>(activeIds);
+        ids.sort(Comparator
+                .comparing((Long id) -> scores.get(id), Comparator.reverseOrder())
+                .thenComparing(Comparator.reverseOrder()));
+
+        Map<Long, Integer> positions = new HashMap<>(ids.size() * 2);
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        List<Long> topSellers = activeIds.stream()
+                .filter(id -> decayedSales.getOrDefault(id, 0.0) > 0)
+                .sorted(Comparator.comparing((Long id) -> decayedSales.get(id), Comparator.reverseOrder()))
+                .toList();
+        ranking = new Ranking(List.copyOf(ids), positions, scores, topSellers);
+    }
+
+    private void drain(ConcurrentHashMap<Long, LongAdder> pending, Map<Long, Double> target) {
+        // sumThenReset keeps the adder in place so concurrent increments are never lost;
+        // the key set is bounded by the catalog size
+        pending.forEach((productId, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                target.merge(productId, (double) delta, Double::sum);
+            }
+        });
+    }
+
+    private double decayFactor(long elapsedMillis) {
+        double elapsedDays = elapsedMillis / 86_400_000.0;
+        return Math.pow(0.5, elapsedDays / halfLifeDays);
+    }
+
+    private record Ranking(List<Long> ids, Map<Long, Integer> positions, Map<Long, Double> scores, List<Long> topSellers) {
+        static final Ranking EMPTY = new Ranking(List.of(), Map.of(), Map.of(), List.of());
+    }
+}
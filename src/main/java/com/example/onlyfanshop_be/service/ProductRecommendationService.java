@@ -0,0 +1,300 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.entity.ProductCoPurchase;
+import com.example.onlyfanshop_be.enums.OrderStatus;
+import com.example.onlyfanshop_be.repository.AccessoryCompatibilityRepository;
+import com.example.onlyfanshop_be.repository.OrderItemRepository;
+import com.example.onlyfanshop_be.repository.OrderRepository;
+import com.example.onlyfanshop_be.repository.ProductCoPurchaseRepository;
+import com.example.onlyfanshop_be.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * "Frequently bought together" and compatible-accessory recommendations.
+ *
+ * A nightly batch job mines co-purchase pairs from order items and keeps only the top-K
+ * neighbours per product (cosine similarity of the products' order sets). The mined pairs,
+ * the accessory compatibility rules and the active products' brand/category are held in
+ * immutable in-memory indexes, so a recommendation lookup does no database work; callers
+ * fetch the resulting products in one batch.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductRecommendationService {
+    private static final Set<OrderStatus> EXCLUDED_STATUSES = EnumSet.of(OrderStatus.canceled, OrderStatus.refunded);
+    private static final int MINING_BATCH_SIZE = 1000;
+    // Pair count grows quadratically with basket size; bulk/B2B orders carry little signal
+    private static final int MAX_BASKET_SIZE = 30;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductCoPurchaseRepository productCoPurchaseRepository;
+    private final AccessoryCompatibilityRepository accessoryCompatibilityRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${recommendation.top-k:10}")
+    private int topK;
+    @Value("${recommendation.window-days:365}")
+    private int windowDays;
+    @Value("${recommendation.min-co-orders:2}")
+    private int minCoOrders;
+
+    private volatile Map<Long, List<Long>> coPurchased = Map.of();
+    private volatile RuleIndex rules = RuleIndex.EMPTY;
+
+    /**
+     * Recommended product ids for one product.
+     *
+     * @param boughtTogether co-purchased products, those that are also compatible accessories first
+     * @param accessories    compatible accessories not already in boughtTogether
+     */
+    public record Recommendations(List<Long> boughtTogether, List<Long> accessories) {
+        public static final Recommendations EMPTY = new Recommendations(List.of(), List.of());
+    }
+
+    // ==================== READ SIDE ====================
+
+    public Recommendations getRecommendations(Long productId, int limit) {
+        if (productId == null || limit <= 0) {
+            return Recommendations.EMPTY;
+        }
+        RuleIndex currentRules = rules;
+        List<Long> compatible = currentRules.accessoriesFor(productId);
+        Set<Long> compatibleSet = new HashSet<>(compatible);
+
+        List<Long> neighbours = coPurchased.getOrDefault(productId, List.of());
+        List<Long> boughtTogether = new ArrayList<>(Math.min(limit, neighbours.size()));
+        // Stable partition: compatible accessories first, each group keeps its mined rank
+        for (Long id : neighbours) {
+            if (compatibleSet.contains(id) && boughtTogether.size() < limit) {
+                boughtTogether.add(id);
+            }
+        }
+        for (Long id : neighbours) {
+            if (!compatibleSet.contains(id) && boughtTogether.size() < limit) {
+                boughtTogether.add(id);
+            }
+        }
+
+        Set<Long> shown = new HashSet<>(boughtTogether);
+        List<Long> accessories = compatible.stream()
+                .filter(id -> !id.equals(productId) && !shown.contains(id))
+                .limit(limit)
+                .toList();
+
+        return new Recommendations(boughtTogether, accessories);
+    }
+
+    // ==================== INDEX REFRESH ====================
+
+    /**
+     * Reloads the mined pairs and compatibility rules; rules change through the admin API,
+     * so this runs periodically rather than only after mining.
+     */
+    @Scheduled(initialDelayString = "${recommendation.initial-delay-ms:20000}",
+               fixedDelayString = "${recommendation.refresh-ms:600000}")
+    public void refreshIndex() {
+        try {
+            Map<Long, List<Long>> pairs = new HashMap<>();
+            for (Object[] row : productCoPurchaseRepository.findAllPairsOrdered()) {
+                pairs.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((Long) row[1]);
+            }
+            pairs.replaceAll((id, related) -> List.copyOf(related));
+            coPurchased = pairs;
+            rules = loadRules();
+        } catch (Exception e) {
+            log.error("Failed to refresh recommendation index: {}", e.getMessage(), e);
+        }
+    }
+
+    private RuleIndex loadRules() {
+        Map<Integer, List<Long>> byFanType = new HashMap<>();
+        Map<Integer, List<Long>> byBrand = new HashMap<>();
+        Map<Long, List<Long>> byFanTypeAndBrand = new HashMap<>();
+        for (Object[] row : accessoryCompatibilityRepository.findAllRuleKeys()) {
+            Long accessoryId = (Long) row[0];
+            Integer fanTypeId = (Integer) row[1];
+            Integer brandId = (Integer) row[2];
+            if (fanTypeId != null && brandId != null) {
+                byFanTypeAndBrand.computeIfAbsent(RuleIndex.pairKey(fanTypeId, brandId), k -> new ArrayList<>()).add(accessoryId);
+            } else if (fanTypeId != null) {
+                byFanType.computeIfAbsent(fanTypeId, k -> new ArrayList<>()).add(accessoryId);
+            } else if (brandId != null) {
+                byBrand.computeIfAbsent(brandId, k -> new ArrayList<>()).add(accessoryId);
+            }
+        }
+
+        Map<Long, int[]> dimensions = new HashMap<>();
+        for (Object[] row : productRepository.findActiveBrandAndCategoryIds()) {
+            int brandId = row[1] != null ? (Integer) row[1] : 0;
+            int categoryId = row[2] != null ? (Integer) row[2] : 0;
+            dimensions.put((Long) row[0], new int[]{brandId, categoryId});
+        }
+        return new RuleIndex(byFanType, byBrand, byFanTypeAndBrand, dimensions);
+    }
+
+    /**
+     * Compatibility rules keyed the way they are matched: a rule naming both a fan type and a brand
+     * applies only when both match, otherwise whichever one it names.
+     */
+    private record RuleIndex(Map<Integer, List<Long>> byFanType,
+                             Map<Integer, List<Long>> byBrand,
+                             Map<Long, List<Long>> byFanTypeAndBrand,
+                             Map<Long, int[]> productDimensions) {
+        static final RuleIndex EMPTY = new RuleIndex(Map.of(), Map.of(), Map.of(), Map.of());
+
+        static long pairKey(int fanTypeId, int brandId) {
+            return ((long) fanTypeId << 32) | (brandId & 0xffffffffL);
+        }
+
+        /**
+         * Most specific rules first: fan type + brand, then fan type, then brand
+         */
+        List<Long> accessoriesFor(Long productId) {
+            int[] dims = productDimensions.get(productId);
+            if (dims == null) {
+                return List.of();
+            }
+            int brandId = dims[0];
+            int categoryId = dims[1];
+            LinkedHashSet<Long> result = new LinkedHashSet<>();
+            result.addAll(byFanTypeAndBrand.getOrDefault(pairKey(categoryId, brandId), List.of()));
+            result.addAll(byFanType.getOrDefault(categoryId, List.of()));
+            result.addAll(byBrand.getOrDefault(brandId, List.of()));
+            result.remove(productId);
+            // Only recommend accessories that are themselves active
+            result.removeIf(id -> !productDimensions.containsKey(id));
+            return new ArrayList<>(result);
+        }
+    }
+
+    // ==================== BATCH MINING ====================
+
+    /**
+     * Scans purchased baskets in the mining window, counts product pairs and replaces the
+     * product_co_purchases table with the top-K neighbours of every product.
+     */
+    @Scheduled(cron = "${recommendation.mining-cron:0 45 3 * * *}")
+    public void mineCoPurchases() {
+        try {
+            long startedAt = System.currentTimeMillis();
+            LocalDateTime from = LocalDateTime.now().minusDays(windowDays);
+
+            Map<Long, Integer> orderCounts = new HashMap<>();
+            // Upper triangle only: pairCounts[a][b] with a < b
+            Map<Long, Map<Long, Integer>> pairCounts = new HashMap<>();
+            int baskets = 0;
+            long lastOrderId = 0L;
+
+            while (true) {
+                List<Long> orderIds = orderRepository.findIdsCreatedSinceAfterId(
+                        from, EXCLUDED_STATUSES, lastOrderId, PageRequest.of(0, MINING_BATCH_SIZE));
+                if (orderIds.isEmpty()) {
+                    break;
+                }
+                lastOrderId = orderIds.get(orderIds.size() - 1);
+
+                Map<Long, TreeSet<Long>> basketByOrder = new HashMap<>();
+                for (Object[] row : orderItemRepository.findOrderAndProductIdsByOrderIdIn(orderIds)) {
+                    if (row[1] != null) {
+                        basketByOrder.computeIfAbsent((Long) row[0], k -> new TreeSet<>()).add((Long) row[1]);
+                    }
+                }
+
+                for (TreeSet<Long> basket : basketByOrder.values()) {
+                    if (basket.size() > MAX_BASKET_SIZE) {
+                        continue;
+                    }
+                    baskets++;
+                    Long[] products = basket.toArray(new Long[0]);
+                    for (int i = 0; i < products.length; i++) {
+                        orderCounts.merge(products[i], 1, Integer::sum);
+                        Map<Long, Integer> row = null;
+                        for (int j = i + 1; j < products.length; j++) {
+                            if (row == null) {
+                                row = pairCounts.computeIfAbsent(products[i], k -> new HashMap<>());
+                            }
+                            row.merge(products[j], 1, Integer::sum);
+                        }
+                    }
+                }
+            }
+
+            List<ProductCoPurchase> rows = selectTopK(orderCounts, pairCounts);
+            transactionTemplate.executeWithoutResult(status -> {
+                productCoPurchaseRepository.deleteAllInBatch();
+                productCoPurchaseRepository.saveAll(rows);
+            });
+            refreshIndex();
+
+            log.info("Co-purchase mining: {} baskets, {} pairs kept for {} products in {} ms",
+                    baskets, rows.size(),
+                    rows.stream().map(ProductCoPurchase::getProductId).distinct().count(),
+                    System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            log.error("Co-purchase mining failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<ProductCoPurchase> selectTopK(Map<Long, Integer> orderCounts, Map<Long, Map<Long, Integer>> pairCounts) {
+        Comparator<Candidate> weakestFirst = Comparator
+                .comparingDouble(Candidate::score)
+                .thenComparingInt(Candidate::coOrders);
+        Map<Long, PriorityQueue<Candidate>> heaps = new HashMap<>();
+
+        pairCounts.forEach((a, row) -> row.forEach((b, coOrders) -> {
+            if (coOrders < minCoOrders) {
+                return;
+            }
+            double score = coOrders / Math.sqrt((double) orderCounts.get(a) * orderCounts.get(b));
+            offer(heaps, weakestFirst, a, new Candidate(b, coOrders, score));
+            offer(heaps, weakestFirst, b, new Candidate(a, coOrders, score));
+        }));
+
+        LocalDateTime minedAt = LocalDateTime.now();
+        List<ProductCoPurchase> rows = new ArrayList<>();
+        heaps.forEach((productId, heap) -> {
+            List<Candidate> best = heap.stream()
+                    .sorted(weakestFirst.reversed())
+                    .collect(Collectors.toList());
+            for (int rank = 0; rank < best.size(); rank++) {
+                Candidate candidate = best.get(rank);
+                rows.add(ProductCoPurchase.builder()
+                        .productId(productId)
+                        .relatedProductId(candidate.productId())
+                        .coOrderCount(candidate.coOrders())
+                        .score(candidate.score())
+                        .rankPosition(rank)
+                        .minedAt(minedAt)
+                        .build());
+            }
+        });
+        return rows;
+    }
+
+    private void offer(Map<Long, PriorityQueue<Candidate>> heaps, Comparator<Candidate> weakestFirst,
+                       Long productId, Candidate candidate) {
+        PriorityQueue<Candidate> heap = heaps.computeIfAbsent(productId, k -> new PriorityQueue<>(weakestFirst));
+        if (heap.size() < topK) {
+            heap.offer(candidate);
+        } else if (weakestFirst.compare(candidate, heap.peek()) > 0) {
+            heap.poll();
+            heap.offer(candidate);
+        }
+    }
+
+    private record Candidate(Long productId, int coOrders, double score) {
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.onlyfanshop_be.service;
 
+import com.example.onlyfanshop_be.config.ReadReplica;
 import com.example.onlyfanshop_be.dto.BrandDTO;
 import com.example.onlyfanshop_be.dto.CategoryDTO;
 import com.example.onlyfanshop_be.dto.Pagination;
 import com.example.onlyfanshop_be.dto.ProductDTO;
 import com.example.onlyfanshop_be.dto.ProductDetailDTO;
 import com.example.onlyfanshop_be.dto.ProductImageDTO;
+import com.example.onlyfanshop_be.dto.ProductRecommendationDTO;
 import com.example.onlyfanshop_be.dto.request.ProductDetailRequest;
 import com.example.onlyfanshop_be.dto.request.ProductImageRequest;
 import com.example.onlyfanshop_be.dto.response.ApiResponse;
@@ -21,8 +23,10 @@ import com.example.onlyfanshop_be.repository.BrandRepository;
 import com.example.onlyfanshop_be.repository.CategoryRepository;
 import com.example.onlyfanshop_be.repository.ProductRepository;
 import com.example.onlyfanshop_be.service.CacheService;
+import com.example.onlyfanshop_be.ultils.SlugUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -66,187 +70,105 @@ public class ProductService implements  IProductService {
     private com.example.onlyfanshop_be.repository.InventoryItemRepository inventoryItemRepository;
     @Autowired
     private CacheService cacheService;
+    @Autowired
+    private ProductPopularityService productPopularityService;
+    @Autowired
+    private ProductRecommendationService productRecommendationService;
+    @Autowired
+    private ImageVariantService imageVariantService;
+    @Autowired
+    private HomepageAssemblyService homepageAssemblyService;
+    @Autowired
+    private ActiveTagIndexService activeTagIndexService;
+
+    @Value("${homepage.products-timeout-ms:5000}")
+    private long productsTimeoutMs;
+    @Value("${homepage.section-timeout-ms:800}")
+    private long sectionTimeoutMs;
+    @Value("${homepage.rail-size:10}")
+    private int homepageRailSize;
 
     @Override
+    @ReadReplica
     public ApiResponse<HomepageResponse> getHomepage(
             String keyword, Integer categoryId, Integer brandId,
             Long minPrice, Long maxPrice, Integer bladeCount,
             Boolean remoteControl, Boolean oscillation, Boolean timer,
             Integer minPower, Integer maxPower,
-            int page, int size, String sortBy, String order) {
+            int page, int size, String sortBy, String order,
+            java.util.Set<String> sections, List<Long> recentIds) {
         try {
             System.out.println("ProductService.getHomepage - sortBy: " + sortBy);
-            
-            // Check if shuffle/recommended algorithm should be used
-            boolean useShuffle = "shuffled".equalsIgnoreCase(sortBy) || 
-                                "recommended".equalsIgnoreCase(sortBy) ||
-                                "popular".equalsIgnoreCase(sortBy);
-            
-            List<Product> products;
-            long totalElements;
-            int totalPages;
-            
-            if (useShuffle) {
-                // For shuffle algorithm: load all matching products, shuffle, then paginate
-                java.util.Map<String, Object> shuffleResult = loadAndShuffleProducts(keyword, categoryId, brandId, minPrice, maxPrice,
-                        bladeCount, remoteControl, oscillation, timer, minPower, maxPower,
-                        page, size);
-                @SuppressWarnings("unchecked")
-                List<Product> shuffledProductsList = (List<Product>) shuffleResult.get("products");
-                products = shuffledProductsList;
-                totalElements = (Long) shuffleResult.get("totalElements");
-                totalPages = (Integer) shuffleResult.get("totalPages");
-            } else {
-                // Normal sorting: use database pagination
-                Sort.Direction direction = "DESC".equalsIgnoreCase(order) ? Sort.Direction.DESC : Sort.Direction.ASC;
-                String actualSortField = mapSortField(sortBy);
-                System.out.println("ProductService.getHomepage - mapped sortBy: " + actualSortField);
-                Pageable pageable = PageRequest.of(page - 1, size, Sort.by(direction, actualSortField));
-
-            Specification<Product> spec = (root, query, cb) -> 
-                    cb.equal(root.get("status"), com.example.onlyfanshop_be.enums.ProductStatus.active);
-            if (keyword != null && !keyword.isEmpty()) {
-                spec = spec.and((root, query, cb) ->
-                        cb.like(cb.lower(root.get("name")), "%" + keyword.toLowerCase() + "%"));
-            }
-
-            if (categoryId != null && categoryId > 0) {
-                spec = spec.and((root, query, cb) ->
-                        cb.equal(root.get("categoryId"), categoryId));
-            }
-
-            if (brandId != null && brandId > 0) {
-                spec = spec.and((root, query, cb) ->
-                        cb.equal(root.get("brandId"), brandId));
-            }
-
-            // Filter theo giá
-            if (minPrice != null) {
-                spec = spec.and((root, query, cb) ->
-                        cb.greaterThanOrEqualTo(root.get("basePrice"), java.math.BigDecimal.valueOf(minPrice)));
-            }
-            if (maxPrice != null) {
-                spec = spec.and((root, query, cb) ->
-                        cb.lessThanOrEqualTo(root.get("basePrice"), java.math.BigDecimal.valueOf(maxPrice)));
-            }
 
-            // Filter theo số cánh quạt
-            if (bladeCount != null && bladeCount > 0) {
-                spec = spec.and((root, query, cb) ->
-                        cb.equal(root.get("bladeCount"), bladeCount));
-            }
-
-            // Filter theo tiện ích
-            if (remoteControl != null && remoteControl) {
-                spec = spec.and((root, query, cb) ->
-                        cb.equal(root.get("remoteControl"), true));
-            }
-            if (oscillation != null && oscillation) {
-                spec = spec.and((root, query, cb) ->
-                        cb.equal(root.get("oscillation"), true));
-            }
-            if (timer != null && timer) {
-                spec = spec.and((root, query, cb) ->
-                        cb.isNotNull(root.get("timer")));
-            }
-
-            // Filter theo công suất
-            if (minPower != null) {
-                spec = spec.and((root, query, cb) ->
-                        cb.greaterThanOrEqualTo(root.get("powerWatt"), minPower));
-            }
-            if (maxPower != null) {
-                spec = spec.and((root, query, cb) ->
-                        cb.lessThanOrEqualTo(root.get("powerWatt"), maxPower));
-            }
-
-                Page<Product> productPage = productRepository.findAll(spec, pageable);
-                products = productPage.getContent();
-                totalElements = productPage.getTotalElements();
-                totalPages = productPage.getTotalPages();
-            }
-
-            // OPTIMIZATION: Only load main image URL for homepage (faster - no need for all images)
-            java.util.Map<Long, String> productImageMap = loadProductImagesBatch(products);
-            // Skip loading full image DTO list for homepage - only main image is needed
-            // This saves one database query per request
-
-            List<ProductDTO> productDTOs = products.stream()
-                    .map(p -> {
-                        BrandDTO brandDTO = null;
-                        if (p.getBrand() != null) {
-                            brandDTO = BrandDTO.builder()
-                                    .brandID(p.getBrand().getBrandID() == null ? null : p.getBrand().getBrandID().intValue())
-                                    .name(p.getBrand().getBrandName())
-                                    .imageURL(p.getBrand().getImageURL())
-                                    .build();
-                        }
-                        
-                        CategoryDTO categoryDTO = null;
-                        if (p.getCategory() != null) {
-                            categoryDTO = CategoryDTO.simple(
-                                    p.getCategory().getCategoryID(),
-                                    p.getCategory().getCategoryName()
-                            );
-                        }
-                        
-                        // Get image URL from map (already loaded in batch)
-                        String imageURL = productImageMap.get(p.getId());
-                        
-                        // OPTIMIZATION: Don't set images and isActive fields for homepage (reduces JSON size)
-                        ProductDTO.ProductDTOBuilder builder = ProductDTO.builder()
-                                .id(p.getProductID())
-                                .productName(p.getProductName())
-                                .price(p.getPrice())
-                                .imageURL(imageURL)
-                                .briefDescription(p.getBriefDescription())
-                                .brand(brandDTO)
-                                .category(categoryDTO);
-                        // Don't set images and isActive - Jackson will skip null fields with @JsonInclude
-                        // This reduces JSON payload size significantly
-                        return builder.build();
-                    })
-                    .toList();
-            // OPTIMIZATION: Use cache service for price range (with fallback)
-            Long maxPriceFilter = null;
-            Long minPriceFilter = null;
-            try {
-                java.util.Map<String, Long> priceRange = cacheService.getPriceRange();
-                maxPriceFilter = priceRange.get("maxPrice");
-                minPriceFilter = priceRange.get("minPrice");
-            } catch (Exception e) {
-                System.err.println("Warning: Failed to get price range from cache, using direct query: " + e.getMessage());
-                // Fallback to direct query
-                java.math.BigDecimal maxPriceBD = productRepository.findMaxPrice();
-                java.math.BigDecimal minPriceBD = productRepository.findMinPrice();
-                maxPriceFilter = maxPriceBD != null ? maxPriceBD.longValue() : null;
-                minPriceFilter = minPriceBD != null ? minPriceBD.longValue() : null;
-            }
+            // Independent sections run concurrently; latency is bounded by the slowest one
+            HomepageAssemblyService.Assembly assembly = homepageAssemblyService.start();
+            HomepageAssemblyService.Section<HomepagePage> pageSection = assembly.fork("products", productsTimeoutMs,
+                    () -> loadHomepagePage(keyword, categoryId, brandId, minPrice, maxPrice, bladeCount,
+                            remoteControl, oscillation, timer, minPower, maxPower, page, size, sortBy, order),
+                    null);
+            HomepageAssemblyService.Section<java.util.Map<String, Long>> priceSection = assembly.forkCached("priceRange", sectionTimeoutMs,
+                    this::loadPriceRange, java.util.Map.of());
+            // OPTIMIZATION: Use cache service for categories and brands (they don't change often)
+            HomepageAssemblyService.Section<List<CategoryDTO>> categoriesSection = assembly.forkCached("categories", sectionTimeoutMs,
+                    cacheService::getCategories, List.of());
+            HomepageAssemblyService.Section<List<BrandDTO>> brandsSection = assembly.forkCached("brands", sectionTimeoutMs,
+                    cacheService::getBrands, List.of());
+
+            java.util.Set<String> requested = sections != null ? sections : java.util.Set.of();
+            HomepageAssemblyService.Section<List<ProductDTO>> bestSellersSection = requested.contains("bestSellers")
+                    ? assembly.fork("bestSellers", sectionTimeoutMs,
+                        () -> loadProductRail(productPopularityService.getTopSellerIds(homepageRailSize * 2)), List.of())
+                    : null;
+            HomepageAssemblyService.Section<List<ProductDTO>> saleSection = requested.contains("sale")
+                    ? assembly.fork("sale", sectionTimeoutMs, () -> loadTagRail("sale"), List.of())
+                    : null;
+            HomepageAssemblyService.Section<List<ProductDTO>> newSection = requested.contains("new")
+                    ? assembly.fork("new", sectionTimeoutMs, () -> loadTagRail("new"), List.of())
+                    : null;
+            HomepageAssemblyService.Section<List<ProductDTO>> recentSection = recentIds != null && !recentIds.isEmpty()
+                    ? assembly.fork("recentlyViewed", sectionTimeoutMs,
+                        () -> loadProductRail(recentIds.stream().distinct().limit(homepageRailSize).toList()), List.of())
+                    : null;
+
+            // Products are the page itself: no fallback, fail the request as before
+            HomepagePage homepagePage = pageSection.joinRequired();
+            java.util.Map<String, Long> priceRange = priceSection.join();
+            List<CategoryDTO> categories = categoriesSection.join();
+            List<BrandDTO> brands = brandsSection.join();
+
+            // Names come from the cached lists instead of two extra findById queries
+            String selectedCategory = categoryId != null && categoryId > 0
+                    ? categories.stream().filter(c -> categoryId.equals(c.getId())).map(CategoryDTO::getName).findFirst().orElse("All")
+                    : "All";
+            String selectedBrand = brandId != null && brandId > 0
+                    ? brands.stream().filter(b -> brandId.equals(b.getBrandID())).map(BrandDTO::getName).findFirst().orElse("All")
+                    : "All";
             HomepageResponse.Filters filters = HomepageResponse.Filters.builder()
-                    .selectedCategory(categoryId != null && categoryId > 0 ? categoryRepository.findById(categoryId).map(Category::getCategoryName).orElse("All") : "All")
-                    .selectedBrand(brandId != null && brandId > 0 ? brandRepository.findById(brandId).map(Brand::getBrandName).orElse("All") : "All")
+                    .selectedCategory(selectedCategory)
+                    .selectedBrand(selectedBrand)
                     .sortOption(sortBy + "_" + order.toLowerCase())
-                    .maxPrice(maxPriceFilter)
-                    .minPrice(minPriceFilter)
+                    .maxPrice(priceRange.get("maxPrice"))
+                    .minPrice(priceRange.get("minPrice"))
                     .build();
 
-            // OPTIMIZATION: Use cache service for categories and brands (they don't change often)
-            List<CategoryDTO> categories = cacheService.getCategories();
-            List<BrandDTO> brands = cacheService.getBrands();
-
             Pagination pagination = Pagination.builder()
                     .page(page)
                     .size(size)
-                    .totalPages(totalPages)
-                    .totalElements(totalElements)
+                    .totalPages(homepagePage.totalPages())
+                    .totalElements(homepagePage.totalElements())
                     .build();
 
             return ApiResponse.<HomepageResponse>builder().statusCode(200).data(HomepageResponse.builder()
                     .filters(filters)
                     .categories(categories)
                     .brands(brands)
-                    .products(productDTOs)
+                    .products(homepagePage.products())
                     .pagination(pagination)
+                    .bestSellers(bestSellersSection != null ? bestSellersSection.join() : null)
+                    .saleProducts(saleSection != null ? saleSection.join() : null)
+                    .newProducts(newSection != null ? newSection.join() : null)
+                    .recentlyViewed(recentSection != null ? recentSection.join() : null)
+                    .degradedSections(assembly.degradedSections())
                     .build()).build();
         } catch (Exception e) {
             System.err.println("Error in ProductService.getHomepage: " + e.getMessage());
@@ -255,10 +177,199 @@ public class ProductService implements  IProductService {
         }
     }
 
+    private record HomepagePage(List<ProductDTO> products, long totalElements, int totalPages) {
+    }
+
+    private HomepagePage loadHomepagePage(
+            String keyword, Integer categoryId, Integer brandId,
+            Long minPrice, Long maxPrice, Integer bladeCount,
+            Boolean remoteControl, Boolean oscillation, Boolean timer,
+            Integer minPower, Integer maxPower,
+            int page, int size, String sortBy, String order) {
+        // Check if shuffle/recommended algorithm should be used
+        boolean useShuffle = "shuffled".equalsIgnoreCase(sortBy) || 
+                            "recommended".equalsIgnoreCase(sortBy);
+        boolean usePopularity = "popular".equalsIgnoreCase(sortBy);
+        
+        List<Product> products;
+        long totalElements;
+        int totalPages;
+        
+        if (useShuffle) {
+            // For shuffle algorithm: load all matching products, shuffle, then paginate
+            java.util.Map<String, Object> shuffleResult = loadAndShuffleProducts(keyword, categoryId, brandId, minPrice, maxPrice,
+                    bladeCount, remoteControl, oscillation, timer, minPower, maxPower,
+                    page, size);
+            @SuppressWarnings("unchecked")
+            List<Product> shuffledProductsList = (List<Product>) shuffleResult.get("products");
+            products = shuffledProductsList;
+            totalElements = (Long) shuffleResult.get("totalElements");
+            totalPages = (Integer) shuffleResult.get("totalPages");
+        } else if (usePopularity) {
+            // Popularity ranking: page over precomputed ranked ids, then load only that page
+            java.util.Map<String, Object> popularResult = loadPopularProducts(keyword, categoryId, brandId, minPrice, maxPrice,
+                    bladeCount, remoteControl, oscillation, timer, minPower, maxPower,
+                    page, size);
+            @SuppressWarnings("unchecked")
+            List<Product> popularProductsList = (List<Product>) popularResult.get("products");
+            products = popularProductsList;
+            totalElements = (Long) popularResult.get("totalElements");
+            totalPages = (Integer) popularResult.get("totalPages");
+        } else {
+            // Normal sorting: use database pagination
+            Sort.Direction direction = "DESC".equalsIgnoreCase(order) ? Sort.Direction.DESC : Sort.Direction.ASC;
+            String actualSortField = mapSortField(sortBy);
+            System.out.println("ProductService.getHomepage - mapped sortBy: " + actualSortField);
+            Pageable pageable = PageRequest.of(page - 1, size, Sort.by(direction, actualSortField));
+
+            Specification<Product> spec = buildActiveProductSpec(keyword, categoryId, brandId, minPrice, maxPrice,
+                    bladeCount, remoteControl, oscillation, timer, minPower, maxPower);
+
+            Page<Product> productPage = productRepository.findAll(spec, pageable);
+            products = productPage.getContent();
+            totalElements = productPage.getTotalElements();
+            totalPages = productPage.getTotalPages();
+        }
+
+        return new HomepagePage(toProductSummaries(products), totalElements, totalPages);
+    }
+
+    private java.util.Map<String, Long> loadPriceRange() {
+        // OPTIMIZATION: Use cache service for price range (with fallback)
+        try {
+            return cacheService.getPriceRange();
+        } catch (Exception e) {
+            System.err.println("Warning: Failed to get price range from cache, using direct query: " + e.getMessage());
+            // Fallback to direct query
+            java.math.BigDecimal maxPriceBD = productRepository.findMaxPrice();
+            java.math.BigDecimal minPriceBD = productRepository.findMinPrice();
+            java.util.Map<String, Long> result = new java.util.HashMap<>();
+            result.put("maxPrice", maxPriceBD != null ? maxPriceBD.longValue() : null);
+            result.put("minPrice", minPriceBD != null ? minPriceBD.longValue() : null);
+            return result;
+        }
+    }
+
+    /**
+     * Active products for the given ids, in the given order, capped at the rail size.
+     */
+    private List<ProductDTO> loadProductRail(List<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return List.of();
+        }
+        java.util.Map<Long, Product> productById = productRepository.findByIdIn(productIds).stream()
+                .filter(Product::isActive)
+                .collect(Collectors.toMap(Product::getId, p -> p, (a, b) -> a));
+        List<Product> ordered = productIds.stream()
+                .map(productById::get)
+                .filter(Objects::nonNull)
+                .limit(homepageRailSize)
+                .toList();
+        return toProductSummaries(ordered);
+    }
+
+    /**
+     * Products currently tagged with the given tag code (see ProductTag validity window), newest first.
+     */
+    private List<ProductDTO> loadTagRail(String tagCode) {
+        List<Long> activeIds = activeTagIndexService.isReady()
+                ? activeTagIndexService.getActiveProductIds(tagCode)
+                : productTagRepository.findProductIdsByActiveTagCode(tagCode);
+        List<Long> ids = activeIds.stream()
+                .distinct()
+                .sorted(Comparator.reverseOrder())
+                .limit(homepageRailSize * 3L)
+                .toList();
+        return loadProductRail(ids);
+    }
+
+    /**
+     * Lightweight product cards (name, price, main image, brand, category) for listings.
+     * Main images are loaded in one batched query.
+     */
+    private List<ProductDTO> toProductSummaries(List<Product> products) {
+        // OPTIMIZATION: Only load main image URL for homepage (faster - no need for all images)
+        java.util.Map<Long, MainImage> productImageMap = loadProductImagesBatch(products);
+        // Skip loading full image DTO list for homepage - only main image is needed
+        // This saves one database query per request
+
+        return products.stream()
+                .map(p -> toSummary(p, productImageMap.get(p.getId())))
+                .toList();
+    }
+
+    static ProductDTO toSummary(Product p, MainImage mainImage) {
+        BrandDTO brandDTO = null;
+        if (p.getBrand() != null) {
+            brandDTO = BrandDTO.builder()
+                    .brandID(p.getBrand().getBrandID() == null ? null : p.getBrand().getBrandID().intValue())
+                    .name(p.getBrand().getBrandName())
+                    .imageURL(p.getBrand().getImageURL())
+                    .build();
+        }
+
+        CategoryDTO categoryDTO = null;
+        if (p.getCategory() != null) {
+            categoryDTO = CategoryDTO.simple(
+                    p.getCategory().getCategoryID(),
+                    p.getCategory().getCategoryName()
+            );
+        }
+
+        // Don't set images and isActive - Jackson will skip null fields with @JsonInclude
+        // This reduces JSON payload size significantly
+        return ProductDTO.builder()
+                .id(p.getProductID())
+                .productName(p.getProductName())
+                .price(p.getPrice())
+                .imageURL(mainImage != null ? mainImage.url() : null)
+                .thumbnailURL(mainImage != null ? mainImage.thumbnailUrl() : null)
+                .imageSrcset(mainImage != null ? mainImage.srcset() : null)
+                .briefDescription(p.getBriefDescription())
+                .brand(brandDTO)
+                .category(categoryDTO)
+                .build();
+    }
+
+    @Override
+    public ApiResponse<ProductRecommendationDTO> getRecommendations(Long productId, int limit) {
+        if (!productRepository.existsById(productId.intValue())) {
+            throw new AppException(ErrorCode.PRODUCT_NOTEXISTED);
+        }
+        ProductRecommendationService.Recommendations recommendations =
+                productRecommendationService.getRecommendations(productId, limit);
+
+        // One batched fetch for both sections
+        List<Long> allIds = new ArrayList<>(recommendations.boughtTogether());
+        allIds.addAll(recommendations.accessories());
+        java.util.Map<Long, Product> productById = allIds.isEmpty()
+                ? java.util.Map.of()
+                : productRepository.findByIdIn(allIds).stream()
+                        .filter(p -> p.getStatus() == com.example.onlyfanshop_be.enums.ProductStatus.active)
+                        .collect(Collectors.toMap(Product::getId, p -> p));
+        java.util.Map<Long, ProductDTO> dtoById = toProductSummaries(new ArrayList<>(productById.values())).stream()
+                .collect(Collectors.toMap(dto -> dto.getId().longValue(), dto -> dto));
+
+        ProductRecommendationDTO dto = ProductRecommendationDTO.builder()
+                .productId(productId)
+                .frequentlyBoughtTogether(recommendations.boughtTogether().stream()
+                        .map(dtoById::get).filter(Objects::nonNull).toList())
+                .compatibleAccessories(recommendations.accessories().stream()
+                        .map(dtoById::get).filter(Objects::nonNull).toList())
+                .build();
+
+        return ApiResponse.<ProductRecommendationDTO>builder()
+                .statusCode(200)
+                .message("Lấy sản phẩm gợi ý thành công")
+                .data(dto)
+                .build();
+    }
+
     @Override
     public ApiResponse<ProductDetailDTO> getProductDetail(Integer productId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
+        productPopularityService.recordView(product.getId());
 
         ProductDetailDTO dto = buildProductDetailDTO(product);
 
@@ -423,6 +534,7 @@ public class ProductService implements  IProductService {
             }
 
             try {
+                imageVariantService.applyVariants(imagesToSave);
                 productImageRepository.saveAll(imagesToSave);
             } catch (Exception e) {
                 System.err.println("ProductService: Error saving ProductImage list: " + e.getMessage());
@@ -612,6 +724,7 @@ public class ProductService implements  IProductService {
                 if (!hasMain) {
                     newImages.get(0).setIsMain(true);
                 }
+                imageVariantService.applyVariants(newImages);
                 productImageRepository.saveAll(newImages);
             } else if (updatedProduct.getColorImages() != null && updatedProduct.getColorImages().isEmpty()) {
                 // Explicitly clear in-memory relation to prevent stale data
@@ -747,6 +860,7 @@ public class ProductService implements  IProductService {
                                 .sortOrder(0)
                                 .build();
 
+                imageVariantService.applyVariants(productImage);
                 productImageRepository.save(productImage);
                 
                 System.out.println("ProductService: Updated ProductImage with URL: " + imageURL);
@@ -780,6 +894,7 @@ public class ProductService implements  IProductService {
     }
 
     @Override
+    @ReadReplica
     public ApiResponse<HomepageResponse> productList(
             String keyword, Integer categoryId, Integer brandId,
             Long minPrice, Long maxPrice, Integer bladeCount,
@@ -857,7 +972,7 @@ public class ProductService implements  IProductService {
             Page<Product> productPage = productRepository.findAll(spec, pageable);
             List<Product> products = productPage.getContent();
 
-            java.util.Map<Long, String> productImageMap = loadProductImagesBatch(products);
+            java.util.Map<Long, MainImage> productImageMap = loadProductImagesBatch(products);
             java.util.Map<Long, java.util.List<ProductImageDTO>> productImageDtoMap = loadProductImagesDTOBatch(products);
 
             List<ProductDTO> productDTOs = products.stream()
@@ -879,13 +994,15 @@ public class ProductService implements  IProductService {
                             );
                         }
 
-                        String imageURL = productImageMap.get(p.getId());
+                        MainImage mainImage = productImageMap.get(p.getId());
                         
                         return ProductDTO.builder()
                                 .id(p.getProductID())
                                 .productName(p.getProductName())
                                 .price(p.getPrice())
-                                .imageURL(imageURL)
+                                .imageURL(mainImage != null ? mainImage.url() : null)
+                                .thumbnailURL(mainImage != null ? mainImage.thumbnailUrl() : null)
+                                .imageSrcset(mainImage != null ? mainImage.srcset() : null)
                                 .briefDescription(p.getBriefDescription())
                                 .isActive(p.isActive())
                                 .brand(brandDTO)
@@ -974,7 +1091,119 @@ public class ProductService implements  IProductService {
             Integer minPower, Integer maxPower,
             int page, int size) {
         
-        // Build the same specification as normal query
+        Specification<Product> spec = buildActiveProductSpec(keyword, categoryId, brandId, minPrice, maxPrice,
+                bladeCount, remoteControl, oscillation, timer, minPower, maxPower);
+        
+        // Load all matching products (without pagination)
+        List<Product> allProducts = productRepository.findAll(spec);
+        
+        List<Product> shuffledProducts = interleaveByBrand(allProducts);
+        
+        // Apply pagination
+        long totalElements = shuffledProducts.size();
+        int totalPages = (int) Math.ceil((double) totalElements / size);
+        int startIndex = (page - 1) * size;
+        int endIndex = Math.min(startIndex + size, shuffledProducts.size());
+        
+        List<Product> paginatedProducts = startIndex < shuffledProducts.size() 
+                ? shuffledProducts.subList(startIndex, endIndex)
+                : new ArrayList<>();
+        
+        java.util.Map<String, Object> result = new java.util.HashMap<>();
+        result.put("products", paginatedProducts);
+        result.put("totalElements", totalElements);
+        result.put("totalPages", totalPages);
+        
+        return result;
+    }
+
+    /**
+     * Round-robin by brand: one product from each brand in turn, keeping each brand's own order,
+     * so products from different brands are interleaved. Brands take turns by ascending brand id.
+     */
+    static List<Product> interleaveByBrand(List<Product> products) {
+        java.util.Map<Integer, List<Product>> productsByBrand = new java.util.TreeMap<>();
+        for (Product product : products) {
+            productsByBrand.computeIfAbsent(product.getBrandId() != null ? product.getBrandId() : 0,
+                    k -> new ArrayList<>()).add(product);
+        }
+
+        List<Product> interleaved = new ArrayList<>(products.size());
+        for (int index = 0; interleaved.size() < products.size(); index++) {
+            for (List<Product> brandProducts : productsByBrand.values()) {
+                if (index < brandProducts.size()) {
+                    interleaved.add(brandProducts.get(index));
+                }
+            }
+        }
+        return interleaved;
+    }
+
+    /**
+     * Load one page of products ordered by popularity score.
+     * Without filters the ranked id list is paged directly; with filters only the matching ids are
+     * fetched and ordered in memory. Either way just the requested page of entities is loaded.
+     */
+    private java.util.Map<String, Object> loadPopularProducts(
+            String keyword, Integer categoryId, Integer brandId,
+            Long minPrice, Long maxPrice, Integer bladeCount,
+            Boolean remoteControl, Boolean oscillation, Boolean timer,
+            Integer minPower, Integer maxPower,
+            int page, int size) {
+
+        boolean hasFilters = (keyword != null && !keyword.isEmpty())
+                || (categoryId != null && categoryId > 0)
+                || (brandId != null && brandId > 0)
+                || minPrice != null || maxPrice != null
+                || (bladeCount != null && bladeCount > 0)
+                || Boolean.TRUE.equals(remoteControl) || Boolean.TRUE.equals(oscillation) || Boolean.TRUE.equals(timer)
+                || minPower != null || maxPower != null;
+
+        List<Long> rankedIds;
+        if (!hasFilters && productPopularityService.isReady()) {
+            rankedIds = productPopularityService.getRankedIds();
+        } else {
+            Specification<Product> spec = buildActiveProductSpec(keyword, categoryId, brandId, minPrice, maxPrice,
+                    bladeCount, remoteControl, oscillation, timer, minPower, maxPower);
+            rankedIds = productPopularityService.sortByPopularity(productRepository.findIds(spec));
+        }
+
+        long totalElements = rankedIds.size();
+        int totalPages = (int) Math.ceil((double) totalElements / size);
+        int startIndex = (page - 1) * size;
+        int endIndex = Math.min(startIndex + size, rankedIds.size());
+        List<Long> pageIds = startIndex < rankedIds.size()
+                ? rankedIds.subList(startIndex, endIndex)
+                : List.of();
+
+        List<Product> pageProducts = new ArrayList<>();
+        if (!pageIds.isEmpty()) {
+            java.util.Map<Long, Product> productById = productRepository.findByIdIn(pageIds).stream()
+                    .collect(Collectors.toMap(Product::getId, p -> p));
+            for (Long id : pageIds) {
+                Product product = productById.get(id);
+                if (product != null) {
+                    pageProducts.add(product);
+                }
+            }
+        }
+
+        java.util.Map<String, Object> result = new java.util.HashMap<>();
+        result.put("products", pageProducts);
+        result.put("totalElements", totalElements);
+        result.put("totalPages", totalPages);
+
+        return result;
+    }
+
+    /**
+     * Specification for active products matching the homepage filters
+     */
+    private Specification<Product> buildActiveProductSpec(
+            String keyword, Integer categoryId, Integer brandId,
+            Long minPrice, Long maxPrice, Integer bladeCount,
+            Boolean remoteControl, Boolean oscillation, Boolean timer,
+            Integer minPower, Integer maxPower) {
         Specification<Product> spec = (root, query, cb) -> 
                 cb.equal(root.get("status"), com.example.onlyfanshop_be.enums.ProductStatus.active);
         if (keyword != null && !keyword.isEmpty()) {
@@ -1021,55 +1250,7 @@ public class ProductService implements  IProductService {
             spec = spec.and((root, query, cb) ->
                     cb.lessThanOrEqualTo(root.get("powerWatt"), maxPower));
         }
-        
-        // Load all matching products (without pagination)
-        List<Product> allProducts = productRepository.findAll(spec);
-        
-        // Group products by brand
-        java.util.Map<Integer, List<Product>> productsByBrand = allProducts.stream()
-                .collect(Collectors.groupingBy(
-                        p -> p.getBrandId() != null ? p.getBrandId() : 0,
-                        Collectors.toList()
-                ));
-        
-        // Shuffle using round-robin: interleave products from different brands
-        List<Product> shuffledProducts = new ArrayList<>();
-        java.util.Map<Integer, Integer> brandIndices = new java.util.HashMap<>();
-        productsByBrand.forEach((brandIdKey, brandProducts) -> brandIndices.put(brandIdKey, 0));
-        
-        // Round-robin: take one product from each brand in turn
-        boolean hasMoreProducts = true;
-        while (hasMoreProducts) {
-            hasMoreProducts = false;
-            for (java.util.Map.Entry<Integer, List<Product>> entry : productsByBrand.entrySet()) {
-                Integer brandIdKey = entry.getKey();
-                List<Product> brandProducts = entry.getValue();
-                Integer currentIndex = brandIndices.get(brandIdKey);
-                
-                if (currentIndex < brandProducts.size()) {
-                    shuffledProducts.add(brandProducts.get(currentIndex));
-                    brandIndices.put(brandIdKey, currentIndex + 1);
-                    hasMoreProducts = true;
-                }
-            }
-        }
-        
-        // Apply pagination
-        long totalElements = shuffledProducts.size();
-        int totalPages = (int) Math.ceil((double) totalElements / size);
-        int startIndex = (page - 1) * size;
-        int endIndex = Math.min(startIndex + size, shuffledProducts.size());
-        
-        List<Product> paginatedProducts = startIndex < shuffledProducts.size() 
-                ? shuffledProducts.subList(startIndex, endIndex)
-                : new ArrayList<>();
-        
-        java.util.Map<String, Object> result = new java.util.HashMap<>();
-        result.put("products", paginatedProducts);
-        result.put("totalElements", totalElements);
-        result.put("totalPages", totalPages);
-        
-        return result;
+        return spec;
     }
 
     private String mapSortField(String sortBy) {
@@ -1129,20 +1310,7 @@ public class ProductService implements  IProductService {
             return "product-" + System.currentTimeMillis();
         }
         
-        // Convert to lowercase, remove diacritics, replace spaces with hyphens
-        String baseSlug = productName.toLowerCase()
-                .trim()
-                .replaceAll("[àáạảãâầấậẩẫăằắặẳẵ]", "a")
-                .replaceAll("[èéẹẻẽêềếệểễ]", "e")
-                .replaceAll("[ìíịỉĩ]", "i")
-                .replaceAll("[òóọỏõôồốộổỗơờớợởỡ]", "o")
-                .replaceAll("[ùúụủũưừứựửữ]", "u")
-                .replaceAll("[ỳýỵỷỹ]", "y")
-                .replaceAll("[đ]", "d")
-                .replaceAll("[^a-z0-9\\s-]", "") // Remove special characters
-                .replaceAll("\\s+", "-") // Replace spaces with hyphens
-                .replaceAll("-+", "-") // Replace multiple hyphens with single hyphen
-                .replaceAll("^-|-$", ""); // Remove leading/trailing hyphens
+        String baseSlug = SlugUtil.fold(productName);
         
         if (baseSlug.isEmpty()) {
             baseSlug = "product";
@@ -1171,8 +1339,14 @@ public class ProductService implements  IProductService {
         return slug;
     }
 
-    private java.util.Map<Long, String> loadProductImagesBatch(List<Product> products) {
-        java.util.Map<Long, String> imageMap = new java.util.HashMap<>();
+    record MainImage(String url, String thumbnailUrl, String srcset) {
+        static MainImage of(com.example.onlyfanshop_be.entity.ProductImage image) {
+            return new MainImage(image.getImageUrl(), image.getThumbnailUrl(), ImageVariantService.srcset(image));
+        }
+    }
+
+    private java.util.Map<Long, MainImage> loadProductImagesBatch(List<Product> products) {
+        java.util.Map<Long, MainImage> imageMap = new java.util.HashMap<>();
         
         if (products == null || products.isEmpty()) {
             return imageMap;
@@ -1197,7 +1371,8 @@ public class ProductService implements  IProductService {
                 Long productId = (Long) result[0];
                 String imageUrl = (String) result[1];
                 if (productId != null && imageUrl != null) {
-                    imageMap.put(productId, imageUrl);
+                    imageMap.put(productId, new MainImage(imageUrl, (String) result[2],
+                            ImageVariantService.srcset((String) result[2], (String) result[3], (String) result[4])));
                 }
             }
             
@@ -1208,7 +1383,7 @@ public class ProductService implements  IProductService {
                 
                 for (com.example.onlyfanshop_be.entity.ProductImage img : fallbackImages) {
                     if (!imageMap.containsKey(img.getProductId())) {
-                        imageMap.put(img.getProductId(), img.getImageUrl());
+                        imageMap.put(img.getProductId(), MainImage.of(img));
                     }
                 }
             }
@@ -1250,6 +1425,10 @@ public class ProductService implements  IProductService {
                                         .id(img.getId())
                                         .productId(img.getProductId())
                                         .imageUrl(img.getImageUrl())
+                                        .thumbnailUrl(img.getThumbnailUrl())
+                                        .cardUrl(img.getCardUrl())
+                                        .detailUrl(img.getDetailUrl())
+                                        .srcset(ImageVariantService.srcset(img))
                                         .isMain(Boolean.TRUE.equals(img.getIsMain()))
                                         .sortOrder(img.getSortOrder())
                                         .colorId(img.getColorId())
@@ -1268,11 +1447,9 @@ public class ProductService implements  IProductService {
 
     private String getProductImageURL(Product product, List<com.example.onlyfanshop_be.entity.ProductImage> images) {
         if (images != null && !images.isEmpty()) {
-            return images.stream()
-                    .filter(com.example.onlyfanshop_be.entity.ProductImage::getIsMain)
+            return ImageVariantService.primary(images)
                     .map(com.example.onlyfanshop_be.entity.ProductImage::getImageUrl)
-                    .findFirst()
-                    .orElse(images.get(0).getImageUrl());
+                    .orElse(null);
         }
         try {
             return product.getImageURL();
@@ -1282,6 +1459,12 @@ public class ProductService implements  IProductService {
         }
     }
 
+    private String getProductImageSrcset(List<com.example.onlyfanshop_be.entity.ProductImage> images) {
+        return ImageVariantService.primary(images)
+                .map(ImageVariantService::srcset)
+                .orElse(null);
+    }
+
     private ProductDetailDTO buildProductDetailDTO(Product product) {
         List<com.example.onlyfanshop_be.entity.Color> colors = null;
         try {
@@ -1312,6 +1495,10 @@ public class ProductService implements  IProductService {
                             .id(img.getId())
                             .productId(img.getProductId())
                             .imageUrl(img.getImageUrl())
+                            .thumbnailUrl(img.getThumbnailUrl())
+                            .cardUrl(img.getCardUrl())
+                            .detailUrl(img.getDetailUrl())
+                            .srcset(ImageVariantService.srcset(img))
                             .isMain(Boolean.TRUE.equals(img.getIsMain()))
                             .sortOrder(img.getSortOrder())
                             .colorId(img.getColorId())
@@ -1332,6 +1519,7 @@ public class ProductService implements  IProductService {
                 .technicalSpecifications(buildTechnicalSpecifications(product))
                 .price(product.getPrice())
                 .imageURL(getProductImageURL(product, images))
+                .imageSrcset(getProductImageSrcset(images))
                 .powerWatt(product.getPowerWatt())
                 .bladeDiameterCm(product.getBladeDiameterCm())
                 // Technical specifications
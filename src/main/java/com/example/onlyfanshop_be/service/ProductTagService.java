@@ -27,12 +27,16 @@ public class ProductTagService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ActiveTagIndexService activeTagIndexService;
+
     @Transactional
     public void assignTagsToProduct(Long productId, List<Integer> tagIds) {
         // Validate product exists
         if (!productRepository.existsById(productId.intValue())) {
             throw new AppException(ErrorCode.PRODUCT_NOTEXISTED);
         }
+        activeTagIndexService.refreshProductAfterCommit(productId);
 
         if (tagIds == null || tagIds.isEmpty()) {
             return;
@@ -61,6 +65,7 @@ public class ProductTagService {
         if (!productRepository.existsById(productId.intValue())) {
             throw new AppException(ErrorCode.PRODUCT_NOTEXISTED);
         }
+        activeTagIndexService.refreshProductAfterCommit(productId);
 
         if (!tagRepository.existsById(tagId)) {
             throw new RuntimeException("Không tìm thấy tag có ID: " + tagId);
@@ -92,6 +97,7 @@ public class ProductTagService {
         if (!productRepository.existsById(productId.intValue())) {
             throw new AppException(ErrorCode.PRODUCT_NOTEXISTED);
         }
+        activeTagIndexService.refreshProductAfterCommit(productId);
 
         productTagRepository.deleteByProductId(productId);
 
@@ -117,6 +123,7 @@ public class ProductTagService {
         if (!productRepository.existsById(productId.intValue())) {
             throw new AppException(ErrorCode.PRODUCT_NOTEXISTED);
         }
+        activeTagIndexService.refreshProductAfterCommit(productId);
 
         productTagRepository.deleteByProductIdAndTagId(productId, tagId);
     }
@@ -0,0 +1,162 @@
+package com.example.onlyfanshop_be.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Cluster-wide cart store. Each cart is a hash cart:{userId} with one field per product
+ * ("quantity|unitPrice|addedAt") plus a "_" marker field, so an empty but loaded cart still
+ * exists; the dirty set is cart:dirty. Mutations are Lua scripts, so the read-modify-write of a
+ * line and the dirty marking are atomic across nodes. Key TTLs bound the memory of idle carts;
+ * a dirty cart is written back long before its TTL runs out.
+ */
+@Service
+@ConditionalOnProperty(name = "cart.store", havingValue = "redis")
+@RequiredArgsConstructor
+public class RedisCartStore implements ICartStore {
+    private static final String DIRTY_KEY = "cart:dirty";
+    private static final String MARKER = "_";
+
+    // Returns the new quantity, or -1 when the cart is not loaded
+    private static final RedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return -1 end
+            local qty = tonumber(ARGV[2])
+            local price = ARGV[3]
+            local added = ARGV[4]
+            local current = redis.call('HGET', KEYS[1], ARGV[1])
+            if current then
+                local q, p, a = string.match(current, '^(%-?%d+)|([^|]*)|(%d+)$')
+                qty = qty + tonumber(q)
+                price = p
+                added = a
+            end
+            if qty <= 0 then
+                redis.call('HDEL', KEYS[1], ARGV[1])
+                qty = 0
+            else
+                redis.call('HSET', KEYS[1], ARGV[1], qty .. '|' .. price .. '|' .. added)
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[5])
+            redis.call('SADD', KEYS[2], ARGV[6])
+            return qty
+            """, Long.class);
+
+    // ARGV[1] = ttl, ARGV[2] = user id (dirty marking, empty for load), then field/value pairs
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end
+            redis.call('HSET', KEYS[1], '_', '1')
+            for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> REPLACE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], '_', '1')
+            for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            redis.call('SADD', KEYS[2], ARGV[2])
+            return 1
+            """, Long.class);
+
+    private static final RedisScript<Long> MARK_DIRTY_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end
+            return redis.call('SADD', KEYS[2], ARGV[1])
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${cart.redis.ttl-hours:72}")
+    private long ttlHours;
+
+    @Override
+    public Map<Long, Line> get(Long userId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(key(userId));
+        if (fields.isEmpty()) {
+            return null;
+        }
+        Map<Long, Line> lines = new HashMap<>();
+        fields.forEach((field, value) -> {
+            if (!MARKER.equals(field)) {
+                Long productId = Long.valueOf((String) field);
+                lines.put(productId, decode(productId, (String) value));
+            }
+        });
+        return lines;
+    }
+
+    @Override
+    public void load(Long userId, Collection<Line> lines) {
+        redisTemplate.execute(LOAD_SCRIPT, List.of(key(userId)), args(userId, lines));
+    }
+
+    @Override
+    public Integer addQuantity(Long userId, Line line) {
+        Long quantity = redisTemplate.execute(ADD_SCRIPT, List.of(key(userId), DIRTY_KEY),
+                line.productId().toString(),
+                String.valueOf(line.quantity()),
+                line.unitPriceSnapshot().toPlainString(),
+                String.valueOf(line.addedAt()),
+                String.valueOf(ttlMillis()),
+                userId.toString());
+        return quantity == null || quantity < 0 ? null : quantity.intValue();
+    }
+
+    @Override
+    public void replace(Long userId, Collection<Line> lines) {
+        redisTemplate.execute(REPLACE_SCRIPT, List.of(key(userId), DIRTY_KEY), args(userId, lines));
+    }
+
+    @Override
+    public void evict(Long userId) {
+        redisTemplate.delete(key(userId));
+        redisTemplate.opsForSet().remove(DIRTY_KEY, userId.toString());
+    }
+
+    @Override
+    public Set<Long> drainDirty(int max) {
+        List<String> popped = redisTemplate.opsForSet().pop(DIRTY_KEY, max);
+        Set<Long> userIds = new HashSet<>();
+        if (popped != null) {
+            popped.forEach(id -> userIds.add(Long.valueOf(id)));
+        }
+        return userIds;
+    }
+
+    @Override
+    public void markDirty(Long userId) {
+        redisTemplate.execute(MARK_DIRTY_SCRIPT, List.of(key(userId), DIRTY_KEY), userId.toString());
+    }
+
+    private Object[] args(Long userId, Collection<Line> lines) {
+        List<String> args = new ArrayList<>(2 + lines.size() * 2);
+        args.add(String.valueOf(ttlMillis()));
+        args.add(userId.toString());
+        for (Line line : lines) {
+            args.add(line.productId().toString());
+            args.add(line.quantity() + "|" + line.unitPriceSnapshot().toPlainString() + "|" + line.addedAt());
+        }
+        return args.toArray();
+    }
+
+    private static Line decode(Long productId, String value) {
+        String[] parts = value.split("\\|", -1);
+        return new Line(productId, Integer.parseInt(parts[0]), new BigDecimal(parts[1]), Long.parseLong(parts[2]));
+    }
+
+    private long ttlMillis() {
+        return ttlHours * 3_600_000L;
+    }
+
+    private static String key(Long userId) {
+        return "cart:" + userId;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.enums.OtpVerificationResult;
+import com.example.onlyfanshop_be.exception.AppException;
+import com.example.onlyfanshop_be.exception.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Cluster-wide OTP store. Each operation is a single Lua script, so check-and-update is atomic
+ * across nodes, and Redis key TTLs do the eviction.
+ *
+ * Keys per email: otp:code:{email} (hash: code, attempts), otp:sends:{email} (send counter for
+ * the current window) and otp:cooldown:{email} (resend cooldown marker).
+ */
+@Service
+@ConditionalOnProperty(name = "otp.store", havingValue = "redis")
+@RequiredArgsConstructor
+public class RedisOtpStore implements IOtpStore {
+    private static final RedisScript<Long> ISSUE_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[3]) == 1 then return 0 end
+            local sends = redis.call('INCR', KEYS[2])
+            if sends == 1 then redis.call('PEXPIRE', KEYS[2], ARGV[4]) end
+            if sends > tonumber(ARGV[3]) then return 0 end
+            redis.call('SET', KEYS[3], '1', 'PX', ARGV[5])
+            redis.call('DEL', KEYS[1])
+            redis.call('HSET', KEYS[1], 'code', ARGV[1], 'attempts', 0)
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+
+    // 0 = expired, 1 = valid, 2 = invalid, 3 = attempts exceeded
+    private static final RedisScript<Long> VERIFY_SCRIPT = new DefaultRedisScript<>("""
+            local code = redis.call('HGET', KEYS[1], 'code')
+            if not code then return 0 end
+            local attempts = redis.call('HINCRBY', KEYS[1], 'attempts', 1)
+            local maxAttempts = tonumber(ARGV[2])
+            if attempts > maxAttempts then redis.call('DEL', KEYS[1]) return 3 end
+            if code == ARGV[1] then redis.call('DEL', KEYS[1]) return 1 end
+            if attempts == maxAttempts then redis.call('DEL', KEYS[1]) return 3 end
+            return 2
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Value("${otp.ttl-seconds:120}")
+    private long ttlSeconds;
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+    @Value("${otp.rate.cooldown-seconds:30}")
+    private long cooldownSeconds;
+    @Value("${otp.rate.max-sends:5}")
+    private int maxSends;
+    @Value("${otp.rate.window-seconds:3600}")
+    private long windowSeconds;
+
+    @Override
+    public void issue(String email, String code) {
+        Long issued = redisTemplate.execute(ISSUE_SCRIPT,
+                List.of("otp:code:" + email, "otp:sends:" + email, "otp:cooldown:" + email),
+                code,
+                String.valueOf(ttlSeconds * 1000),
+                String.valueOf(maxSends),
+                String.valueOf(windowSeconds * 1000),
+                String.valueOf(cooldownSeconds * 1000));
+        if (issued == null || issued != 1L) {
+            throw new AppException(ErrorCode.OTP_RATE_LIMITED);
+        }
+    }
+
+    @Override
+    public OtpVerificationResult verify(String email, String code) {
+        Long result = redisTemplate.execute(VERIFY_SCRIPT,
+                List.of("otp:code:" + email),
+                code != null ? code : "",
+                String.valueOf(maxAttempts));
+        if (result == null) {
+            return OtpVerificationResult.EXPIRED;
+        }
+        return switch (result.intValue()) {
+            case 1 -> OtpVerificationResult.VALID;
+            case 2 -> OtpVerificationResult.INVALID;
+            case 3 -> OtpVerificationResult.ATTEMPTS_EXCEEDED;
+            default -> OtpVerificationResult.EXPIRED;
+        };
+    }
+}
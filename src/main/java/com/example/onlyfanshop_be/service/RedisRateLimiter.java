@@ -0,0 +1,62 @@
+package com.example.onlyfanshop_be.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Cluster-wide token buckets, one Redis hash per (rule, key). Refill and take happen in a
+ * single Lua script using the Redis server clock, so nodes with skewed clocks agree.
+ * Keys expire once the bucket would be full again, which bounds memory. If Redis is
+ * unreachable the limiter fails open: availability of login/checkout wins over throttling.
+ */
+@Service
+@ConditionalOnProperty(name = "rate.store", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisRateLimiter implements IRateLimiter {
+    // Returns 0 when allowed, otherwise milliseconds until the next token
+    private static final RedisScript<Long> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local refillPerMs = tonumber(ARGV[2])
+            local ttl = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1]) or capacity
+            local ts = tonumber(state[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * refillPerMs)
+            if tokens < 1 then
+                return math.ceil((1 - tokens) / refillPerMs)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens - 1), 'ts', now)
+            redis.call('PEXPIRE', KEYS[1], ttl)
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public RateLimitDecision tryAcquire(String key, RateLimitRule rule) {
+        try {
+            Long retryAfter = redisTemplate.execute(TOKEN_BUCKET_SCRIPT,
+                    List.of("ratelimit:" + rule.name() + ":" + key),
+                    String.valueOf(rule.capacity()),
+                    String.valueOf(rule.refillPerMilli()),
+                    String.valueOf(rule.fullRefillMillis()));
+            if (retryAfter == null || retryAfter == 0L) {
+                return RateLimitDecision.ALLOWED;
+            }
+            return new RateLimitDecision(false, retryAfter);
+        } catch (Exception e) {
+            log.warn("Redis rate limiter unavailable, allowing request: {}", e.getMessage());
+            return RateLimitDecision.ALLOWED;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.entity.ProductImage;
+import com.example.onlyfanshop_be.entity.StoreLocation;
+import com.example.onlyfanshop_be.entity.User;
+import com.example.onlyfanshop_be.entity.Warehouse;
+import com.example.onlyfanshop_be.repository.ProductImageRepository;
+import com.example.onlyfanshop_be.repository.ProductRepository;
+import com.example.onlyfanshop_be.repository.StoreLocationRepository;
+import com.example.onlyfanshop_be.repository.UserRepository;
+import com.example.onlyfanshop_be.repository.WarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Data loader for DTO assembly. Callers first register every id a page of rows references, then
+ * {@link Batch#load()} resolves each type with a single IN query, instead of one findById per row.
+ *
+ * <pre>
+ * ReferenceBatchLoader.Batch batch = referenceBatchLoader.newBatch();
+ * rows.forEach(r -> batch.withStore(r.getStoreId()).withUser(r.getProcessedBy()));
+ * batch.load();
+ * batch.storeName(row.getStoreId());
+ * </pre>
+ */
+@Service
+@RequiredArgsConstructor
+public class ReferenceBatchLoader {
+    private final StoreLocationRepository storeLocationRepository;
+    private final UserRepository userRepository;
+    private final WarehouseRepository warehouseRepository;
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+
+    public record ProductRef(Long id, String name, String sku, String mainImageUrl) {
+    }
+
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    public final class Batch {
+        private final Set<Integer> storeIds = new HashSet<>();
+        private final Set<Long> userIds = new HashSet<>();
+        private final Set<Long> warehouseIds = new HashSet<>();
+        private final Set<Long> productIds = new HashSet<>();
+
+        private Map<Integer, StoreLocation> stores = Map.of();
+        private Map<Long, User> users = Map.of();
+        private Map<Long, Warehouse> warehouses = Map.of();
+        private Map<Long, ProductRef> products = Map.of();
+
+        public Batch withStore(Integer id) {
+            if (id != null) storeIds.add(id);
+            return this;
+        }
+
+        public Batch withUser(Long id) {
+            if (id != null) userIds.add(id);
+            return this;
+        }
+
+        public Batch withWarehouse(Long id) {
+            if (id != null) warehouseIds.add(id);
+            return this;
+        }
+
+        public Batch withProduct(Long id) {
+            if (id != null) productIds.add(id);
+            return this;
+        }
+
+        /**
+         * Resolves everything registered so far: at most one query per referenced type (two for product images).
+         */
+        public Batch load() {
+            if (!storeIds.isEmpty()) {
+                stores = index(storeLocationRepository.findAllById(storeIds), StoreLocation::getId);
+            }
+            if (!userIds.isEmpty()) {
+                users = index(userRepository.findAllById(userIds), User::getId);
+            }
+            if (!warehouseIds.isEmpty()) {
+                warehouses = index(warehouseRepository.findAllById(warehouseIds), Warehouse::getId);
+            }
+            if (!productIds.isEmpty()) {
+                products = loadProducts(productIds);
+            }
+            return this;
+        }
+
+        public StoreLocation store(Integer id) {
+            return id != null ? stores.get(id) : null;
+        }
+
+        public String storeName(Integer id) {
+            StoreLocation store = store(id);
+            return store != null ? store.getName() : null;
+        }
+
+        public String userFullName(Long id) {
+            User user = id != null ? users.get(id) : null;
+            return user != null ? user.getFullname() : null;
+        }
+
+        public String warehouseName(Long id) {
+            Warehouse warehouse = id != null ? warehouses.get(id) : null;
+            return warehouse != null ? warehouse.getName() : null;
+        }
+
+        public ProductRef product(Long id) {
+            return id != null ? products.get(id) : null;
+        }
+    }
+
+    private Map<Long, ProductRef> loadProducts(Set<Long> ids) {
+        List<Long> idList = new ArrayList<>(ids);
+        Map<Long, String> mainImages = new HashMap<>();
+        for (Object[] row : productImageRepository.findMainImageUrlsByProductIdIn(idList)) {
+            mainImages.putIfAbsent((Long) row[0], (String) row[1]);
+        }
+        if (mainImages.size() < idList.size()) {
+            // Products without a main image fall back to their first image by sort order
+            List<Long> missing = idList.stream().filter(id -> !mainImages.containsKey(id)).toList();
+            productImageRepository.findByProductIdIn(missing).stream()
+                    .sorted(Comparator.comparing((ProductImage img) -> img.getSortOrder() != null ? img.getSortOrder() : 0))
+                    .forEach(img -> mainImages.putIfAbsent(img.getProductId(), img.getImageUrl()));
+        }
+
+        Map<Long, ProductRef> refs = new HashMap<>();
+        for (Object[] row : productRepository.findNameAndSkuByIdIn(idList)) {
+            Long id = (Long) row[0];
+            refs.put(id, new ProductRef(id, (String) row[1], (String) row[2], mainImages.get(id)));
+        }
+        return refs;
+    }
+
+    private static <K, V> Map<K, V> index(Iterable<V> values, Function<V, K> key) {
+        Map<K, V> map = new HashMap<>();
+        values.forEach(value -> map.put(key.apply(value), value));
+        return map;
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.dto.BrandDTO;
+import com.example.onlyfanshop_be.dto.CategoryDTO;
+import com.example.onlyfanshop_be.dto.SalesRollupDTO;
+import com.example.onlyfanshop_be.entity.Order;
+import com.example.onlyfanshop_be.entity.OrderItem;
+import com.example.onlyfanshop_be.enums.OrderStatus;
+import com.example.onlyfanshop_be.enums.RollupGranularity;
+import com.example.onlyfanshop_be.enums.SalesDimension;
+import com.example.onlyfanshop_be.repository.OrderItemRepository;
+import com.example.onlyfanshop_be.repository.OrderRepository;
+import com.example.onlyfanshop_be.repository.ProductRepository;
+import com.example.onlyfanshop_be.repository.SalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the sales_rollups table incrementally from order lifecycle events
+ * (order placed, canceled/refunded, un-canceled) and rebuilds it from orders on demand.
+ * All buckets are keyed by the order creation time so that the incremental path and
+ * the backfill produce identical numbers.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesAnalyticsService {
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+    private final CacheService cacheService;
+    private final ProductPopularityService productPopularityService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${analytics.rollup.hourly-retention-days:90}")
+    private int hourlyRetentionDays;
+
+    // ==================== INCREMENTAL UPDATES ====================
+
+    /**
+     * Called right after an order and its items have been persisted.
+     * Never throws: analytics must not break checkout.
+     */
+    public void recordOrderPlaced(Order order, List<OrderItem> items) {
+        int canceledSign = isCanceled(order.getStatus()) ? 1 : 0;
+        applySafely(order, items, 1, canceledSign);
+    }
+
+    /**
+     * Moves an order's units/revenue into (or out of) the canceled counters when its status
+     * crosses the canceled/refunded boundary. Other transitions do not touch the rollups.
+     */
+    public void recordStatusTransition(Order order, OrderStatus previous, OrderStatus next) {
+        boolean wasCanceled = isCanceled(previous);
+        boolean nowCanceled = isCanceled(next);
+        if (wasCanceled == nowCanceled) {
+            return;
+        }
+        try {
+            List<OrderItem> items = orderItemRepository.findByOrderId(order.getId());
+            applySafely(order, items, 0, nowCanceled ? 1 : -1);
+        } catch (Exception e) {
+            log.error("Failed to record status transition for order {}: {}", order.getId(), e.getMessage(), e);
+        }
+    }
+
+    private void applySafely(Order order, List<OrderItem> items, int placedSign, int canceledSign) {
+        if (order == null || items == null || items.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Long, Integer[]> productDimensions = loadProductDimensions(
+                    items.stream().map(OrderItem::getProductId).collect(Collectors.toSet()));
+            Map<CellKey, Cell> cells = new HashMap<>();
+            accumulate(cells, order, items, productDimensions, placedSign, canceledSign);
+            transactionTemplate.executeWithoutResult(status -> flush(cells));
+
+            int netSign = placedSign - canceledSign;
+            if (netSign != 0) {
+                Map<Long, Long> unitsByProduct = new HashMap<>();
+                for (OrderItem item : items) {
+                    long units = item.getQuantity() != null ? item.getQuantity() : 0;
+                    unitsByProduct.merge(item.getProductId(), netSign * units, Long::sum);
+                }
+                productPopularityService.recordSales(unitsByProduct);
+            }
+        } catch (Exception e) {
+            log.error("Failed to update sales rollups for order {}: {}", order.getId(), e.getMessage(), e);
+        }
+    }
+
+    // ==================== BACKFILL ====================
+
+    /**
+     * Rebuilds every rollup bucket in [from, toExclusive) from the orders table.
+     * Orders are scanned in keyset-paged batches with one item query and one product query per batch.
+     *
+     * @return number of orders processed
+     */
+    public int backfill(LocalDate from, LocalDate toExclusive) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = toExclusive.atStartOfDay();
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Khoảng thời gian backfill không hợp lệ");
+        }
+
+        Integer processed = transactionTemplate.execute(status -> {
+            Map<CellKey, Cell> cells = new HashMap<>();
+            Map<Long, Integer[]> productDimensions = new HashMap<>();
+            int count = 0;
+            long lastId = 0L;
+
+            while (true) {
+                List<Order> batch = orderRepository.findCreatedBetweenAfterId(
+                        start, end, lastId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                List<Long> orderIds = batch.stream().map(Order::getId).toList();
+                Map<Long, List<OrderItem>> itemsByOrder = orderItemRepository.findByOrderIdIn(orderIds).stream()
+                        .collect(Collectors.groupingBy(OrderItem::getOrderId));
+
+                Set<Long> missingProducts = itemsByOrder.values().stream()
+                        .flatMap(List::stream)
+                        .map(OrderItem::getProductId)
+                        .filter(id -> !productDimensions.containsKey(id))
+                        .collect(Collectors.toSet());
+                productDimensions.putAll(loadProductDimensions(missingProducts));
+
+                for (Order order : batch) {
+                    List<OrderItem> items = itemsByOrder.getOrDefault(order.getId(), Collections.emptyList());
+                    accumulate(cells, order, items, productDimensions, 1, isCanceled(order.getStatus()) ? 1 : 0);
+                }
+
+                count += batch.size();
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+
+            salesRollupRepository.deleteByBucketRange(start, end);
+            flush(cells);
+            return count;
+        });
+
+        log.info("Sales rollup backfill {} -> {} rebuilt from {} orders", from, toExclusive, processed);
+        return processed != null ? processed : 0;
+    }
+
+    /**
+     * Nightly reconciliation: rebuild yesterday (a closed day, so no live increments race with it)
+     * and prune hourly buckets past their retention window.
+     */
+    @Scheduled(cron = "${analytics.rollup.reconcile-cron:0 15 3 * * *}")
+    public void reconcileYesterday() {
+        try {
+            LocalDate today = LocalDate.now();
+            backfill(today.minusDays(1), today);
+
+            LocalDateTime cutoff = today.minusDays(hourlyRetentionDays).atStartOfDay();
+            Integer pruned = transactionTemplate.execute(status ->
+                    salesRollupRepository.deleteByGranularityBefore(RollupGranularity.HOUR, cutoff));
+            log.info("Pruned {} hourly sales rollup rows older than {}", pruned, cutoff);
+        } catch (Exception e) {
+            log.error("Sales rollup reconciliation failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // ==================== DASHBOARD QUERIES ====================
+
+    public List<SalesRollupDTO> getTopByDimension(SalesDimension dimension, RollupGranularity granularity,
+                                                  LocalDate from, LocalDate toExclusive, int limit) {
+        List<Object[]> rows = salesRollupRepository.sumByDimensionKey(
+                granularity, dimension, from.atStartOfDay(), toExclusive.atStartOfDay(),
+                PageRequest.of(0, Math.max(1, limit)));
+
+        List<SalesRollupDTO> result = rows.stream()
+                .map(row -> toDTO((String) row[0], null, row))
+                .collect(Collectors.toList());
+
+        Map<String, String> labels = resolveLabels(dimension,
+                result.stream().map(SalesRollupDTO::getDimensionKey).toList());
+        result.forEach(dto -> dto.setLabel(labels.getOrDefault(dto.getDimensionKey(), dto.getDimensionKey())));
+        return result;
+    }
+
+    /**
+     * Store-wide totals per bucket. Every order has exactly one payment method,
+     * so summing the PAYMENT_METHOD cells of a bucket yields the bucket total.
+     */
+    public List<SalesRollupDTO> getTimeSeries(RollupGranularity granularity, LocalDate from, LocalDate toExclusive) {
+        return salesRollupRepository.sumByBucket(
+                        granularity, SalesDimension.PAYMENT_METHOD, from.atStartOfDay(), toExclusive.atStartOfDay())
+                .stream()
+                .map(row -> toDTO(null, (LocalDateTime) row[0], row))
+                .collect(Collectors.toList());
+    }
+
+    // ==================== HELPERS ====================
+
+    private boolean isCanceled(OrderStatus status) {
+        return status == OrderStatus.canceled || status == OrderStatus.refunded;
+    }
+
+    // productId -> [brandId, categoryId]
+    private Map<Long, Integer[]> loadProductDimensions(Collection<Long> productIds) {
+        Map<Long, Integer[]> result = new HashMap<>();
+        if (productIds == null || productIds.isEmpty()) {
+            return result;
+        }
+        for (Object[] row : productRepository.findBrandAndCategoryIdsByIdIn(productIds)) {
+            result.put((Long) row[0], new Integer[]{(Integer) row[1], (Integer) row[2]});
+        }
+        return result;
+    }
+
+    private void accumulate(Map<CellKey, Cell> cells, Order order, List<OrderItem> items,
+                            Map<Long, Integer[]> productDimensions, int placedSign, int canceledSign) {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        // Per-order totals for each (dimension, key) touched by this order
+        Map<DimensionKey, Cell> perOrder = new HashMap<>();
+        for (OrderItem item : items) {
+            long units = item.getQuantity() != null ? item.getQuantity() : 0;
+            BigDecimal revenue = item.getLineTotal() != null ? item.getLineTotal() : BigDecimal.ZERO;
+            Integer[] dims = productDimensions.get(item.getProductId());
+
+            addLine(perOrder, SalesDimension.PRODUCT, String.valueOf(item.getProductId()), units, revenue);
+            if (dims != null && dims[0] != null) {
+                addLine(perOrder, SalesDimension.BRAND, String.valueOf(dims[0]), units, revenue);
+            }
+            if (dims != null && dims[1] != null) {
+                addLine(perOrder, SalesDimension.CATEGORY, String.valueOf(dims[1]), units, revenue);
+            }
+            if (order.getPaymentMethod() != null) {
+                addLine(perOrder, SalesDimension.PAYMENT_METHOD, order.getPaymentMethod().name(), units, revenue);
+            }
+        }
+
+        LocalDateTime createdAt = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            LocalDateTime bucket = granularity.truncate(createdAt);
+            perOrder.forEach((dimKey, totals) -> {
+                Cell cell = cells.computeIfAbsent(
+                        new CellKey(granularity, bucket, dimKey.dimension(), dimKey.key()), k -> new Cell());
+                cell.add(placedSign, canceledSign, totals.units, totals.revenue);
+            });
+        }
+    }
+
+    private void addLine(Map<DimensionKey, Cell> perOrder, SalesDimension dimension, String key,
+                         long units, BigDecimal revenue) {
+        Cell cell = perOrder.computeIfAbsent(new DimensionKey(dimension, key), k -> new Cell());
+        cell.units += units;
+        cell.revenue = cell.revenue.add(revenue);
+    }
+
+    private void flush(Map<CellKey, Cell> cells) {
+        cells.forEach((key, cell) -> {
+            if (cell.isEmpty()) {
+                return;
+            }
+            salesRollupRepository.increment(
+                    key.granularity().name(), key.bucketStart(), key.dimension().name(), key.key(),
+                    cell.orders, cell.units, cell.revenue,
+                    cell.canceledOrders, cell.canceledUnits, cell.canceledRevenue);
+        });
+    }
+
+    private Map<String, String> resolveLabels(SalesDimension dimension, List<String> keys) {
+        Map<String, String> labels = new HashMap<>();
+        if (keys.isEmpty()) {
+            return labels;
+        }
+        switch (dimension) {
+            case PRODUCT -> {
+                List<Long> ids = keys.stream().map(Long::valueOf).toList();
+                for (Object[] row : productRepository.findNamesByIdIn(ids)) {
+                    labels.put(String.valueOf(row[0]), (String) row[1]);
+                }
+            }
+            case BRAND -> {
+                for (BrandDTO brand : cacheService.getBrands()) {
+                    labels.put(String.valueOf(brand.getBrandID()), brand.getName());
+                }
+            }
+            case CATEGORY -> {
+                for (CategoryDTO category : cacheService.getCategories()) {
+                    labels.put(String.valueOf(category.getId()), category.getName());
+                }
+            }
+            default -> {
+                // PAYMENT_METHOD: the key is already human readable
+            }
+        }
+        return labels;
+    }
+
+    private SalesRollupDTO toDTO(String key, LocalDateTime bucket, Object[] row) {
+        BigDecimal revenue = row[3] != null ? (BigDecimal) row[3] : BigDecimal.ZERO;
+        BigDecimal canceledRevenue = row[6] != null ? (BigDecimal) row[6] : BigDecimal.ZERO;
+        return SalesRollupDTO.builder()
+                .dimensionKey(key)
+                .bucketStart(bucket)
+                .orderCount(row[1] != null ? ((Number) row[1]).longValue() : 0L)
+                .unitsSold(row[2] != null ? ((Number) row[2]).longValue() : 0L)
+                .revenue(revenue)
+                .canceledOrderCount(row[4] != null ? ((Number) row[4]).longValue() : 0L)
+                .canceledUnits(row[5] != null ? ((Number) row[5]).longValue() : 0L)
+                .canceledRevenue(canceledRevenue)
+                .netRevenue(revenue.subtract(canceledRevenue))
+                .build();
+    }
+
+    private record DimensionKey(SalesDimension dimension, String key) {}
+
+    private record CellKey(RollupGranularity granularity, LocalDateTime bucketStart,
+                           SalesDimension dimension, String key) {}
+
+    private static final class Cell {
+        long orders;
+        long units;
+        BigDecimal revenue = BigDecimal.ZERO;
+        long canceledOrders;
+        long canceledUnits;
+        BigDecimal canceledRevenue = BigDecimal.ZERO;
+
+        void add(int placedSign, int canceledSign, long lineUnits, BigDecimal lineRevenue) {
+            orders += placedSign;
+            units += placedSign * lineUnits;
+            revenue = revenue.add(lineRevenue.multiply(BigDecimal.valueOf(placedSign)));
+            canceledOrders += canceledSign;
+            canceledUnits += canceledSign * lineUnits;
+            canceledRevenue = canceledRevenue.add(lineRevenue.multiply(BigDecimal.valueOf(canceledSign)));
+        }
+
+        boolean isEmpty() {
+            return orders == 0 && units == 0 && revenue.signum() == 0
+                    && canceledOrders == 0 && canceledUnits == 0 && canceledRevenue.signum() == 0;
+        }
+    }
+}
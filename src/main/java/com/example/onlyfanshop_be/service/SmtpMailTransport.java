@@ -0,0 +1,71 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.service.IMailTransport.MailMessage;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SMTP delivery through JavaMailSender. A batch goes through a single send(MimeMessage...) call,
+ * which opens one SMTP connection for the whole batch instead of one per message.
+ */
+@Service
+@ConditionalOnProperty(name = "mail.transport", havingValue = "smtp", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SmtpMailTransport implements IMailTransport {
+    private final JavaMailSender mailSender;
+
+    @Override
+    public List<MailMessage> send(List<MailMessage> batch) {
+        Map<MimeMessage, MailMessage> sourceByMime = new IdentityHashMap<>();
+        List<MailMessage> failed = new ArrayList<>();
+        for (MailMessage mail : batch) {
+            try {
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+                helper.setTo(mail.to());
+                helper.setSubject(mail.subject());
+                helper.setText(mail.htmlBody(), true);
+                sourceByMime.put(message, mail);
+            } catch (Exception e) {
+                // Malformed address etc. - retrying will not help
+                log.error("Dropping email to {}: {}", mail.to(), e.getMessage());
+            }
+        }
+        if (sourceByMime.isEmpty()) {
+            return failed;
+        }
+
+        try {
+            mailSender.send(sourceByMime.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                // Connection-level failure: nothing in the batch was sent
+                failed.addAll(sourceByMime.values());
+            } else {
+                e.getFailedMessages().keySet().forEach(message -> {
+                    MailMessage source = sourceByMime.get(message);
+                    if (source != null) {
+                        failed.add(source);
+                    }
+                });
+            }
+            log.warn("SMTP batch partially failed ({} of {}): {}", failed.size(), sourceByMime.size(), e.getMessage());
+        } catch (Exception e) {
+            failed.addAll(sourceByMime.values());
+            log.warn("SMTP batch failed: {}", e.getMessage());
+        }
+        return failed;
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.dto.StockLedgerEntryDTO;
+import com.example.onlyfanshop_be.dto.StockReconciliationDTO;
+import com.example.onlyfanshop_be.entity.InventoryItem;
+import com.example.onlyfanshop_be.entity.StockLedgerEntry;
+import com.example.onlyfanshop_be.entity.StockSnapshot;
+import com.example.onlyfanshop_be.entity.StoreInventory;
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import com.example.onlyfanshop_be.enums.StockMovementType;
+import com.example.onlyfanshop_be.repository.InventoryItemRepository;
+import com.example.onlyfanshop_be.repository.StockLedgerEntryRepository;
+import com.example.onlyfanshop_be.repository.StockSnapshotRepository;
+import com.example.onlyfanshop_be.repository.StoreInventoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only stock ledger. Every movement is written as a stock_ledger entry in the transaction
+ * that updates the store_inventory / inventory_items quantity, so those columns are materialized
+ * balances of the ledger. The nightly job opens the ledger for stock that predates it, writes a
+ * snapshot for every (location, product) that moved since the last run, and reconciles the
+ * projections against the balance of each product's last entry. Every product gets a zero
+ * snapshot with its first entry, so point-in-time queries can start from a snapshot.
+ *
+ * Callers hold the projection row lock (findForUpdate) while appending, so the entries of one
+ * (location, product) are committed in id order and a snapshot's lastEntryId is exact for it.
+ * Each appended movement publishes a {@link StockLevelChangedEvent} inside that transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockLedgerService {
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Published synchronously, inside the stock movement's transaction and under its row lock,
+     * for every appended movement.
+     */
+    public record StockLevelChangedEvent(StockLocationType locationType, Long locationId, Long productId,
+                                         int balanceBefore, int balanceAfter) {
+    }
+
+    private final StockLedgerEntryRepository ledgerRepository;
+    private final StockSnapshotRepository snapshotRepository;
+    private final StoreInventoryRepository storeInventoryRepository;
+    private final InventoryItemRepository inventoryItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // ==================== APPEND ====================
+
+    /**
+     * Appends {@code entry} on top of {@code balanceBefore}, the projection's quantity before this
+     * movement, and fills in its balance. If the ledger disagrees with the projection (stock that
+     * predates the ledger, or a quantity changed outside it) an OPENING or CORRECTION entry
+     * bridges the gap first.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public StockLedgerEntry append(StockLedgerEntry entry, int balanceBefore) {
+        alignWithProjection(entry.getLocationType(), entry.getLocationId(), entry.getProductId(),
+                balanceBefore, entry.getPerformedBy());
+        entry.setBalanceAfter(balanceBefore + entry.getDelta());
+        StockLedgerEntry saved = ledgerRepository.save(entry);
+        eventPublisher.publishEvent(new StockLevelChangedEvent(saved.getLocationType(), saved.getLocationId(),
+                saved.getProductId(), balanceBefore, saved.getBalanceAfter()));
+        return saved;
+    }
+
+    private void alignWithProjection(StockLocationType locationType, Long locationId, Long productId,
+                                     int projected, Long performedBy) {
+        Optional<StockLedgerEntry> last = ledgerRepository
+                .findTopByLocationTypeAndLocationIdAndProductIdOrderByIdDesc(locationType, locationId, productId);
+        if (last.isEmpty()) {
+            // Zero snapshot ahead of the first entry: point-in-time queries start from a snapshot,
+            // so every product with history needs one taken no later than that history
+            snapshotRepository.save(StockSnapshot.builder()
+                    .locationType(locationType)
+                    .locationId(locationId)
+                    .productId(productId)
+                    .balance(0)
+                    .lastEntryId(0L)
+                    .build());
+        }
+        int recorded = last.map(StockLedgerEntry::getBalanceAfter).orElse(0);
+        if (recorded == projected) {
+            return;
+        }
+
+        StockMovementType movement = last.isPresent() ? StockMovementType.CORRECTION : StockMovementType.OPENING;
+        if (movement == StockMovementType.CORRECTION) {
+            log.warn("Stock of product {} at {} #{} changed outside the ledger: ledger {}, actual {}",
+                    productId, locationType, locationId, recorded, projected);
+            Counter.builder("inventory.ledger.corrections")
+                    .description("Ledger entries written to match a quantity changed outside the ledger")
+                    .tag("location", locationType.name().toLowerCase())
+                    .register(meterRegistry)
+                    .increment();
+        }
+        ledgerRepository.save(StockLedgerEntry.builder()
+                .locationType(locationType)
+                .locationId(locationId)
+                .productId(productId)
+                .movementType(movement)
+                .delta(projected - recorded)
+                .balanceAfter(projected)
+                .performedBy(performedBy)
+                .note(movement == StockMovementType.OPENING ? "Số dư đầu kỳ" : "Bù chênh lệch tồn kho")
+                .build());
+    }
+
+    // ==================== SNAPSHOTS & RECONCILIATION ====================
+
+    @Scheduled(cron = "${inventory.ledger.snapshot-cron:0 30 2 * * *}")
+    public void snapshotAndReconcile() {
+        try {
+            int opened = openMissingBalances();
+            int snapshots = takeSnapshots();
+            List<StockReconciliationDTO> drift = transactionTemplate.execute(status -> reconcile());
+            log.info("Stock ledger: opened {} balances, wrote {} snapshots, {} projections out of step",
+                    opened, snapshots, drift != null ? drift.size() : 0);
+        } catch (Exception e) {
+            log.error("Stock ledger snapshot job failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes OPENING entries for non-zero stock that has never moved through the ledger, so
+     * point-in-time queries and reconciliation cover it.
+     */
+    public int openMissingBalances() {
+        int opened = 0;
+        for (List<Object[]> batch : partition(storeInventoryRepository.findKeysWithoutLedgerHistory())) {
+            opened += Objects.requireNonNullElse(transactionTemplate.execute(status -> {
+                int count = 0;
+                for (Object[] row : batch) {
+                    Integer storeId = (Integer) row[0];
+                    Long productId = (Long) row[1];
+                    Optional<StoreInventory> inventory = storeInventoryRepository.findForUpdate(storeId, productId);
+                    if (inventory.isPresent()) {
+                        alignWithProjection(StockLocationType.STORE, storeId.longValue(), productId,
+                                quantityOf(inventory.get().getQuantity()), null);
+                        count++;
+                    }
+                }
+                return count;
+            }), 0);
+        }
+        for (List<Object[]> batch : partition(inventoryItemRepository.findKeysWithoutLedgerHistory())) {
+            opened += Objects.requireNonNullElse(transactionTemplate.execute(status -> {
+                int count = 0;
+                for (Object[] row : batch) {
+                    Long warehouseId = (Long) row[0];
+                    Long productId = (Long) row[1];
+                    Optional<InventoryItem> item = inventoryItemRepository.findForUpdate(warehouseId, productId);
+                    if (item.isPresent()) {
+                        alignWithProjection(StockLocationType.WAREHOUSE, warehouseId, productId,
+                                quantityOf(item.get().getQuantity()), null);
+                        count++;
+                    }
+                }
+                return count;
+            }), 0);
+        }
+        return opened;
+    }
+
+    /**
+     * Snapshots the balance of every (location, product) with entries after the newest snapshot.
+     * An entry committed after a later id was read only postpones its product's next snapshot;
+     * point-in-time queries still add it, as they add every entry after a product's own snapshot.
+     */
+    public int takeSnapshots() {
+        long afterId = snapshotRepository.findMaxLastEntryId();
+        int written = 0;
+        for (List<Long> batch : partition(ledgerRepository.findLatestEntryIdsAfter(afterId))) {
+            written += Objects.requireNonNullElse(transactionTemplate.execute(status -> {
+                List<StockSnapshot> snapshots = ledgerRepository.findAllById(batch).stream()
+                        .map(entry -> StockSnapshot.builder()
+                                .locationType(entry.getLocationType())
+                                .locationId(entry.getLocationId())
+                                .productId(entry.getProductId())
+                                .balance(entry.getBalanceAfter())
+                                .lastEntryId(entry.getId())
+                                .build())
+                        .toList();
+                snapshotRepository.saveAll(snapshots);
+                return snapshots.size();
+            }), 0);
+        }
+        return written;
+    }
+
+    /**
+     * Compares every store and warehouse quantity with the ledger balance (the balance after the
+     * product's last entry) and returns the ones that differ. Run inside one transaction so both
+     * sides are read from the same database snapshot.
+     */
+    @Transactional(readOnly = true)
+    public List<StockReconciliationDTO> reconcile() {
+        List<StockReconciliationDTO> drift = new ArrayList<>();
+
+        Map<Long, Map<Long, Integer>> storeStock = storeInventoryRepository.findAll().stream()
+                .collect(Collectors.groupingBy(si -> si.getStoreId().longValue(),
+                        Collectors.toMap(StoreInventory::getProductId, si -> quantityOf(si.getQuantity()))));
+        storeStock.forEach((storeId, projected) ->
+                compare(StockLocationType.STORE, storeId, projected, currentBalances(StockLocationType.STORE, storeId), drift));
+
+        Map<Long, Map<Long, Integer>> warehouseStock = inventoryItemRepository.findAll().stream()
+                .collect(Collectors.groupingBy(InventoryItem::getWarehouseId,
+                        Collectors.toMap(InventoryItem::getProductId, ii -> quantityOf(ii.getQuantity()))));
+        warehouseStock.forEach((warehouseId, projected) ->
+                compare(StockLocationType.WAREHOUSE, warehouseId, projected, currentBalances(StockLocationType.WAREHOUSE, warehouseId), drift));
+
+        for (StockReconciliationDTO row : drift) {
+            log.warn("Stock of product {} at {} #{} is {} but the ledger says {}", row.getProductId(),
+                    row.getLocationType(), row.getLocationId(), row.getProjectedQuantity(), row.getLedgerQuantity());
+        }
+        return drift;
+    }
+
+    private void compare(StockLocationType locationType, Long locationId, Map<Long, Integer> projected,
+                         Map<Long, Integer> ledger, List<StockReconciliationDTO> drift) {
+        Set<Long> productIds = new HashSet<>(projected.keySet());
+        productIds.addAll(ledger.keySet());
+        for (Long productId : productIds) {
+            int projectedQuantity = projected.getOrDefault(productId, 0);
+            int ledgerQuantity = ledger.getOrDefault(productId, 0);
+            if (projectedQuantity != ledgerQuantity) {
+                drift.add(StockReconciliationDTO.builder()
+                        .locationType(locationType)
+                        .locationId(locationId)
+                        .productId(productId)
+                        .projectedQuantity(projectedQuantity)
+                        .ledgerQuantity(ledgerQuantity)
+                        .build());
+            }
+        }
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Stock of every product at a location as of {@code at}: each product's latest snapshot taken
+     * by then plus the entries recorded after it. History starts at a product's OPENING entry.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> stockAt(StockLocationType locationType, Long locationId, LocalDateTime at) {
+        Map<Long, Integer> stock = new HashMap<>();
+        for (Object[] row : snapshotRepository.findBalancesAt(locationType.name(), locationId, at)) {
+            stock.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        return stock;
+    }
+
+    private Map<Long, Integer> currentBalances(StockLocationType locationType, Long locationId) {
+        Map<Long, Integer> stock = new HashMap<>();
+        for (Object[] row : ledgerRepository.findCurrentBalances(locationType.name(), locationId)) {
+            stock.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        return stock;
+    }
+
+    /**
+     * Stock of one product at a location as of {@code at}: the balance of its last entry by then.
+     */
+    @Transactional(readOnly = true)
+    public int stockAt(StockLocationType locationType, Long locationId, Long productId, LocalDateTime at) {
+        return ledgerRepository
+                .findTopByLocationTypeAndLocationIdAndProductIdAndCreatedAtLessThanEqualOrderByIdDesc(
+                        locationType, locationId, productId, at)
+                .map(StockLedgerEntry::getBalanceAfter)
+                .orElse(0);
+    }
+
+    @Transactional(readOnly = true)
+    public List<StockLedgerEntryDTO> getEntries(StockLocationType locationType, Long locationId, Long productId,
+                                                int page, int size) {
+        return ledgerRepository.findByLocationTypeAndLocationIdAndProductIdOrderByIdDesc(
+                        locationType, locationId, productId, PageRequest.of(page, size))
+                .map(this::convertToDTO)
+                .getContent();
+    }
+
+    private StockLedgerEntryDTO convertToDTO(StockLedgerEntry entry) {
+        return StockLedgerEntryDTO.builder()
+                .id(entry.getId())
+                .locationType(entry.getLocationType())
+                .locationId(entry.getLocationId())
+                .productId(entry.getProductId())
+                .movementType(entry.getMovementType())
+                .delta(entry.getDelta())
+                .balanceAfter(entry.getBalanceAfter())
+                .transactionId(entry.getTransactionId())
+                .orderId(entry.getOrderId())
+                .requestId(entry.getRequestId())
+                .performedBy(entry.getPerformedBy())
+                .note(entry.getNote())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+
+    private static int quantityOf(Integer quantity) {
+        return quantity != null ? quantity : 0;
+    }
+
+    private static <T> List<List<T>> partition(List<T> rows) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i += BATCH_SIZE) {
+            batches.add(rows.subList(i, Math.min(i + BATCH_SIZE, rows.size())));
+        }
+        return batches;
+    }
+}
@@ -17,6 +17,9 @@ public class TagService {
     @Autowired
     private TagRepository tagRepository;
 
+    @Autowired
+    private ActiveTagIndexService activeTagIndexService;
+
     public List<Tag> getAllTags() {
         return tagRepository.findAllByOrderByDisplayOrderAsc();
     }
@@ -80,6 +83,7 @@ public class TagService {
             }
             
             existingTag.setCode(newCode);
+            activeTagIndexService.rebuildAfterCommit();
         }
 
         if (updatedTag.getDisplayName() != null && !updatedTag.getDisplayName().trim().isEmpty()) {
@@ -103,6 +107,7 @@ public class TagService {
             throw new RuntimeException("Không tìm thấy tag có ID: " + id);
         }
         tagRepository.deleteById(id);
+        activeTagIndexService.rebuildAfterCommit();
     }
 
 }
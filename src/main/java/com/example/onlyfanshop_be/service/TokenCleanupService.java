@@ -0,0 +1,59 @@
+package com.example.onlyfanshop_be.service;
+
+import com.example.onlyfanshop_be.repository.TokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Purges revoked and expired tokens so the tokens table (and its indexes) stays proportional
+ * to live sessions instead of lifetime logins. Deletes run in bounded chunks, each in its own
+ * short transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenCleanupService {
+    private final TokenRepository tokenRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${token.purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${token.purge.max-batches:100}")
+    private int maxBatches;
+
+    // Tokens past expiresAt are kept briefly so clients still get "expired" rather than "not found"
+    @Value("${token.purge.grace-minutes:60}")
+    private long graceMinutes;
+
+    @Scheduled(cron = "${token.purge.cron:0 0/30 * * * *}")
+    public void purgeExpiredTokens() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(graceMinutes));
+        int total = 0;
+        try {
+            for (int i = 0; i < maxBatches; i++) {
+                Integer deleted = transactionTemplate.execute(status ->
+                        tokenRepository.deleteExpiredBatch(cutoff, batchSize));
+                if (deleted == null || deleted == 0) {
+                    break;
+                }
+                total += deleted;
+                if (deleted < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Token purge failed after {} rows: {}", total, e.getMessage(), e);
+        }
+        if (total > 0) {
+            log.info("Purged {} expired/revoked tokens", total);
+        }
+    }
+}
@@ -10,18 +10,21 @@ import com.example.onlyfanshop_be.enums.WarehouseType;
 import com.example.onlyfanshop_be.exception.AppException;
 import com.example.onlyfanshop_be.exception.ErrorCode;
 import com.example.onlyfanshop_be.repository.*;
+import com.example.onlyfanshop_be.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,7 +40,7 @@ public class TransferRequestService implements ITransferRequestService {
     private final InventoryItemRepository inventoryItemRepository;
     private final ProductRepository productRepository;
     private final StoreLocationRepository storeLocationRepository;
-    private final UserRepository userRepository;
+    private final ReferenceBatchLoader referenceBatchLoader;
 
     @Override
     @Transactional
@@ -97,7 +100,7 @@ public class TransferRequestService implements ITransferRequestService {
         log.info("Created transfer request {} for store {} from source warehouse {} with {} items", 
                 savedRequest.getId(), storeId, request.getSourceWarehouseId(), items.size());
         
-        return convertToDTO(savedRequest, store, null, sourceWarehouse);
+        return convertToDTO(savedRequest);
     }
 
     private void validateSourceWarehouseQuantity(CreateTransferRequestItemDTO item, Long sourceWarehouseId) {
@@ -149,7 +152,7 @@ public class TransferRequestService implements ITransferRequestService {
             requests = transferRequestRepository.findAll(pageable);
         }
         
-        return requests.map(this::convertToDTO);
+        return convertPage(requests);
     }
 
     @Override
@@ -162,7 +165,7 @@ public class TransferRequestService implements ITransferRequestService {
             requests = transferRequestRepository.findByStoreIdOrderByCreatedAtDesc(storeId, pageable);
         }
         
-        return requests.map(this::convertToDTO);
+        return convertPage(requests);
     }
 
     @Override
@@ -260,92 +263,93 @@ public class TransferRequestService implements ITransferRequestService {
     }
 
     private Long getCurrentUserId() {
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.getPrincipal() instanceof org.springframework.security.core.userdetails.UserDetails) {
-                org.springframework.security.core.userdetails.UserDetails userDetails = 
-                        (org.springframework.security.core.userdetails.UserDetails) authentication.getPrincipal();
-                String username = userDetails.getUsername();
-                return userRepository.findByEmail(username)
-                        .map(User::getId)
-                        .orElse(null);
-            }
-        } catch (Exception e) {
-            log.warn("Could not get current user ID: {}", e.getMessage());
-        }
-        return null;
+        return AuthenticatedUser.currentUserId();
     }
 
     private TransferRequestDTO convertToDTO(TransferRequest request) {
-        StoreLocation store = null;
-        User processedByUser = null;
-        Warehouse sourceWarehouse = null;
-        
-        if (request.getStoreId() != null) {
-            store = storeLocationRepository.findById(request.getStoreId()).orElse(null);
+        return convertToDTOs(List.of(request)).get(0);
+    }
+
+    private Page<TransferRequestDTO> convertPage(Page<TransferRequest> requests) {
+        return new PageImpl<>(convertToDTOs(requests.getContent()), requests.getPageable(), requests.getTotalElements());
+    }
+
+    /**
+     * Builds DTOs for a page of requests with one query per referenced type (items, stores, users,
+     * warehouses, products, product images) instead of several lookups per row.
+     */
+    private List<TransferRequestDTO> convertToDTOs(List<TransferRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
         }
-        
-        if (request.getProcessedBy() != null) {
-            processedByUser = userRepository.findById(request.getProcessedBy()).orElse(null);
+        Map<Long, List<TransferRequestItem>> itemsByRequest = loadItems(requests);
+
+        ReferenceBatchLoader.Batch refs = referenceBatchLoader.newBatch();
+        for (TransferRequest request : requests) {
+            refs.withStore(request.getStoreId())
+                    .withUser(request.getProcessedBy())
+                    .withWarehouse(request.getSourceWarehouseId());
+            itemsByRequest.getOrDefault(request.getId(), List.of()).forEach(item -> refs.withProduct(item.getProductId()));
         }
-        
-        if (request.getSourceWarehouseId() != null) {
-            sourceWarehouse = warehouseRepository.findById(request.getSourceWarehouseId()).orElse(null);
+        refs.load();
+
+        List<TransferRequestDTO> dtos = new ArrayList<>(requests.size());
+        for (TransferRequest request : requests) {
+            List<TransferRequestItemDTO> itemDTOs = itemsByRequest.getOrDefault(request.getId(), List.of()).stream()
+                    .map(item -> convertItemToDTO(item, refs.product(item.getProductId())))
+                    .collect(Collectors.toList());
+
+            int totalItems = itemDTOs.size();
+            int totalQuantity = itemDTOs.stream()
+                    .mapToInt(TransferRequestItemDTO::getRequestedQuantity)
+                    .sum();
+
+            dtos.add(TransferRequestDTO.builder()
+                    .id(request.getId())
+                    .storeId(request.getStoreId())
+                    .storeName(refs.storeName(request.getStoreId()))
+                    .sourceWarehouseId(request.getSourceWarehouseId())
+                    .sourceWarehouseName(refs.warehouseName(request.getSourceWarehouseId()))
+                    .status(request.getStatus())
+                    .createdAt(request.getCreatedAt())
+                    .processedAt(request.getProcessedAt())
+                    .processedBy(request.getProcessedBy())
+                    .processedByName(refs.userFullName(request.getProcessedBy()))
+                    .rejectReason(request.getRejectReason())
+                    .items(itemDTOs)
+                    .totalItems(totalItems)
+                    .totalQuantity(totalQuantity)
+                    .build());
         }
-        
-        return convertToDTO(request, store, processedByUser, sourceWarehouse);
+        return dtos;
     }
 
-    private TransferRequestDTO convertToDTO(TransferRequest request, StoreLocation store, User processedByUser, Warehouse sourceWarehouse) {
-        List<TransferRequestItem> items = request.getItems();
-        if (items == null) {
-            items = transferRequestItemRepository.findByTransferRequestId(request.getId());
+    // Uses already-initialized item collections; everything else is fetched in one IN query
+    private Map<Long, List<TransferRequestItem>> loadItems(List<TransferRequest> requests) {
+        Map<Long, List<TransferRequestItem>> itemsByRequest = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (TransferRequest request : requests) {
+            if (request.getItems() != null && Hibernate.isInitialized(request.getItems())) {
+                itemsByRequest.put(request.getId(), request.getItems());
+            } else {
+                missing.add(request.getId());
+            }
         }
-
-        List<TransferRequestItemDTO> itemDTOs = items.stream()
-                .map(this::convertItemToDTO)
-                .collect(Collectors.toList());
-
-        int totalItems = itemDTOs.size();
-        int totalQuantity = itemDTOs.stream()
-                .mapToInt(TransferRequestItemDTO::getRequestedQuantity)
-                .sum();
-        
-        return TransferRequestDTO.builder()
-                .id(request.getId())
-                .storeId(request.getStoreId())
-                .storeName(store != null ? store.getName() : null)
-                .sourceWarehouseId(request.getSourceWarehouseId())
-                .sourceWarehouseName(sourceWarehouse != null ? sourceWarehouse.getName() : null)
-                .status(request.getStatus())
-                .createdAt(request.getCreatedAt())
-                .processedAt(request.getProcessedAt())
-                .processedBy(request.getProcessedBy())
-                .processedByName(processedByUser != null ? processedByUser.getFullname() : null)
-                .rejectReason(request.getRejectReason())
-                .items(itemDTOs)
-                .totalItems(totalItems)
-                .totalQuantity(totalQuantity)
-                .build();
-    }
-
-    private TransferRequestItemDTO convertItemToDTO(TransferRequestItem item) {
-        Product product = null;
-        String productImageUrl = null;
-        
-        if (item.getProductId() != null) {
-            product = productRepository.findById(item.getProductId().intValue()).orElse(null);
-            if (product != null) {
-                productImageUrl = product.getImageURL();
+        if (!missing.isEmpty()) {
+            for (TransferRequestItem item : transferRequestItemRepository.findByTransferRequestIdIn(missing)) {
+                itemsByRequest.computeIfAbsent(item.getTransferRequestId(), k -> new ArrayList<>()).add(item);
             }
         }
-        
+        return itemsByRequest;
+    }
+
+    private TransferRequestItemDTO convertItemToDTO(TransferRequestItem item, ReferenceBatchLoader.ProductRef product) {
         return TransferRequestItemDTO.builder()
                 .id(item.getId())
                 .productId(item.getProductId())
-                .productName(product != null ? product.getName() : null)
-                .productSku(product != null ? product.getSku() : null)
-                .productImageUrl(productImageUrl)
+                .productName(product != null ? product.name() : null)
+                .productSku(product != null ? product.sku() : null)
+                .productImageUrl(product != null ? product.mainImageUrl() : null)
                 .requestedQuantity(item.getRequestedQuantity())
                 .fulfilledQuantity(item.getFulfilledQuantity())
                 .shortageQuantity(item.getShortageQuantity())
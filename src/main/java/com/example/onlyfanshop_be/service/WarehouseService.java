@@ -3,20 +3,20 @@ package com.example.onlyfanshop_be.service;
 import com.example.onlyfanshop_be.dto.InventoryItemDTO;
 import com.example.onlyfanshop_be.dto.WarehouseDTO;
 import com.example.onlyfanshop_be.entity.InventoryItem;
-import com.example.onlyfanshop_be.entity.InventoryLog;
 import com.example.onlyfanshop_be.entity.Product;
+import com.example.onlyfanshop_be.entity.StockLedgerEntry;
 import com.example.onlyfanshop_be.entity.Warehouse;
+import com.example.onlyfanshop_be.enums.StockLocationType;
+import com.example.onlyfanshop_be.enums.StockMovementType;
 import com.example.onlyfanshop_be.enums.WarehouseType;
 import com.example.onlyfanshop_be.exception.AppException;
 import com.example.onlyfanshop_be.exception.ErrorCode;
 import com.example.onlyfanshop_be.repository.InventoryItemRepository;
-import com.example.onlyfanshop_be.repository.InventoryLogRepository;
 import com.example.onlyfanshop_be.repository.ProductRepository;
 import com.example.onlyfanshop_be.repository.WarehouseRepository;
+import com.example.onlyfanshop_be.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,8 +30,8 @@ public class WarehouseService implements IWarehouseService {
     
     private final WarehouseRepository warehouseRepository;
     private final InventoryItemRepository inventoryItemRepository;
-    private final InventoryLogRepository inventoryLogRepository;
     private final ProductRepository productRepository;
+    private final StockLedgerService stockLedgerService;
 
     @Override
     public WarehouseDTO getStoreWarehouse(Integer storeId) {
@@ -71,7 +71,7 @@ public class WarehouseService implements IWarehouseService {
         Product product = findProductById(productId);
 
         InventoryItem inventoryItem = inventoryItemRepository
-                .findByWarehouseIdAndProductId(storeWarehouse.getId(), productId)
+                .findForUpdate(storeWarehouse.getId(), productId)
                 .orElseGet(() -> createNewInventoryItem(storeWarehouse.getId(), productId));
 
         Integer previousQuantity = inventoryItem.getQuantity();
@@ -79,7 +79,7 @@ public class WarehouseService implements IWarehouseService {
         inventoryItem.setQuantity(quantity);
         InventoryItem savedItem = inventoryItemRepository.save(inventoryItem);
 
-        createInventoryLog(storeWarehouse.getId(), productId, previousQuantity, quantity, reason);
+        recordMovement(storeWarehouse.getId(), productId, StockMovementType.ADJUSTMENT, previousQuantity, quantity, reason);
         
         log.info("Updated Store Warehouse inventory for store {} product {}: {} -> {}", 
                 storeId, productId, previousQuantity, quantity);
@@ -122,7 +122,7 @@ public class WarehouseService implements IWarehouseService {
         InventoryItem savedItem = inventoryItemRepository.save(inventoryItem);
 
         if (initialQuantity > 0) {
-            createInventoryLog(storeWarehouse.getId(), productId, 0, initialQuantity, "Initial stock added");
+            recordMovement(storeWarehouse.getId(), productId, StockMovementType.IMPORT, 0, initialQuantity, "Initial stock added");
         }
         
         log.info("Added product {} to Store Warehouse {} (Store ID: {}) with quantity {}", 
@@ -170,37 +170,24 @@ public class WarehouseService implements IWarehouseService {
         return inventoryItemRepository.save(item);
     }
 
-    private void createInventoryLog(Long warehouseId, Long productId, 
-                                    Integer previousQuantity, Integer newQuantity, String reason) {
-        Long userId = getCurrentUserId();
-        
-        InventoryLog inventoryLog = InventoryLog.builder()
-                .warehouseId(warehouseId)
+    private void recordMovement(Long warehouseId, Long productId, StockMovementType movement,
+                                Integer previousQuantity, Integer newQuantity, String reason) {
+        stockLedgerService.append(StockLedgerEntry.builder()
+                .locationType(StockLocationType.WAREHOUSE)
+                .locationId(warehouseId)
                 .productId(productId)
-                .previousQuantity(previousQuantity)
-                .newQuantity(newQuantity)
-                .reason(reason != null ? reason : "Manual update")
-                .userId(userId)
-                .build();
+                .movementType(movement)
+                .delta(newQuantity - previousQuantity)
+                .performedBy(getCurrentUserId())
+                .note(reason != null ? reason : "Manual update")
+                .build(), previousQuantity);
         
-        inventoryLogRepository.save(inventoryLog);
-        
-        log.debug("Created inventory log: warehouse={}, product={}, {} -> {}, reason={}", 
+        log.debug("Recorded stock movement: warehouse={}, product={}, {} -> {}, reason={}", 
                 warehouseId, productId, previousQuantity, newQuantity, reason);
     }
 
     private Long getCurrentUserId() {
-        try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (authentication != null && authentication.getPrincipal() instanceof org.springframework.security.core.userdetails.UserDetails) {
-                org.springframework.security.core.userdetails.UserDetails userDetails = 
-                        (org.springframework.security.core.userdetails.UserDetails) authentication.getPrincipal();
-                return null;
-            }
-        } catch (Exception e) {
-            log.warn("Could not get current user ID: {}", e.getMessage());
-        }
-        return null;
+        return AuthenticatedUser.currentUserId();
     }
 
     private WarehouseDTO convertToWarehouseDTO(Warehouse warehouse) {
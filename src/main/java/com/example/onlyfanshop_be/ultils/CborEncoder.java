@@ -0,0 +1,166 @@
+package com.example.onlyfanshop_be.ultils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Write-only CBOR (RFC 8949) encoder on top of the application ObjectMapper. The value is
+ * serialized by Jackson into a TokenBuffer, so every annotation, module and date setting applies
+ * exactly as for JSON, and the token stream is then written as CBOR: objects and arrays as
+ * indefinite-length maps/arrays, BigDecimal as a decimal fraction (tag 4), BigInteger as a
+ * bignum (tags 2/3), byte[] as a byte string.
+ */
+public final class CborEncoder {
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_BYTES = 2;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_TAG = 6;
+
+    private static final int INDEFINITE_MAP = 0xBF;
+    private static final int INDEFINITE_ARRAY = 0x9F;
+    private static final int BREAK = 0xFF;
+    private static final int FALSE = 0xF4;
+    private static final int TRUE = 0xF5;
+    private static final int NULL = 0xF6;
+    private static final int FLOAT32 = 0xFA;
+    private static final int FLOAT64 = 0xFB;
+
+    private CborEncoder() {
+    }
+
+    public static byte[] encode(ObjectMapper objectMapper, Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        write(objectMapper, value, out);
+        return out.toByteArray();
+    }
+
+    public static void write(ObjectMapper objectMapper, Object value, OutputStream out) throws IOException {
+        TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+        objectMapper.writeValue(buffer, value);
+        try (JsonParser parser = buffer.asParser()) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                writeToken(parser, token, out);
+            }
+        }
+    }
+
+    private static void writeToken(JsonParser parser, JsonToken token, OutputStream out) throws IOException {
+        switch (token) {
+            case START_OBJECT -> out.write(INDEFINITE_MAP);
+            case START_ARRAY -> out.write(INDEFINITE_ARRAY);
+            case END_OBJECT, END_ARRAY -> out.write(BREAK);
+            case FIELD_NAME -> writeText(parser.currentName(), out);
+            case VALUE_STRING -> writeText(parser.getText(), out);
+            case VALUE_NUMBER_INT -> {
+                if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+                    writeBigInteger(parser.getBigIntegerValue(), out);
+                } else {
+                    writeLong(parser.getLongValue(), out);
+                }
+            }
+            case VALUE_NUMBER_FLOAT -> {
+                switch (parser.getNumberType()) {
+                    case BIG_DECIMAL -> writeBigDecimal(parser.getDecimalValue(), out);
+                    case FLOAT -> {
+                        out.write(FLOAT32);
+                        writeBigEndian(Float.floatToIntBits(parser.getFloatValue()) & 0xFFFFFFFFL, 4, out);
+                    }
+                    default -> {
+                        out.write(FLOAT64);
+                        writeBigEndian(Double.doubleToLongBits(parser.getDoubleValue()), 8, out);
+                    }
+                }
+            }
+            case VALUE_TRUE -> out.write(TRUE);
+            case VALUE_FALSE -> out.write(FALSE);
+            case VALUE_NULL -> out.write(NULL);
+            case VALUE_EMBEDDED_OBJECT -> {
+                Object embedded = parser.getEmbeddedObject();
+                if (embedded instanceof byte[] bytes) {
+                    writeHead(MAJOR_BYTES, bytes.length, out);
+                    out.write(bytes);
+                } else if (embedded == null) {
+                    out.write(NULL);
+                } else {
+                    writeText(embedded.toString(), out);
+                }
+            }
+            default -> throw new IOException("Unsupported token for CBOR: " + token);
+        }
+    }
+
+    private static void writeText(String text, OutputStream out) throws IOException {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        writeHead(MAJOR_TEXT, utf8.length, out);
+        out.write(utf8);
+    }
+
+    private static void writeLong(long value, OutputStream out) throws IOException {
+        if (value >= 0) {
+            writeHead(MAJOR_UNSIGNED, value, out);
+        } else {
+            // -1 - n, which never overflows for a negative long
+            writeHead(MAJOR_NEGATIVE, -1 - value, out);
+        }
+    }
+
+    private static void writeBigInteger(BigInteger value, OutputStream out) throws IOException {
+        if (value.bitLength() < 64) {
+            writeLong(value.longValue(), out);
+            return;
+        }
+        boolean negative = value.signum() < 0;
+        writeHead(MAJOR_TAG, negative ? 3 : 2, out);
+        byte[] magnitude = (negative ? value.negate().subtract(BigInteger.ONE) : value).toByteArray();
+        int offset = magnitude[0] == 0 ? 1 : 0;
+        writeHead(MAJOR_BYTES, magnitude.length - offset, out);
+        out.write(magnitude, offset, magnitude.length - offset);
+    }
+
+    // Decimal fraction: tag 4 [exponent, mantissa]
+    private static void writeBigDecimal(BigDecimal value, OutputStream out) throws IOException {
+        writeHead(MAJOR_TAG, 4, out);
+        writeHead(MAJOR_ARRAY, 2, out);
+        writeLong(-(long) value.scale(), out);
+        writeBigInteger(value.unscaledValue(), out);
+    }
+
+    // Major type in the top 3 bits, argument in the shortest of 0-23 inline, 1, 2, 4 or 8 bytes;
+    // the argument is treated as unsigned
+    private static void writeHead(int majorType, long argument, OutputStream out) throws IOException {
+        int major = majorType << 5;
+        if (argument >= 0 && argument < 24) {
+            out.write(major | (int) argument);
+        } else if (argument >= 0 && argument <= 0xFFL) {
+            out.write(major | 24);
+            out.write((int) argument);
+        } else if (argument >= 0 && argument <= 0xFFFFL) {
+            out.write(major | 25);
+            writeBigEndian(argument, 2, out);
+        } else if (argument >= 0 && argument <= 0xFFFFFFFFL) {
+            out.write(major | 26);
+            writeBigEndian(argument, 4, out);
+        } else {
+            out.write(major | 27);
+            writeBigEndian(argument, 8, out);
+        }
+    }
+
+    private static void writeBigEndian(long value, int bytes, OutputStream out) throws IOException {
+        for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift) & 0xFF);
+        }
+    }
+}
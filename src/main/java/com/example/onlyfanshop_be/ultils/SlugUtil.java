@@ -0,0 +1,43 @@
+package com.example.onlyfanshop_be.ultils;
+
+import java.util.regex.Pattern;
+
+/**
+ * URL slug folding shared by products and categories: lowercase, Vietnamese diacritics folded to
+ * ASCII, anything else non-alphanumeric dropped, whitespace runs turned into single hyphens.
+ * The patterns are compiled once instead of on every String.replaceAll call.
+ */
+public final class SlugUtil {
+    private static final Pattern A = Pattern.compile("[àáạảãâầấậẩẫăằắặẳẵ]");
+    private static final Pattern E = Pattern.compile("[èéẹẻẽêềếệểễ]");
+    private static final Pattern I = Pattern.compile("[ìíịỉĩ]");
+    private static final Pattern O = Pattern.compile("[òóọỏõôồốộổỗơờớợởỡ]");
+    private static final Pattern U = Pattern.compile("[ùúụủũưừứựửữ]");
+    private static final Pattern Y = Pattern.compile("[ỳýỵỷỹ]");
+    private static final Pattern D = Pattern.compile("[đ]");
+    private static final Pattern SPECIAL = Pattern.compile("[^a-z0-9\\s-]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern HYPHENS = Pattern.compile("-+");
+    private static final Pattern EDGE_HYPHENS = Pattern.compile("^-|-$");
+
+    private SlugUtil() {
+    }
+
+    /**
+     * Slug base of {@code name}, without any uniqueness suffix; may be empty.
+     */
+    public static String fold(String name) {
+        String slug = name.toLowerCase().trim();
+        slug = A.matcher(slug).replaceAll("a");
+        slug = E.matcher(slug).replaceAll("e");
+        slug = I.matcher(slug).replaceAll("i");
+        slug = O.matcher(slug).replaceAll("o");
+        slug = U.matcher(slug).replaceAll("u");
+        slug = Y.matcher(slug).replaceAll("y");
+        slug = D.matcher(slug).replaceAll("d");
+        slug = SPECIAL.matcher(slug).replaceAll("");
+        slug = WHITESPACE.matcher(slug).replaceAll("-");
+        slug = HYPHENS.matcher(slug).replaceAll("-");
+        return EDGE_HYPHENS.matcher(slug).replaceAll("");
+    }
+}
@@ -0,0 +1,4 @@
+-- Tokens are now keyed by a CHAR(64) SHA-256 digest instead of the raw JWT (VARCHAR(512)).
+-- The session table is dropped and recreated by Hibernate with the new layout;
+-- active sessions are invalidated once and users sign in again.
+DROP TABLE IF EXISTS tokens;